@@ -0,0 +1,36 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * 벤치마크용 임시 디렉터리 관리 (실제 데이터 파일을 건드리지 않도록)
+ */
+final class BenchmarkFiles {
+
+    private BenchmarkFiles() {
+    }
+
+    static Path createTempDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix);
+    }
+
+    static void deleteRecursively(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    System.err.println("임시 파일 삭제 중 오류 발생: " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("임시 디렉터리 삭제 중 오류 발생: " + e.getMessage());
+        }
+    }
+}
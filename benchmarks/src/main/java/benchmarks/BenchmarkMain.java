@@ -0,0 +1,59 @@
+package benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 벤치마크 실행 진입점
+ * JMH 명령행 옵션을 그대로 받고, 결과 파일을 지정하지 않으면
+ * results/jmh-<커밋 해시>.json 으로 저장해 커밋 간 결과를 비교할 수 있게 한다.
+ * 예) java -jar target/benchmarks.jar PricingBenchmark -p strategy=student
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if (!commandLine.getResult().hasValue()) {
+            Path results = Paths.get("results");
+            Files.createDirectories(results);
+            options.result(results.resolve("jmh-" + revision() + ".json").toString());
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+
+        new Runner(options.build()).run();
+    }
+
+    // 현재 커밋 해시 (git이 없으면 실행 시각)
+    private static String revision() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD")
+                    .redirectErrorStream(true).start();
+            String hash;
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                hash = br.readLine();
+            }
+            if (process.waitFor() == 0 && hash != null && hash.matches("[0-9a-f]+")) {
+                return hash;
+            }
+        } catch (Exception e) {
+            // git이 없는 환경에서는 시각으로 대신함
+        }
+        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import database.BicycleStore;
+import database.CSVDatabase.BicycleData;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 자전거 저장 / 조회 (CSVDatabase.saveBicycle / getBicycle이 위임하는 BicycleStore)
+ * 실제 bicycles.* 파일 대신 임시 디렉터리의 저장소를 행 수별로 만들어 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BicycleStoreBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private Path directory;
+    private BicycleStore store;
+    private String[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = BenchmarkFiles.createTempDirectory("bicycle-store");
+        store = new BicycleStore(directory.resolve("bicycles.col").toString(),
+                directory.resolve("bicycles.csv").toString());
+        ids = new String[rows];
+        String[] locations = {"죽전동", "보정동", "구미동", "성복동", "상현동"};
+        for (int i = 0; i < rows; i++) {
+            ids[i] = String.format("REG%06d", i);
+            store.put(new BicycleData(ids[i], "일반 자전거", locations[i % locations.length], true, false, ""));
+        }
+        store.checkpoint();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.checkpoint();
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    private String nextId() {
+        String id = ids[next];
+        next = next + 1 == ids.length ? 0 : next + 1;
+        return id;
+    }
+
+    @Benchmark
+    public BicycleData getBicycle() {
+        return store.get(nextId());
+    }
+
+    @Benchmark
+    public void saveBicycle() {
+        // 대여 처리와 같은 형태의 갱신 (로그 추가 + fsync)
+        String id = nextId();
+        store.put(new BicycleData(id, "일반 자전거", "죽전동", false, true, "user" + id));
+    }
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import database.CSVDatabase;
+import database.RepairDatabase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV 레코드 변환 (한 행)
+ * - split*: 이전 방식 (String.split + Boolean.parseBoolean / Double.parseDouble, 기존 fromCSV와 같은 객체 생성)
+ * - tokenizer*: 현재 CSVTokenizer 기반 fromCSV
+ * 미리 만든 행을 차례로 돌아가며 변환한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CSVParseBenchmark {
+    private static final int ROWS = 10_000;
+
+    private final String[] rentalLines = new String[ROWS];
+    private final String[] bicycleLines = new String[ROWS];
+    private final String[] userLines = new String[ROWS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < ROWS; i++) {
+            rentalLines[i] = String.format("RNT%06d,user%05d,REG%03d,2025-03-%02dT%02d:%02d:%02d.%09d,2025-03-%02dT%02d:%02d:%02d,죽전동,보정동,%s,%s,%d,PAID",
+                    i, random.nextInt(50_000), random.nextInt(500), 1 + random.nextInt(28), random.nextInt(24),
+                    random.nextInt(60), random.nextInt(60), random.nextInt(1_000_000_000), 1 + random.nextInt(28),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                    random.nextInt(180) + ".0", String.valueOf(random.nextInt(10_000) / 100.0), random.nextInt(10_000));
+            bicycleLines[i] = String.format("REG%05d,일반 자전거,구미동,%b,%b,user%05d", i, random.nextBoolean(), random.nextBoolean(), i);
+            userLines[i] = String.format("user%05d,pw,이름,student,010-0000-0000,user%d@example.com,false,", i, i);
+        }
+    }
+
+    private int nextRow() {
+        int row = next;
+        next = row + 1 == ROWS ? 0 : row + 1;
+        return row;
+    }
+
+    @Benchmark
+    public RepairDatabase.RentalHistory splitRental() {
+        String[] parts = rentalLines[nextRow()].split(",", 11);
+        RepairDatabase.RentalHistory history = new RepairDatabase.RentalHistory(parts[0], parts[1], parts[2], parts[5]);
+        history.startTime = parts[3];
+        history.endTime = parts[4];
+        history.endLocation = parts[6];
+        history.usageTimeMinutes = Double.parseDouble(parts[7]);
+        history.distanceKm = Double.parseDouble(parts[8]);
+        history.price = parts[9];
+        history.paymentStatus = parts[10];
+        return history;
+    }
+
+    @Benchmark
+    public RepairDatabase.RentalHistory tokenizerRental() {
+        return RepairDatabase.RentalHistory.fromCSV(rentalLines[nextRow()]);
+    }
+
+    @Benchmark
+    public CSVDatabase.BicycleData splitBicycle() {
+        String[] parts = bicycleLines[nextRow()].split(",");
+        return new CSVDatabase.BicycleData(parts[0], parts[1], parts[2],
+                Boolean.parseBoolean(parts[3]), Boolean.parseBoolean(parts[4]), parts[5]);
+    }
+
+    @Benchmark
+    public CSVDatabase.BicycleData tokenizerBicycle() {
+        return CSVDatabase.BicycleData.fromCSV(bicycleLines[nextRow()]);
+    }
+
+    @Benchmark
+    public CSVDatabase.User splitUser() {
+        String[] parts = userLines[nextRow()].split(",", 8);
+        boolean isAdmin = parts.length > 6 && Boolean.parseBoolean(parts[6]);
+        String subscriptionStartDate = parts.length > 7 ? parts[7] : "";
+        return new CSVDatabase.User(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5], isAdmin, subscriptionStartDate);
+    }
+
+    @Benchmark
+    public CSVDatabase.User tokenizerUser() {
+        return CSVDatabase.User.fromCSV(userLines[nextRow()]);
+    }
+}
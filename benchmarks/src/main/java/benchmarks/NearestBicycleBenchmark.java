@@ -0,0 +1,60 @@
+package benchmarks;
+
+import database.CSVDatabase.BicycleData;
+import location.BicycleGeoIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 가까운 대여 가능 자전거 검색 / 위치 갱신 (BicycleGeoIndex)
+ * 저장소와 연결하지 않은 색인에 용인시 일대(약 28km x 22km)에 흩어진 자전거를 넣어 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearestBicycleBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int bicycles;
+
+    @Param({"1", "10"})
+    public int count;
+
+    private BicycleGeoIndex index;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new BicycleGeoIndex();
+        for (int i = 0; i < bicycles; i++) {
+            String id = String.format("BIKE%06d", i);
+            index.bicycleChanged(null, new BicycleData(id, i % 3 == 0 ? "전기 자전거" : "일반 자전거",
+                    "죽전동", i % 4 != 0, false, ""));
+            index.updatePosition(id, randomLatitude(), randomLongitude());
+        }
+    }
+
+    private double randomLatitude() {
+        return 37.2 + random.nextDouble() * 0.25;
+    }
+
+    private double randomLongitude() {
+        return 127.0 + random.nextDouble() * 0.25;
+    }
+
+    @Benchmark
+    public List<BicycleGeoIndex.NearbyBicycle> findNearestAvailable() {
+        return index.findNearestAvailable(randomLatitude(), randomLongitude(), count);
+    }
+
+    @Benchmark
+    public void updatePosition() {
+        index.updatePosition(String.format("BIKE%06d", random.nextInt(bicycles)), randomLatitude(), randomLongitude());
+    }
+}
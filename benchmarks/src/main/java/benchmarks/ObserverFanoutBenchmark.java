@@ -0,0 +1,66 @@
+package benchmarks;
+
+import observer.BicycleEvent;
+import observer.BicycleStatusSubject;
+import observer.Observer;
+import observer.SubscriptionRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BicycleStatusSubject 알림 전파 비용 (구독자 수별)
+ * 측정마다 별도 SubscriptionRegistry를 써서 다른 벤치마크의 구독이 섞이지 않게 한다.
+ * 구독자는 받은 값을 Blackhole로 넘기기만 하므로 전파 자체의 비용을 측정한다.
+ * 콘솔 출력은 측정 중 버려지는 스트림으로 돌린다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObserverFanoutBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int observers;
+
+    private BicycleStatusSubject subject;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        subject = new BicycleStatusSubject("REG001", "죽전동", new SubscriptionRegistry());
+        for (int i = 0; i < observers; i++) {
+            subject.addObserver(new BlackholeObserver(blackhole));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void notifyObservers() {
+        subject.bicycleRented("user001");
+    }
+
+    private static class BlackholeObserver implements Observer {
+        private final Blackhole blackhole;
+
+        BlackholeObserver(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void update(BicycleEvent event) {
+            blackhole.consume(event);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import strategy.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모든 요금 전략의 calculatePrice (원래 전략 / 요금 엔진 비교)
+ * - 요금 엔진은 파일과 관계없는 기본 규칙, 그리고 시간대 배율 / 자전거 추가 요금이 있는 규칙으로 측정
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    @Param({"regular", "student", "premium", "regular_monthly", "electric_monthly"})
+    public String strategy;
+
+    // 무료 구간 안 / 밖이 섞이도록 여러 사용 시간으로 측정
+    @Param({"12.0", "47.5", "95.3"})
+    public double usageTime;
+
+    private PricingStrategy pricingStrategy;
+    private PricingEngine pricingEngine;
+    private PricingEngine ruledEngine;
+    private double distance;
+
+    @Setup
+    public void setUp() {
+        switch (strategy) {
+            case "student": pricingStrategy = new StudentPricingStrategy(); break;
+            case "premium": pricingStrategy = new PremiumUserPricingStrategy(); break;
+            case "regular_monthly": pricingStrategy = new RegularMonthlyPricingStrategy(); break;
+            case "electric_monthly": pricingStrategy = new ElectricMonthlyPricingStrategy(); break;
+            default: pricingStrategy = new RegularUserPricingStrategy();
+        }
+        pricingEngine = PricingRules.defaults().engineFor(strategy);
+        ruledEngine = PricingRules.parse(Arrays.asList(
+                "plan,regular,일반 사용자 요금제,2000,100,0,ride,0,",
+                "plan,student,학생 할인 요금제,1000,50,0,ride,0,",
+                "plan,premium,프리미엄 사용자 요금제,0,150,60,ride,20000,",
+                "plan,regular_monthly,일반 자전거 월정액,0,100,60,day,15000,",
+                "plan,electric_monthly,전기 자전거 월정액,0,150,45,day,25000,",
+                "time,*,7,9,1.2",
+                "bike,*,전기 자전거,500")).engineFor(strategy);
+        distance = usageTime / 4;
+    }
+
+    @Benchmark
+    public BigDecimal calculatePrice() {
+        return pricingStrategy.calculatePrice(usageTime, distance);
+    }
+
+    @Benchmark
+    public BigDecimal engineCalculatePrice() {
+        return pricingEngine.calculatePrice(usageTime, distance);
+    }
+
+    @Benchmark
+    public BigDecimal engineCalculatePriceWithRules() {
+        return ruledEngine.calculatePrice(usageTime, distance, 8, "전기 자전거");
+    }
+}
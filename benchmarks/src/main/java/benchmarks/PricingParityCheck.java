@@ -0,0 +1,223 @@
+package benchmarks;
+
+import strategy.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 요금 엔진 결과 일치 검사 (assert 기반, 하나라도 다르면 종료 코드 1)
+ * - 값과 자릿수(scale)가 모두 같아야 하며, 기준 계산이 예외를 던지면 엔진도 같은 예외를 던져야 함
+ * - 기본 규칙(DEFAULT_RULES)의 모든 요금제 ↔ 기존 요금 전략: 표 경계(0, 무료 시간 ±0.1, 표 끝 ±0.1),
+ *   0.1 단위가 아닌 값, 음수, NaN, 무한대, 아주 큰 값 (기존 전략이 없는 요금제가 있어도 실패)
+ * - 정수 계산 / 미리 만든 표 (PricingEngine의 빠른 계산)가 BigDecimal 계산과 어긋나지 않는지 확인:
+ *   0.1분 단위 사용 시간 전체(0 ~ 표 범위 너머)와 무작위 double (기본 500만 개)
+ *   · 기본 규칙의 요금제 ↔ 기존 요금 전략
+ *   · 시간대 배율 / 자전거 추가 요금 / 1회 상한이 있는 규칙 ↔ 같은 순서의 BigDecimal 계산
+ * 실행: java -cp target/benchmarks.jar benchmarks.PricingParityCheck [무작위 값 개수]
+ */
+public class PricingParityCheck {
+    private static final int DEFAULT_RANDOM_VALUES = 5_000_000;
+    // 0.1분 단위 검사 범위 (무료 시간 표 TABLE_MINUTES = 240분을 넘어 정수 계산 구간까지)
+    private static final int GRID_TENTHS = 10_000;
+    private static final double TABLE_MINUTES = 240; // PricingEngine.TABLE_MINUTES
+    private static final int MAX_REPORTED = 20;
+
+    // 배율 / 추가 요금 / 상한이 있는 규칙 (빠른 계산에서 자릿수가 늘어나는 경우)
+    private static final List<String> RULED = Arrays.asList(
+            "plan,regular,일반 사용자 요금제,2000,100,0,ride,0,",
+            "plan,premium,프리미엄 사용자 요금제,0,150,60,ride,20000,",
+            "plan,capped,상한 요금제,500,100,10,ride,0,3000",
+            "time,*,7,9,1.2",
+            "time,premium,22,6,0.875",
+            "bike,*,전기 자전거,500");
+    private static final String ELECTRIC = "전기 자전거";
+
+    private long checked;
+    private long mismatches;
+
+    public static void main(String[] args) {
+        int randomValues = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RANDOM_VALUES;
+        PricingParityCheck check = new PricingParityCheck();
+        check.checkDefaultRules();
+        check.checkFastPath(randomValues);
+        check.finish();
+    }
+
+    // ===== 기본 규칙 =====
+
+    private void checkDefaultRules() {
+        Map<String, PricingStrategy> strategies = legacyStrategies();
+        for (PricingEngine engine : PricingRules.defaults().engines()) {
+            String userType = engine.getUserType();
+            PricingStrategy legacy = strategies.get(userType);
+            checked++;
+            if (legacy == null) {
+                mismatches++;
+                System.out.println("불일치 [" + userType + "] 기존 요금 전략이 없는 요금제");
+                continue;
+            }
+            for (double usageTime : boundaryUsageTimes(engine.getFreeMinutes())) {
+                compare(userType, usageTime, () -> legacy.calculatePrice(usageTime, 0),
+                        () -> engine.calculatePrice(usageTime, 0));
+                compare(userType + " 12시", usageTime, () -> legacy.calculatePrice(usageTime, 0),
+                        () -> engine.calculatePrice(usageTime, 0, 12, null));
+            }
+        }
+    }
+
+    private static double[] boundaryUsageTimes(double freeMinutes) {
+        return new double[] {
+                0, -0.0, Double.MIN_VALUE, 0.1, 0.05,
+                freeMinutes - 0.1, freeMinutes, freeMinutes + 0.1,
+                Math.nextDown(freeMinutes), Math.nextUp(freeMinutes),
+                TABLE_MINUTES - 0.1, TABLE_MINUTES, TABLE_MINUTES + 0.1,
+                Math.nextDown(TABLE_MINUTES), Math.nextUp(TABLE_MINUTES),
+                0.3, 1.0 / 3, 2.5e-7, 59.99, 60.01, 123.456, 239.95, 240.05, 1234.5678,
+                -0.1, -1, -60, -240.1, -1e9, -Double.MAX_VALUE,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                1e9, 1e15 + 0.1, 9.2e17, 1e18, 1e300, Double.MAX_VALUE
+        };
+    }
+
+    // ===== 빠른 계산 =====
+
+    private void checkFastPath(int randomValues) {
+        Map<String, PricingStrategy> strategies = legacyStrategies();
+        PricingRules defaults = PricingRules.defaults();
+        PricingRules ruled = PricingRules.parse(RULED);
+        double[] values = randomUsageTimes(randomValues, new Random(42));
+
+        for (Map.Entry<String, PricingStrategy> entry : strategies.entrySet()) {
+            PricingStrategy legacy = entry.getValue();
+            PricingEngine engine = defaults.engineFor(entry.getKey());
+            for (int tenths = 0; tenths <= GRID_TENTHS; tenths++) {
+                double usageTime = tenths / 10.0;
+                compare(entry.getKey(), usageTime, () -> legacy.calculatePrice(usageTime, 0),
+                        () -> engine.calculatePrice(usageTime, 0));
+            }
+            for (double usageTime : values) {
+                compare(entry.getKey(), usageTime, () -> legacy.calculatePrice(usageTime, 0),
+                        () -> engine.calculatePrice(usageTime, 0));
+            }
+        }
+
+        // 배율 / 추가 요금 / 상한 조합 (시작 시각: 8시 = 배율 1.2, 23시 = premium 0.875, 12시 = 배율 없음)
+        int[] hours = {8, 12, 23, -1};
+        String[] bikes = {ELECTRIC, "일반 자전거", null};
+        for (PricingEngine engine : ruled.engines()) {
+            for (int hour : hours) {
+                for (String bike : bikes) {
+                    String label = engine.getUserType() + " " + hour + "시 " + bike;
+                    BigDecimal multiplier = multiplierOf(engine.getUserType(), hour);
+                    long surcharge = ELECTRIC.equals(bike) ? 500 : 0;
+                    for (int tenths = 0; tenths <= GRID_TENTHS; tenths++) {
+                        double usageTime = tenths / 10.0;
+                        compare(label, usageTime, () -> reference(engine, usageTime, multiplier, surcharge),
+                                () -> engine.calculatePrice(usageTime, 0, hour, bike));
+                    }
+                    for (int i = 0; i < values.length; i += 16) {
+                        double usageTime = values[i];
+                        compare(label, usageTime, () -> reference(engine, usageTime, multiplier, surcharge),
+                                () -> engine.calculatePrice(usageTime, 0, hour, bike));
+                    }
+                }
+            }
+        }
+    }
+
+    private static BigDecimal multiplierOf(String userType, int hour) {
+        if (hour >= 7 && hour < 9) {
+            return new BigDecimal("1.2");
+        }
+        if (userType.equals("premium") && hour >= 0 && (hour >= 22 || hour < 6)) {
+            return new BigDecimal("0.875");
+        }
+        return null;
+    }
+
+    // 규칙 요금의 BigDecimal 계산 (기존 요금 전략과 같은 순서: 무료 시간 차감 → 분당 요금 → 배율 → 기본 요금 → 추가 요금 → 상한)
+    private static BigDecimal reference(PricingEngine engine, double usageTime, BigDecimal multiplier, long surcharge) {
+        double freeMinutes = engine.getFreeMinutes();
+        if (freeMinutes > 0 && usageTime <= freeMinutes) {
+            return BigDecimal.ZERO;
+        }
+        double billable = freeMinutes > 0 ? usageTime - freeMinutes : usageTime;
+        BigDecimal price = BigDecimal.valueOf(billable).multiply(BigDecimal.valueOf(engine.getWonPerMinute()));
+        if (multiplier != null) {
+            price = price.multiply(multiplier);
+        }
+        if (engine.getBaseWon() != 0) {
+            price = BigDecimal.valueOf(engine.getBaseWon()).add(price);
+        }
+        if (surcharge != 0) {
+            price = price.add(BigDecimal.valueOf(surcharge));
+        }
+        BigDecimal cap = engine.getCap();
+        return cap != null && price.compareTo(cap) > 0 ? cap : price;
+    }
+
+    // 0.1 단위 값, 0.01 단위 값, 임의 double, 음수, 아주 큰 값을 섞음
+    private static double[] randomUsageTimes(int count, Random random) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            switch (i % 6) {
+                case 0: values[i] = random.nextInt(100_000) / 10.0; break;
+                case 1: values[i] = random.nextInt(100_000) / 100.0; break;
+                case 2: values[i] = random.nextDouble() * 600; break;
+                case 3: values[i] = -random.nextInt(10_000) / 10.0; break;
+                case 4: values[i] = random.nextInt(2_000_000_000) / 10.0; break;
+                default: values[i] = Double.longBitsToDouble(random.nextLong() & 0x7FEF_FFFF_FFFF_FFFFL);
+            }
+        }
+        return values;
+    }
+
+    // ===== 공통 =====
+
+    static Map<String, PricingStrategy> legacyStrategies() {
+        Map<String, PricingStrategy> strategies = new LinkedHashMap<>();
+        strategies.put("regular", new RegularUserPricingStrategy());
+        strategies.put("student", new StudentPricingStrategy());
+        strategies.put("premium", new PremiumUserPricingStrategy());
+        strategies.put("regular_monthly", new RegularMonthlyPricingStrategy());
+        strategies.put("electric_monthly", new ElectricMonthlyPricingStrategy());
+        return strategies;
+    }
+
+    private interface PriceCall {
+        BigDecimal price();
+    }
+
+    private void compare(String label, double usageTime, PriceCall expectedCall, PriceCall actualCall) {
+        checked++;
+        Object expected = outcome(expectedCall);
+        Object actual = outcome(actualCall);
+        if (!expected.equals(actual)) {
+            mismatches++;
+            if (mismatches <= MAX_REPORTED) {
+                System.out.println("불일치 [" + label + "] 사용 시간 " + usageTime + ": 기준 " + expected + ", 엔진 " + actual);
+            }
+        }
+    }
+
+    // 결과 (값과 자릿수를 비교하는 BigDecimal.equals) 또는 던진 예외의 종류
+    private static Object outcome(PriceCall call) {
+        try {
+            return call.price();
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    private void finish() {
+        System.out.printf("요금 일치 검사: %,d건 중 불일치 %,d건%n", checked, mismatches);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import location.RebalancingPlanner;
+import location.StationCatalog;
+import location.StationOccupancy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재배치 계획 (RebalancingPlanner)
+ * 용인시 일대(약 28km x 22km)에 대여소를 흩어 놓고 거치대 수의 0 ~ 100%를 무작위로 채워 측정한다.
+ * regions가 1이면 모든 대여소가 한 지역이라 최소 비용 유량이 가장 커지는 경우다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class RebalancingBenchmark {
+
+    @Param({"100", "1000"})
+    public int stations;
+
+    @Param({"1", "10"})
+    public int regions;
+
+    private List<StationCatalog.Station> catalog;
+    private final Map<String, StationOccupancy.Counts> counts = new HashMap<>();
+    private final RebalancingPlanner planner = new RebalancingPlanner();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < stations; i++) {
+            lines.add(String.format("ST%05d,대여소%05d,경기도/용인시/구역%02d,%.5f,%.5f,%d", i, i, i % regions,
+                    37.2 + random.nextDouble() * 0.25, 127.0 + random.nextDouble() * 0.25, 10 + random.nextInt(30)));
+        }
+        catalog = StationCatalog.parse(lines).stations();
+        for (StationCatalog.Station station : catalog) {
+            int bicycles = random.nextInt(station.capacity + 1);
+            counts.put(station.name, new StationOccupancy.Counts(station.name, bicycles, bicycles, 0, bicycles, 0));
+        }
+    }
+
+    @Benchmark
+    public RebalancingPlanner.Plan plan() {
+        return planner.plan(catalog, counts::get, RebalancingPlanner.capacityTarget(RebalancingPlanner.DEFAULT_TARGET_RATIO));
+    }
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import database.RentalHistoryIndex;
+import database.RentalHistorySegments;
+import database.RepairDatabase.RentalHistory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대여 기록 갱신 (RepairDatabase.updateRentalHistory가 위임하는 RentalHistoryIndex.append)
+ * 이력이 클수록 느려지지 않는지 확인하기 위해 미리 쌓아 둔 기록 수별로 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RentalHistoryBenchmark {
+    private static final String HEADER = "rentalId,userId,bicycleId,startTime,endTime,startLocation,endLocation,usageTimeMinutes,distanceKm,price,paymentStatus";
+
+    @Param({"10000", "100000", "1000000"})
+    public int histories;
+
+    private Path directory;
+    private RentalHistoryIndex index;
+    private RentalHistory[] open;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = BenchmarkFiles.createTempDirectory("rental-history");
+        Path legacyFile = directory.resolve("rental_history.csv");
+
+        // 이전 단일 파일 형식으로 기록을 만든 뒤 세그먼트로 옮겨 빠르게 준비
+        String startTime = LocalDateTime.now().withNano(0).toString();
+        open = new RentalHistory[Math.min(histories, 10_000)];
+        try (BufferedWriter writer = Files.newBufferedWriter(legacyFile, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int i = 0; i < histories; i++) {
+                RentalHistory history = new RentalHistory(String.format("RNT%07d", i),
+                        "user" + (i % 5_000), String.format("REG%05d", i % 20_000), "죽전동");
+                history.startTime = startTime;
+                if (i < open.length) {
+                    open[i] = history;
+                } else {
+                    history.completeRental("보정동", 12.0, 1.5, "3200");
+                }
+                writer.write(history.toCSV());
+                writer.newLine();
+            }
+        }
+
+        RentalHistorySegments segments = new RentalHistorySegments(directory.resolve("segments").toString(),
+                legacyFile.toString(), HEADER);
+        index = new RentalHistoryIndex(segments);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void updateRentalHistory() throws Exception {
+        // 반납 처리와 같은 형태의 갱신 (현재 세그먼트 끝에 한 줄 추가)
+        RentalHistory history = open[next];
+        next = next + 1 == open.length ? 0 : next + 1;
+        history.completeRental("보정동", 15.0, 2.0, "3500");
+        index.append(history);
+    }
+
+    @Benchmark
+    public RentalHistory findOpenRental() {
+        RentalHistory history = open[next];
+        next = next + 1 == open.length ? 0 : next + 1;
+        return index.findOpenRental(history.userId, history.bicycleId);
+    }
+}
@@ -2,13 +2,19 @@ import factory.*;
 import strategy.*;
 import decorator.*;
 import observer.*;
+import observer.Observer;
 import database.*;
 import location.*;
 import repair.*;
+import rental.*;
+import notification.*;
 
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.*;
 import java.time.LocalDate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 // 좀 작게 쪼개야할 필요가 있음
 
@@ -19,7 +25,6 @@ import java.time.LocalDate;
 public class BicycleSharingSystem {
     private Scanner scanner;
     private Map<String, Bicycle> bicycles;
-    private Map<String, BicycleStatusSubject> bicycleSubjects;
     private PricingContext pricingContext;
     
     // 사용자 정보 (CSV 파일로 관리)
@@ -29,10 +34,18 @@ public class BicycleSharingSystem {
     public BicycleSharingSystem() {
         this.scanner = new Scanner(System.in);
         this.bicycles = new HashMap<>();
-        this.bicycleSubjects = new HashMap<>();
         
-        // 기본 요금 전략 설정 (일반 사용자)
-        this.pricingContext = new PricingContext(new RegularUserPricingStrategy());
+        // 알림은 옵저버별 큐를 거쳐 비동기로 전달 (대여/반납 처리가 알림 발송을 기다리지 않음)
+        SubscriptionRegistry.shared().enableAsyncDispatch(AsyncObserver.DEFAULT_CAPACITY, BackpressurePolicy.BLOCK);
+        // 잦은 위치 / 배터리 보고는 병합하고, 구독자별로 초당 알림 수를 제한 (긴급 알림과 사용자 본인의 대여 / 반납 확인은 제외)
+        SubscriptionRegistry.shared().enableCoalescing(EventCoalescer.DEFAULT_LOCATION_WINDOW_MS, EventCoalescer.DEFAULT_BATTERY_THRESHOLDS);
+        SubscriptionRegistry.shared().enableRateLimit(5, 20);
+        
+        // 가까운 자전거 검색용 위치 색인을 자전거 위치 보고에 연결 (자전거 배치 전에)
+        BicycleGeoIndex.shared();
+        
+        // 기본 요금 전략 설정 (요금 규칙의 기본 요금제)
+        this.pricingContext = new PricingContext(PricingEngine.forUserType(null));
     }
     
     public void start() {
@@ -42,6 +55,8 @@ public class BicycleSharingSystem {
         setupInitialData();
         // CSV 데이터베이스 초기화
         CSVDatabase.initializeData();
+        // 수요 예측용 최근 대여 기록은 백그라운드에서 미리 읽음
+        DemandForecaster.warmUpShared();
         
         boolean running = true;
         while (running) {
@@ -81,6 +96,7 @@ public class BicycleSharingSystem {
                     break;
                 case 0:
                     running = false;
+                    SubscriptionRegistry.shared().getCoalescer().flush();
                     System.out.println("시스템을 종료합니다. 안전한 라이딩 되세요!");
                     break;
                 default:
@@ -134,13 +150,15 @@ public class BicycleSharingSystem {
         bicycles.put("REG001", bike1);
         bicycles.put("ELC001", bike2);
         
-        // 각 자전거에 대한 서브젝트 생성
-        bicycleSubjects.put("REG001", new BicycleStatusSubject("REG001"));
-        bicycleSubjects.put("ELC001", new BicycleStatusSubject("ELC001"));
-        
         System.out.println("\n초기 자전거가 시스템에 등록되었습니다.");
     }
     
+    // 알림 발송용 서브젝트 (구독은 레지스트리에 있으므로 필요할 때마다 만들어 씀)
+    private BicycleStatusSubject subjectFor(String bicycleId) {
+        CSVDatabase.BicycleData data = CSVDatabase.getBicycle(bicycleId);
+        return new BicycleStatusSubject(bicycleId, data != null ? data.location : null);
+    }
+    
     private void registerUser() {
         System.out.println("\n=== 회원가입 ===");
         
@@ -170,52 +188,38 @@ public class BicycleSharingSystem {
         System.out.print("이메일을 입력하세요: ");
         String email = scanner.nextLine();
         
+        // 요금제 목록은 요금 규칙(pricing_rules.csv) 순서, 마지막은 관리자
+        List<PricingEngine> plans = PricingEngine.all();
         System.out.println("사용자 유형을 선택하세요:");
-        System.out.println("1. 일반 사용자 (시간당 결제)");
-        System.out.println("2. 학생 (할인 요금)");
-        System.out.println("3. 프리미엄 사용자");
-        System.out.println("4. 일반 자전거 월정액 (15,000원/월)");
-        System.out.println("5. 전기 자전거 월정액 (25,000원/월)");
-        System.out.println("6. 관리자");
+        for (int i = 0; i < plans.size(); i++) {
+            System.out.println((i + 1) + ". " + plans.get(i).getStrategyName() + " (" + describePlan(plans.get(i)) + ")");
+        }
+        System.out.println((plans.size() + 1) + ". 관리자");
         
         int userType = getIntInput("선택: ");
         String userTypeStr;
         boolean isAdmin = false;
         String subscriptionStartDate = "";
+        PricingEngine plan = null;
         
-        switch (userType) {
-            case 2:
-                userTypeStr = "student";
-                break;
-            case 3:
-                userTypeStr = "premium";
-                break;
-            case 4:
-                userTypeStr = "regular_monthly";
-                subscriptionStartDate = LocalDate.now().toString();
-                break;
-            case 5:
-                userTypeStr = "electric_monthly";
+        if (userType == plans.size() + 1) {
+            userTypeStr = "admin";
+            isAdmin = true;
+        } else {
+            // 잘못 고르면 기본 요금제
+            plan = userType >= 1 && userType <= plans.size() ? plans.get(userType - 1) : PricingEngine.forUserType(null);
+            userTypeStr = plan.getUserType();
+            if (plan.hasDailyAllowance()) {
                 subscriptionStartDate = LocalDate.now().toString();
-                break;
-            case 6:
-                userTypeStr = "admin";
-                isAdmin = true;
-                break;
-            default:
-                userTypeStr = "regular";
+            }
         }
         
         CSVDatabase.User newUser = new CSVDatabase.User(userId, password, name, userTypeStr, phone, email, isAdmin, subscriptionStartDate);
         CSVDatabase.saveUser(newUser);
         
-        if (userTypeStr.contains("monthly")) {
+        if (plan != null && plan.hasDailyAllowance()) {
             System.out.println("월정액 구독이 시작되었습니다!");
-            if (userTypeStr.equals("regular_monthly")) {
-                System.out.println("일반 자전거 월정액: 15,000원/월 (하루 60분 무료)");
-            } else {
-                System.out.println("전기 자전거 월정액: 25,000원/월 (하루 45분 무료)");
-            }
+            System.out.println(plan.getStrategyName() + ": " + describePlan(plan));
         }
         
         System.out.println("회원가입이 완료되었습니다! 로그인해주세요.");
@@ -245,25 +249,7 @@ public class BicycleSharingSystem {
         currentUserType = user.userType;
         
         // 사용자 유형에 따른 요금 전략 설정
-        switch (user.userType) {
-            case "student":
-                pricingContext.setStrategy(new StudentPricingStrategy());
-                break;
-            case "premium":
-                pricingContext.setStrategy(new PremiumUserPricingStrategy());
-                break;
-            case "regular_monthly":
-                pricingContext.setStrategy(new RegularMonthlyPricingStrategy());
-                break;
-            case "electric_monthly":
-                pricingContext.setStrategy(new ElectricMonthlyPricingStrategy());
-                break;
-            case "admin":
-                pricingContext.setStrategy(new RegularUserPricingStrategy());
-                break;
-            default:
-                pricingContext.setStrategy(new RegularUserPricingStrategy());
-        }
+        pricingContext.setStrategy(RentalService.pricingStrategyFor(user.userType));
         
         System.out.println("로그인 완료! " + user.name + "님 환영합니다.");
         
@@ -293,9 +279,9 @@ public class BicycleSharingSystem {
         int type = getIntInput("선택: ");
         
         // 지역 선택
-        LocationService.showLocationMenu();
+        List<String> shownLocations = LocationService.showLocationMenu();
         int locationChoice = getIntInput("자전거를 배치할 지역을 선택하세요: ");
-        String locationName = LocationService.selectLocationByNumber(locationChoice);
+        String locationName = LocationService.selectLocationByNumber(shownLocations, locationChoice);
         
         if (locationName == null) {
             System.out.println("올바르지 않은 지역 선택입니다.");
@@ -307,15 +293,19 @@ public class BicycleSharingSystem {
         // CSV 데이터베이스에 저장
         CSVDatabase.BicycleData newBicycle = new CSVDatabase.BicycleData(
                 bicycleId, bicycleType, locationName, true, false, "");
-        CSVDatabase.saveBicycle(newBicycle);
+        try {
+            CSVDatabase.saveBicycle(newBicycle);
+        } catch (UncheckedIOException e) {
+            System.out.println("자전거 저장에 실패했습니다: " + e.getMessage());
+            return;
+        }
         
         // 팩토리 패턴으로 실제 자전거 객체도 생성 (메모리 관리용)
         BicycleFactory factory = (type == 2) ? new ElectricBicycleFactory() : new RegularBicycleFactory();
-        LocationService.Location loc = LocationService.getLocation(locationName);
+        StationCatalog.Station loc = LocationService.getLocation(locationName);
         
         Bicycle bicycle = factory.orderBicycle(bicycleId, loc.latitude, loc.longitude);
         bicycles.put(bicycleId, bicycle);
-        bicycleSubjects.put(bicycleId, new BicycleStatusSubject(bicycleId));
         
         System.out.println("자전거가 성공적으로 생성되었습니다!");
         System.out.println("자전거 ID: " + bicycleId);
@@ -378,25 +368,39 @@ public class BicycleSharingSystem {
         
         System.out.println("1. 전체 지역 현황 보기");
         System.out.println("2. 특정 지역 상세 보기");
+        System.out.println("3. 내 위치에서 가까운 자전거 찾기");
         
         int choice = getIntInput("선택: ");
         
         if (choice == 1) {
             LocationService.showAllLocationsStatus();
         } else if (choice == 2) {
-            LocationService.showLocationMenu();
+            List<String> shownLocations = LocationService.showLocationMenu();
             int locationChoice = getIntInput("지역을 선택하세요 (번호): ");
-            String locationName = LocationService.selectLocationByNumber(locationChoice);
+            String locationName = LocationService.selectLocationByNumber(shownLocations, locationChoice);
             
             if (locationName != null) {
                 LocationService.showLocationStatus(locationName);
             } else {
                 System.out.println("올바르지 않은 선택입니다.");
             }
+        } else if (choice == 3) {
+            double latitude = getDoubleInput("현재 위도를 입력하세요: ");
+            double longitude = getDoubleInput("현재 경도를 입력하세요: ");
+            if (!isValidCoordinate(latitude, longitude)) {
+                System.out.println("올바르지 않은 좌표입니다.");
+                return;
+            }
+            int count = getIntInput("찾을 자전거 수: ");
+            LocationService.showNearestBicycles(latitude, longitude, count);
         } else {
             System.out.println("올바르지 않은 선택입니다.");
         }
     }
+    
+    private static boolean isValidCoordinate(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
 
     private void rentBicycle() {
         if (currentUser == null) {
@@ -407,9 +411,9 @@ public class BicycleSharingSystem {
         System.out.println("\n=== 자전거 대여 ===");
         
         // 지역 선택
-        LocationService.showLocationMenu();
+        List<String> shownLocations = LocationService.showLocationMenu();
         int locationChoice = getIntInput("자전거를 대여할 지역을 선택하세요: ");
-        String locationName = LocationService.selectLocationByNumber(locationChoice);
+        String locationName = LocationService.selectLocationByNumber(shownLocations, locationChoice);
         
         if (locationName == null) {
             System.out.println("올바르지 않은 지역 선택입니다.");
@@ -429,41 +433,19 @@ public class BicycleSharingSystem {
         System.out.print("대여할 자전거 ID를 입력하세요: ");
         String bicycleId = scanner.nextLine();
         
-        // 선택한 자전거가 해당 지역에 있고 대여 가능한지 확인
-        CSVDatabase.BicycleData selectedBicycle = null;
-        for (CSVDatabase.BicycleData bicycle : availableBicycles) {
-            if (bicycle.bicycleId.equals(bicycleId)) {
-                selectedBicycle = bicycle;
-                break;
-            }
-        }
-        
-        if (selectedBicycle == null) {
-            System.out.println("선택한 자전거를 찾을 수 없거나 대여할 수 없습니다.");
+        // 선택한 지역에서 대여 가능한 경우에만 대여 처리 (다른 사용자와 동시에 선택해도 한 명만 성공)
+        RentalService.RentalResult result = RentalService.rent(currentUser.userId, bicycleId, locationName);
+        if (!result.success) {
+            System.out.println(result.message);
             return;
         }
         
-        // 대여 기록 생성
-        String rentalId = RepairDatabase.generateRentalId();
-        RepairDatabase.RentalHistory rentalHistory = new RepairDatabase.RentalHistory(rentalId, currentUser.userId, bicycleId, locationName);
-        RepairDatabase.saveRentalHistory(rentalHistory);
-        
-        // 자전거 대여 처리
-        selectedBicycle.isAvailable = false;
-        selectedBicycle.inUse = true;
-        selectedBicycle.currentUser = currentUser.userId;
-        
-        CSVDatabase.saveBicycle(selectedBicycle);
-        
         // 옵저버 패턴 - 대여 알림
-        BicycleStatusSubject subject = bicycleSubjects.get(bicycleId);
-        if (subject != null) {
-            subject.bicycleRented(currentUser.userId);
-        }
+        new BicycleStatusSubject(bicycleId, result.bicycle.location).bicycleRented(currentUser.userId);
         
-        System.out.println("자전거 대여가 완료되었습니다!");
-        System.out.println("대여 번호: " + rentalId);
-        System.out.println("대여 자전거: " + bicycleId + " (" + selectedBicycle.bicycleType + ")");
+        System.out.println(result.message);
+        System.out.println("대여 번호: " + result.history.rentalId);
+        System.out.println("대여 자전거: " + bicycleId + " (" + result.bicycle.bicycleType + ")");
         System.out.println("대여 지역: " + locationName);
         System.out.println("안전한 라이딩 되세요! 🚴‍♂️");
     }
@@ -477,14 +459,9 @@ public class BicycleSharingSystem {
         System.out.println("\n=== 자전거 반납 ===");
         
         // 현재 사용자가 대여 중인 자전거 찾기
-        List<CSVDatabase.BicycleData> userBicycles = new ArrayList<>();
-        List<CSVDatabase.BicycleData> allBicycles = CSVDatabase.getAllBicycles();
-        
-        for (CSVDatabase.BicycleData bicycle : allBicycles) {
-            if (bicycle.currentUser.equals(currentUser.userId) && bicycle.inUse) {
-                userBicycles.add(bicycle);
-            }
-        }
+        List<CSVDatabase.BicycleData> userBicycles = CSVDatabase.streamBicycles(
+                bicycle -> bicycle.inUse && bicycle.currentUser.equals(currentUser.userId))
+                .collect(Collectors.toList());
         
         if (userBicycles.isEmpty()) {
             System.out.println("현재 대여 중인 자전거가 없습니다.");
@@ -499,24 +476,17 @@ public class BicycleSharingSystem {
         System.out.print("반납할 자전거 ID를 입력하세요: ");
         String bicycleId = scanner.nextLine();
         
-        CSVDatabase.BicycleData selectedBicycle = null;
-        for (CSVDatabase.BicycleData bicycle : userBicycles) {
-            if (bicycle.bicycleId.equals(bicycleId)) {
-                selectedBicycle = bicycle;
-                break;
-            }
-        }
-        
-        if (selectedBicycle == null) {
+        boolean ownsBicycle = userBicycles.stream().anyMatch(bicycle -> bicycle.bicycleId.equals(bicycleId));
+        if (!ownsBicycle) {
             System.out.println("올바르지 않은 자전거 ID입니다.");
             return;
         }
         
         // 반납 지역 선택
         System.out.println("반납할 지역을 선택하세요:");
-        LocationService.showLocationMenu();
+        List<String> shownLocations = LocationService.showLocationMenu();
         int locationChoice = getIntInput("지역 선택: ");
-        String returnLocation = LocationService.selectLocationByNumber(locationChoice);
+        String returnLocation = LocationService.selectLocationByNumber(shownLocations, locationChoice);
         
         if (returnLocation == null) {
             System.out.println("올바르지 않은 지역 선택입니다.");
@@ -526,45 +496,22 @@ public class BicycleSharingSystem {
         double usageTime = getDoubleInput("사용 시간(분)을 입력하세요: ");
         double distance = getDoubleInput("이동 거리(km)를 입력하세요: ");
         
-        // 요금 계산
-        BigDecimal price = pricingContext.calculatePrice(usageTime, distance);
-        
-        // 대여 기록 업데이트
-        List<RepairDatabase.RentalHistory> userHistories = RepairDatabase.getUserRentalHistory(currentUser.userId);
-        RepairDatabase.RentalHistory currentRental = null;
-        
-        for (RepairDatabase.RentalHistory history : userHistories) {
-            if (history.bicycleId.equals(bicycleId) && history.endTime.isEmpty()) {
-                currentRental = history;
-                break;
-            }
-        }
-        
-        if (currentRental != null) {
-            currentRental.completeRental(returnLocation, usageTime, distance, price.toString());
-            RepairDatabase.updateRentalHistory(currentRental);
+        // 반납 처리 (자전거 상태 전이, 요금 계산, 대여 기록 갱신)
+        RentalService.RentalResult result = RentalService.returnBike(currentUser.userId, bicycleId, returnLocation, usageTime, distance);
+        if (!result.success) {
+            System.out.println(result.message);
+            return;
         }
         
-        // 자전거 상태 업데이트
-        selectedBicycle.isAvailable = true;
-        selectedBicycle.inUse = false;
-        selectedBicycle.currentUser = "";
-        selectedBicycle.location = returnLocation; // 반납 지역으로 위치 변경
-        
-        CSVDatabase.saveBicycle(selectedBicycle);
-        
         // 옵저버 패턴 - 반납 알림
-        BicycleStatusSubject subject = bicycleSubjects.get(bicycleId);
-        if (subject != null) {
-            subject.bicycleReturned(currentUser.userId, usageTime);
-        }
+        new BicycleStatusSubject(bicycleId, result.bicycle.location).bicycleReturned(currentUser.userId, usageTime);
         
-        System.out.println("자전거 반납이 완료되었습니다!");
-        System.out.println("반납 자전거: " + bicycleId + " (" + selectedBicycle.bicycleType + ")");
+        System.out.println(result.message);
+        System.out.println("반납 자전거: " + bicycleId + " (" + result.bicycle.bicycleType + ")");
         System.out.println("반납 지역: " + returnLocation);
         System.out.println("사용 시간: " + usageTime + "분");
         System.out.println("이동 거리: " + distance + "km");
-        System.out.println("사용 요금: " + price + "원 (" + pricingContext.getCurrentStrategyName() + ")");
+        System.out.println("사용 요금: " + result.price + "원 (" + result.pricingStrategyName + ")");
         System.out.println("이용해주셔서 감사합니다!");
     }
     
@@ -607,22 +554,16 @@ public class BicycleSharingSystem {
         
         System.out.println("\n다양한 요금제별 비교:");
         
-        // 각 전략별로 요금 계산
-        PricingStrategy[] strategies = {
-            new RegularUserPricingStrategy(),
-            new StudentPricingStrategy(),
-            new PremiumUserPricingStrategy(),
-            new RegularMonthlyPricingStrategy(),
-            new ElectricMonthlyPricingStrategy()
-        };
-        
-        for (PricingStrategy strategy : strategies) {
-            PricingContext tempContext = new PricingContext(strategy);
-            BigDecimal price = tempContext.calculatePrice(usageTime, distance);
-            System.out.println("- " + strategy.getStrategyName() + ": " + price + "원");
+        // 각 요금제별로 요금 계산 (미리 만들어 둔 요금 엔진 재사용)
+        for (PricingEngine engine : PricingEngine.all()) {
+            BigDecimal price = engine.calculatePrice(usageTime, distance);
+            System.out.println("- " + engine.getStrategyName() + ": " + price + "원");
         }
         
-        // 현재 사용자 요금
+        // 현재 사용자 요금 (요금 규칙이 바뀌었을 수 있으므로 다시 가져옴)
+        if (currentUserType != null) {
+            pricingContext.setStrategy(PricingEngine.forUserType(currentUserType));
+        }
         BigDecimal currentPrice = pricingContext.calculatePrice(usageTime, distance);
         System.out.println("\n현재 사용자 (" + currentUserType + ") 요금: " + currentPrice + "원");
     }
@@ -641,26 +582,76 @@ public class BicycleSharingSystem {
         
         double latitude = getDoubleInput("새로운 위도를 입력하세요: ");
         double longitude = getDoubleInput("새로운 경도를 입력하세요: ");
+        if (!isValidCoordinate(latitude, longitude)) {
+            System.out.println("올바르지 않은 좌표입니다.");
+            return;
+        }
         
         bicycle.updateLocation(latitude, longitude);
         
         // 옵저버 패턴 - 위치 변경 알림
-        BicycleStatusSubject subject = bicycleSubjects.get(bicycleId);
-        if (subject != null) {
-            subject.locationChanged(latitude, longitude);
-        }
+        subjectFor(bicycleId).locationChanged(latitude, longitude);
     }
     
     private void setupNotifications() {
         System.out.println("\n=== 알림 설정 ===");
-        
-        System.out.print("알림을 설정할 자전거 ID를 입력하세요: ");
-        String bicycleId = scanner.nextLine();
-        
-        BicycleStatusSubject subject = bicycleSubjects.get(bicycleId);
-        if (subject == null) {
-            System.out.println("존재하지 않는 자전거 ID입니다.");
-            return;
+        SubscriptionRegistry registry = SubscriptionRegistry.shared();
+        
+        System.out.println("알림 범위를 선택하세요:");
+        System.out.println("1. 특정 자전거");
+        System.out.println("2. 이벤트 유형 (전체 자전거)");
+        System.out.println("3. 지역");
+        System.out.println("4. 자전거 ID 접두사 (예: ELC)");
+        System.out.println("5. 전체 자전거");
+        
+        int scope = getIntInput("선택: ");
+        EventType eventType = null;
+        String locationName = null;
+        String bicycleId = null;
+        String prefix = null;
+        
+        switch (scope) {
+            case 1:
+                System.out.print("알림을 설정할 자전거 ID를 입력하세요: ");
+                bicycleId = scanner.nextLine();
+                if (!bicycles.containsKey(bicycleId) && CSVDatabase.getBicycle(bicycleId) == null) {
+                    System.out.println("존재하지 않는 자전거 ID입니다.");
+                    return;
+                }
+                break;
+            case 2:
+                EventType[] types = EventType.values();
+                for (int i = 0; i < types.length; i++) {
+                    System.out.println("  " + (i + 1) + ". " + types[i] + " (" + types[i].getDisplayName() + ")");
+                }
+                int eventChoice = getIntInput("이벤트 유형을 선택하세요: ");
+                if (eventChoice < 1 || eventChoice > types.length) {
+                    System.out.println("잘못된 선택입니다.");
+                    return;
+                }
+                eventType = types[eventChoice - 1];
+                break;
+            case 3:
+                List<String> shownLocations = LocationService.showLocationMenu();
+                locationName = LocationService.selectLocationByNumber(shownLocations, getIntInput("알림을 받을 지역을 선택하세요: "));
+                if (locationName == null) {
+                    System.out.println("올바르지 않은 지역 선택입니다.");
+                    return;
+                }
+                break;
+            case 4:
+                System.out.print("자전거 ID 접두사: ");
+                prefix = scanner.nextLine().trim();
+                if (prefix.isEmpty()) {
+                    System.out.println("접두사를 입력해주세요.");
+                    return;
+                }
+                break;
+            case 5:
+                break;
+            default:
+                System.out.println("잘못된 선택입니다.");
+                return;
         }
         
         System.out.println("설정할 알림 유형을 선택하세요:");
@@ -669,6 +660,7 @@ public class BicycleSharingSystem {
         System.out.println("3. 시스템 모니터링 추가");
         
         int type = getIntInput("선택: ");
+        Observer observer;
         
         switch (type) {
             case 1:
@@ -679,31 +671,39 @@ public class BicycleSharingSystem {
                 System.out.print("이메일: ");
                 String email = scanner.nextLine();
                 
-                UserNotificationObserver userObserver = new UserNotificationObserver(userId, phone, email);
-                subject.addObserver(userObserver);
+                observer = new UserNotificationObserver(userId, phone, email);
                 break;
                 
             case 2:
                 System.out.print("관리자 ID: ");
                 String adminId = scanner.nextLine();
+                // 관리자 ID가 이력 파일 이름이 되므로 경로 문자를 막음
+                if (!adminId.matches("[A-Za-z0-9_-]+")) {
+                    System.out.println("관리자 ID는 영문, 숫자, _, -만 사용할 수 있습니다.");
+                    return;
+                }
                 System.out.print("부서: ");
                 String department = scanner.nextLine();
                 
-                AdminNotificationObserver adminObserver = new AdminNotificationObserver(adminId, department);
-                subject.addObserver(adminObserver);
+                // 최근 이력만 메모리에 두고, 밀려난 이력은 관리자별 파일에 보관
+                observer = new AdminNotificationObserver(adminId, department, AlertHistory.DEFAULT_CAPACITY,
+                        java.nio.file.Paths.get("alert_history", adminId + ".log"));
                 break;
                 
             case 3:
                 System.out.print("시스템 이름: ");
                 String systemName = scanner.nextLine();
                 
-                SystemMonitoringObserver systemObserver = new SystemMonitoringObserver(systemName);
-                subject.addObserver(systemObserver);
+                observer = new SystemMonitoringObserver(systemName);
                 break;
                 
             default:
                 System.out.println("잘못된 선택입니다.");
+                return;
         }
+        
+        SubscriptionRegistry.Subscription subscription = registry.subscribe(observer, eventType, locationName, bicycleId, prefix);
+        System.out.println("알림 구독이 등록되었습니다. [" + subscription.describe() + "]");
     }
     
     private void reportBicycleIssue() {
@@ -726,6 +726,30 @@ public class BicycleSharingSystem {
         String issueDescription = scanner.nextLine();
         
         RepairService.reportIssue(bicycleId, currentUser.userId, issueDescription);
+        
+        // 옵저버 패턴 - 고장 알림 (BROKEN 이벤트 구독자에게 전달)
+        new BicycleStatusSubject(bicycleId, bicycle.location).bicycleBroken(issueDescription);
+    }
+    
+    // 요금제 한 줄 설명 (요금 규칙 값으로 만듦)
+    private static String describePlan(PricingEngine plan) {
+        StringBuilder sb = new StringBuilder();
+        if (plan.getMonthlyFee().signum() > 0) {
+            sb.append("월 ").append(String.format("%,d", plan.getMonthlyFee().longValue())).append("원, ");
+        }
+        if (plan.getBaseWon() > 0) {
+            sb.append("기본 ").append(String.format("%,d", plan.getBaseWon())).append("원 + ");
+        }
+        if (plan.getFreeMinutes() > 0) {
+            sb.append(plan.hasDailyAllowance() ? "하루 " : "대여마다 ")
+                    .append(BigDecimal.valueOf(plan.getFreeMinutes()).stripTrailingZeros().toPlainString())
+                    .append("분 무료 후 ");
+        }
+        sb.append("분당 ").append(String.format("%,d", plan.getWonPerMinute())).append("원");
+        if (plan.getCap() != null) {
+            sb.append(", 1회 최대 ").append(String.format("%,d", plan.getCap().longValue())).append("원");
+        }
+        return sb.toString();
     }
     
     private void subscribeMonthly() {
@@ -734,39 +758,39 @@ public class BicycleSharingSystem {
             return;
         }
         
-        if (currentUser.userType.contains("monthly")) {
+        if (PricingEngine.forUserType(currentUser.userType).hasDailyAllowance()) {
             System.out.println("이미 월정액을 구독하고 계십니다.");
             return;
         }
         
+        // 월정액(하루 무료 시간) 요금제만 요금 규칙 순서대로
+        List<PricingEngine> monthlyPlans = new ArrayList<>();
+        for (PricingEngine engine : PricingEngine.all()) {
+            if (engine.hasDailyAllowance()) {
+                monthlyPlans.add(engine);
+            }
+        }
+        
         System.out.println("\n=== 월정액 구독 ===");
-        System.out.println("1. 일반 자전거 월정액 (15,000원/월) - 하루 60분 무료");
-        System.out.println("2. 전기 자전거 월정액 (25,000원/월) - 하루 45분 무료");
-        System.out.println("3. 취소");
+        for (int i = 0; i < monthlyPlans.size(); i++) {
+            System.out.println((i + 1) + ". " + monthlyPlans.get(i).getStrategyName() + " - " + describePlan(monthlyPlans.get(i)));
+        }
+        System.out.println((monthlyPlans.size() + 1) + ". 취소");
         
         int choice = getIntInput("선택: ");
-        
-        String newUserType = "";
-        String subscriptionInfo = "";
-        
-        switch (choice) {
-            case 1:
-                newUserType = "regular_monthly";
-                subscriptionInfo = "일반 자전거 월정액 (15,000원/월)";
-                pricingContext.setStrategy(new RegularMonthlyPricingStrategy());
-                break;
-            case 2:
-                newUserType = "electric_monthly";
-                subscriptionInfo = "전기 자전거 월정액 (25,000원/월)";
-                pricingContext.setStrategy(new ElectricMonthlyPricingStrategy());
-                break;
-            case 3:
-                return;
-            default:
-                System.out.println("올바르지 않은 선택입니다.");
-                return;
+        if (choice == monthlyPlans.size() + 1) {
+            return;
+        }
+        if (choice < 1 || choice > monthlyPlans.size()) {
+            System.out.println("올바르지 않은 선택입니다.");
+            return;
         }
         
+        PricingEngine plan = monthlyPlans.get(choice - 1);
+        String newUserType = plan.getUserType();
+        String subscriptionInfo = plan.getStrategyName();
+        pricingContext.setStrategy(plan);
+        
         // 사용자 정보 업데이트
         currentUser.userType = newUserType;
         currentUser.subscriptionStartDate = LocalDate.now().toString();
@@ -796,6 +820,11 @@ public class BicycleSharingSystem {
         System.out.println("7. 시스템 통계");
         System.out.println("8. 자전거 기능 추가 (데코레이터)");
         System.out.println("9. 돌아가기");
+        System.out.println("10. 월말 정산");
+        System.out.println("11. 지역별 현황 정합성 검사");
+        System.out.println("12. 자전거 재배치 계획");
+        System.out.println("13. 수요 예측 / 대여 가능 경고");
+        System.out.println("14. 데이터 내보내기 (CSV)");
         
         int choice = getIntInput("선택: ");
         
@@ -824,13 +853,115 @@ public class BicycleSharingSystem {
             case 8:
                 addBicycleFeatures();
                 break;
+            case 10:
+                runSettlement();
+                break;
+            case 11:
+                verifyStationOccupancy();
+                break;
+            case 12:
+                planRebalancing();
+                break;
+            case 13:
+                showDemandWarnings();
+                break;
+            case 14:
+                exportData();
+                break;
             case 9:
+            case 0:
                 return;
             default:
                 System.out.println("올바르지 않은 선택입니다.");
         }
     }
     
+    // 자전거 데이터는 bicycles.csv를 덮어쓰므로 확인 후 내보냄
+    private void exportData() {
+        System.out.print("bicycles.csv 파일을 현재 자전거 상태로 덮어씁니다. 계속하시겠습니까? (y/n): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            System.out.println("내보내기를 취소했습니다.");
+            return;
+        }
+        CSVDatabase.exportBicyclesToCSV();
+        RepairDatabase.exportRentalHistoryToCSV("rental_history_export.csv");
+    }
+    
+    private void verifyStationOccupancy() {
+        System.out.println("\n=== 지역별 현황 정합성 검사 ===");
+        StationOccupancy occupancy = StationOccupancy.shared();
+        StationOccupancy.VerifyResult result = occupancy.verify(false);
+        occupancy.showVerifyResult(result);
+        
+        if (!result.isConsistent()) {
+            System.out.print("저장소 기준으로 카운터를 고치시겠습니까? (y/n): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                occupancy.showVerifyResult(occupancy.verify(true));
+            }
+        }
+    }
+    
+    private void planRebalancing() {
+        RebalancingPlanner.Plan plan = new RebalancingPlanner().plan();
+        plan.showSummary();
+        
+        if (plan.routes.isEmpty()) {
+            System.out.println("옮길 자전거가 없습니다.");
+            return;
+        }
+        // 경로는 일부만 표시하고 전체는 파일로 저장
+        plan.routes.stream().limit(10).forEach(route -> System.out.println("- " + route));
+        if (plan.routes.size() > 10) {
+            System.out.println("... 외 " + (plan.routes.size() - 10) + "개 경로");
+        }
+        
+        java.nio.file.Path file = RebalancingPlanner.defaultOutputPath(LocalDate.now());
+        try {
+            plan.writeCSV(file);
+            System.out.println("트럭 경로를 " + file + " 파일로 저장했습니다.");
+        } catch (java.io.IOException e) {
+            System.err.println("재배치 계획 저장 중 오류 발생: " + e.getMessage());
+        }
+    }
+    
+    private void showDemandWarnings() {
+        DemandForecaster forecaster = DemandForecaster.shared();
+        System.out.printf("%n=== 수요 예측 / 대여 가능 경고 (다음 %.0f시간) ===%n", DemandForecaster.DEFAULT_HORIZON_HOURS);
+        System.out.println("반영된 대여: " + forecaster.getRecordedRentals() + "건, 대여소 " + forecaster.getStationCount() + "곳");
+        
+        List<DemandForecaster.Warning> warnings = forecaster.availabilityWarnings();
+        if (warnings.isEmpty()) {
+            System.out.println("✅ 예상되는 자전거 / 거치대 부족이 없습니다.");
+            return;
+        }
+        // 모자라는 수가 큰 순서로 일부만 표시
+        System.out.println("⚠️ 경고 " + warnings.size() + "건:");
+        warnings.stream().limit(20).forEach(warning -> System.out.println("- " + warning));
+    }
+    
+    private void runSettlement() {
+        System.out.println("\n=== 월말 정산 ===");
+        java.time.YearMonth month = getYearMonthInput("정산할 월 (yyyy-MM): ");
+        
+        SettlementJob.Result result = new SettlementJob(month).run();
+        result.showSummary();
+        
+        // 조정 금액이 큰 순서로 일부만 표시
+        result.invoices.stream()
+                .filter(invoice -> invoice.adjustment.signum() != 0)
+                .sorted((a, b) -> b.adjustment.abs().compareTo(a.adjustment.abs()))
+                .limit(10)
+                .forEach(invoice -> System.out.println("- " + invoice));
+        
+        java.nio.file.Path file = SettlementJob.defaultOutputPath(month);
+        try {
+            result.writeCSV(file);
+            System.out.println("정산서를 " + file + " 파일로 저장했습니다.");
+        } catch (java.io.IOException e) {
+            System.err.println("정산서 저장 중 오류 발생: " + e.getMessage());
+        }
+    }
+    
     private void handleRepairReports() {
         RepairService.showPendingReports();
         
@@ -882,62 +1013,76 @@ public class BicycleSharingSystem {
     private void showRentalHistory() {
         System.out.println("1. 전체 대여 이력");
         System.out.println("2. 특정 사용자 대여 이력");
+        System.out.println("3. 기간별 대여 이력");
         
         int choice = getIntInput("선택: ");
         
-        if (choice == 1) {
-            List<RepairDatabase.RentalHistory> allHistories = RepairDatabase.getAllRentalHistories();
-            
-            if (allHistories.isEmpty()) {
-                System.out.println("대여 이력이 없습니다.");
-                return;
+        if (choice == 1 || choice == 3) {
+            LocalDate from = null;
+            LocalDate to = null;
+            if (choice == 3) {
+                from = getDateInput("시작일 (yyyy-MM-dd): ");
+                to = getDateInput("종료일 (yyyy-MM-dd): ");
             }
             
-            System.out.println("\n=== 전체 대여 이력 ===");
-            System.out.printf("%-12s %-15s %-12s %-10s %-10s %-8s %-10s%n", 
-                    "대여번호", "사용자ID", "자전거ID", "시작지역", "종료지역", "사용시간", "요금");
-            System.out.println("-".repeat(80));
-            
-            for (RepairDatabase.RentalHistory history : allHistories) {
-                System.out.printf("%-12s %-15s %-12s %-10s %-10s %-8.0f %-10s%n",
-                        history.rentalId, history.userId, history.bicycleId,
-                        history.startLocation, history.endLocation.isEmpty() ? "사용중" : history.endLocation,
-                        history.usageTimeMinutes, history.price + "원");
+            // 목록을 만들지 않고 읽는 대로 출력
+            try (Stream<RepairDatabase.RentalHistory> histories = RepairDatabase.streamRentalHistories(null, from, to)) {
+                Iterator<RepairDatabase.RentalHistory> iterator = histories.iterator();
+                if (!iterator.hasNext()) {
+                    System.out.println("대여 이력이 없습니다.");
+                    return;
+                }
+                
+                System.out.println("\n=== " + (choice == 3 ? "기간별" : "전체") + " 대여 이력 ===");
+                System.out.printf("%-12s %-15s %-12s %-10s %-10s %-8s %-10s%n", 
+                        "대여번호", "사용자ID", "자전거ID", "시작지역", "종료지역", "사용시간", "요금");
+                System.out.println("-".repeat(80));
+                
+                while (iterator.hasNext()) {
+                    RepairDatabase.RentalHistory history = iterator.next();
+                    System.out.printf("%-12s %-15s %-12s %-10s %-10s %-8.0f %-10s%n",
+                            history.rentalId, history.userId, history.bicycleId,
+                            history.startLocation, history.endLocation.isEmpty() ? "사용중" : history.endLocation,
+                            history.usageTimeMinutes, history.price + "원");
+                }
             }
         } else if (choice == 2) {
             System.out.print("조회할 사용자 ID: ");
             String userId = scanner.nextLine();
             
-            List<RepairDatabase.RentalHistory> userHistories = RepairDatabase.getUserRentalHistory(userId);
-            
-            if (userHistories.isEmpty()) {
-                System.out.println("해당 사용자의 대여 이력이 없습니다.");
-                return;
-            }
-            
-            System.out.println("\n=== " + userId + " 사용자 대여 이력 ===");
-            for (RepairDatabase.RentalHistory history : userHistories) {
-                System.out.println("대여번호: " + history.rentalId);
-                System.out.println("자전거: " + history.bicycleId);
-                System.out.println("시작: " + history.startLocation + " (" + history.startTime.replace("T", " ") + ")");
-                if (!history.endTime.isEmpty()) {
-                    System.out.println("종료: " + history.endLocation + " (" + history.endTime.replace("T", " ") + ")");
-                    System.out.println("사용시간: " + history.usageTimeMinutes + "분");
-                    System.out.println("요금: " + history.price + "원");
-                } else {
-                    System.out.println("상태: 사용 중");
+            try (Stream<RepairDatabase.RentalHistory> histories = RepairDatabase.streamRentalHistories(userId, null, null)) {
+                Iterator<RepairDatabase.RentalHistory> iterator = histories.iterator();
+                if (!iterator.hasNext()) {
+                    System.out.println("해당 사용자의 대여 이력이 없습니다.");
+                    return;
+                }
+                
+                System.out.println("\n=== " + userId + " 사용자 대여 이력 ===");
+                while (iterator.hasNext()) {
+                    printRentalHistory(iterator.next());
                 }
-                System.out.println("결제상태: " + history.paymentStatus);
-                System.out.println("-".repeat(50));
             }
         }
     }
     
+    private void printRentalHistory(RepairDatabase.RentalHistory history) {
+        System.out.println("대여번호: " + history.rentalId);
+        System.out.println("자전거: " + history.bicycleId);
+        System.out.println("시작: " + history.startLocation + " (" + history.startTime.replace("T", " ") + ")");
+        if (!history.endTime.isEmpty()) {
+            System.out.println("종료: " + history.endLocation + " (" + history.endTime.replace("T", " ") + ")");
+            System.out.println("사용시간: " + history.usageTimeMinutes + "분");
+            System.out.println("요금: " + history.price + "원");
+        } else {
+            System.out.println("상태: 사용 중");
+        }
+        System.out.println("결제상태: " + history.paymentStatus);
+        System.out.println("-".repeat(50));
+    }
+    
     private void checkAllBicycleStatus() {
         System.out.println("\n=== 전체 자전거 상태 ===");
-        List<CSVDatabase.BicycleData> allBicycles = CSVDatabase.getAllBicycles();
-        
-        if (allBicycles.isEmpty()) {
+        if (CSVDatabase.countBicycles() == 0) {
             System.out.println("등록된 자전거가 없습니다.");
             return;
         }
@@ -946,73 +1091,66 @@ public class BicycleSharingSystem {
                 "자전거ID", "타입", "지역", "사용가능", "사용중", "현재사용자");
         System.out.println("-".repeat(80));
         
-        for (CSVDatabase.BicycleData bicycle : allBicycles) {
+        CSVDatabase.streamBicycles(null).forEach(bicycle ->
             System.out.printf("%-10s %-15s %-10s %-10s %-10s %-15s%n",
                     bicycle.bicycleId,
                     bicycle.bicycleType,
                     bicycle.location,
                     bicycle.isAvailable ? "O" : "X",
                     bicycle.inUse ? "O" : "X",
-                    bicycle.currentUser.isEmpty() ? "-" : bicycle.currentUser);
-        }
+                    bicycle.currentUser.isEmpty() ? "-" : bicycle.currentUser));
     }
     
     private void showAllUsers() {
         System.out.println("\n=== 사용자 목록 ===");
-        List<CSVDatabase.User> users = CSVDatabase.getAllUsers();
-        
-        if (users.isEmpty()) {
-            System.out.println("등록된 사용자가 없습니다.");
-            return;
-        }
-        
-        System.out.printf("%-15s %-15s %-15s %-15s %-20s%n", 
-                "사용자ID", "이름", "유형", "전화번호", "이메일");
-        System.out.println("-".repeat(80));
-        
-        for (CSVDatabase.User user : users) {
-            System.out.printf("%-15s %-15s %-15s %-15s %-20s%n",
-                    user.userId, user.name, user.userType, user.phone, user.email);
+        try (Stream<CSVDatabase.User> users = CSVDatabase.streamUsers(null)) {
+            Iterator<CSVDatabase.User> iterator = users.iterator();
+            if (!iterator.hasNext()) {
+                System.out.println("등록된 사용자가 없습니다.");
+                return;
+            }
+            
+            System.out.printf("%-15s %-15s %-15s %-15s %-20s%n", 
+                    "사용자ID", "이름", "유형", "전화번호", "이메일");
+            System.out.println("-".repeat(80));
+            
+            while (iterator.hasNext()) {
+                CSVDatabase.User user = iterator.next();
+                System.out.printf("%-15s %-15s %-15s %-15s %-20s%n",
+                        user.userId, user.name, user.userType, user.phone, user.email);
+            }
         }
     }
 
     private void showSystemStats() {
         System.out.println("\n=== 시스템 통계 ===");
         
-        List<CSVDatabase.BicycleData> allBicycles = CSVDatabase.getAllBicycles();
-        List<CSVDatabase.User> allUsers = CSVDatabase.getAllUsers();
-        
-        int totalBicycles = allBicycles.size();
-        int availableCount = 0;
-        int inUseCount = 0;
-        int regularCount = 0;
-        int electricCount = 0;
-        
-        for (CSVDatabase.BicycleData bicycle : allBicycles) {
-            if (bicycle.isAvailable && !bicycle.inUse) availableCount++;
-            if (bicycle.inUse) inUseCount++;
-            if (bicycle.bicycleType.contains("일반")) regularCount++;
-            else if (bicycle.bicycleType.contains("전기")) electricCount++;
-        }
-        
-        int regularUsers = 0, studentUsers = 0, premiumUsers = 0;
-        for (CSVDatabase.User user : allUsers) {
-            switch (user.userType) {
-                case "regular": regularUsers++; break;
-                case "student": studentUsers++; break;
-                case "premium": premiumUsers++; break;
+        // 자전거 수는 지역별 카운터의 합 (저장소를 훑지 않음)
+        StationOccupancy.Counts bicycleTotals = StationOccupancy.shared().totals();
+        
+        int totalUsers = 0, regularUsers = 0, studentUsers = 0, premiumUsers = 0;
+        try (Stream<CSVDatabase.User> users = CSVDatabase.streamUsers(null)) {
+            Iterator<CSVDatabase.User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                totalUsers++;
+                switch (iterator.next().userType) {
+                    case "regular": regularUsers++; break;
+                    case "student": studentUsers++; break;
+                    case "premium": premiumUsers++; break;
+                }
             }
         }
         
         System.out.println("📊 자전거 현황:");
-        System.out.println("  총 자전거 수: " + totalBicycles + "대");
-        System.out.println("  사용 가능: " + availableCount + "대");
-        System.out.println("  사용 중: " + inUseCount + "대");
-        System.out.println("  일반 자전거: " + regularCount + "대");
-        System.out.println("  전기 자전거: " + electricCount + "대");
+        System.out.println("  총 자전거 수: " + bicycleTotals.total + "대");
+        System.out.println("  사용 가능: " + bicycleTotals.available + "대");
+        System.out.println("  사용 중: " + bicycleTotals.inUse + "대");
+        System.out.println("  고장 / 정비 중: " + bicycleTotals.unavailable() + "대");
+        System.out.println("  일반 자전거: " + bicycleTotals.regular + "대");
+        System.out.println("  전기 자전거: " + bicycleTotals.electric + "대");
         
         System.out.println("\n👥 사용자 현황:");
-        System.out.println("  총 사용자 수: " + allUsers.size() + "명");
+        System.out.println("  총 사용자 수: " + totalUsers + "명");
         System.out.println("  일반 사용자: " + regularUsers + "명");
         System.out.println("  학생 사용자: " + studentUsers + "명");
         System.out.println("  프리미엄 사용자: " + premiumUsers + "명");
@@ -1024,8 +1162,27 @@ public class BicycleSharingSystem {
             System.out.println("  적용 요금제: " + pricingContext.getCurrentStrategyName());
         }
         
+        System.out.println("\n🔔 알림 구독 현황:");
+        SubscriptionRegistry.shared().showSubscriptions();
+        
+        System.out.println("\n📬 알림 큐 현황:");
+        AsyncObserver.showQueueStatus();
+        SubscriptionRegistry.shared().getCoalescer().showStatus();
+        
+        System.out.println("\n📨 사용자 알림 발송 현황:");
+        NotificationOutbox.showSharedStatus();
+        
         System.out.println("\n📍 지역별 현황:");
         LocationService.showAllLocationsStatus();
+        
+        System.out.println("\n🚩 지역별 누적 대여 출발 수:");
+        Map<String, Integer> departures = RepairDatabase.countCompletedRentalsByStartLocation();
+        if (departures.isEmpty()) {
+            System.out.println("  완료된 대여가 없습니다.");
+        }
+        for (Map.Entry<String, Integer> entry : departures.entrySet()) {
+            System.out.println("  " + entry.getKey() + ": " + entry.getValue() + "건");
+        }
     }
     
     // 유틸리티 메소드들
@@ -1053,6 +1210,28 @@ public class BicycleSharingSystem {
         }
     }
     
+    private LocalDate getDateInput(String prompt) {
+        while (true) {
+            try {
+                System.out.print(prompt);
+                return LocalDate.parse(scanner.nextLine().trim());
+            } catch (java.time.format.DateTimeParseException e) {
+                System.out.println("올바른 날짜를 입력하세요. (예: 2025-10-01)");
+            }
+        }
+    }
+    
+    private java.time.YearMonth getYearMonthInput(String prompt) {
+        while (true) {
+            try {
+                System.out.print(prompt);
+                return java.time.YearMonth.parse(scanner.nextLine().trim());
+            } catch (java.time.format.DateTimeParseException e) {
+                System.out.println("올바른 월을 입력하세요. (예: 2025-10)");
+            }
+        }
+    }
+    
     public static void main(String[] args) {
         BicycleSharingSystem system = new BicycleSharingSystem();
         system.start();
@@ -0,0 +1,16 @@
+package database;
+
+import database.CSVDatabase.BicycleData;
+
+/**
+ * 자전거 상태 변경 통지 (대여 / 반납 / 고장 / 수리 등 저장소에 반영된 모든 변경)
+ * - 저장소 잠금 안에서 변경 순서대로 호출되므로 짧게 처리하고 저장소를 다시 호출하지 않아야 함
+ * - 넘겨받은 객체는 저장소가 보관하는 값이므로 읽기만 함
+ */
+public interface BicycleChangeListener {
+    /**
+     * @param previous 변경 전 상태 (새로 추가된 자전거면 null)
+     * @param current 변경 후 상태
+     */
+    void bicycleChanged(BicycleData previous, BicycleData current);
+}
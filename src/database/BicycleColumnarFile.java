@@ -0,0 +1,157 @@
+package database;
+
+import database.CSVDatabase.BicycleData;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 자전거 컬럼 저장 파일 (bicycles.col)
+ *
+ * 헤더: MAGIC, VERSION, 행 수, ID 폭, 각 컬럼 시작 위치
+ * 사전: 자전거 유형, 지역, 현재 사용자
+ * 컬럼: ID(고정 폭) | 유형 코드(short) | 지역 코드(short) | 상태 플래그(byte) | 사용자 코드(int)
+ *
+ * 읽을 때는 파일 전체를 메모리 매핑하여 시작 시 저장소를 채울 때 한 번 순서대로 읽는다.
+ * (지역별 개수는 저장소의 보조 인덱스 / StationOccupancy가 관리하므로 파일에서 집계하지 않음)
+ */
+public class BicycleColumnarFile {
+    private static final int MAGIC = 0x42434F4C; // "BCOL"
+    private static final int VERSION = 1;
+
+    private static final byte FLAG_AVAILABLE = 1;
+    private static final byte FLAG_IN_USE = 2;
+
+    public static void write(Path target, Collection<BicycleData> bicycles) throws IOException {
+        ColumnarFiles.Dictionary types = new ColumnarFiles.Dictionary();
+        ColumnarFiles.Dictionary locations = new ColumnarFiles.Dictionary();
+        ColumnarFiles.Dictionary users = new ColumnarFiles.Dictionary();
+
+        int rows = bicycles.size();
+        short[] typeCodes = new short[rows];
+        short[] locationCodes = new short[rows];
+        int[] userCodes = new int[rows];
+        List<String> ids = new ArrayList<>(rows);
+
+        int row = 0;
+        for (BicycleData bicycle : bicycles) {
+            ids.add(bicycle.bicycleId);
+            typeCodes[row] = (short) types.encode(bicycle.bicycleType);
+            locationCodes[row] = (short) locations.encode(bicycle.location);
+            userCodes[row] = users.encode(bicycle.currentUser);
+            row++;
+        }
+        if (types.size() > Short.MAX_VALUE || locations.size() > Short.MAX_VALUE) {
+            throw new IOException("사전 크기가 너무 큽니다.");
+        }
+        int idWidth = ColumnarFiles.maxByteLength(ids);
+
+        ByteArrayOutputStream dictionaryBytes = new ByteArrayOutputStream();
+        try (DataOutputStream dict = new DataOutputStream(dictionaryBytes)) {
+            types.writeTo(dict);
+            locations.writeTo(dict);
+            users.writeTo(dict);
+        }
+
+        // 컬럼 시작 위치 계산
+        int headerSize = 4 * 4 + 5 * 8;
+        long idOffset = headerSize + dictionaryBytes.size();
+        long typeOffset = idOffset + (long) rows * idWidth;
+        long locationOffset = typeOffset + rows * 2L;
+        long flagOffset = locationOffset + rows * 2L;
+        long userOffset = flagOffset + rows;
+
+        Path temp = Paths.get(target + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            out.writeInt(idWidth);
+            out.writeLong(idOffset);
+            out.writeLong(typeOffset);
+            out.writeLong(locationOffset);
+            out.writeLong(flagOffset);
+            out.writeLong(userOffset);
+            dictionaryBytes.writeTo(out);
+
+            for (String id : ids) {
+                ColumnarFiles.writeFixed(out, id, idWidth);
+            }
+            for (short code : typeCodes) {
+                out.writeShort(code);
+            }
+            for (short code : locationCodes) {
+                out.writeShort(code);
+            }
+            for (BicycleData bicycle : bicycles) {
+                out.writeByte((bicycle.isAvailable ? FLAG_AVAILABLE : 0) | (bicycle.inUse ? FLAG_IN_USE : 0));
+            }
+            for (int code : userCodes) {
+                out.writeInt(code);
+            }
+        }
+        ColumnarFiles.replace(temp, target);
+    }
+
+    public static Reader open(Path path) throws IOException {
+        return new Reader(ColumnarFiles.map(path));
+    }
+
+    /**
+     * 메모리 매핑된 컬럼 파일 읽기
+     */
+    public static class Reader {
+        private final ByteBuffer buffer;
+        private final int rows;
+        private final int idWidth;
+        private final int idOffset;
+        private final int typeOffset;
+        private final int locationOffset;
+        private final int flagOffset;
+        private final int userOffset;
+        private final String[] types;
+        private final String[] locations;
+        private final String[] users;
+
+        Reader(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("자전거 컬럼 파일 형식이 올바르지 않습니다.");
+            }
+            this.rows = buffer.getInt();
+            this.idWidth = buffer.getInt();
+            this.idOffset = (int) buffer.getLong();
+            this.typeOffset = (int) buffer.getLong();
+            this.locationOffset = (int) buffer.getLong();
+            this.flagOffset = (int) buffer.getLong();
+            this.userOffset = (int) buffer.getLong();
+            this.types = ColumnarFiles.readDictionary(buffer);
+            this.locations = ColumnarFiles.readDictionary(buffer);
+            this.users = ColumnarFiles.readDictionary(buffer);
+        }
+
+        public int rowCount() {
+            return rows;
+        }
+
+        public BicycleData get(int row) {
+            byte flags = buffer.get(flagOffset + row);
+            return new BicycleData(
+                    ColumnarFiles.readFixed(buffer, idOffset + row * idWidth, idWidth),
+                    types[buffer.getShort(typeOffset + row * 2)],
+                    locations[buffer.getShort(locationOffset + row * 2)],
+                    (flags & FLAG_AVAILABLE) != 0,
+                    (flags & FLAG_IN_USE) != 0,
+                    users[buffer.getInt(userOffset + row * 4)]);
+        }
+
+        public void forEach(Consumer<BicycleData> consumer) {
+            for (int row = 0; row < rows; row++) {
+                consumer.accept(get(row));
+            }
+        }
+    }
+}
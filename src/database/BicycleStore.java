@@ -0,0 +1,419 @@
+package database;
+
+import database.CSVDatabase.BicycleData;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 메모리 상주 자전거 저장소
+ * - 시작 시 스냅샷(bicycles.col)을 한 번만 읽어 bicycleId 기본 인덱스를 구성
+ *   (스냅샷이 없으면 bicycles.csv에서 가져옴)
+ * - 지역별 / 대여 가능 여부별 보조 인덱스 유지
+ * - 변경은 선행 기록 로그(bicycles.csv.wal)에 한 줄씩 추가하고, 백그라운드 체크포인트가
+ *   주기적으로 컬럼 형식 스냅샷을 새로 쓴 뒤 로그를 비움
+ * - 시작 시 스냅샷을 읽고 로그를 재생하여 복구
+ * - 변경은 등록된 BicycleChangeListener에 순서대로 통지 (위치 색인 등 파생 데이터 갱신용)
+ * - 저장 실패는 UncheckedIOException으로 호출자에게 알림. fsync에 실패하면 메모리에는 이미 반영된 변경이
+ *   디스크에 남았는지 알 수 없으므로 저장소를 실패 상태로 바꾸고 이후 변경과 체크포인트를 모두 거부
+ *   (재시작하면 스냅샷 + 디스크에 남은 로그로 복구)
+ */
+public class BicycleStore {
+    private static final long CHECKPOINT_INTERVAL_MS = 30_000;
+    private static final long CHECKPOINT_CHECK_MS = 1_000;
+    private static final long CHECKPOINT_LOG_BYTES = 4L * 1024 * 1024;
+
+    private final String snapshotFile;
+    private final String csvFile;
+
+    // 기본 인덱스 (파일 순서 유지)
+    private final Map<String, BicycleData> bicyclesById = new LinkedHashMap<>();
+    // 보조 인덱스
+    private final Map<String, Set<String>> idsByLocation = new HashMap<>();
+    private final Set<String> availableIds = new HashSet<>();
+    // 변경 통지 대상
+    private final List<BicycleChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final BicycleWriteAheadLog log;
+    // 마지막 체크포인트 이후 로그에 기록된 변경 수
+    private long pendingChanges;
+    private long lastCheckpointTime = System.currentTimeMillis();
+
+    // fsync 실패 원인 (null이 아니면 실패 상태)
+    private volatile IOException failure;
+
+    private final ScheduledExecutorService checkpointer;
+    // 주기 체크포인트와 종료 시 체크포인트가 같은 임시 파일을 동시에 쓰지 않도록 직렬화
+    private final Object checkpointLock = new Object();
+
+    public BicycleStore(String snapshotFile, String csvFile) {
+        this.snapshotFile = snapshotFile;
+        this.csvFile = csvFile;
+        this.log = new BicycleWriteAheadLog(csvFile + ".wal");
+        load();
+
+        // 로그를 재생했다면 바로 스냅샷에 반영 (손상된 레코드 이후로 버린 로그도 함께 정리됨)
+        int replayed = log.replay(row -> {
+            BicycleData bicycle = BicycleData.fromCSV(row);
+            if (bicycle != null) {
+                putInMemory(bicycle);
+            }
+        });
+        if (replayed > 0) {
+            System.out.println("자전거 변경 로그 " + replayed + "건을 복구했습니다.");
+        }
+        // CSV에서 처음 가져온 경우에도 바로 컬럼 스냅샷 생성
+        if (replayed > 0 || log.hasDiscardedTail() || (!new File(snapshotFile).exists() && !bicyclesById.isEmpty())) {
+            pendingChanges = Math.max(replayed, 1);
+            checkpoint();
+        }
+
+        this.checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bicycle-store-checkpointer");
+            t.setDaemon(true);
+            return t;
+        });
+        checkpointer.scheduleWithFixedDelay(this::checkpointIfNeeded,
+                CHECKPOINT_CHECK_MS, CHECKPOINT_CHECK_MS, TimeUnit.MILLISECONDS);
+
+        // 종료 시 스냅샷 정리
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            checkpoint();
+            log.close();
+        }, "bicycle-store-shutdown"));
+    }
+
+    private void load() {
+        File snapshot = new File(snapshotFile);
+        if (snapshot.exists()) {
+            try {
+                BicycleColumnarFile.open(snapshot.toPath()).forEach(this::index);
+                return;
+            } catch (IOException e) {
+                System.err.println("자전거 스냅샷 로드 중 오류 발생: " + e.getMessage());
+            }
+        }
+        importCSV();
+    }
+
+    // 컬럼 스냅샷이 없을 때 CSV에서 가져오기
+    // 예전 버전은 FileWriter(기본 문자셋)로 기록했으므로 UTF-8이 아니면 기본 문자셋으로 읽음.
+    // 읽지 못하면 빈 저장소로 시작하지 않고 멈춤 (초기 자전거 생성과 체크포인트가 기존 데이터를 덮어쓰지 않도록)
+    private void importCSV() {
+        File file = new File(csvFile);
+        if (!file.exists()) {
+            // 파일이 없는 경우는 정상 (첫 실행)
+            return;
+        }
+
+        List<String> lines;
+        try {
+            lines = CSVScan.readLegacyLines(file.toPath());
+        } catch (IOException e) {
+            System.err.println("자전거 데이터 로드 중 오류 발생: " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+        for (int i = 1; i < lines.size(); i++) {
+            BicycleData bicycle = BicycleData.fromCSV(lines.get(i));
+            if (bicycle != null) {
+                index(bicycle);
+            }
+        }
+    }
+
+    /**
+     * 현재 상태를 CSV로 내보내기
+     */
+    public void exportCSV(String targetFile) throws IOException {
+        List<String> lines;
+        synchronized (this) {
+            lines = new ArrayList<>(bicyclesById.size() + 1);
+            lines.add(CSVDatabase.BICYCLES_HEADER);
+            for (BicycleData bicycle : bicyclesById.values()) {
+                lines.add(bicycle.toCSV());
+            }
+        }
+        Files.write(Paths.get(targetFile), lines, StandardCharsets.UTF_8);
+    }
+
+    // 조회 메소드들 (호출자가 수정해도 인덱스가 깨지지 않도록 복사본 반환)
+    public synchronized BicycleData get(String bicycleId) {
+        BicycleData bicycle = bicyclesById.get(bicycleId);
+        return bicycle != null ? bicycle.copy() : null;
+    }
+
+    public synchronized List<BicycleData> getAll() {
+        List<BicycleData> result = new ArrayList<>(bicyclesById.size());
+        for (BicycleData bicycle : bicyclesById.values()) {
+            result.add(bicycle.copy());
+        }
+        return result;
+    }
+
+    /**
+     * 조건에 맞는 자전거만 복사하여 순서대로 제공 (조건 검사는 복사 전에 수행)
+     * 저장된 객체는 교체만 되고 수정되지 않으므로 참조 배열만 잠금 안에서 복사한다.
+     */
+    public Stream<BicycleData> stream(Predicate<BicycleData> filter) {
+        BicycleData[] rows;
+        synchronized (this) {
+            rows = bicyclesById.values().toArray(new BicycleData[0]);
+        }
+        Stream<BicycleData> stream = Arrays.stream(rows);
+        if (filter != null) {
+            stream = stream.filter(filter);
+        }
+        return stream.map(BicycleData::copy);
+    }
+
+    public synchronized List<BicycleData> getByLocation(String location) {
+        return copyOf(idsByLocation.get(location), false);
+    }
+
+    public synchronized List<BicycleData> getAvailableByLocation(String location) {
+        return copyOf(idsByLocation.get(location), true);
+    }
+
+    // 지역별 개수 (보조 인덱스만 사용, 객체를 복사하지 않음)
+    public synchronized int countByLocation(String location) {
+        Set<String> ids = idsByLocation.get(location);
+        return ids != null ? ids.size() : 0;
+    }
+
+    public synchronized int countAvailableByLocation(String location) {
+        Set<String> ids = idsByLocation.get(location);
+        if (ids == null) {
+            return 0;
+        }
+        int count = 0;
+        for (String id : ids) {
+            if (availableIds.contains(id)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized int size() {
+        return bicyclesById.size();
+    }
+
+    public synchronized int availableCount() {
+        return availableIds.size();
+    }
+
+    private List<BicycleData> copyOf(Set<String> ids, boolean availableOnly) {
+        List<BicycleData> result = new ArrayList<>();
+        if (ids == null) {
+            return result;
+        }
+        for (String id : ids) {
+            if (!availableOnly || availableIds.contains(id)) {
+                result.add(bicyclesById.get(id).copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 저장 (추가 또는 갱신)
+     * 로그에 한 줄을 추가하고 fsync가 끝난 뒤 반환한다. 동시에 들어온 변경은 한 번의 fsync로 묶인다.
+     * 로그 기록에 실패하면 메모리도 바꾸지 않는다 (재시작 후 상태가 달라지지 않도록).
+     * @throws UncheckedIOException 로그 기록 / fsync 실패 또는 저장소가 실패 상태일 때
+     */
+    public void put(BicycleData bicycle) {
+        long seq;
+        synchronized (this) {
+            checkWritable();
+            BicycleData stored = bicycle.copy();
+            seq = append(stored);
+            putInMemory(stored);
+            pendingChanges++;
+        }
+        sync(seq);
+    }
+
+    /**
+     * 원자적 상태 전이: 현재 상태가 expected를 만족할 때만 change를 적용하여 저장
+     * 조건 확인과 변경이 같은 잠금 안에서 이루어지므로 두 사용자가 같은 자전거를 동시에 대여할 수 없다.
+     * fsync까지 끝나야 반환하므로 반환값을 받은 변경은 디스크에 남아 있다.
+     * @return 변경된 자전거 (없거나 조건이 맞지 않으면 null)
+     * @throws UncheckedIOException 로그 기록 / fsync 실패 또는 저장소가 실패 상태일 때
+     */
+    public BicycleData compareAndUpdate(String bicycleId, Predicate<BicycleData> expected, Consumer<BicycleData> change) {
+        long seq;
+        BicycleData updated;
+        synchronized (this) {
+            checkWritable();
+            BicycleData current = bicyclesById.get(bicycleId);
+            if (current == null || !expected.test(current)) {
+                return null;
+            }
+            updated = current.copy();
+            change.accept(updated);
+            updated.bicycleId = bicycleId;
+            seq = append(updated);
+            putInMemory(updated.copy());
+            pendingChanges++;
+        }
+        sync(seq);
+        return updated;
+    }
+
+    /**
+     * fsync 실패로 변경을 받지 않는 상태인지
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    private void checkWritable() {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new UncheckedIOException("이전 저장 실패로 자전거 저장소가 변경을 받지 않습니다 (재시작 필요): "
+                    + cause.getMessage(), cause);
+        }
+    }
+
+    // 로그 기록 실패 시 로그는 기록 전으로 잘리고 메모리는 바뀌지 않음
+    private long append(BicycleData bicycle) {
+        try {
+            return log.append(bicycle.toCSV());
+        } catch (IOException e) {
+            System.err.println("자전거 저장 중 오류 발생: " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // fsync 실패 시 메모리에 반영된 변경이 디스크에 남았는지 알 수 없으므로 실패 상태로 전환
+    private void sync(long seq) {
+        try {
+            log.sync(seq);
+        } catch (IOException e) {
+            synchronized (this) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            System.err.println("자전거 저장 중 오류 발생 (이후 변경을 받지 않음): " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void putInMemory(BicycleData bicycle) {
+        BicycleData previous = bicyclesById.get(bicycle.bicycleId);
+        if (previous != null) {
+            unindex(previous);
+        }
+        index(bicycle);
+        for (BicycleChangeListener listener : listeners) {
+            listener.bicycleChanged(previous, bicycle);
+        }
+    }
+
+    /**
+     * 변경 통지 등록
+     * 등록과 같은 잠금 안에서 현재 자전거 전체를 새로 추가된 것처럼(previous = null) 먼저 통지하므로
+     * 등록 직후의 변경을 놓치거나 두 번 받지 않는다.
+     */
+    public synchronized void addListener(BicycleChangeListener listener) {
+        for (BicycleData bicycle : bicyclesById.values()) {
+            listener.bicycleChanged(null, bicycle);
+        }
+        listeners.add(listener);
+    }
+
+    public synchronized void removeListener(BicycleChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 잠금 안에서 현재 자전거 전체를 읽음 (변경 통지로 유지하는 파생 데이터의 정합성 검사용)
+     * 읽는 동안 변경이 들어오지 않으므로 통지로 갱신한 값과 그대로 비교할 수 있다. 넘겨받은 값은 읽기만 한다.
+     */
+    public synchronized <T> T inspect(Function<Collection<BicycleData>, T> reader) {
+        return reader.apply(Collections.unmodifiableCollection(bicyclesById.values()));
+    }
+
+    private void index(BicycleData bicycle) {
+        bicyclesById.put(bicycle.bicycleId, bicycle);
+        idsByLocation.computeIfAbsent(bicycle.location, k -> new LinkedHashSet<>()).add(bicycle.bicycleId);
+        if (isRentable(bicycle)) {
+            availableIds.add(bicycle.bicycleId);
+        }
+    }
+
+    private void unindex(BicycleData bicycle) {
+        Set<String> ids = idsByLocation.get(bicycle.location);
+        if (ids != null) {
+            ids.remove(bicycle.bicycleId);
+            if (ids.isEmpty()) {
+                idsByLocation.remove(bicycle.location);
+            }
+        }
+        availableIds.remove(bicycle.bicycleId);
+    }
+
+    private static boolean isRentable(BicycleData bicycle) {
+        return bicycle.isAvailable && !bicycle.inUse;
+    }
+
+    private void checkpointIfNeeded() {
+        boolean due;
+        synchronized (this) {
+            due = pendingChanges > 0 && (log.sizeInBytes() >= CHECKPOINT_LOG_BYTES
+                    || System.currentTimeMillis() - lastCheckpointTime >= CHECKPOINT_INTERVAL_MS);
+        }
+        if (due) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * 체크포인트: 로그를 넘기고 현재 상태를 컬럼 스냅샷으로 저장한 뒤 반영된 로그 삭제
+     * 스냅샷은 임시 파일에 쓴 뒤 원자적으로 교체하므로 중간에 중단되어도 이전 스냅샷 + 로그로 복구된다.
+     * 실패 상태에서는 디스크에 남지 않았을 수 있는 메모리 상태를 스냅샷으로 만들지 않는다.
+     */
+    public void checkpoint() {
+        synchronized (checkpointLock) {
+            List<BicycleData> rows;
+            int rotatedNumber;
+            synchronized (this) {
+                if (pendingChanges == 0 || failure != null) {
+                    return;
+                }
+                try {
+                    rotatedNumber = log.rotate();
+                } catch (IOException e) {
+                    System.err.println("체크포인트 중 오류 발생: " + e.getMessage());
+                    return;
+                }
+                // 메모리의 객체는 교체만 되고 수정되지 않으므로 참조 목록만 복사
+                rows = new ArrayList<>(bicyclesById.values());
+                pendingChanges = 0;
+                lastCheckpointTime = System.currentTimeMillis();
+            }
+
+            try {
+                BicycleColumnarFile.write(Paths.get(snapshotFile), rows);
+                log.truncateUpTo(rotatedNumber);
+            } catch (IOException e) {
+                // 넘긴 로그 파일이 남아 있으므로 다음 체크포인트 또는 재시작 시 다시 반영됨
+                System.err.println("체크포인트 중 오류 발생: " + e.getMessage());
+                synchronized (this) {
+                    pendingChanges++;
+                }
+            }
+        }
+    }
+}
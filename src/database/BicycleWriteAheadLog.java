@@ -0,0 +1,248 @@
+package database;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 자전거 상태 변경 선행 기록 로그 (WAL)
+ * - 변경 1건 = 로그 1줄 (순번, CRC32, CSV 행)
+ * - 여러 스레드의 기록을 한 번의 fsync로 묶어서 처리 (group commit)
+ * - 체크포인트 시 현재 로그를 번호가 붙은 파일로 넘기고, 스냅샷 저장이 끝나면 삭제
+ * - 복구 시 CRC가 맞지 않는 줄(기록 중 중단된 마지막 줄)을 만나면 그 뒤의 줄과 이후 로그 파일을 모두 무시
+ *   (복구 결과가 항상 변경 이력의 앞부분이 되도록 함)
+ */
+public class BicycleWriteAheadLog {
+    private final String fileName;
+    private FileChannel channel;
+
+    private long writtenSeq;  // 채널에 기록된 마지막 순번
+    private long durableSeq;  // fsync까지 끝난 마지막 순번
+    private int rotatedCount;
+    private boolean discardedTail; // 마지막 재생에서 손상된 레코드 이후를 버렸는지
+
+    // fsync는 한 스레드만 수행하고, 기다리던 나머지는 그 결과를 함께 사용
+    private final Object syncLock = new Object();
+
+    public BicycleWriteAheadLog(String fileName) {
+        this.fileName = fileName;
+        List<Path> rotated = findRotatedFiles();
+        this.rotatedCount = rotated.isEmpty() ? 0 : rotatedNumberOf(rotated.get(rotated.size() - 1));
+    }
+
+    /**
+     * 스냅샷 이후의 로그를 순서대로 재생 (체크포인트 중 남은 파일 → 현재 파일)
+     * 손상된 레코드를 만나면 재생 전체를 멈춤 (hasDiscardedTail()이 true가 되며, 호출자는 바로 체크포인트하여 남은 로그를 정리해야 함)
+     * @param rowConsumer 복구된 자전거 CSV 행
+     * @return 재생한 레코드 수
+     */
+    public synchronized int replay(Consumer<String> rowConsumer) {
+        int count = 0;
+        discardedTail = false;
+        List<Path> files = new ArrayList<>(findRotatedFiles());
+        files.add(Paths.get(fileName));
+
+        replay:
+        for (Path file : files) {
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    String row = decode(line);
+                    if (row == null) {
+                        // 기록 도중 중단된 레코드 - 이후 내용(다음 로그 파일 포함)은 신뢰할 수 없음
+                        System.err.println("손상된 로그 레코드를 발견하여 복구를 중단합니다: " + file);
+                        discardedTail = true;
+                        break replay;
+                    }
+                    rowConsumer.accept(row);
+                    count++;
+                }
+            } catch (IOException e) {
+                System.err.println("로그 복구 중 오류 발생: " + e.getMessage());
+                discardedTail = true;
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 마지막 replay에서 손상된 레코드 이후의 로그를 반영하지 않았는지
+     */
+    public synchronized boolean hasDiscardedTail() {
+        return discardedTail;
+    }
+
+    /**
+     * 레코드를 로그에 추가 (아직 fsync 전)
+     * @return 레코드 순번 (sync 호출에 사용)
+     */
+    public synchronized long append(String row) throws IOException {
+        ensureOpen();
+        long seq = writtenSeq + 1;
+        ByteBuffer buffer = ByteBuffer.wrap(encode(seq, row).getBytes(StandardCharsets.UTF_8));
+        long start = channel.size();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            // 일부만 기록된 레코드 뒤에 다음 레코드가 붙지 않도록 잘라냄 (실패하면 다음 append에서 다시 엶)
+            try {
+                channel.truncate(start);
+            } catch (IOException ignored) {
+                channel.close();
+                channel = null;
+            }
+            throw e;
+        }
+        writtenSeq = seq;
+        return seq;
+    }
+
+    /**
+     * 주어진 순번까지 디스크에 반영될 때까지 대기 (group commit)
+     * 먼저 들어온 스레드가 그 시점까지 기록된 모든 레코드를 한 번에 fsync 한다.
+     */
+    public void sync(long seq) throws IOException {
+        synchronized (syncLock) {
+            if (durableSeq >= seq) {
+                return;
+            }
+            FileChannel target;
+            long upTo;
+            synchronized (this) {
+                target = channel;
+                upTo = writtenSeq;
+            }
+            if (target != null) {
+                target.force(false);
+            }
+            durableSeq = upTo;
+        }
+    }
+
+    /**
+     * 체크포인트 시작: 현재 로그를 번호가 붙은 파일로 넘기고 새 로그를 시작
+     * @return 이번 체크포인트가 포함하는 마지막 로그 파일 번호
+     */
+    public int rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (channel != null) {
+                    channel.force(false);
+                    channel.close();
+                    channel = null;
+                    durableSeq = writtenSeq;
+                }
+                Path current = Paths.get(fileName);
+                if (Files.exists(current) && Files.size(current) > 0) {
+                    rotatedCount++;
+                    Files.move(current, Paths.get(fileName + "." + rotatedCount), StandardCopyOption.ATOMIC_MOVE);
+                }
+                return rotatedCount;
+            }
+        }
+    }
+
+    /**
+     * 스냅샷 저장이 끝난 뒤 호출: 스냅샷에 이미 반영된 로그 파일 삭제
+     */
+    public synchronized void truncateUpTo(int rotatedNumber) {
+        for (Path file : findRotatedFiles()) {
+            if (rotatedNumberOf(file) <= rotatedNumber) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    System.err.println("로그 정리 중 오류 발생: " + e.getMessage());
+                }
+            }
+        }
+        if (findRotatedFiles().isEmpty()) {
+            rotatedCount = 0;
+        }
+    }
+
+    public synchronized long sizeInBytes() {
+        File file = new File(fileName);
+        return file.exists() ? file.length() : 0;
+    }
+
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("로그 종료 중 오류 발생: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(Paths.get(fileName),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private List<Path> findRotatedFiles() {
+        Path base = Paths.get(fileName).toAbsolutePath();
+        Path dir = base.getParent();
+        String prefix = base.getFileName().toString() + ".";
+        List<Path> files = new ArrayList<>();
+
+        File[] candidates = dir.toFile().listFiles();
+        if (candidates == null) {
+            return files;
+        }
+        for (File candidate : candidates) {
+            String name = candidate.getName();
+            if (name.startsWith(prefix) && name.substring(prefix.length()).matches("\\d+")) {
+                files.add(candidate.toPath());
+            }
+        }
+        files.sort(Comparator.comparingInt(BicycleWriteAheadLog::rotatedNumberOf));
+        return files;
+    }
+
+    private static int rotatedNumberOf(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    // 레코드 형식: 순번,CRC32(16진수),CSV 행
+    private static String encode(long seq, String row) {
+        return seq + "," + Long.toHexString(checksum(row)) + "," + row + "\n";
+    }
+
+    private static String decode(String line) {
+        int first = line.indexOf(',');
+        int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+        if (second < 0) {
+            return null;
+        }
+        String row = line.substring(second + 1);
+        try {
+            long crc = Long.parseLong(line.substring(first + 1, second), 16);
+            return crc == checksum(row) ? row : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long checksum(String row) {
+        CRC32 crc = new CRC32();
+        crc.update(row.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -1,7 +1,14 @@
 package database;
 
+import location.StationCatalog;
+
 import java.io.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * CSV 파일 기반 데이터베이스 관리 클래스
@@ -9,6 +16,15 @@ import java.util.*;
 public class CSVDatabase {
     private static final String USERS_FILE = "users.csv";
     private static final String BICYCLES_FILE = "bicycles.csv";
+    private static final String BICYCLES_SNAPSHOT_FILE = "bicycles.col";
+    private static final String USERS_HEADER = "userId,password,name,userType,phone,email,isAdmin,subscriptionStartDate";
+    static final String BICYCLES_HEADER = "bicycleId,bicycleType,location,isAvailable,inUse,currentUser";
+    
+    // 사용자 데이터는 시작 시 한 번만 읽어 아이디 해시 인덱스로 유지
+    private static final UserDirectory userDirectory = new UserDirectory(USERS_FILE, USERS_HEADER);
+    
+    // 자전거 데이터는 시작 시 한 번만 읽어 메모리에 유지 (CSV는 가져오기/내보내기 용도)
+    private static final BicycleStore bicycleStore = new BicycleStore(BICYCLES_SNAPSHOT_FILE, BICYCLES_FILE);
     
     // 사용자 데이터 관리
     public static class User {
@@ -44,23 +60,33 @@ public class CSVDatabase {
         }
         
         public String toCSV() {
-            return String.join(",", userId, password, name, userType, phone, email, 
+            return CSVTokenizer.join(userId, password, name, userType, phone, email, 
                     String.valueOf(isAdmin), subscriptionStartDate);
         }
         
+        public User copy() {
+            return new User(userId, password, name, userType, phone, email, isAdmin, subscriptionStartDate);
+        }
+        
         public static User fromCSV(String csvLine) {
-            String[] parts = csvLine.split(",", 8);
-            if (parts.length < 6) return null;
+            CSVTokenizer t = CSVTokenizer.forLine(csvLine);
+            String userId = t.nextString();
+            String password = t.nextString();
+            String name = t.nextString();
+            String userType = t.nextString();
+            String phone = t.nextString();
+            String email = t.nextString();
+            if (email == null) return null;
             
-            boolean isAdmin = parts.length > 6 ? Boolean.parseBoolean(parts[6]) : false;
-            String subscriptionStartDate = parts.length > 7 ? parts[7] : "";
+            boolean isAdmin = t.hasNext() && t.nextBoolean();
+            String subscriptionStartDate = t.hasNext() ? t.nextString() : "";
             
             // admin 타입인 경우 자동으로 isAdmin을 true로 설정
-            if ("admin".equals(parts[3])) {
+            if ("admin".equals(userType)) {
                 isAdmin = true;
             }
             
-            return new User(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5], isAdmin, subscriptionStartDate);
+            return new User(userId, password, name, userType, phone, email, isAdmin, subscriptionStartDate);
         }
     }
     
@@ -83,217 +109,146 @@ public class CSVDatabase {
         }
         
         public String toCSV() {
-            return String.join(",", bicycleId, bicycleType, location, 
+            return CSVTokenizer.join(bicycleId, bicycleType, location, 
                     String.valueOf(isAvailable), String.valueOf(inUse), currentUser);
         }
         
+        public BicycleData copy() {
+            return new BicycleData(bicycleId, bicycleType, location, isAvailable, inUse, currentUser);
+        }
+        
         public static BicycleData fromCSV(String csvLine) {
-            String[] parts = csvLine.split(",");
-            if (parts.length != 6) return null;
-            return new BicycleData(parts[0], parts[1], parts[2], 
-                    Boolean.parseBoolean(parts[3]), Boolean.parseBoolean(parts[4]), parts[5]);
+            CSVTokenizer t = CSVTokenizer.forLine(csvLine);
+            String bicycleId = t.nextString();
+            String bicycleType = t.nextString();
+            String location = t.nextString();
+            if (!t.hasNext()) return null;
+            boolean isAvailable = t.nextBoolean();
+            if (!t.hasNext()) return null;
+            boolean inUse = t.nextBoolean();
+            String currentUser = t.nextString();
+            if (currentUser == null || t.hasNext()) return null;
+            return new BicycleData(bicycleId, bicycleType, location, isAvailable, inUse, currentUser);
         }
     }
     
-    // 사용자 관련 메소드들
+    // 사용자 관련 메소드들 (같은 아이디로 저장하면 기존 정보를 대체)
     public static void saveUser(User user) {
-        try (FileWriter fw = new FileWriter(USERS_FILE, true);
-             PrintWriter pw = new PrintWriter(fw)) {
-            
-            // 파일이 비어있으면 헤더 추가
-            File file = new File(USERS_FILE);
-            if (file.length() == 0) {
-                pw.println("userId,password,name,userType,phone,email,isAdmin,subscriptionStartDate");
-            }
-            
-            pw.println(user.toCSV());
+        try {
+            userDirectory.upsert(user);
             System.out.println("사용자 정보가 저장되었습니다: " + user.userId);
-            
         } catch (IOException e) {
             System.err.println("사용자 저장 중 오류 발생: " + e.getMessage());
         }
     }
     
     public static User getUser(String userId) {
-        File file = new File(USERS_FILE);
-        if (!file.exists()) {
-            // 파일이 없는 경우는 정상 (첫 실행)
-            return null;
-        }
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(USERS_FILE))) {
-            String line;
-            boolean isHeader = true;
-            
-            while ((line = br.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
-                
-                User user = User.fromCSV(line);
-                if (user != null && user.userId.equals(userId)) {
-                    return user;
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("사용자 조회 중 오류 발생: " + e.getMessage());
-        }
-        
-        return null;
+        return userDirectory.get(userId);
     }
     
     public static boolean userExists(String userId) {
-        return getUser(userId) != null;
+        return userDirectory.contains(userId);
     }
     
     public static List<User> getAllUsers() {
-        List<User> users = new ArrayList<>();
-        File file = new File(USERS_FILE);
-        if (!file.exists()) {
-            // 파일이 없는 경우는 정상 (첫 실행)
-            return users;
-        }
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(USERS_FILE))) {
-            String line;
-            boolean isHeader = true;
-            
-            while ((line = br.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
-                
-                User user = User.fromCSV(line);
-                if (user != null) {
-                    users.add(user);
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("사용자 목록 조회 중 오류 발생: " + e.getMessage());
+        try (Stream<User> users = streamUsers(null)) {
+            return users.collect(Collectors.toList());
         }
-        
-        return users;
     }
     
-    // 자전거 관련 메소드들
+    // 조건에 맞는 사용자만 복사하여 제공 (전체 목록을 만들지 않음)
+    public static Stream<User> streamUsers(Predicate<User> filter) {
+        return userDirectory.stream(filter);
+    }
+    
+    public static int countUsers() {
+        return userDirectory.size();
+    }
+    
+    // 자전거 관련 메소드들 (메모리 저장소 경유, 변경은 로그에 추가 후 주기적으로 스냅샷 저장)
+    // 저장(fsync) 실패는 UncheckedIOException
     public static void saveBicycle(BicycleData bicycle) {
-        List<BicycleData> bicycles = getAllBicycles();
-        
-        // 기존 자전거 업데이트 또는 새로 추가
-        boolean updated = false;
-        for (int i = 0; i < bicycles.size(); i++) {
-            if (bicycles.get(i).bicycleId.equals(bicycle.bicycleId)) {
-                bicycles.set(i, bicycle);
-                updated = true;
-                break;
-            }
-        }
-        
-        if (!updated) {
-            bicycles.add(bicycle);
-        }
-        
-        // 전체 파일 다시 쓰기
-        try (FileWriter fw = new FileWriter(BICYCLES_FILE);
-             PrintWriter pw = new PrintWriter(fw)) {
-            
-            pw.println("bicycleId,bicycleType,location,isAvailable,inUse,currentUser");
-            
-            for (BicycleData b : bicycles) {
-                pw.println(b.toCSV());
-            }
-            
-        } catch (IOException e) {
-            System.err.println("자전거 저장 중 오류 발생: " + e.getMessage());
-        }
+        bicycleStore.put(bicycle);
+    }
+    
+    // 현재 상태가 expected를 만족할 때만 change를 적용 (대여 / 반납의 원자적 상태 전이용)
+    public static BicycleData compareAndUpdateBicycle(String bicycleId, Predicate<BicycleData> expected, Consumer<BicycleData> change) {
+        return bicycleStore.compareAndUpdate(bicycleId, expected, change);
     }
     
     public static BicycleData getBicycle(String bicycleId) {
-        File file = new File(BICYCLES_FILE);
-        if (!file.exists()) {
-            // 파일이 없는 경우는 정상 (첫 실행)
-            return null;
-        }
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(BICYCLES_FILE))) {
-            String line;
-            boolean isHeader = true;
-            
-            while ((line = br.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
-                
-                BicycleData bicycle = BicycleData.fromCSV(line);
-                if (bicycle != null && bicycle.bicycleId.equals(bicycleId)) {
-                    return bicycle;
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("자전거 조회 중 오류 발생: " + e.getMessage());
-        }
-        
-        return null;
+        return bicycleStore.get(bicycleId);
     }
     
     public static List<BicycleData> getAllBicycles() {
-        List<BicycleData> bicycles = new ArrayList<>();
-        File file = new File(BICYCLES_FILE);
-        if (!file.exists()) {
-            // 파일이 없는 경우는 정상 (첫 실행)
-            return bicycles;
-        }
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(BICYCLES_FILE))) {
-            String line;
-            boolean isHeader = true;
-            
-            while ((line = br.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
-                
-                BicycleData bicycle = BicycleData.fromCSV(line);
-                if (bicycle != null) {
-                    bicycles.add(bicycle);
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("자전거 목록 조회 중 오류 발생: " + e.getMessage());
-        }
-        
-        return bicycles;
+        return bicycleStore.getAll();
+    }
+    
+    // 조건에 맞는 자전거만 복사하여 제공 (전체 목록을 만들지 않음)
+    public static Stream<BicycleData> streamBicycles(Predicate<BicycleData> filter) {
+        return bicycleStore.stream(filter);
     }
     
     public static List<BicycleData> getBicyclesByLocation(String location) {
-        List<BicycleData> locationBicycles = new ArrayList<>();
-        List<BicycleData> allBicycles = getAllBicycles();
-        
-        for (BicycleData bicycle : allBicycles) {
-            if (bicycle.location.equals(location)) {
-                locationBicycles.add(bicycle);
-            }
+        return bicycleStore.getByLocation(location);
+    }
+    
+    public static List<BicycleData> getAvailableBicyclesByLocation(String location) {
+        return bicycleStore.getAvailableByLocation(location);
+    }
+    
+    public static int countBicycles() {
+        return bicycleStore.size();
+    }
+    
+    public static int countBicyclesByLocation(String location) {
+        return bicycleStore.countByLocation(location);
+    }
+    
+    public static int countAvailableBicyclesByLocation(String location) {
+        return bicycleStore.countAvailableByLocation(location);
+    }
+    
+    // 자전거 변경 통지 등록 (등록 시 현재 자전거 전체를 먼저 통지)
+    public static void addBicycleListener(BicycleChangeListener listener) {
+        bicycleStore.addListener(listener);
+    }
+    
+    public static void removeBicycleListener(BicycleChangeListener listener) {
+        bicycleStore.removeListener(listener);
+    }
+    
+    // 변경이 멈춘 상태에서 자전거 전체 읽기 (정합성 검사용, 읽기만 할 것)
+    public static <T> T inspectBicycles(Function<Collection<BicycleData>, T> reader) {
+        return bicycleStore.inspect(reader);
+    }
+    
+    // 로그에 쌓인 자전거 변경분을 즉시 스냅샷 파일에 반영
+    public static void flushBicycles() {
+        bicycleStore.checkpoint();
+    }
+    
+    // 현재 자전거 상태를 bicycles.csv로 내보내기
+    public static void exportBicyclesToCSV() {
+        try {
+            bicycleStore.exportCSV(BICYCLES_FILE);
+            System.out.println("자전거 데이터를 " + BICYCLES_FILE + " 파일로 내보냈습니다.");
+        } catch (IOException e) {
+            System.err.println("자전거 데이터 내보내기 중 오류 발생: " + e.getMessage());
         }
-        
-        return locationBicycles;
     }
     
     // 초기 데이터 생성
     public static void initializeData() {
         // 초기 자전거 데이터 생성
-        List<BicycleData> bicycles = getAllBicycles();
-        if (bicycles.isEmpty()) {
+        if (bicycleStore.size() == 0) {
             System.out.println("초기 자전거 데이터를 생성합니다...");
             
-            // 각 지역별로 자전거 배치
-            String[] locations = {"죽전동", "보정동", "구미동", "성복동", "상현동"};
+            // 대여소 목록(stations.csv)의 대여소마다 자전거 배치
             int bicycleCounter = 1;
             
-            for (String location : locations) {
+            for (StationCatalog.Station station : StationCatalog.current().stations()) {
+                String location = station.name;
                 // 각 지역에 일반 자전거 2대, 전기 자전거 1대 배치
                 for (int i = 0; i < 2; i++) {
                     String id = String.format("REG%03d", bicycleCounter++);
@@ -304,6 +259,7 @@ public class CSVDatabase {
                 saveBicycle(new BicycleData(id, "전기 자전거", location, true, false, ""));
             }
             
+            flushBicycles();
             System.out.println("초기 자전거 " + (bicycleCounter - 1) + "대가 배치되었습니다.");
         }
     }
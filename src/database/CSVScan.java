@@ -0,0 +1,99 @@
+package database;
+
+import java.io.*;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * CSV 파일 스트리밍 조회 도구
+ * - 파일을 한 줄씩 읽어 Stream으로 제공 (전체 목록을 만들지 않음)
+ * - 원본 줄 단계 조건(rawFilter)으로 객체 생성 전에 걸러냄
+ * 반환된 Stream은 파일을 열고 있으므로 try-with-resources로 닫아야 한다.
+ */
+public class CSVScan {
+
+    private CSVScan() {
+    }
+
+    /**
+     * @param file 헤더가 있는 CSV 파일 (없으면 빈 Stream)
+     * @param rawFilter 원본 줄 조건 (null이면 전체)
+     * @param parser 줄 → 객체 (null 반환 시 건너뜀)
+     */
+    public static <T> Stream<T> lines(String file, Predicate<String> rawFilter, Function<String, T> parser) {
+        Path path = Paths.get(file);
+        if (!Files.exists(path)) {
+            // 파일이 없는 경우는 정상 (첫 실행)
+            return Stream.empty();
+        }
+
+        BufferedReader br;
+        try {
+            // 테이블 파일은 FileWriter(기본 문자셋)로 기록되므로 같은 문자셋으로 읽음
+            br = new BufferedReader(new FileReader(file));
+        } catch (IOException e) {
+            System.err.println("파일 조회 중 오류 발생: " + e.getMessage());
+            return Stream.empty();
+        }
+
+        Stream<String> rows = br.lines().skip(1);
+        if (rawFilter != null) {
+            rows = rows.filter(rawFilter);
+        }
+        return rows.map(parser)
+                .filter(Objects::nonNull)
+                .onClose(() -> {
+                    try {
+                        br.close();
+                    } catch (IOException e) {
+                        System.err.println("파일 닫기 중 오류 발생: " + e.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Iterator를 닫을 수 있는 Stream으로 변환
+     */
+    static <T> Stream<T> stream(Iterator<T> iterator, Runnable onClose) {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(onClose);
+    }
+
+    /**
+     * n번째 필드가 value와 같은지 (부분 문자열을 만들지 않고 비교, 따옴표 필드 지원)
+     */
+    public static Predicate<String> fieldEquals(int index, String value) {
+        return line -> fieldEquals(line, index, value);
+    }
+
+    public static boolean fieldEquals(String line, int index, String value) {
+        return CSVTokenizer.fieldEquals(line, index, value);
+    }
+
+    /**
+     * 예전 버전이 FileWriter(기본 문자셋)로 기록한 파일 전체를 읽음 (한 번만 하는 가져오기 / 이전용)
+     * UTF-8로 먼저 읽고, 디코딩에 실패하면 기본 문자셋(한국어 Windows의 Java 17이면 MS949)으로 다시 읽음
+     * @throws IOException 두 문자셋 모두 읽을 수 없을 때
+     */
+    static List<String> readLegacyLines(Path path) throws IOException {
+        return readLegacyLines(path, Charset.defaultCharset());
+    }
+
+    static List<String> readLegacyLines(Path path, Charset fallback) throws IOException {
+        try {
+            return Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (CharacterCodingException e) {
+            if (fallback.equals(StandardCharsets.UTF_8)) {
+                throw e;
+            }
+            return Files.readAllLines(path, fallback);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package database;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * CSV 한 줄을 필드 단위로 읽는 재사용 토크나이저
+ * - CharSequence(String, CharBuffer 등)를 그대로 읽으며 split/정규식을 쓰지 않음
+ * - 큰따옴표로 감싼 필드 지원 (필드 안의 쉼표, "" → ")
+ * - boolean / double / 날짜-시각 필드는 부분 문자열을 만들지 않고 바로 변환
+ * 한 인스턴스는 한 스레드에서만 사용한다. (레코드 변환용은 forLine으로 스레드별 인스턴스 재사용)
+ */
+public final class CSVTokenizer {
+    private static final ThreadLocal<CSVTokenizer> LOCAL = ThreadLocal.withInitial(CSVTokenizer::new);
+
+    // 10^0 ~ 10^22 는 double로 정확히 표현됨
+    private static final double[] POWERS_OF_TEN = new double[23];
+    // 이 값보다 작은 정수는 double로 정확히 표현됨 (2^53)
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private CharSequence line = "";
+    private int position;
+    private boolean exhausted = true;
+
+    // 마지막으로 읽은 필드 범위 (따옴표 제외)
+    private int fieldStart;
+    private int fieldEnd;
+    private boolean fieldHasEscapes;
+
+    // 마지막으로 읽은 시각 필드의 나노초
+    private int lastNano;
+
+    /**
+     * 현재 스레드의 토크나이저를 해당 줄로 초기화하여 반환 (레코드 fromCSV용)
+     */
+    public static CSVTokenizer forLine(CharSequence line) {
+        return LOCAL.get().reset(line);
+    }
+
+    public CSVTokenizer reset(CharSequence line) {
+        this.line = line;
+        this.position = 0;
+        this.exhausted = false;
+        return this;
+    }
+
+    public boolean hasNext() {
+        return !exhausted;
+    }
+
+    // 다음 필드 범위를 찾고 위치를 그 다음 필드로 옮김
+    private boolean advance() {
+        if (exhausted) {
+            return false;
+        }
+        int length = line.length();
+        boolean quoted = position < length && line.charAt(position) == '"';
+        fieldHasEscapes = false;
+
+        int i;
+        if (quoted) {
+            fieldStart = position + 1;
+            i = fieldStart;
+            while (i < length) {
+                if (line.charAt(i) == '"') {
+                    if (i + 1 < length && line.charAt(i + 1) == '"') {
+                        fieldHasEscapes = true;
+                        i += 2;
+                        continue;
+                    }
+                    break;
+                }
+                i++;
+            }
+            fieldEnd = Math.min(i, length);
+            // 닫는 따옴표 뒤의 쉼표까지 이동 (따옴표 뒤 잘못된 문자는 무시)
+            while (i < length && line.charAt(i) != ',') {
+                i++;
+            }
+        } else {
+            fieldStart = position;
+            i = position;
+            while (i < length && line.charAt(i) != ',') {
+                i++;
+            }
+            fieldEnd = i;
+        }
+
+        if (i < length) {
+            position = i + 1;
+        } else {
+            position = length;
+            exhausted = true;
+        }
+        return true;
+    }
+
+    /**
+     * 다음 필드를 문자열로 (필드가 없으면 null)
+     */
+    public String nextString() {
+        return advance() ? fieldString() : null;
+    }
+
+    /**
+     * 다음 필드를 건너뜀 (필드가 없으면 false)
+     */
+    public boolean skip() {
+        return advance();
+    }
+
+    /**
+     * 다음 필드가 value와 같은지 (문자열을 만들지 않고 비교)
+     */
+    public boolean nextEquals(String value) {
+        if (!advance()) {
+            return false;
+        }
+        if (fieldHasEscapes) {
+            return value.equals(unescapedField());
+        }
+        int length = fieldEnd - fieldStart;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(fieldStart + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String unescapedField() {
+        StringBuilder sb = new StringBuilder(fieldEnd - fieldStart);
+        for (int i = fieldStart; i < fieldEnd; i++) {
+            char c = line.charAt(i);
+            sb.append(c);
+            if (c == '"') {
+                i++; // "" → "
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Boolean.parseBoolean과 같은 규칙 ("true"만 대소문자 무시하고 true)
+     */
+    public boolean nextBoolean() {
+        if (!advance() || fieldEnd - fieldStart != 4) {
+            return false;
+        }
+        return Character.toLowerCase(line.charAt(fieldStart)) == 't'
+                && Character.toLowerCase(line.charAt(fieldStart + 1)) == 'r'
+                && Character.toLowerCase(line.charAt(fieldStart + 2)) == 'u'
+                && Character.toLowerCase(line.charAt(fieldStart + 3)) == 'e';
+    }
+
+    /**
+     * Double.parseDouble과 같은 결과
+     * 부호 / 정수부 / 소수부만 있는 일반적인 값은 바로 계산하고, 지수 표기 등은 표준 파서로 처리
+     */
+    public double nextDouble() {
+        if (!advance()) {
+            throw new NumberFormatException("필드가 없습니다.");
+        }
+        int i = fieldStart;
+        int end = fieldEnd;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        boolean fast = i < end;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 18) {
+                    fast = false;
+                    break;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                fast = false;
+                break;
+            }
+        }
+
+        // 가수와 10의 거듭제곱이 모두 정확히 표현되면 한 번의 나눗셈으로 올바르게 반올림됨
+        if (fast && digits > 0 && mantissa < MAX_EXACT_MANTISSA && fractionDigits < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(fieldString());
+    }
+
+    /**
+     * yyyy-MM-ddTHH:mm[:ss[.fffffffff]] 형식 시각을 UTC 기준 epoch 초로 (빈 필드는 emptyValue)
+     * 나노초는 lastNano()로 조회
+     */
+    public long nextEpochSecond(long emptyValue) {
+        if (!advance() || fieldEnd == fieldStart) {
+            lastNano = 0;
+            return emptyValue;
+        }
+        return parseEpochSecond();
+    }
+
+    public int lastNano() {
+        return lastNano;
+    }
+
+    /**
+     * 문자열 시각을 UTC 기준 epoch 초로
+     */
+    public static long epochSecond(CharSequence time) {
+        CSVTokenizer tokenizer = LOCAL.get();
+        tokenizer.reset(time);
+        tokenizer.advanceWhole();
+        return tokenizer.parseEpochSecond();
+    }
+
+    /**
+     * 문자열 시각의 나노초
+     */
+    public static int nanoOfSecond(CharSequence time) {
+        CSVTokenizer tokenizer = LOCAL.get();
+        tokenizer.reset(time);
+        tokenizer.advanceWhole();
+        tokenizer.parseEpochSecond();
+        return tokenizer.lastNano;
+    }
+
+    // 쉼표와 상관없이 줄 전체를 한 필드로 취급
+    private void advanceWhole() {
+        fieldStart = 0;
+        fieldEnd = line.length();
+        fieldHasEscapes = false;
+        exhausted = true;
+    }
+
+    private long parseEpochSecond() {
+        int s = fieldStart;
+        int length = fieldEnd - fieldStart;
+        if (length >= 16 && !fieldHasEscapes
+                && line.charAt(s + 4) == '-' && line.charAt(s + 7) == '-' && line.charAt(s + 10) == 'T'
+                && line.charAt(s + 13) == ':') {
+            int year = digits(s, 4);
+            int month = digits(s + 5, 2);
+            int day = digits(s + 8, 2);
+            int hour = digits(s + 11, 2);
+            int minute = digits(s + 14, 2);
+            int second = 0;
+            int nano = 0;
+            boolean valid = true;
+
+            int i = s + 16;
+            if (i < fieldEnd) {
+                valid = length >= 19 && line.charAt(i) == ':';
+                second = valid ? digits(i + 1, 2) : -1;
+                i += 3;
+                if (valid && i < fieldEnd) {
+                    valid = line.charAt(i) == '.' && fieldEnd - i - 1 >= 1 && fieldEnd - i - 1 <= 9;
+                    int scale = 100_000_000;
+                    for (int j = i + 1; valid && j < fieldEnd; j++) {
+                        int d = line.charAt(j) - '0';
+                        valid = d >= 0 && d <= 9;
+                        nano += d * scale;
+                        scale /= 10;
+                    }
+                }
+            }
+
+            if (valid && year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= daysInMonth(year, month)
+                    && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 && second >= 0 && second <= 59) {
+                lastNano = nano;
+                return epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+            }
+        }
+
+        // 형식이 다르면 표준 파서 사용 (잘못된 값은 기존과 같이 DateTimeParseException)
+        LocalDateTime time = LocalDateTime.parse(fieldString());
+        lastNano = time.getNano();
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // 고정 자릿수 숫자 (숫자가 아니면 -1)
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int d = line.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // 1970-01-01 기준 일 수 (LocalDate.toEpochDay와 같은 계산)
+    private static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            if (!leap) {
+                total--;
+            }
+        }
+        return total - 719_528L;
+    }
+
+    private String fieldString() {
+        return fieldHasEscapes ? unescapedField() : line.subSequence(fieldStart, fieldEnd).toString();
+    }
+
+    /**
+     * n번째 필드가 value와 같은지 (따옴표 필드도 올바르게 건너뜀)
+     */
+    public static boolean fieldEquals(CharSequence line, int index, String value) {
+        CSVTokenizer tokenizer = forLine(line);
+        for (int i = 0; i < index; i++) {
+            if (!tokenizer.skip()) {
+                return false;
+            }
+        }
+        return tokenizer.nextEquals(value);
+    }
+
+    /**
+     * 필드 값을 CSV에 쓸 수 있게 변환
+     * 쉼표 / 큰따옴표가 있으면 큰따옴표로 감싸고, 줄 단위 파일이 깨지지 않도록 줄바꿈은 공백으로 바꿈
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean needsQuote = false;
+        boolean hasLineBreak = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"') {
+                needsQuote = true;
+            } else if (c == '\n' || c == '\r') {
+                hasLineBreak = true;
+            }
+        }
+        if (hasLineBreak) {
+            value = value.replace("\r\n", " ").replace('\n', ' ').replace('\r', ' ');
+        }
+        if (!needsQuote) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * 필드들을 필요한 경우 따옴표로 감싸 한 줄로 연결
+     */
+    public static String join(String... values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(quote(values[i]));
+        }
+        return sb.toString();
+    }
+}
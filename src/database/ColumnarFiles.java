@@ -0,0 +1,108 @@
+package database;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * 컬럼 저장 파일 공통 도구
+ * - 문자열 사전 (값 → 코드) 작성/읽기
+ * - 고정 길이 문자열 컬럼
+ * - 읽기 전용 메모리 매핑
+ */
+class ColumnarFiles {
+
+    private ColumnarFiles() {
+    }
+
+    // 문자열 사전: 처음 등장한 순서대로 코드 부여
+    static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(values.size());
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    static String[] readDictionary(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    static int maxByteLength(Collection<String> values) {
+        int max = 1;
+        for (String value : values) {
+            max = Math.max(max, value.getBytes(StandardCharsets.UTF_8).length);
+        }
+        return max;
+    }
+
+    static void writeFixed(DataOutputStream out, String value, int width) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(bytes);
+        for (int i = bytes.length; i < width; i++) {
+            out.write(0);
+        }
+    }
+
+    static String readFixed(ByteBuffer buffer, int position, int width) {
+        byte[] bytes = new byte[width];
+        buffer.get(position, bytes);
+        int length = 0;
+        while (length < width && bytes[length] != 0) {
+            length++;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // 고정 길이 문자열 비교 (객체 생성 없이 ID 검색용)
+    static boolean fixedEquals(ByteBuffer buffer, int position, int width, byte[] value) {
+        if (value.length > width) return false;
+        for (int i = 0; i < width; i++) {
+            byte expected = i < value.length ? value[i] : 0;
+            if (buffer.get(position + i) != expected) return false;
+        }
+        return true;
+    }
+
+    static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // 임시 파일에 쓴 뒤 원자적으로 교체
+    static void replace(Path temp, Path target) throws IOException {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,180 @@
+package database;
+
+import database.RepairDatabase.RentalHistory;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * 대여 기록 컬럼 저장 파일 (닫힌 월별 세그먼트마다 rental_history-YYYY-MM.col)
+ *
+ * 사전: 사용자, 자전거, 지역, 결제 상태
+ * 컬럼: 대여 번호(고정 폭) | 사용자 코드(int) | 자전거 코드(int)
+ *       | 시작 시각(초 long, 나노 int) | 종료 시각(초 long, 나노 int, 미반납은 NO_TIME)
+ *       | 시작/종료 지역 코드(short) | 사용 시간(double) | 거리(double)
+ *       | 요금(unscaled long, scale byte) | 결제 상태 코드(byte)
+ *
+ * 행 접근자(startLocationCode 등)는 객체를 만들지 않으므로 통계 / 예측용 전체 스캔에 사용한다.
+ */
+public class RentalColumnarFile {
+    private static final int MAGIC = 0x52434F4C; // "RCOL"
+    private static final int VERSION = 1;
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final int COLUMN_COUNT = 14;
+
+    public static void write(Path target, Collection<RentalHistory> histories) throws IOException {
+        ColumnarFiles.Dictionary users = new ColumnarFiles.Dictionary();
+        ColumnarFiles.Dictionary bicycles = new ColumnarFiles.Dictionary();
+        ColumnarFiles.Dictionary locations = new ColumnarFiles.Dictionary();
+        ColumnarFiles.Dictionary statuses = new ColumnarFiles.Dictionary();
+
+        int rows = histories.size();
+        List<String> ids = new ArrayList<>(rows);
+        List<BigDecimal> prices = new ArrayList<>(rows);
+        for (RentalHistory history : histories) {
+            ids.add(history.rentalId);
+            prices.add(price(history));
+            users.encode(history.userId);
+            bicycles.encode(history.bicycleId);
+            locations.encode(history.startLocation);
+            locations.encode(history.endLocation);
+            statuses.encode(history.paymentStatus);
+        }
+        if (locations.size() > Short.MAX_VALUE || statuses.size() > Byte.MAX_VALUE) {
+            throw new IOException("사전 크기가 너무 큽니다.");
+        }
+        int idWidth = ColumnarFiles.maxByteLength(ids);
+
+        ByteArrayOutputStream dictionaryBytes = new ByteArrayOutputStream();
+        try (DataOutputStream dict = new DataOutputStream(dictionaryBytes)) {
+            users.writeTo(dict);
+            bicycles.writeTo(dict);
+            locations.writeTo(dict);
+            statuses.writeTo(dict);
+        }
+
+        // 컬럼별 행 크기 (순서는 Reader와 동일)
+        int[] widths = {idWidth, 4, 4, 8, 4, 8, 4, 2, 2, 8, 8, 8, 1, 1};
+        long[] offsets = new long[COLUMN_COUNT];
+        long position = 4 * 4 + COLUMN_COUNT * 8 + dictionaryBytes.size();
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            offsets[i] = position;
+            position += (long) rows * widths[i];
+        }
+
+        Path temp = Paths.get(target + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            out.writeInt(idWidth);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+            dictionaryBytes.writeTo(out);
+
+            for (String id : ids) ColumnarFiles.writeFixed(out, id, idWidth);
+            for (RentalHistory h : histories) out.writeInt(users.encode(h.userId));
+            for (RentalHistory h : histories) out.writeInt(bicycles.encode(h.bicycleId));
+            for (RentalHistory h : histories) out.writeLong(epochSecond(h.startTime));
+            for (RentalHistory h : histories) out.writeInt(nano(h.startTime));
+            for (RentalHistory h : histories) out.writeLong(epochSecond(h.endTime));
+            for (RentalHistory h : histories) out.writeInt(nano(h.endTime));
+            for (RentalHistory h : histories) out.writeShort(locations.encode(h.startLocation));
+            for (RentalHistory h : histories) out.writeShort(locations.encode(h.endLocation));
+            for (RentalHistory h : histories) out.writeDouble(h.usageTimeMinutes);
+            for (RentalHistory h : histories) out.writeDouble(h.distanceKm);
+            for (BigDecimal price : prices) out.writeLong(price.unscaledValue().longValueExact());
+            for (BigDecimal price : prices) out.writeByte(price.scale());
+            for (RentalHistory h : histories) out.writeByte(statuses.encode(h.paymentStatus));
+        } catch (ArithmeticException e) {
+            Files.deleteIfExists(temp);
+            throw new IOException("요금 값을 컬럼 형식으로 저장할 수 없습니다: " + e.getMessage());
+        }
+        ColumnarFiles.replace(temp, target);
+    }
+
+    private static long epochSecond(String time) {
+        return time.isEmpty() ? NO_TIME : CSVTokenizer.epochSecond(time);
+    }
+
+    private static int nano(String time) {
+        return time.isEmpty() ? 0 : CSVTokenizer.nanoOfSecond(time);
+    }
+
+    // 요금을 읽을 수 없는 행이 있으면 파일을 만들지 않음 (호출자는 CSV 세그먼트를 그대로 사용)
+    private static BigDecimal price(RentalHistory history) throws IOException {
+        try {
+            return new BigDecimal(history.price);
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IOException("대여 " + history.rentalId + "의 요금을 읽을 수 없습니다: " + history.price);
+        }
+    }
+
+    public static Reader open(Path path) throws IOException {
+        return new Reader(ColumnarFiles.map(path));
+    }
+
+    /**
+     * 메모리 매핑된 대여 기록 컬럼 파일 읽기
+     */
+    public static class Reader {
+        private final ByteBuffer buffer;
+        private final int rows;
+        private final int idWidth;
+        private final int[] offsets = new int[COLUMN_COUNT];
+        private final String[] users;
+        private final String[] bicycles;
+        private final String[] locations;
+        private final String[] statuses;
+
+        Reader(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("대여 기록 컬럼 파일 형식이 올바르지 않습니다.");
+            }
+            this.rows = buffer.getInt();
+            this.idWidth = buffer.getInt();
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+                offsets[i] = (int) buffer.getLong();
+            }
+            this.users = ColumnarFiles.readDictionary(buffer);
+            this.bicycles = ColumnarFiles.readDictionary(buffer);
+            this.locations = ColumnarFiles.readDictionary(buffer);
+            this.statuses = ColumnarFiles.readDictionary(buffer);
+        }
+
+        public int rowCount() {
+            return rows;
+        }
+
+        // 지역 코드 → 지역명
+        public String[] locationDictionary() {
+            return locations.clone();
+        }
+
+        // 행 접근자 (객체 생성 없음)
+        public long startEpochSecond(int row) { return buffer.getLong(offsets[3] + row * 8); }
+        public long endEpochSecond(int row) { return buffer.getLong(offsets[5] + row * 8); }
+        public int startLocationCode(int row) { return buffer.getShort(offsets[7] + row * 2); }
+        public int endLocationCode(int row) { return buffer.getShort(offsets[8] + row * 2); }
+        public double usageTimeMinutes(int row) { return buffer.getDouble(offsets[9] + row * 8); }
+        public boolean isCompleted(int row) { return endEpochSecond(row) != NO_TIME; }
+
+        /**
+         * 시작 지역별 완료된 대여 수 (시작 지역 / 종료 시각 컬럼만 읽음)
+         */
+        public void countCompletedByStartLocation(int[] counts) {
+            Arrays.fill(counts, 0);
+            for (int row = 0; row < rows; row++) {
+                if (isCompleted(row)) {
+                    counts[startLocationCode(row)]++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package database;
+
+import database.RepairDatabase.RentalHistory;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * 대여 기록 인덱스
+ * - 진행 중인 대여: (userId, bicycleId) → 대여 기록
+ * - 대여 번호 → 최신 레코드 위치 (세그먼트 월, byte offset)
+ * 대여 기록은 현재 세그먼트 끝에 추가만 하며, 같은 대여 번호의 뒤쪽 레코드가 앞쪽 레코드를 대체한다.
+ * 따라서 반납 처리 시 전체 이력을 다시 읽거나 다시 쓰지 않는다.
+ */
+public class RentalHistoryIndex {
+    // 레코드 위치
+    private static class RecordLocation {
+        final String month;
+        final long offset;
+
+        RecordLocation(String month, long offset) {
+            this.month = month;
+            this.offset = offset;
+        }
+    }
+
+    private final RentalHistorySegments segments;
+
+    private final Map<String, RentalHistory> openRentals = new HashMap<>();
+    private final Map<String, RecordLocation> locationsByRentalId = new HashMap<>();
+
+    public RentalHistoryIndex(RentalHistorySegments segments) {
+        this.segments = segments;
+        build();
+    }
+
+    // 시작 시 한 번만 전체 세그먼트를 훑어 인덱스 구성
+    private void build() {
+        for (RentalHistorySegments.Segment segment : segments.segmentsOverlapping(null, null)) {
+            segments.scan(segment, (line, offset) -> {
+                RentalHistory history = RentalHistory.fromCSV(line);
+                if (history != null) {
+                    index(history, new RecordLocation(segment.month, offset));
+                }
+            });
+        }
+    }
+
+    private void index(RentalHistory history, RecordLocation location) {
+        locationsByRentalId.put(history.rentalId, location);
+        String key = openKey(history.userId, history.bicycleId);
+        if (history.endTime.isEmpty()) {
+            openRentals.put(key, history);
+        } else {
+            RentalHistory open = openRentals.get(key);
+            if (open != null && open.rentalId.equals(history.rentalId)) {
+                openRentals.remove(key);
+            }
+        }
+    }
+
+    /**
+     * 대여 기록 추가 또는 갱신 (현재 세그먼트 끝에 한 줄만 기록)
+     */
+    public synchronized void append(RentalHistory history) throws IOException {
+        long offset = segments.append(history.toCSV());
+        index(history, new RecordLocation(segments.openSegmentMonth(), offset));
+    }
+
+    /**
+     * 사용자가 해당 자전거로 진행 중인 대여 조회 - O(1)
+     */
+    public synchronized RentalHistory findOpenRental(String userId, String bicycleId) {
+        RentalHistory open = openRentals.get(openKey(userId, bicycleId));
+        // 호출자가 수정해도 인덱스가 바뀌지 않도록 복사본 반환
+        return open != null ? RentalHistory.fromCSV(open.toCSV()) : null;
+    }
+
+    /**
+     * 대여 번호로 최신 레코드 조회 (해당 세그먼트에서 한 줄만 읽음)
+     */
+    public synchronized RentalHistory get(String rentalId) {
+        RecordLocation location = locationsByRentalId.get(rentalId);
+        if (location == null) {
+            return null;
+        }
+        RentalHistorySegments.Segment segment = segments.getSegment(location.month);
+        if (segment == null) {
+            return null;
+        }
+        String line = segments.readLineAt(segment, location.offset);
+        return line != null ? RentalHistory.fromCSV(line) : null;
+    }
+
+    /**
+     * 해당 위치의 레코드가 그 대여 번호의 최신 레코드인지 (스트리밍 조회 시 중복 제거용)
+     */
+    public synchronized boolean isLatest(String rentalId, String month, long offset) {
+        RecordLocation location = locationsByRentalId.get(rentalId);
+        return location != null && location.offset == offset && location.month.equals(month);
+    }
+
+    private static String openKey(String userId, String bicycleId) {
+        return userId + '\u0000' + bicycleId;
+    }
+}
@@ -0,0 +1,510 @@
+package database;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 월 단위로 나뉜 대여 기록 저장소
+ * - rental_history/rental_history-YYYY-MM.csv : 현재 기록 중인 세그먼트 (하나만 존재)
+ * - rental_history/rental_history-YYYY-MM.csv.gz : 닫힌 세그먼트 (GZIP 압축, 변경 불가)
+ * - rental_history/rental_history-YYYY-MM.col : 닫힌 세그먼트의 컬럼 형식 사본 (집계용)
+ * - rental_history/manifest.csv : 닫힌 세그먼트별 대여 시작 시간 범위와 레코드 수
+ * 새 기록은 현재 세그먼트에만 추가되고, 달이 바뀌면 현재 세그먼트를 압축하여 닫는다.
+ * 기간 조회 시 시작 시간 범위가 겹치지 않는 세그먼트는 읽지 않는다.
+ */
+public class RentalHistorySegments {
+    private static final String PREFIX = "rental_history-";
+    private static final String OPEN_SUFFIX = ".csv";
+    private static final String CLOSED_SUFFIX = ".csv.gz";
+    private static final String COLUMNAR_SUFFIX = ".col";
+    private static final String MANIFEST_FILE = "manifest.csv";
+    private static final String MANIFEST_HEADER = "segment,minStartTime,maxStartTime,records,compressed";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    // 세그먼트 정보
+    public static class Segment {
+        public final String month; // YYYY-MM
+        public String minStartTime = "";
+        public String maxStartTime = "";
+        public long records;
+        public boolean compressed;
+
+        Segment(String month) {
+            this.month = month;
+        }
+
+        void include(String startTime) {
+            if (minStartTime.isEmpty() || startTime.compareTo(minStartTime) < 0) minStartTime = startTime;
+            if (maxStartTime.isEmpty() || startTime.compareTo(maxStartTime) > 0) maxStartTime = startTime;
+            records++;
+        }
+
+        // 시작 시간 범위 [from, to) 와 겹치는지 (null은 제한 없음)
+        public boolean overlaps(String from, String to) {
+            if (records == 0) return false;
+            if (from != null && maxStartTime.compareTo(from) < 0) return false;
+            if (to != null && minStartTime.compareTo(to) >= 0) return false;
+            return true;
+        }
+
+        String toCSV() {
+            return String.join(",", month, minStartTime, maxStartTime,
+                    String.valueOf(records), String.valueOf(compressed));
+        }
+
+        static Segment fromCSV(String csvLine) {
+            String[] parts = csvLine.split(",", 5);
+            if (parts.length != 5) return null;
+            Segment segment = new Segment(parts[0]);
+            segment.minStartTime = parts[1];
+            segment.maxStartTime = parts[2];
+            segment.records = Long.parseLong(parts[3]);
+            segment.compressed = Boolean.parseBoolean(parts[4]);
+            return segment;
+        }
+    }
+
+    // 세그먼트 한 줄씩 읽을 때 사용 (offset은 압축 해제 기준 byte 위치)
+    public interface LineVisitor {
+        void visit(String line, long offset);
+    }
+
+    private final Path directory;
+    private final String header;
+    // 월 순서로 정렬된 세그먼트 목록 (마지막이 현재 세그먼트일 수 있음)
+    private final TreeMap<String, Segment> segments = new TreeMap<>();
+    private Segment openSegment;
+
+    public RentalHistorySegments(String directory, String legacyFile, String header) {
+        this.directory = Paths.get(directory);
+        this.header = header;
+        try {
+            Files.createDirectories(this.directory);
+            load();
+            migrateLegacyFile(Paths.get(legacyFile));
+        } catch (IOException e) {
+            // 기존 기록을 읽지 못한 채 계속하면 정산 / 예측 / 통계에서 기록이 사라지므로 시작을 멈춤
+            System.err.println("대여 기록 세그먼트 초기화 중 오류 발생: " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void load() throws IOException {
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        if (Files.exists(manifest)) {
+            List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+            for (int i = 1; i < lines.size(); i++) {
+                Segment segment = Segment.fromCSV(lines.get(i));
+                if (segment != null) {
+                    segments.put(segment.month, segment);
+                }
+            }
+        }
+
+        // 압축되지 않은 세그먼트 정리: 가장 최근 것만 현재 세그먼트로 유지
+        List<String> openMonths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + OPEN_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                openMonths.add(name.substring(PREFIX.length(), name.length() - OPEN_SUFFIX.length()));
+            }
+        }
+        Collections.sort(openMonths);
+
+        for (String month : openMonths) {
+            Segment closed = segments.get(month);
+            if (closed != null && closed.compressed) {
+                // 압축 후 원본 삭제 전에 중단된 경우
+                Files.deleteIfExists(openPath(month));
+                continue;
+            }
+            Segment segment = new Segment(month);
+            scan(segment, (line, offset) -> {
+                String startTime = startTimeOf(line);
+                if (startTime != null) segment.include(startTime);
+            });
+            segments.put(month, segment);
+            if (openSegment != null) {
+                close(openSegment);
+            }
+            openSegment = segment;
+        }
+    }
+
+    // 기존 단일 rental_history.csv가 있으면 대여 시작 월 기준으로 세그먼트에 옮김
+    private void migrateLegacyFile(Path legacy) throws IOException {
+        if (!Files.exists(legacy)) {
+            return;
+        }
+
+        // 예전 버전은 FileWriter(기본 문자셋)로 기록했으므로 UTF-8이 아니면 기본 문자셋으로 읽음
+        Map<String, List<String>> linesByMonth = new TreeMap<>();
+        List<String> lines = CSVScan.readLegacyLines(legacy);
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i);
+            String startTime = startTimeOf(line);
+            if (startTime != null && startTime.length() >= 7) {
+                linesByMonth.computeIfAbsent(startTime.substring(0, 7), k -> new ArrayList<>()).add(line);
+            }
+        }
+
+        for (Map.Entry<String, List<String>> entry : linesByMonth.entrySet()) {
+            appendTo(entry.getKey(), entry.getValue());
+        }
+        if (openSegment != null && !openSegment.month.equals(YearMonth.now().toString())) {
+            close(openSegment);
+            openSegment = null;
+        }
+
+        Files.move(legacy, Paths.get(legacy + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("기존 대여 기록을 월별 세그먼트로 옮겼습니다: " + linesByMonth.keySet());
+    }
+
+    /**
+     * 현재 세그먼트에 한 줄 추가 (필요하면 먼저 이전 세그먼트를 닫음)
+     * @return 현재 세그먼트 내 byte offset
+     */
+    public synchronized long append(String line) throws IOException {
+        return appendTo(YearMonth.now().toString(), Collections.singletonList(line));
+    }
+
+    // 여러 줄을 한 번에 추가하고 첫 줄의 위치를 반환
+    private long appendTo(String month, List<String> lines) throws IOException {
+        if (openSegment == null || !openSegment.month.equals(month)) {
+            if (openSegment != null) {
+                close(openSegment);
+            }
+            openSegment = segments.computeIfAbsent(month, Segment::new);
+        }
+
+        try (FileChannel channel = FileChannel.open(openPath(month),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            StringBuilder sb = new StringBuilder();
+            if (channel.size() == 0) {
+                sb.append(header).append('\n');
+            }
+            long offset = channel.size() + sb.toString().getBytes(StandardCharsets.UTF_8).length;
+            for (String line : lines) {
+                sb.append(line).append('\n');
+                String startTime = startTimeOf(line);
+                if (startTime != null) {
+                    openSegment.include(startTime);
+                }
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return offset;
+        }
+    }
+
+    public synchronized String openSegmentMonth() {
+        return openSegment != null ? openSegment.month : null;
+    }
+
+    // 세그먼트 압축 후 manifest에 기록 (이후 변경 불가)
+    private void close(Segment segment) throws IOException {
+        Path source = openPath(segment.month);
+        Path target = closedPath(segment.month);
+        Path temp = Paths.get(target + ".tmp");
+
+        if (Files.exists(source)) {
+            writeColumnar(segment);
+
+            try (InputStream in = Files.newInputStream(source);
+                 OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                in.transferTo(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        segment.compressed = true;
+        writeManifest();
+        Files.deleteIfExists(source);
+    }
+
+    // 세그먼트 내 대여 번호별 마지막 레코드만 컬럼 파일로 저장
+    private void writeColumnar(Segment segment) {
+        Map<String, RepairDatabase.RentalHistory> latest = new LinkedHashMap<>();
+        scan(segment, (line, offset) -> {
+            RepairDatabase.RentalHistory history = RepairDatabase.RentalHistory.fromCSV(line);
+            if (history != null) {
+                latest.put(history.rentalId, history);
+            }
+        });
+        try {
+            RentalColumnarFile.write(columnarPath(segment.month), latest.values());
+        } catch (IOException | RuntimeException e) {
+            // 컬럼 사본은 집계 최적화용이므로 실패해도 CSV 세그먼트로 대체 가능
+            System.err.println("대여 기록 컬럼 파일 생성 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 닫힌 세그먼트의 컬럼 파일 (없으면 null)
+     */
+    public RentalColumnarFile.Reader openColumnar(Segment segment) {
+        if (!segment.compressed) {
+            return null;
+        }
+        Path path = columnarPath(segment.month);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return RentalColumnarFile.open(path);
+        } catch (IOException e) {
+            System.err.println("대여 기록 컬럼 파일 조회 중 오류 발생: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeManifest() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(MANIFEST_HEADER);
+        for (Segment segment : segments.values()) {
+            if (segment.compressed) {
+                lines.add(segment.toCSV());
+            }
+        }
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        Path temp = directory.resolve(MANIFEST_FILE + ".tmp");
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 대여 시작 시간 범위 [from, to) 와 겹치는 세그먼트 (월 순서, null은 제한 없음)
+     */
+    public synchronized List<Segment> segmentsOverlapping(String from, String to) {
+        List<Segment> result = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment.overlaps(from, to)) {
+                result.add(segment);
+            }
+        }
+        return result;
+    }
+
+    public synchronized Segment getSegment(String month) {
+        return segments.get(month);
+    }
+
+    // 세그먼트의 한 줄과 위치
+    public static class Line {
+        public final String text;
+        public final long offset;
+
+        Line(String text, long offset) {
+            this.text = text;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * 세그먼트의 모든 레코드를 순서대로 읽음 (헤더 제외)
+     */
+    public void scan(Segment segment, LineVisitor visitor) {
+        try (Stream<Line> lines = lines(segment)) {
+            lines.forEach(line -> visitor.visit(line.text, line.offset));
+        }
+    }
+
+    /**
+     * 세그먼트의 레코드를 필요한 만큼만 읽는 Stream (헤더 제외, 사용 후 닫아야 함)
+     */
+    public Stream<Line> lines(Segment segment) {
+        InputStream in;
+        try {
+            in = openStream(segment);
+        } catch (IOException e) {
+            System.err.println("대여 기록 세그먼트 조회 중 오류 발생: " + e.getMessage());
+            return Stream.empty();
+        }
+        if (in == null) {
+            return Stream.empty();
+        }
+
+        Iterator<Line> iterator = new Iterator<Line>() {
+            // 블록 단위로 읽고 줄 끝을 찾음 (블록 경계에 걸친 줄만 lineBytes에 모음)
+            private final byte[] block = new byte[READ_BUFFER_SIZE];
+            private int position = 0;
+            private int limit = 0;
+            private final ByteArrayOutputStream lineBytes = new ByteArrayOutputStream(256);
+            private long offset = 0;
+            private boolean headerSkipped = false;
+            private Line next;
+            private boolean finished = false;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !finished) {
+                    next = readNext();
+                }
+                return next != null;
+            }
+
+            @Override
+            public Line next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Line line = next;
+                next = null;
+                return line;
+            }
+
+            private Line readNext() {
+                try {
+                    while (true) {
+                        long lineStart = offset;
+                        lineBytes.reset();
+                        int newline = -1;
+                        while (true) {
+                            if (position == limit) {
+                                position = 0;
+                                limit = Math.max(in.read(block, 0, block.length), 0);
+                                if (limit == 0) break;
+                            }
+                            newline = indexOfNewline(block, position, limit);
+                            if (newline >= 0) break;
+                            lineBytes.write(block, position, limit - position);
+                            offset += limit - position;
+                            position = limit;
+                        }
+
+                        String text;
+                        if (newline >= 0) {
+                            int length = newline - position;
+                            if (lineBytes.size() == 0) {
+                                text = decode(block, position, length);
+                            } else {
+                                lineBytes.write(block, position, length);
+                                text = decode(lineBytes);
+                            }
+                            offset += length + 1;
+                            position = newline + 1;
+                        } else if (lineBytes.size() > 0) {
+                            text = decode(lineBytes); // 마지막 줄에 줄바꿈이 없는 경우
+                        } else {
+                            finished = true;
+                            return null;
+                        }
+
+                        if (!headerSkipped) {
+                            headerSkipped = true;
+                            continue;
+                        }
+                        return new Line(text, lineStart);
+                    }
+                } catch (IOException e) {
+                    System.err.println("대여 기록 세그먼트 조회 중 오류 발생: " + e.getMessage());
+                    finished = true;
+                    return null;
+                }
+            }
+        };
+
+        return CSVScan.stream(iterator, () -> {
+            try {
+                in.close();
+            } catch (IOException e) {
+                System.err.println("대여 기록 세그먼트 닫기 중 오류 발생: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 세그먼트의 특정 위치에서 한 줄 읽기
+     * 현재 세그먼트는 바로 이동하고, 압축된 세그먼트는 해당 위치까지 건너뛴다.
+     */
+    public String readLineAt(Segment segment, long offset) {
+        try (InputStream in = openStream(segment)) {
+            if (in == null) {
+                return null;
+            }
+            long remaining = offset;
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    return null;
+                }
+                remaining -= skipped;
+            }
+            ByteArrayOutputStream lineBytes = new ByteArrayOutputStream(256);
+            int b;
+            while ((b = in.read()) != -1 && b != '\n') {
+                lineBytes.write(b);
+            }
+            return decode(lineBytes);
+        } catch (IOException e) {
+            System.err.println("대여 기록 조회 중 오류 발생: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private InputStream openStream(Segment segment) throws IOException {
+        Path path;
+        synchronized (this) {
+            path = segment.compressed ? closedPath(segment.month) : openPath(segment.month);
+        }
+        if (!Files.exists(path)) {
+            return null;
+        }
+        InputStream in = new BufferedInputStream(Files.newInputStream(path));
+        // 줄 단위 읽기는 한 byte씩 호출하므로 압축 해제 결과도 버퍼를 거치게 함
+        return segment.compressed ? new BufferedInputStream(new GZIPInputStream(in, GZIP_BUFFER_SIZE), GZIP_BUFFER_SIZE) : in;
+    }
+
+    private Path openPath(String month) {
+        return directory.resolve(PREFIX + month + OPEN_SUFFIX);
+    }
+
+    private Path closedPath(String month) {
+        return directory.resolve(PREFIX + month + CLOSED_SUFFIX);
+    }
+
+    private Path columnarPath(String month) {
+        return directory.resolve(PREFIX + month + COLUMNAR_SUFFIX);
+    }
+
+    // CSV 행의 4번째 필드 (startTime)
+    private static String startTimeOf(String line) {
+        CSVTokenizer t = CSVTokenizer.forLine(line);
+        if (!t.skip() || !t.skip() || !t.skip() || !t.hasNext()) return null;
+        String startTime = t.nextString();
+        return t.hasNext() ? startTime : null;
+    }
+
+    private static int indexOfNewline(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(byte[] bytes, int from, int length) {
+        if (length > 0 && bytes[from + length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, from, length, StandardCharsets.UTF_8);
+    }
+
+    private static String decode(ByteArrayOutputStream lineBytes) {
+        String line = new String(lineBytes.toByteArray(), StandardCharsets.UTF_8);
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+}
@@ -2,6 +2,11 @@ package database;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -10,7 +15,18 @@ import java.time.format.DateTimeFormatter;
  */
 public class RepairDatabase {
     private static final String REPAIR_REPORTS_FILE = "repair_reports.csv";
+    // 기존 단일 파일 (있으면 시작 시 월별 세그먼트로 옮겨짐)
     private static final String RENTAL_HISTORY_FILE = "rental_history.csv";
+    private static final String RENTAL_HISTORY_DIR = "rental_history";
+    private static final String RENTAL_HISTORY_HEADER = "rentalId,userId,bicycleId,startTime,endTime,startLocation,endLocation,usageTimeMinutes,distanceKm,price,paymentStatus";
+    
+    // 월별 대여 기록 세그먼트
+    private static final RentalHistorySegments rentalSegments =
+            new RentalHistorySegments(RENTAL_HISTORY_DIR, RENTAL_HISTORY_FILE, RENTAL_HISTORY_HEADER);
+    // 진행 중인 대여 / 대여 번호별 위치 인덱스 (시작 시 한 번만 구성)
+    private static final RentalHistoryIndex rentalIndex = new RentalHistoryIndex(rentalSegments);
+    // 대여 번호 순번 (재시작해도 이전 번호와 겹치지 않도록 시작 시각에서 출발)
+    private static final AtomicLong rentalSequence = new AtomicLong(System.currentTimeMillis() * 1000);
     
     // 고장 신고 데이터 클래스
     public static class RepairReport {
@@ -25,6 +41,10 @@ public class RepairDatabase {
         public String approvedTime;
         public String fixedTime;
         
+        // 파일에서 읽을 때 사용 (현재 시각 포맷 생략)
+        private RepairReport() {
+        }
+        
         public RepairReport(String reportId, String bicycleId, String userId, String issueDescription) {
             this.reportId = reportId;
             this.bicycleId = bicycleId;
@@ -39,21 +59,36 @@ public class RepairDatabase {
         }
         
         public String toCSV() {
-            return String.join(",", reportId, bicycleId, userId, issueDescription, reportTime, 
+            // 고장 내용 / 관리자 응답에 쉼표가 있어도 행이 깨지지 않도록 필요한 필드는 따옴표 처리
+            return CSVTokenizer.join(reportId, bicycleId, userId, issueDescription, reportTime, 
                     status, adminId, adminResponse, approvedTime, fixedTime);
         }
         
         public static RepairReport fromCSV(String csvLine) {
-            String[] parts = csvLine.split(",", 10);
-            if (parts.length != 10) return null;
+            CSVTokenizer t = CSVTokenizer.forLine(csvLine);
+            String reportId = t.nextString();
+            String bicycleId = t.nextString();
+            String userId = t.nextString();
+            String issueDescription = t.nextString();
+            String reportTime = t.nextString();
+            String status = t.nextString();
+            String adminId = t.nextString();
+            String adminResponse = t.nextString();
+            String approvedTime = t.nextString();
+            String fixedTime = t.nextString();
+            if (fixedTime == null || t.hasNext()) return null;
             
-            RepairReport report = new RepairReport(parts[0], parts[1], parts[2], parts[3]);
-            report.reportTime = parts[4];
-            report.status = parts[5];
-            report.adminId = parts[6];
-            report.adminResponse = parts[7];
-            report.approvedTime = parts[8];
-            report.fixedTime = parts[9];
+            RepairReport report = new RepairReport();
+            report.reportId = reportId;
+            report.bicycleId = bicycleId;
+            report.userId = userId;
+            report.issueDescription = issueDescription;
+            report.reportTime = reportTime;
+            report.status = status;
+            report.adminId = adminId;
+            report.adminResponse = adminResponse;
+            report.approvedTime = approvedTime;
+            report.fixedTime = fixedTime;
             return report;
         }
     }
@@ -72,6 +107,10 @@ public class RepairDatabase {
         public String price;
         public String paymentStatus; // "PAID", "PENDING", "FAILED"
         
+        // 파일에서 읽을 때 사용 (현재 시각 포맷 생략)
+        private RentalHistory() {
+        }
+        
         public RentalHistory(String rentalId, String userId, String bicycleId, String startLocation) {
             this.rentalId = rentalId;
             this.userId = userId;
@@ -96,23 +135,40 @@ public class RepairDatabase {
         }
         
         public String toCSV() {
-            return String.join(",", rentalId, userId, bicycleId, startTime, endTime, 
+            return CSVTokenizer.join(rentalId, userId, bicycleId, startTime, endTime, 
                     startLocation, endLocation, String.valueOf(usageTimeMinutes), 
                     String.valueOf(distanceKm), price, paymentStatus);
         }
         
         public static RentalHistory fromCSV(String csvLine) {
-            String[] parts = csvLine.split(",", 11);
-            if (parts.length != 11) return null;
+            CSVTokenizer t = CSVTokenizer.forLine(csvLine);
+            String rentalId = t.nextString();
+            String userId = t.nextString();
+            String bicycleId = t.nextString();
+            String startTime = t.nextString();
+            String endTime = t.nextString();
+            String startLocation = t.nextString();
+            String endLocation = t.nextString();
+            if (!t.hasNext()) return null;
+            double usageTimeMinutes = t.nextDouble();
+            if (!t.hasNext()) return null;
+            double distanceKm = t.nextDouble();
+            String price = t.nextString();
+            String paymentStatus = t.nextString();
+            if (paymentStatus == null || t.hasNext()) return null;
             
-            RentalHistory history = new RentalHistory(parts[0], parts[1], parts[2], parts[5]);
-            history.startTime = parts[3];
-            history.endTime = parts[4];
-            history.endLocation = parts[6];
-            history.usageTimeMinutes = Double.parseDouble(parts[7]);
-            history.distanceKm = Double.parseDouble(parts[8]);
-            history.price = parts[9];
-            history.paymentStatus = parts[10];
+            RentalHistory history = new RentalHistory();
+            history.rentalId = rentalId;
+            history.userId = userId;
+            history.bicycleId = bicycleId;
+            history.startLocation = startLocation;
+            history.startTime = startTime;
+            history.endTime = endTime;
+            history.endLocation = endLocation;
+            history.usageTimeMinutes = usageTimeMinutes;
+            history.distanceKm = distanceKm;
+            history.price = price;
+            history.paymentStatus = paymentStatus;
             return history;
         }
     }
@@ -160,140 +216,182 @@ public class RepairDatabase {
     }
     
     public static List<RepairReport> getAllRepairReports() {
-        List<RepairReport> reports = new ArrayList<>();
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(REPAIR_REPORTS_FILE))) {
-            String line;
-            boolean isHeader = true;
-            
-            while ((line = br.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
-                
-                RepairReport report = RepairReport.fromCSV(line);
-                if (report != null) {
-                    reports.add(report);
-                }
-            }
-        } catch (IOException e) {
-            // 파일이 없는 경우는 정상
+        try (Stream<RepairReport> reports = streamRepairReports(null)) {
+            return reports.collect(Collectors.toList());
         }
-        
-        return reports;
     }
     
     public static List<RepairReport> getPendingReports() {
-        List<RepairReport> pendingReports = new ArrayList<>();
-        List<RepairReport> allReports = getAllRepairReports();
-        
-        for (RepairReport report : allReports) {
-            if ("PENDING".equals(report.status)) {
-                pendingReports.add(report);
-            }
+        try (Stream<RepairReport> reports = streamRepairReports(null)) {
+            return reports.filter(report -> "PENDING".equals(report.status)).collect(Collectors.toList());
         }
-        
-        return pendingReports;
     }
     
     public static RepairReport getRepairReport(String reportId) {
-        List<RepairReport> reports = getAllRepairReports();
-        
-        for (RepairReport report : reports) {
-            if (report.reportId.equals(reportId)) {
-                return report;
-            }
+        // 신고 번호 필드만 비교하고 첫 결과에서 중단
+        try (Stream<RepairReport> reports = streamRepairReports(CSVScan.fieldEquals(0, reportId))) {
+            return reports.findFirst().orElse(null);
         }
-        
-        return null;
+    }
+    
+    /**
+     * 고장 신고 스트리밍 조회 (파일을 열고 있으므로 try-with-resources로 닫을 것)
+     * @param rawFilter 원본 CSV 줄 조건 (객체 생성 전에 적용, null이면 전체)
+     */
+    public static Stream<RepairReport> streamRepairReports(Predicate<String> rawFilter) {
+        return CSVScan.lines(REPAIR_REPORTS_FILE, rawFilter, RepairReport::fromCSV);
     }
     
     // 대여 기록 관련 메소드들
-    public static void saveRentalHistory(RentalHistory history) {
-        try (FileWriter fw = new FileWriter(RENTAL_HISTORY_FILE, true);
-             PrintWriter pw = new PrintWriter(fw)) {
-            
-            File file = new File(RENTAL_HISTORY_FILE);
-            if (file.length() == 0) {
-                pw.println("rentalId,userId,bicycleId,startTime,endTime,startLocation,endLocation,usageTimeMinutes,distanceKm,price,paymentStatus");
-            }
-            
-            pw.println(history.toCSV());
-            
+    public static boolean saveRentalHistory(RentalHistory history) {
+        try {
+            rentalIndex.append(history);
+            return true;
         } catch (IOException e) {
             System.err.println("대여 기록 저장 중 오류 발생: " + e.getMessage());
+            return false;
         }
     }
     
-    public static void updateRentalHistory(RentalHistory history) {
-        List<RentalHistory> histories = getAllRentalHistories();
-        
-        for (int i = 0; i < histories.size(); i++) {
-            if (histories.get(i).rentalId.equals(history.rentalId)) {
-                histories.set(i, history);
-                break;
-            }
-        }
-        
-        // 전체 파일 다시 쓰기
-        try (FileWriter fw = new FileWriter(RENTAL_HISTORY_FILE);
-             PrintWriter pw = new PrintWriter(fw)) {
-            
-            pw.println("rentalId,userId,bicycleId,startTime,endTime,startLocation,endLocation,usageTimeMinutes,distanceKm,price,paymentStatus");
-            
-            for (RentalHistory h : histories) {
-                pw.println(h.toCSV());
-            }
-            
+    // 갱신된 레코드를 파일 끝에 추가 (같은 대여 번호의 이전 레코드를 대체)
+    public static boolean updateRentalHistory(RentalHistory history) {
+        try {
+            rentalIndex.append(history);
+            return true;
         } catch (IOException e) {
             System.err.println("대여 기록 업데이트 중 오류 발생: " + e.getMessage());
+            return false;
         }
     }
     
+    public static RentalHistory findOpenRental(String userId, String bicycleId) {
+        return rentalIndex.findOpenRental(userId, bicycleId);
+    }
+    
+    public static RentalHistory getRentalHistory(String rentalId) {
+        return rentalIndex.get(rentalId);
+    }
+    
     public static List<RentalHistory> getAllRentalHistories() {
-        List<RentalHistory> histories = new ArrayList<>();
+        return collect(streamRentalHistories(null, null, null));
+    }
+    
+    public static List<RentalHistory> getUserRentalHistory(String userId) {
+        return collect(streamRentalHistories(userId, null, null));
+    }
+    
+    // 기간 조회 (대여 시작일 기준, from/to 포함) - 범위 밖 세그먼트는 읽지 않음
+    public static List<RentalHistory> getRentalHistories(LocalDate from, LocalDate to) {
+        return collect(streamRentalHistories(null, from, to));
+    }
+    
+    public static List<RentalHistory> getUserRentalHistory(String userId, LocalDate from, LocalDate to) {
+        return collect(streamRentalHistories(userId, from, to));
+    }
+    
+    private static List<RentalHistory> collect(Stream<RentalHistory> histories) {
+        try (Stream<RentalHistory> stream = histories) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+    
+    /**
+     * 대여 기록 스트리밍 조회 (세그먼트를 하나씩 열어 읽으므로 try-with-resources로 닫을 것)
+     * - 범위 밖 세그먼트는 열지 않음
+     * - 사용자 조건은 원본 줄에서 먼저 비교하고, 같은 대여 번호의 최신 레코드만 객체로 만든다.
+     * 반납된 대여는 반납 기록이 추가된 위치에 나온다.
+     * @param userId null이면 전체 사용자
+     * @param from 대여 시작일 하한 (null이면 제한 없음)
+     * @param to 대여 시작일 상한, 포함 (null이면 제한 없음)
+     */
+    public static Stream<RentalHistory> streamRentalHistories(String userId, LocalDate from, LocalDate to) {
+        String fromTime = from != null ? from.atStartOfDay().toString() : null;
+        String toTime = to != null ? to.plusDays(1).atStartOfDay().toString() : null;
         
-        try (BufferedReader br = new BufferedReader(new FileReader(RENTAL_HISTORY_FILE))) {
-            String line;
-            boolean isHeader = true;
-            
-            while ((line = br.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
-                
-                RentalHistory history = RentalHistory.fromCSV(line);
-                if (history != null) {
-                    histories.add(history);
+        return rentalSegments.segmentsOverlapping(fromTime, toTime).stream()
+                .flatMap(segment -> rentalSegments.lines(segment)
+                        .filter(line -> userId == null || CSVTokenizer.fieldEquals(line.text, 1, userId))
+                        .filter(line -> isLatestRecord(segment, line))
+                        .map(line -> RentalHistory.fromCSV(line.text)))
+                .filter(Objects::nonNull)
+                .filter(history -> fromTime == null || history.startTime.compareTo(fromTime) >= 0)
+                .filter(history -> toTime == null || history.startTime.compareTo(toTime) < 0);
+    }
+    
+    /**
+     * 대여 기록 원본 줄 스트리밍 (대여 번호별 최신 레코드만, 기록된 순서대로)
+     * - 객체를 만들지 않으므로 정산처럼 파싱을 여러 스레드로 나누는 작업에 사용
+     * - 세그먼트 단위로만 거르므로 대여 시작일 조건은 호출자가 다시 확인할 것
+     * - 세그먼트를 열고 있으므로 try-with-resources로 닫을 것
+     * @param from 대여 시작일 하한 (null이면 제한 없음)
+     * @param to 대여 시작일 상한, 포함 (null이면 제한 없음)
+     */
+    public static Stream<String> streamLatestRentalLines(LocalDate from, LocalDate to) {
+        String fromTime = from != null ? from.atStartOfDay().toString() : null;
+        String toTime = to != null ? to.plusDays(1).atStartOfDay().toString() : null;
+        
+        return rentalSegments.segmentsOverlapping(fromTime, toTime).stream()
+                .flatMap(segment -> rentalSegments.lines(segment)
+                        .filter(line -> isLatestRecord(segment, line))
+                        .map(line -> line.text));
+    }
+    
+    private static boolean isLatestRecord(RentalHistorySegments.Segment segment, RentalHistorySegments.Line line) {
+        String rentalId = CSVTokenizer.forLine(line.text).nextString();
+        return !rentalId.isEmpty() && rentalIndex.isLatest(rentalId, segment.month, line.offset);
+    }
+    
+    /**
+     * 시작 지역별 완료된 대여 수
+     * 닫힌 세그먼트는 컬럼 파일에서 필요한 컬럼만 읽고, 현재 세그먼트만 CSV로 읽는다.
+     */
+    public static Map<String, Integer> countCompletedRentalsByStartLocation() {
+        Map<String, Integer> counts = new HashMap<>();
+        
+        for (RentalHistorySegments.Segment segment : rentalSegments.segmentsOverlapping(null, null)) {
+            RentalColumnarFile.Reader reader = rentalSegments.openColumnar(segment);
+            if (reader != null) {
+                String[] locations = reader.locationDictionary();
+                int[] segmentCounts = new int[locations.length];
+                reader.countCompletedByStartLocation(segmentCounts);
+                for (int i = 0; i < locations.length; i++) {
+                    if (segmentCounts[i] > 0) {
+                        counts.merge(locations[i], segmentCounts[i], Integer::sum);
+                    }
                 }
+                continue;
+            }
+            // 현재 세그먼트는 대여 번호별 최신 레코드만 한 줄씩 집계
+            try (Stream<RentalHistorySegments.Line> lines = rentalSegments.lines(segment)) {
+                lines.filter(line -> isLatestRecord(segment, line))
+                        .map(line -> RentalHistory.fromCSV(line.text))
+                        .filter(history -> history != null && !history.endTime.isEmpty())
+                        .forEach(history -> counts.merge(history.startLocation, 1, Integer::sum));
             }
-        } catch (IOException e) {
-            // 파일이 없는 경우는 정상
         }
         
-        return histories;
+        return counts;
     }
     
-    public static List<RentalHistory> getUserRentalHistory(String userId) {
-        List<RentalHistory> userHistories = new ArrayList<>();
-        List<RentalHistory> allHistories = getAllRentalHistories();
-        
-        for (RentalHistory history : allHistories) {
-            if (history.userId.equals(userId)) {
-                userHistories.add(history);
+    // 전체 대여 기록을 CSV 한 파일로 내보내기
+    public static void exportRentalHistoryToCSV(String fileName) {
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(fileName), java.nio.charset.StandardCharsets.UTF_8))) {
+            pw.println(RENTAL_HISTORY_HEADER);
+            try (Stream<RentalHistory> histories = streamRentalHistories(null, null, null)) {
+                histories.forEach(history -> pw.println(history.toCSV()));
             }
+            System.out.println("대여 기록을 " + fileName + " 파일로 내보냈습니다.");
+        } catch (IOException e) {
+            System.err.println("대여 기록 내보내기 중 오류 발생: " + e.getMessage());
         }
-        
-        return userHistories;
     }
     
     public static String generateReportId() {
         return "RPT" + String.format("%06d", (int)(Math.random() * 1000000));
     }
     
+    // 동시에 대여해도 겹치지 않도록 시작 시각 기반 순번 사용
     public static String generateRentalId() {
-        return "RNT" + String.format("%06d", (int)(Math.random() * 1000000));
+        return "RNT" + rentalSequence.incrementAndGet();
     }
 }
\ No newline at end of file
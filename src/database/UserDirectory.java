@@ -0,0 +1,129 @@
+package database;
+
+import database.CSVDatabase.User;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 사용자 디렉터리
+ * - 시작 시 users.csv를 한 번만 읽어 userId 해시 인덱스 구성 (같은 아이디는 뒤쪽 행이 최신)
+ * - 저장은 upsert: 파일 끝에 한 줄만 추가하고 인덱스를 교체
+ * - 대체된 행이 살아있는 행 수를 넘으면 최신 행만 남기도록 파일을 압축
+ * 로그인 / 중복 확인은 파일을 읽지 않으므로 사용자 수와 무관하다.
+ */
+public class UserDirectory {
+    // 이보다 적게 쌓였을 때는 압축하지 않음 (작은 파일을 매번 다시 쓰지 않도록)
+    private static final int COMPACT_MIN_SUPERSEDED = 64;
+
+    private final String file;
+    private final String header;
+
+    // 기본 인덱스 (최초 가입 순서 유지)
+    private final Map<String, User> usersById = new LinkedHashMap<>();
+    // 파일에 남아 있는 이전 버전 행 수
+    private int supersededRows;
+
+    public UserDirectory(String file, String header) {
+        this.file = file;
+        this.header = header;
+        load();
+    }
+
+    private void load() {
+        try (Stream<User> users = CSVScan.lines(file, null, User::fromCSV)) {
+            users.forEach(user -> {
+                if (usersById.put(user.userId, user) != null) {
+                    supersededRows++;
+                }
+            });
+        }
+        // 이전 버전에서 중복 행이 많이 쌓였다면 시작 시 정리
+        compactIfNeeded();
+    }
+
+    // 조회 메소드들 (호출자가 수정해도 인덱스가 깨지지 않도록 복사본 반환)
+    public synchronized User get(String userId) {
+        User user = usersById.get(userId);
+        return user != null ? user.copy() : null;
+    }
+
+    public synchronized boolean contains(String userId) {
+        return usersById.containsKey(userId);
+    }
+
+    public synchronized int size() {
+        return usersById.size();
+    }
+
+    /**
+     * 조건에 맞는 사용자만 복사하여 순서대로 제공 (조건 검사는 복사 전에 수행)
+     */
+    public Stream<User> stream(Predicate<User> filter) {
+        User[] rows;
+        synchronized (this) {
+            rows = usersById.values().toArray(new User[0]);
+        }
+        Stream<User> stream = Arrays.stream(rows);
+        if (filter != null) {
+            stream = stream.filter(filter);
+        }
+        return stream.map(User::copy);
+    }
+
+    /**
+     * 추가 또는 갱신 (파일 끝에 한 줄 추가 후 인덱스 교체)
+     */
+    public synchronized void upsert(User user) throws IOException {
+        try (FileWriter fw = new FileWriter(file, true);
+             PrintWriter pw = new PrintWriter(fw)) {
+            // 파일이 비어있으면 헤더 추가
+            if (new File(file).length() == 0) {
+                pw.println(header);
+            }
+            pw.println(user.toCSV());
+            if (pw.checkError()) {
+                throw new IOException("사용자 파일에 쓸 수 없습니다: " + file);
+            }
+        }
+
+        if (usersById.put(user.userId, user.copy()) != null) {
+            supersededRows++;
+        }
+        compactIfNeeded();
+    }
+
+    private void compactIfNeeded() {
+        if (supersededRows < COMPACT_MIN_SUPERSEDED || supersededRows < usersById.size()) {
+            return;
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            // 압축 실패 시 기존 파일을 그대로 사용 (다음 저장 때 다시 시도)
+            System.err.println("사용자 파일 정리 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 최신 행만 임시 파일에 쓴 뒤 원자적으로 교체
+     */
+    synchronized void compact() throws IOException {
+        Path temp = Paths.get(file + ".tmp");
+        try (FileWriter fw = new FileWriter(temp.toFile());
+             PrintWriter pw = new PrintWriter(new BufferedWriter(fw))) {
+            pw.println(header);
+            for (User user : usersById.values()) {
+                pw.println(user.toCSV());
+            }
+            if (pw.checkError()) {
+                throw new IOException("임시 사용자 파일에 쓸 수 없습니다: " + temp);
+            }
+        }
+        ColumnarFiles.replace(temp, Paths.get(file));
+        supersededRows = 0;
+    }
+}
@@ -1,5 +1,8 @@
 package factory;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * 자전거 추상 클래스
  */
@@ -9,6 +12,9 @@ public abstract class Bicycle {
     protected boolean use;
     protected double speed;
     
+    // 위치 보고를 받을 곳 (위치 색인 등, 자전거 종류와 관계없이 공통)
+    private static final List<BicyclePositionListener> positionListeners = new CopyOnWriteArrayList<>();
+    
     public Bicycle(String bicycleId) {
         this.bicycleId = bicycleId;
         this.use = false;
@@ -22,6 +28,24 @@ public abstract class Bicycle {
     public abstract boolean isAvailable();
     public abstract void updateLocation(double latitude, double longitude);
     
+    /**
+     * 위치 보고 통지 등록 / 해제
+     */
+    public static void addPositionListener(BicyclePositionListener listener) {
+        positionListeners.add(listener);
+    }
+    
+    public static void removePositionListener(BicyclePositionListener listener) {
+        positionListeners.remove(listener);
+    }
+    
+    // 하위 클래스의 updateLocation에서 호출
+    protected void reportPosition(double latitude, double longitude) {
+        for (BicyclePositionListener listener : positionListeners) {
+            listener.updatePosition(bicycleId, latitude, longitude);
+        }
+    }
+    
     // Getter/Setter
     public String getBicycleId() { return bicycleId; }
     public String getBicycleType() { return bicycleType; }
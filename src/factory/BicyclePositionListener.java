@@ -0,0 +1,14 @@
+package factory;
+
+/**
+ * 자전거 위치 보고 통지 (GPS 등으로 updateLocation이 호출될 때)
+ * - 보고한 스레드에서 바로 호출되므로 짧게 처리해야 함
+ */
+public interface BicyclePositionListener {
+    /**
+     * @param bicycleId 자전거 ID
+     * @param latitude 보고된 위도
+     * @param longitude 보고된 경도
+     */
+    void updatePosition(String bicycleId, double latitude, double longitude);
+}
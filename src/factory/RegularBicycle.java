@@ -56,6 +56,8 @@ public class RegularBicycle extends Bicycle {
         this.longitude = longitude;
         System.out.printf("%s 자전거 위치 업데이트: (%.6f, %.6f)%n", 
                 bicycleId, latitude, longitude);
+        // 등록된 곳(가까운 자전거 검색용 위치 색인 등)에 위치 보고
+        reportPosition(latitude, longitude);
     }
     
     // Getter 메소드들
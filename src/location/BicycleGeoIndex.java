@@ -0,0 +1,529 @@
+package location;
+
+import database.BicycleChangeListener;
+import database.CSVDatabase;
+import database.CSVDatabase.BicycleData;
+import factory.Bicycle;
+import factory.BicyclePositionListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 자전거 위치 색인 (위도 / 경도 균일 격자)
+ * - 자전거마다 칸 하나에 속하며, 위치가 바뀌면 해당 자전거만 칸을 옮김
+ * - 좌표는 GPS 보고(Bicycle.updateLocation → BicyclePositionListener)가 우선이고, 보고가 없거나 다른 지역에 반납되면 지역 좌표를 사용
+ * - 대여 가능 여부는 자전거 저장소의 변경 통지로 갱신
+ * - 지역 좌표는 대여소 목록 스냅샷을 들고 있다가 이름으로 찾고(파일을 읽지 않음), 목록이 교체되면
+ *   GPS 보고가 없는 자전거를 새 좌표로 옮김
+ * - 가까운 자전거 검색은 질의 지점의 칸부터 고리 모양으로 넓혀 가며 Haversine 거리로 후보를 고르고,
+ *   아직 보지 않은 칸까지의 최소 거리가 k번째 후보보다 멀어지면 멈춤
+ * - 경도 ±180° 경계를 넘는 검색은 고려하지 않음
+ */
+public class BicycleGeoIndex implements BicycleChangeListener, BicyclePositionListener, StationCatalog.ReloadListener {
+    // 칸 크기 (위도 0.005° ≈ 555m, 한국 위도에서 경도 0.005° ≈ 440m)
+    static final double CELL_DEGREES = 0.005;
+    static final double EARTH_RADIUS_METERS = 6_371_000.0;
+    private static final int INITIAL_CAPACITY = 256;
+
+    // 검색 결과 한 건
+    public static class NearbyBicycle {
+        public final String bicycleId;
+        public final String bicycleType;
+        public final String location;
+        public final double latitude;
+        public final double longitude;
+        public final double distanceMeters;
+
+        NearbyBicycle(String bicycleId, String bicycleType, String location, double latitude, double longitude,
+                      double distanceMeters) {
+            this.bicycleId = bicycleId;
+            this.bicycleType = bicycleType;
+            this.location = location;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceMeters = distanceMeters;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s, %s) %.0fm", bicycleId, bicycleType, location, distanceMeters);
+        }
+    }
+
+    // 격자 한 칸 (자전거 번호 목록, 삭제는 마지막 항목과 자리 바꿈)
+    private static class Cell {
+        int[] slots = new int[4];
+        int size;
+        int available;
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 자전거 번호별 정보 (번호 = 배열 위치)
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private String[] types = new String[INITIAL_CAPACITY];
+    private String[] locations = new String[INITIAL_CAPACITY];
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+    private boolean[] positioned = new boolean[INITIAL_CAPACITY]; // 좌표가 있어 칸에 들어 있는지
+    private boolean[] reported = new boolean[INITIAL_CAPACITY];   // GPS로 보고된 좌표인지
+    private boolean[] available = new boolean[INITIAL_CAPACITY];
+    private long[] cellKeys = new long[INITIAL_CAPACITY];
+    private int[] positionInCell = new int[INITIAL_CAPACITY];
+    private int slotCount;
+    private int availableCount;
+
+    private final Map<Long, Cell> cells = new HashMap<>();
+    // 지역 좌표를 찾는 대여소 목록 (교체 통지로 갱신, 잠금 안에서만 접근)
+    private StationCatalog.Snapshot stations;
+    // 자전거가 있었던 칸의 범위 (검색을 더 넓혀도 소용없는지 판단용, 줄어들지 않음)
+    private int minRow = Integer.MAX_VALUE;
+    private int maxRow = Integer.MIN_VALUE;
+    private int minColumn = Integer.MAX_VALUE;
+    private int maxColumn = Integer.MIN_VALUE;
+
+    private static class Holder {
+        static final BicycleGeoIndex SHARED = create();
+
+        private static BicycleGeoIndex create() {
+            BicycleGeoIndex index = new BicycleGeoIndex();
+            StationCatalog.addReloadListener(index);
+            CSVDatabase.addBicycleListener(index);
+            Bicycle.addPositionListener(index);
+            return index;
+        }
+    }
+
+    /**
+     * 자전거 저장소 / 자전거 위치 보고와 연결된 공용 색인 (처음 사용할 때 저장소의 자전거 전체로 구성)
+     * - 위치 보고는 연결된 뒤부터 받으므로 자전거를 배치하기 전에 한 번 호출해 두어야 함
+     */
+    public static BicycleGeoIndex shared() {
+        return Holder.SHARED;
+    }
+
+    // ===== 갱신 =====
+
+    /**
+     * GPS로 보고된 위치 반영 (색인에 없는 자전거면 대여 불가 상태로 추가하고 저장소 통지를 기다림)
+     */
+    @Override
+    public void updatePosition(String bicycleId, double latitude, double longitude) {
+        checkCoordinates(latitude, longitude);
+        lock.writeLock().lock();
+        try {
+            int slot = slotFor(bicycleId);
+            reported[slot] = true;
+            moveTo(slot, latitude, longitude);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 저장소 변경 통지: 대여 가능 여부 / 종류 / 지역 갱신
+     * - 새 자전거이거나 다른 지역으로 반납되면 지역 좌표로 옮김 (GPS 보고가 있던 새 자전거는 그대로 둠)
+     */
+    @Override
+    public void bicycleChanged(BicycleData previous, BicycleData current) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotFor(current.bicycleId);
+            types[slot] = current.bicycleType;
+            locations[slot] = current.location;
+            setAvailable(slot, current.isAvailable && !current.inUse);
+
+            boolean moved = previous != null && !Objects.equals(previous.location, current.location);
+            if (moved || !reported[slot]) {
+                StationCatalog.Station station = stations != null ? stations.byName(current.location) : null;
+                if (station != null) {
+                    reported[slot] = false;
+                    moveTo(slot, station.latitude, station.longitude);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 대여소 목록 교체 통지: GPS 보고가 없는 자전거를 새 목록의 지역 좌표로 옮김
+     * (목록에서 빠진 지역의 자전거는 마지막 좌표에 둠)
+     */
+    @Override
+    public void catalogReloaded(StationCatalog.Snapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            stations = snapshot;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (reported[slot] || locations[slot] == null) {
+                    continue;
+                }
+                StationCatalog.Station station = snapshot.byName(locations[slot]);
+                if (station != null) {
+                    moveTo(slot, station.latitude, station.longitude);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int slotFor(String bicycleId) {
+        Integer existing = slotById.get(bicycleId);
+        if (existing != null) {
+            return existing;
+        }
+        if (slotCount == ids.length) {
+            grow(slotCount * 2);
+        }
+        int slot = slotCount++;
+        ids[slot] = bicycleId;
+        slotById.put(bicycleId, slot);
+        return slot;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        locations = Arrays.copyOf(locations, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        positioned = Arrays.copyOf(positioned, capacity);
+        reported = Arrays.copyOf(reported, capacity);
+        available = Arrays.copyOf(available, capacity);
+        cellKeys = Arrays.copyOf(cellKeys, capacity);
+        positionInCell = Arrays.copyOf(positionInCell, capacity);
+    }
+
+    private void setAvailable(int slot, boolean value) {
+        if (available[slot] == value) {
+            return;
+        }
+        available[slot] = value;
+        availableCount += value ? 1 : -1;
+        if (positioned[slot]) {
+            cells.get(cellKeys[slot]).available += value ? 1 : -1;
+        }
+    }
+
+    // 좌표를 바꾸고, 칸이 달라졌을 때만 칸을 옮김
+    private void moveTo(int slot, double latitude, double longitude) {
+        int row = row(latitude);
+        int column = column(longitude);
+        long key = cellKey(row, column);
+        latitudes[slot] = latitude;
+        longitudes[slot] = longitude;
+        if (positioned[slot] && cellKeys[slot] == key) {
+            return;
+        }
+        if (positioned[slot]) {
+            removeFromCell(slot);
+        }
+
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = new Cell();
+            cells.put(key, cell);
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minColumn = Math.min(minColumn, column);
+            maxColumn = Math.max(maxColumn, column);
+        }
+        if (cell.size == cell.slots.length) {
+            cell.slots = Arrays.copyOf(cell.slots, cell.size * 2);
+        }
+        positionInCell[slot] = cell.size;
+        cell.slots[cell.size++] = slot;
+        if (available[slot]) {
+            cell.available++;
+        }
+        cellKeys[slot] = key;
+        positioned[slot] = true;
+    }
+
+    private void removeFromCell(int slot) {
+        long key = cellKeys[slot];
+        Cell cell = cells.get(key);
+        int position = positionInCell[slot];
+        int last = cell.slots[--cell.size];
+        cell.slots[position] = last;
+        positionInCell[last] = position;
+        if (available[slot]) {
+            cell.available--;
+        }
+        if (cell.size == 0) {
+            cells.remove(key);
+        }
+        positioned[slot] = false;
+    }
+
+    // ===== 검색 =====
+
+    /**
+     * 가장 가까운 대여 가능 자전거 (가까운 순)
+     * @param count 최대 개수
+     * @param maxDistanceMeters 이 거리보다 먼 자전거는 제외 (제한 없으면 Double.POSITIVE_INFINITY)
+     */
+    public List<NearbyBicycle> findNearestAvailable(double latitude, double longitude, int count,
+                                                    double maxDistanceMeters) {
+        checkCoordinates(latitude, longitude);
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            if (availableCount == 0) {
+                return Collections.emptyList();
+            }
+            Candidates candidates = new Candidates(Math.min(count, availableCount));
+            int row = row(latitude);
+            int column = column(longitude);
+            int maxRing = Math.max(Math.max(Math.abs(row - minRow), Math.abs(row - maxRow)),
+                    Math.max(Math.abs(column - minColumn), Math.abs(column - maxColumn)));
+
+            // 자전거가 있었던 범위에 처음 닿는 고리부터 검사
+            int firstRing = Math.max(Math.max(minRow - row, row - maxRow), Math.max(minColumn - column, column - maxColumn));
+            for (int ring = Math.max(firstRing, 0); ring <= maxRing; ring++) {
+                scanRing(row, column, ring, latitude, longitude, maxDistanceMeters, candidates);
+                double unseen = distanceOutsideBlock(latitude, longitude, row, column, ring);
+                if (unseen > maxDistanceMeters || (candidates.isFull() && candidates.worst() <= unseen)) {
+                    break;
+                }
+            }
+            return candidates.toResults();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<NearbyBicycle> findNearestAvailable(double latitude, double longitude, int count) {
+        return findNearestAvailable(latitude, longitude, count, Double.POSITIVE_INFINITY);
+    }
+
+    // 중심 칸에서 ring칸 떨어진 테두리만 검사 (자전거가 있었던 범위 밖은 건너뜀)
+    private void scanRing(int row, int column, int ring, double latitude, double longitude, double maxDistance,
+                          Candidates candidates) {
+        if (ring == 0) {
+            scanCell(row, column, latitude, longitude, maxDistance, candidates);
+            return;
+        }
+        int fromColumn = Math.max(column - ring, minColumn);
+        int toColumn = Math.min(column + ring, maxColumn);
+        for (int edgeRow : new int[] {row - ring, row + ring}) {
+            if (edgeRow >= minRow && edgeRow <= maxRow) {
+                for (int c = fromColumn; c <= toColumn; c++) {
+                    scanCell(edgeRow, c, latitude, longitude, maxDistance, candidates);
+                }
+            }
+        }
+        int fromRow = Math.max(row - ring + 1, minRow);
+        int toRow = Math.min(row + ring - 1, maxRow);
+        for (int edgeColumn : new int[] {column - ring, column + ring}) {
+            if (edgeColumn >= minColumn && edgeColumn <= maxColumn) {
+                for (int r = fromRow; r <= toRow; r++) {
+                    scanCell(r, edgeColumn, latitude, longitude, maxDistance, candidates);
+                }
+            }
+        }
+    }
+
+    private void scanCell(int row, int column, double latitude, double longitude, double maxDistance,
+                          Candidates candidates) {
+        Cell cell = cells.get(cellKey(row, column));
+        if (cell == null || cell.available == 0) {
+            return;
+        }
+        // 칸 전체가 지금의 k번째 후보보다 멀면 건너뜀
+        if (candidates.isFull() && distanceToCell(latitude, longitude, row, column) > candidates.worst()) {
+            return;
+        }
+        for (int i = 0; i < cell.size; i++) {
+            int slot = cell.slots[i];
+            if (available[slot]) {
+                double distance = distanceMeters(latitude, longitude, latitudes[slot], longitudes[slot]);
+                if (distance <= maxDistance) {
+                    candidates.offer(slot, distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * 중심 칸에서 ring칸까지의 사각형 바깥에 있는 점까지의 최소 거리 (미터, 조금 작게 잡음)
+     * - 남북 경계까지는 자오선을 따라 가는 거리, 동서 경계(자오선)까지는 대원 거리 asin(cos φ · sin Δλ)
+     */
+    static double distanceOutsideBlock(double latitude, double longitude, int row, int column, int ring) {
+        double north = (row + ring + 1) * CELL_DEGREES - latitude;
+        double south = latitude - (row - ring) * CELL_DEGREES;
+        double latitudeBound = Math.toRadians(Math.min(north, south)) * EARTH_RADIUS_METERS;
+
+        double east = (column + ring + 1) * CELL_DEGREES - longitude;
+        double west = longitude - (column - ring) * CELL_DEGREES;
+        double deltaLongitude = Math.min(east, west);
+        double longitudeBound = deltaLongitude >= 90 ? Double.POSITIVE_INFINITY
+                : EARTH_RADIUS_METERS * Math.asin(Math.cos(Math.toRadians(latitude)) * Math.sin(Math.toRadians(deltaLongitude)));
+
+        return Math.max(0.0, Math.min(latitudeBound, longitudeBound) * (1 - 1e-9));
+    }
+
+    /**
+     * 한 칸 안의 점까지의 최소 거리 (미터, 조금 작게 잡음)
+     */
+    static double distanceToCell(double latitude, double longitude, int row, int column) {
+        double south = row * CELL_DEGREES;
+        double west = column * CELL_DEGREES;
+        double deltaLatitude = Math.max(0.0, Math.max(south - latitude, latitude - (south + CELL_DEGREES)));
+        double deltaLongitude = Math.max(0.0, Math.max(west - longitude, longitude - (west + CELL_DEGREES)));
+        double latitudeBound = Math.toRadians(deltaLatitude) * EARTH_RADIUS_METERS;
+        double longitudeBound = deltaLongitude >= 90 ? Double.POSITIVE_INFINITY
+                : EARTH_RADIUS_METERS * Math.asin(Math.cos(Math.toRadians(latitude)) * Math.sin(Math.toRadians(deltaLongitude)));
+        return Math.max(latitudeBound, longitudeBound) * (1 - 1e-9);
+    }
+
+    // k개까지의 후보 (가장 먼 후보가 맨 앞인 최대 힙)
+    private class Candidates {
+        private final int[] slots;
+        private final double[] distances;
+        private int size;
+
+        Candidates(int capacity) {
+            this.slots = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        boolean isFull() {
+            return size == slots.length;
+        }
+
+        double worst() {
+            return distances[0];
+        }
+
+        void offer(int slot, double distance) {
+            if (size < slots.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) / 2;
+                    if (distances[parent] >= distance) {
+                        break;
+                    }
+                    slots[i] = slots[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                slots[i] = slot;
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+                    slots[i] = slots[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                slots[i] = slot;
+                distances[i] = distance;
+            }
+        }
+
+        List<NearbyBicycle> toResults() {
+            List<NearbyBicycle> results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int slot = slots[i];
+                results.add(new NearbyBicycle(ids[slot], types[slot], locations[slot],
+                        latitudes[slot], longitudes[slot], distances[i]));
+            }
+            results.sort((a, b) -> a.distanceMeters != b.distanceMeters
+                    ? Double.compare(a.distanceMeters, b.distanceMeters)
+                    : a.bicycleId.compareTo(b.bicycleId));
+            return results;
+        }
+    }
+
+    // ===== 계산 =====
+
+    /**
+     * 두 지점 사이의 대원 거리 (Haversine, 미터)
+     */
+    public static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double phi1 = Math.toRadians(latitude1);
+        double phi2 = Math.toRadians(latitude2);
+        double sinHalfLatitude = Math.sin((phi2 - phi1) / 2);
+        double sinHalfLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = sinHalfLatitude * sinHalfLatitude
+                + Math.cos(phi1) * Math.cos(phi2) * sinHalfLongitude * sinHalfLongitude;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+
+    private static int column(double longitude) {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    private static void checkCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("올바르지 않은 좌표입니다: (" + latitude + ", " + longitude + ")");
+        }
+    }
+
+    // ===== 현황 =====
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int availableCount() {
+        lock.readLock().lock();
+        try {
+            return availableCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 색인된 좌표 (없으면 null, [위도, 경도])
+     */
+    public double[] positionOf(String bicycleId) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(bicycleId);
+            if (slot == null || !positioned[slot]) {
+                return null;
+            }
+            return new double[] {latitudes[slot], longitudes[slot]};
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package location;
+
+import database.CSVTokenizer;
+import database.RentalColumnarFile;
+import database.RepairDatabase;
+import database.RepairDatabase.RentalHistory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * 대여소별 수요 예측 (대여 기록 기반)
+ * - 대여소마다 요일 x 시각(한 주 168칸)별 대여 / 반납 건수를 지수 감쇠 합계로 유지 (기본 반감기 4주)
+ * - 감쇠는 공통 기준 시각에 대한 배율로 처리: 건마다 e^((발생 시각 - 기준)/τ)를 더하고 읽을 때 e^(-(지금 - 기준)/τ)를 곱함
+ *   → 반납 1건마다 칸 두 개만 갱신 (O(1)), 배율이 너무 커지면 기준 시각을 옮기며 한 번에 다시 맞춤
+ * - 칸 값 / 관측한 주 수(감쇠 적용, 1주 미만이면 1주) = 그 요일 / 시각 한 시간의 예상 건수
+ * - 처음 사용할 때 최근 BOOTSTRAP_WEEKS주 대여 기록을 한 번 읽고, 이후에는 반납 처리에서 넘겨받은 대여만 더함
+ *   (읽기 시작 시각 전에 끝난 대여는 파일에서, 그 뒤에 끝난 대여는 반납 처리에서만 세므로 두 번 세지 않음)
+ * - 시각은 대여 기록과 같이 현지 시각을 UTC로 읽은 epoch 초
+ */
+public class DemandForecaster {
+    public static final double DEFAULT_HALF_LIFE_WEEKS = 4;
+    public static final double DEFAULT_HORIZON_HOURS = 2;
+    // 예상 대여 가능 대수가 이보다 적으면 자전거 부족 경고
+    public static final double LOW_AVAILABILITY_THRESHOLD = 1.0;
+    static final int HOURS_PER_WEEK = 168;
+    private static final long SECONDS_PER_HOUR = 3_600L;
+    private static final long SECONDS_PER_WEEK = HOURS_PER_WEEK * SECONDS_PER_HOUR;
+    // epoch 0(1970-01-01 0시)은 목요일이므로 월요일 0시가 0번 칸이 되도록 옮김
+    private static final long MONDAY_OFFSET_HOURS = 3 * 24;
+    private static final int BOOTSTRAP_WEEKS = 16;
+    // 배율 지수가 이 값을 넘으면 기준 시각을 옮김 (e^50 ≈ 5e21, double 범위 안)
+    private static final double MAX_SCALE_EXPONENT = 50;
+
+    private final double tauSeconds;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, StationDemand> demands = new HashMap<>();
+    private long referenceTime;                     // 배율 기준 시각
+    private long firstEventTime = Long.MAX_VALUE;   // 관측 시작 (가장 이른 대여 시작)
+    private long acceptFrom = Long.MIN_VALUE;       // 이 시각 이후에 끝난 대여만 record에서 받음
+    private long recordedRentals;
+
+    // 대여소 하나의 칸별 감쇠 합계 (기준 시각 배율이 곱해진 값)
+    // 같은 시각의 대여 / 반납을 붙여 두어(2h: 대여, 2h+1: 반납) 예측 구간이 캐시 줄 하나 안에서 읽히도록 함
+    private static class StationDemand {
+        final double[] cells = new double[HOURS_PER_WEEK * 2];
+    }
+
+    /**
+     * 한 대여소의 예측 (지금부터 hours시간)
+     */
+    public static class Forecast {
+        public final String location;
+        public final double pickups;   // 예상 대여 건수
+        public final double dropoffs;  // 예상 반납 건수
+        public final double netOutflow; // 대여 - 반납 (양수면 자전거가 줄어듦)
+
+        Forecast(String location, double pickups, double dropoffs) {
+            this.location = location;
+            this.pickups = pickups;
+            this.dropoffs = dropoffs;
+            this.netOutflow = pickups - dropoffs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: 대여 %.1f, 반납 %.1f, 순유출 %+.1f", location, pickups, dropoffs, netOutflow);
+        }
+    }
+
+    /**
+     * 대여 가능 현황 경고
+     */
+    public static class Warning {
+        public enum Kind {
+            BICYCLE_SHORTAGE("자전거 부족"),
+            DOCK_SHORTAGE("거치대 부족");
+
+            private final String displayName;
+
+            Kind(String displayName) {
+                this.displayName = displayName;
+            }
+
+            public String getDisplayName() { return displayName; }
+        }
+
+        public final Kind kind;
+        public final StationCatalog.Station station;
+        public final StationOccupancy.Counts counts;
+        public final Forecast forecast;
+        public final double shortfall; // 모자랄 것으로 예상되는 자전거 / 거치대 수
+
+        Warning(Kind kind, StationCatalog.Station station, StationOccupancy.Counts counts, Forecast forecast,
+                double shortfall) {
+            this.kind = kind;
+            this.station = station;
+            this.counts = counts;
+            this.forecast = forecast;
+            this.shortfall = shortfall;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: 대여 가능 %d대, 거치대 %d, 예상 순유출 %+.1f (%.1f 모자람)",
+                    kind.getDisplayName(), station.name, counts.available, station.capacity,
+                    forecast.netOutflow, shortfall);
+        }
+    }
+
+    private static class Holder {
+        static final DemandForecaster SHARED = create();
+
+        private static DemandForecaster create() {
+            long now = currentTime();
+            DemandForecaster forecaster = new DemandForecaster(DEFAULT_HALF_LIFE_WEEKS, now);
+            LocalDate from = LocalDate.now().minusWeeks(BOOTSTRAP_WEEKS);
+            try (Stream<String> lines = RepairDatabase.streamLatestRentalLines(from, null)) {
+                forecaster.loadHistory(lines, from.atStartOfDay().toEpochSecond(ZoneOffset.UTC), now);
+            } catch (RuntimeException e) {
+                System.err.println("수요 예측용 대여 기록 읽기 중 오류 발생: " + e.getMessage());
+            }
+            return forecaster;
+        }
+    }
+
+    /**
+     * 대여 기록으로 채운 공용 예측기 (처음 사용할 때 최근 기록을 한 번 읽음)
+     */
+    public static DemandForecaster shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * 공용 예측기를 백그라운드에서 미리 채움 (시작 시 호출 - 첫 반납이 최근 기록 읽기를 기다리지 않도록)
+     */
+    public static void warmUpShared() {
+        Thread t = new Thread(DemandForecaster::shared, "demand-forecaster-warmup");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * @param halfLifeWeeks 건수가 절반으로 줄어드는 기간 (주)
+     * @param referenceTime 배율 기준 시각 (보통 지금)
+     */
+    public DemandForecaster(double halfLifeWeeks, long referenceTime) {
+        if (!(halfLifeWeeks > 0)) {
+            throw new IllegalArgumentException("반감기는 0보다 커야 합니다: " + halfLifeWeeks);
+        }
+        this.tauSeconds = halfLifeWeeks * SECONDS_PER_WEEK / Math.log(2);
+        this.referenceTime = referenceTime;
+    }
+
+    /**
+     * 현재 시각 (대여 기록과 같은 기준의 epoch 초)
+     */
+    public static long currentTime() {
+        return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static int hourOfWeek(long epochSecond) {
+        return Math.floorMod(Math.floorDiv(epochSecond, SECONDS_PER_HOUR) + MONDAY_OFFSET_HOURS, HOURS_PER_WEEK);
+    }
+
+    // ===== 기록 =====
+
+    /**
+     * 대여 기록 원본 줄(헤더 제외, 대여 번호별 최신 레코드)로 채움
+     * - from 이후에 시작해 cutoff 전에 끝난 대여만 세고, 이후 record는 cutoff 이후에 끝난 대여만 받음
+     * @return 센 대여 건수
+     */
+    public long loadHistory(Stream<String> rentalLines, long from, long cutoff) {
+        // 공용(스레드별) 토크나이저는 앞 단계의 필터(RepairDatabase.isLatestRecord)도 같은 스레드에서 쓰므로 따로 만듦
+        CSVTokenizer t = new CSVTokenizer();
+        long[] loaded = new long[1];
+        lock.writeLock().lock();
+        try {
+            rentalLines.forEach(line -> {
+                try {
+                    t.reset(line);
+                    t.skip(); // rentalId
+                    t.skip(); // userId
+                    t.skip(); // bicycleId
+                    long start = t.nextEpochSecond(RentalColumnarFile.NO_TIME);
+                    long end = t.nextEpochSecond(RentalColumnarFile.NO_TIME);
+                    String startLocation = t.nextString();
+                    String endLocation = t.nextString();
+                    if (start == RentalColumnarFile.NO_TIME || end == RentalColumnarFile.NO_TIME
+                            || start < from || end >= cutoff) {
+                        return;
+                    }
+                    addLocked(startLocation, start, endLocation, end);
+                    loaded[0]++;
+                } catch (RuntimeException e) {
+                    // 형식이 맞지 않는 줄은 건너뜀
+                }
+            });
+            acceptFrom = cutoff;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return loaded[0];
+    }
+
+    /**
+     * 반납이 끝난 대여 하나를 더함 (반납 처리에서 호출)
+     */
+    public void recordCompletedRental(RentalHistory history) {
+        if (history == null || history.endTime == null || history.endTime.isEmpty()) {
+            return;
+        }
+        try {
+            record(history.startLocation, CSVTokenizer.epochSecond(history.startTime),
+                    history.endLocation, CSVTokenizer.epochSecond(history.endTime));
+        } catch (RuntimeException e) {
+            System.err.println("수요 예측 갱신 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 대여 하나를 더함 (대여 시작 지역 / 시각, 반납 지역 / 시각)
+     */
+    public void record(String startLocation, long startTime, String endLocation, long endTime) {
+        lock.writeLock().lock();
+        try {
+            if (endTime < acceptFrom) {
+                return; // 기록 파일에서 이미 센 대여
+            }
+            addLocked(startLocation, startTime, endLocation, endTime);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(String startLocation, long startTime, String endLocation, long endTime) {
+        rescaleIfNeeded(Math.max(startTime, endTime));
+        if (startLocation != null && !startLocation.isEmpty()) {
+            demandOf(startLocation).cells[2 * hourOfWeek(startTime)] += weight(startTime);
+        }
+        if (endLocation != null && !endLocation.isEmpty()) {
+            demandOf(endLocation).cells[2 * hourOfWeek(endTime) + 1] += weight(endTime);
+        }
+        firstEventTime = Math.min(firstEventTime, startTime);
+        recordedRentals++;
+    }
+
+    private StationDemand demandOf(String location) {
+        return demands.computeIfAbsent(location, k -> new StationDemand());
+    }
+
+    private double weight(long time) {
+        return Math.exp((time - referenceTime) / tauSeconds);
+    }
+
+    // 기준 시각에서 너무 멀어지면 모든 칸에 배율을 곱하고 기준을 옮김 (반감기 4주면 약 5년에 한 번)
+    private void rescaleIfNeeded(long time) {
+        double exponent = (time - referenceTime) / tauSeconds;
+        if (exponent <= MAX_SCALE_EXPONENT) {
+            return;
+        }
+        double factor = Math.exp(-exponent);
+        for (StationDemand demand : demands.values()) {
+            for (int i = 0; i < demand.cells.length; i++) {
+                demand.cells[i] *= factor;
+            }
+        }
+        referenceTime = time;
+    }
+
+    // ===== 예측 =====
+
+    /**
+     * 한 대여소의 지금부터 DEFAULT_HORIZON_HOURS시간 예측
+     */
+    public Forecast forecast(String location) {
+        return forecast(location, currentTime(), DEFAULT_HORIZON_HOURS);
+    }
+
+    /**
+     * 한 대여소의 now부터 hours시간 예측 (기록이 없으면 0)
+     */
+    public Forecast forecast(String location, long now, double hours) {
+        long end = horizonEnd(now, hours);
+        lock.readLock().lock();
+        try {
+            return forecastLocked(location, now, end, scaleAt(now));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 여러 대여소의 예측 (대여소 순서대로, 대여소마다 O(1))
+     */
+    public List<Forecast> forecastAll(List<StationCatalog.Station> stations, long now, double hours) {
+        long end = horizonEnd(now, hours);
+        List<Forecast> forecasts = new ArrayList<>(stations.size());
+        lock.readLock().lock();
+        try {
+            double scale = scaleAt(now);
+            for (StationCatalog.Station station : stations) {
+                forecasts.add(forecastLocked(station.name, now, end, scale));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return forecasts;
+    }
+
+    private static long horizonEnd(long now, double hours) {
+        if (!(hours >= 0 && hours <= HOURS_PER_WEEK)) {
+            throw new IllegalArgumentException("예측 기간은 0 ~ " + HOURS_PER_WEEK + "시간이어야 합니다: " + hours);
+        }
+        return now + Math.round(hours * SECONDS_PER_HOUR);
+    }
+
+    // 칸 값을 한 시간당 예상 건수로 바꾸는 배율: 지금 시각 감쇠 / 관측한 주 수
+    private double scaleAt(long now) {
+        if (firstEventTime == Long.MAX_VALUE || now <= firstEventTime) {
+            return 0;
+        }
+        double observedSeconds = tauSeconds * (1 - Math.exp(-(now - firstEventTime) / tauSeconds));
+        double observedWeeks = Math.max(1.0, observedSeconds / SECONDS_PER_WEEK);
+        return Math.exp(-(now - referenceTime) / tauSeconds) / observedWeeks;
+    }
+
+    private Forecast forecastLocked(String location, long now, long end, double scale) {
+        StationDemand demand = demands.get(location);
+        if (demand == null || scale == 0) {
+            return new Forecast(location, 0, 0);
+        }
+        // [now, end) 구간이 걸친 칸들을 걸친 시간 비율만큼 더함 (2시간이면 칸 3개 이하)
+        double pickups = 0, dropoffs = 0;
+        long t = now;
+        while (t < end) {
+            long until = Math.min((Math.floorDiv(t, SECONDS_PER_HOUR) + 1) * SECONDS_PER_HOUR, end);
+            int cell = 2 * hourOfWeek(t);
+            pickups += demand.cells[cell] * (until - t);
+            dropoffs += demand.cells[cell + 1] * (until - t);
+            t = until;
+        }
+        double perHour = scale / SECONDS_PER_HOUR;
+        return new Forecast(location, pickups * perHour, dropoffs * perHour);
+    }
+
+    // ===== 경고 / 재배치 목표 =====
+
+    /**
+     * 현재 대여소 목록 / 지역별 현황 기준 DEFAULT_HORIZON_HOURS시간 경고
+     */
+    public List<Warning> availabilityWarnings() {
+        return availabilityWarnings(StationCatalog.current().stations(), StationOccupancy.shared()::get,
+                currentTime(), DEFAULT_HORIZON_HOURS);
+    }
+
+    /**
+     * 예측대로면 대여 가능 자전거가 LOW_AVAILABILITY_THRESHOLD대 아래로 떨어지거나 거치대가 모자랄 대여소 (모자라는 수가 큰 순)
+     */
+    public List<Warning> availabilityWarnings(List<StationCatalog.Station> stations,
+                                              Function<String, StationOccupancy.Counts> counts,
+                                              long now, double hours) {
+        List<Forecast> forecasts = forecastAll(stations, now, hours);
+        List<Warning> warnings = new ArrayList<>();
+        for (int i = 0; i < stations.size(); i++) {
+            StationCatalog.Station station = stations.get(i);
+            Forecast forecast = forecasts.get(i);
+            if (forecast.netOutflow == 0) {
+                continue;
+            }
+            StationOccupancy.Counts c = counts.apply(station.name);
+            if (forecast.netOutflow > 0) {
+                double expectedAvailable = c.available - forecast.netOutflow;
+                if (expectedAvailable < LOW_AVAILABILITY_THRESHOLD) {
+                    warnings.add(new Warning(Warning.Kind.BICYCLE_SHORTAGE, station, c, forecast,
+                            LOW_AVAILABILITY_THRESHOLD - expectedAvailable));
+                }
+            } else {
+                int freeDocks = station.capacity - (c.total - c.inUse);
+                double overflow = -forecast.netOutflow - freeDocks;
+                if (overflow > 0) {
+                    warnings.add(new Warning(Warning.Kind.DOCK_SHORTAGE, station, c, forecast, overflow));
+                }
+            }
+        }
+        warnings.sort((a, b) -> Double.compare(b.shortfall, a.shortfall));
+        return warnings;
+    }
+
+    /**
+     * 재배치 목표: 거치대 수 x ratio + 앞으로 hours시간 예상 순유출 (계획 시작 시각 기준, 반올림)
+     */
+    public ToIntFunction<StationCatalog.Station> rebalancingTarget(double ratio, double hours) {
+        long now = currentTime();
+        return station -> (int) Math.round(station.capacity * ratio + forecast(station.name, now, hours).netOutflow);
+    }
+
+    public long getRecordedRentals() {
+        lock.readLock().lock();
+        try {
+            return recordedRentals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getStationCount() {
+        lock.readLock().lock();
+        try {
+            return demands.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
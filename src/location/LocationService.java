@@ -9,56 +9,38 @@ import database.CSVDatabase;
  */
 public class LocationService {
     
-    // 지역 정보 클래스
-    public static class Location {
-        public String name;
-        public double latitude;
-        public double longitude;
-        
-        public Location(String name, double latitude, double longitude) {
-            this.name = name;
-            this.latitude = latitude;
-            this.longitude = longitude;
-        }
-    }
-    
-    // 용인시 기흥구 지역들 (단국대학교 주변)
-    private static final Map<String, Location> LOCATIONS = new HashMap<>();
-    
-    static {
-        // 실제 용인시 기흥구 좌표 기준
-        LOCATIONS.put("죽전동", new Location("죽전동", 37.3238, 127.1069));
-        LOCATIONS.put("보정동", new Location("보정동", 37.3195, 127.1154));
-        LOCATIONS.put("구미동", new Location("구미동", 37.2896, 127.1139));
-        LOCATIONS.put("성복동", new Location("성복동", 37.3089, 127.1285));
-        LOCATIONS.put("상현동", new Location("상현동", 37.2985, 127.1234));
-    }
-    
+    /**
+     * 대여소 이름 목록 (대여소 목록 파일 순서, 변경 불가 - 복사하지 않음)
+     */
     public static List<String> getAvailableLocations() {
-        return new ArrayList<>(LOCATIONS.keySet());
+        return StationCatalog.current().names();
     }
     
-    public static Location getLocation(String locationName) {
-        return LOCATIONS.get(locationName);
+    public static StationCatalog.Station getLocation(String locationName) {
+        return StationCatalog.current().byName(locationName);
     }
     
     public static boolean isValidLocation(String locationName) {
-        return LOCATIONS.containsKey(locationName);
+        return getLocation(locationName) != null;
     }
     
-    public static void showLocationMenu() {
+    /**
+     * 지역 메뉴 출력
+     * @return 출력한 목록 (번호 선택은 이 목록으로 해야 도중에 목록이 바뀌어도 번호가 어긋나지 않음)
+     */
+    public static List<String> showLocationMenu() {
         System.out.println("\n=== 지역 선택 ===");
         List<String> locations = getAvailableLocations();
         
         for (int i = 0; i < locations.size(); i++) {
             System.out.println((i + 1) + ". " + locations.get(i));
         }
+        return locations;
     }
     
-    public static String selectLocationByNumber(int number) {
-        List<String> locations = getAvailableLocations();
-        if (number >= 1 && number <= locations.size()) {
-            return locations.get(number - 1);
+    public static String selectLocationByNumber(List<String> shownLocations, int number) {
+        if (number >= 1 && number <= shownLocations.size()) {
+            return shownLocations.get(number - 1);
         }
         return null;
     }
@@ -69,47 +51,36 @@ public class LocationService {
             return;
         }
         
-        List<BicycleData> bicycles = CSVDatabase.getBicyclesByLocation(locationName);
+        // 개수는 지역별 카운터에서 읽음 (저장소를 훑지 않음)
+        StationOccupancy.Counts counts = StationOccupancy.shared().get(locationName);
         
         System.out.println("\n=== " + locationName + " 자전거 현황 ===");
         
-        if (bicycles.isEmpty()) {
+        if (counts.total == 0) {
             System.out.println("이 지역에는 자전거가 배치되어 있지 않습니다.");
             return;
         }
         
-        // 통계 계산
-        int totalBicycles = bicycles.size();
-        int availableBicycles = 0;
-        int inUseBicycles = 0;
-        int regularBicycles = 0;
-        int electricBicycles = 0;
-        
-        for (BicycleData bicycle : bicycles) {
-            if (bicycle.isAvailable) availableBicycles++;
-            if (bicycle.inUse) inUseBicycles++;
-            
-            if (bicycle.bicycleType.contains("일반")) regularBicycles++;
-            else if (bicycle.bicycleType.contains("전기")) electricBicycles++;
-        }
-        
         // 현황 출력
         System.out.println("📍 위치: " + locationName);
-        Location loc = getLocation(locationName);
-        System.out.printf("🗺️  좌표: (%.4f, %.4f)%n", loc.latitude, loc.longitude);
-        System.out.println("🚴 총 자전거 수: " + totalBicycles + "대");
-        System.out.println("✅ 대여 가능: " + availableBicycles + "대");
-        System.out.println("🔄 사용 중: " + inUseBicycles + "대");
-        System.out.println("🚲 일반 자전거: " + regularBicycles + "대");
-        System.out.println("⚡ 전기 자전거: " + electricBicycles + "대");
+        StationCatalog.Station station = getLocation(locationName);
+        System.out.println("🏷️  대여소: " + station.stationId + " (" + station.region + ")");
+        System.out.printf("🗺️  좌표: (%.4f, %.4f)%n", station.latitude, station.longitude);
+        System.out.println("🅿️  거치대: " + station.capacity + "대");
+        System.out.println("🚴 총 자전거 수: " + counts.total + "대");
+        System.out.println("✅ 대여 가능: " + counts.available + "대");
+        System.out.println("🔄 사용 중: " + counts.inUse + "대");
+        System.out.println("🚲 일반 자전거: " + counts.regular + "대");
+        System.out.println("⚡ 전기 자전거: " + counts.electric + "대");
+        DemandForecaster.Forecast forecast = DemandForecaster.shared().forecast(locationName);
+        System.out.printf("📈 %.0f시간 예상: 대여 %.1f건, 반납 %.1f건 (순유출 %+.1f대)%n",
+                DemandForecaster.DEFAULT_HORIZON_HOURS, forecast.pickups, forecast.dropoffs, forecast.netOutflow);
         
-        // 대여 가능한 자전거 목록
-        if (availableBicycles > 0) {
+        // 대여 가능한 자전거 목록 (대여 가능한 자전거만 복사)
+        if (counts.available > 0) {
             System.out.println("\n📋 대여 가능한 자전거 목록:");
-            for (BicycleData bicycle : bicycles) {
-                if (bicycle.isAvailable && !bicycle.inUse) {
-                    System.out.println("  - " + bicycle.bicycleId + " (" + bicycle.bicycleType + ")");
-                }
+            for (BicycleData bicycle : CSVDatabase.getAvailableBicyclesByLocation(locationName)) {
+                System.out.println("  - " + bicycle.bicycleId + " (" + bicycle.bicycleType + ")");
             }
         } else {
             System.out.println("\n❌ 현재 대여 가능한 자전거가 없습니다.");
@@ -119,34 +90,40 @@ public class LocationService {
     public static void showAllLocationsStatus() {
         System.out.println("\n=== 전체 지역 자전거 현황 ===");
         
-        for (String locationName : getAvailableLocations()) {
-            List<BicycleData> bicycles = CSVDatabase.getBicyclesByLocation(locationName);
+        StationOccupancy occupancy = StationOccupancy.shared();
+        for (StationCatalog.Station station : StationCatalog.current().stations()) {
+            // 지역별 카운터만 읽음
+            StationOccupancy.Counts counts = occupancy.get(station.name);
             
-            int totalBicycles = bicycles.size();
-            int availableBicycles = 0;
-            
-            for (BicycleData bicycle : bicycles) {
-                if (bicycle.isAvailable && !bicycle.inUse) {
-                    availableBicycles++;
-                }
-            }
-            
-            String status = availableBicycles > 0 ? "✅" : "❌";
-            System.out.printf("%s %s: %d/%d대 사용가능%n", 
-                    status, locationName, availableBicycles, totalBicycles);
+            String status = counts.available > 0 ? "✅" : "❌";
+            System.out.printf("%s %s: %d/%d대 사용가능 (거치대 %d)%n", 
+                    status, station.name, counts.available, counts.total, station.capacity);
         }
     }
     
     public static List<BicycleData> getAvailableBicyclesInLocation(String locationName) {
-        List<BicycleData> availableBicycles = new ArrayList<>();
-        List<BicycleData> allBicycles = CSVDatabase.getBicyclesByLocation(locationName);
+        return CSVDatabase.getAvailableBicyclesByLocation(locationName);
+    }
+    
+    /**
+     * 좌표에서 가장 가까운 대여 가능 자전거 (위치 색인 사용, 가까운 순)
+     */
+    public static List<BicycleGeoIndex.NearbyBicycle> findNearestAvailableBicycles(double latitude, double longitude, int count) {
+        return BicycleGeoIndex.shared().findNearestAvailable(latitude, longitude, count);
+    }
+    
+    public static void showNearestBicycles(double latitude, double longitude, int count) {
+        List<BicycleGeoIndex.NearbyBicycle> nearby = findNearestAvailableBicycles(latitude, longitude, count);
         
-        for (BicycleData bicycle : allBicycles) {
-            if (bicycle.isAvailable && !bicycle.inUse) {
-                availableBicycles.add(bicycle);
-            }
+        System.out.printf("%n=== (%.4f, %.4f) 주변 대여 가능 자전거 ===%n", latitude, longitude);
+        if (nearby.isEmpty()) {
+            System.out.println("❌ 대여 가능한 자전거가 없습니다.");
+            return;
+        }
+        for (int i = 0; i < nearby.size(); i++) {
+            BicycleGeoIndex.NearbyBicycle bicycle = nearby.get(i);
+            System.out.printf("%d. %s (%s) - %s, %.0fm%n",
+                    i + 1, bicycle.bicycleId, bicycle.bicycleType, bicycle.location, bicycle.distanceMeters);
         }
-        
-        return availableBicycles;
     }
 }
\ No newline at end of file
@@ -0,0 +1,621 @@
+package location;
+
+import database.CSVTokenizer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * 자전거 재배치 계획
+ * - 대여소마다 대여 가능 대수와 목표 대수(거치대 수 비율 또는 수요 예측)의 차이로 남는 / 모자라는 대수를 구함
+ *   (모자라는 대수는 빈 거치대 수를 넘지 않음)
+ * - 지역(대여소 목록의 지역 경로) 안에서 남는 대여소 → 모자라는 대여소 이동량을 최소 비용 유량으로 정함 (직선 거리 합 최소)
+ * - 정한 이동량을 트럭 적재 한도 안에서 가장 가까운 대여소부터 도는 경로로 만든 뒤 2-opt로 경로를 줄임
+ * - 지역끼리는 서로 옮기지 않으므로 ForkJoinPool에서 지역별로 병렬 처리 (결과는 스레드 수와 관계없이 같음)
+ * - 지역 안에서 남는 대수와 모자라는 대수가 맞지 않으면 나머지는 옮기지 않고 결과에 남김
+ * - 현황은 계획을 시작할 때 읽은 값 기준 (계획 중의 대여 / 반납은 반영하지 않음)
+ */
+public class RebalancingPlanner {
+    public static final int DEFAULT_TRUCK_CAPACITY = 20;
+    public static final double DEFAULT_MAX_ROUTE_METERS = 20_000;
+    public static final double DEFAULT_TARGET_RATIO = 0.5;
+    private static final String OUTPUT_DIR = "rebalancing";
+    private static final long UNREACHABLE = Long.MAX_VALUE / 4;
+    // 2-opt에서 부동소수점 오차로 같은 교환을 되풀이하지 않도록 하는 최소 개선 거리 (m)
+    private static final double MIN_IMPROVEMENT_METERS = 1e-6;
+
+    private final int truckCapacity;
+    private final double maxRouteMeters; // 이 거리를 넘으면 더 싣지 않고 실은 자전거만 내린 뒤 경로를 끝냄
+    private final int parallelism;
+
+    /**
+     * 대여소 간 이동 한 건
+     */
+    public static class Transfer {
+        public final StationCatalog.Station from;
+        public final StationCatalog.Station to;
+        public final int bicycles;
+        public final double distanceMeters;
+
+        Transfer(StationCatalog.Station from, StationCatalog.Station to, int bicycles, double distanceMeters) {
+            this.from = from;
+            this.to = to;
+            this.bicycles = bicycles;
+            this.distanceMeters = distanceMeters;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s → %s: %d대 (%.0fm)", from.name, to.name, bicycles, distanceMeters);
+        }
+    }
+
+    /**
+     * 트럭이 들르는 대여소 하나
+     */
+    public static class Stop {
+        public final StationCatalog.Station station;
+        public final int change;    // 싣는 대수(양수) / 내리는 대수(음수)
+        public final int loadAfter; // 들른 뒤 트럭에 실린 대수
+
+        Stop(StationCatalog.Station station, int change, int loadAfter) {
+            this.station = station;
+            this.change = change;
+            this.loadAfter = loadAfter;
+        }
+
+        @Override
+        public String toString() {
+            return station.name + (change > 0 ? " +" : " ") + change;
+        }
+    }
+
+    /**
+     * 트럭 한 대의 경로
+     */
+    public static class Route {
+        public final String region;
+        public final int truck; // 지역 안의 트럭 번호 (1부터)
+        public final List<Stop> stops;
+        public final double distanceMeters;
+
+        Route(String region, int truck, List<Stop> stops, double distanceMeters) {
+            this.region = region;
+            this.truck = truck;
+            this.stops = Collections.unmodifiableList(stops);
+            this.distanceMeters = distanceMeters;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("[%s] 트럭 %d (%.1fkm): ", region, truck, distanceMeters / 1000));
+            for (int i = 0; i < stops.size(); i++) {
+                if (i > 0) {
+                    sb.append(" → ");
+                }
+                sb.append(stops.get(i));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * 재배치 계획 결과
+     */
+    public static class Plan {
+        public static final String CSV_HEADER = "region,truck,order,stationId,stationName,change,loadAfter";
+
+        public final List<Transfer> transfers; // 지역 순 (대여소 목록 순서)
+        public final List<Route> routes;
+        public final int regions;
+        public final int imbalancedStations;
+        public final int movedBicycles;
+        public final int unmovedSurplus; // 남지만 옮길 곳이 없는 대수
+        public final int unmetDeficit;   // 모자라지만 가져올 곳이 없는 대수
+        public final double transferMeters; // 이동량 x 직선 거리 합계
+        public final double routeMeters;
+        public final long elapsedMillis;
+
+        Plan(List<RegionPlan> regionPlans, long elapsedMillis) {
+            List<Transfer> transfers = new ArrayList<>();
+            List<Route> routes = new ArrayList<>();
+            int imbalanced = 0, moved = 0, surplus = 0, deficit = 0;
+            double transferMeters = 0, routeMeters = 0;
+            for (RegionPlan regionPlan : regionPlans) {
+                transfers.addAll(regionPlan.transfers);
+                routes.addAll(regionPlan.routes);
+                imbalanced += regionPlan.imbalancedStations;
+                surplus += regionPlan.surplus;
+                deficit += regionPlan.deficit;
+                for (Transfer transfer : regionPlan.transfers) {
+                    moved += transfer.bicycles;
+                    transferMeters += transfer.bicycles * transfer.distanceMeters;
+                }
+                for (Route route : regionPlan.routes) {
+                    routeMeters += route.distanceMeters;
+                }
+            }
+            this.transfers = Collections.unmodifiableList(transfers);
+            this.routes = Collections.unmodifiableList(routes);
+            this.regions = regionPlans.size();
+            this.imbalancedStations = imbalanced;
+            this.movedBicycles = moved;
+            this.unmovedSurplus = surplus - moved;
+            this.unmetDeficit = deficit - moved;
+            this.transferMeters = transferMeters;
+            this.routeMeters = routeMeters;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * 트럭 경로 CSV 저장 (임시 파일에 쓴 뒤 교체)
+         */
+        public void writeCSV(Path file) throws IOException {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path temp = Paths.get(file + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(CSV_HEADER);
+                writer.newLine();
+                for (Route route : routes) {
+                    for (int i = 0; i < route.stops.size(); i++) {
+                        Stop stop = route.stops.get(i);
+                        writer.write(CSVTokenizer.join(route.region, String.valueOf(route.truck), String.valueOf(i + 1),
+                                stop.station.stationId, stop.station.name, String.valueOf(stop.change),
+                                String.valueOf(stop.loadAfter)));
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        public void showSummary() {
+            System.out.println("\n=== 재배치 계획 ===");
+            System.out.println("지역: " + regions + "곳, 불균형 대여소: " + imbalancedStations + "곳");
+            System.out.println("옮길 자전거: " + movedBicycles + "대 (옮길 곳 없는 자전거: " + unmovedSurplus
+                    + "대, 채우지 못한 자리: " + unmetDeficit + "대)");
+            System.out.printf("이동 거리 합계 (대수 x 직선 거리): %.1fkm%n", transferMeters / 1000);
+            System.out.printf("트럭 경로: %d개, 총 %.1fkm%n", routes.size(), routeMeters / 1000);
+            System.out.println("소요 시간: " + elapsedMillis + "ms");
+        }
+    }
+
+    // 지역 하나의 계획
+    private static class RegionPlan {
+        final List<Transfer> transfers;
+        final List<Route> routes;
+        final int imbalancedStations;
+        final int surplus;
+        final int deficit;
+
+        RegionPlan(List<Transfer> transfers, List<Route> routes, int imbalancedStations, int surplus, int deficit) {
+            this.transfers = transfers;
+            this.routes = routes;
+            this.imbalancedStations = imbalancedStations;
+            this.surplus = surplus;
+            this.deficit = deficit;
+        }
+    }
+
+    public RebalancingPlanner() {
+        this(DEFAULT_TRUCK_CAPACITY, DEFAULT_MAX_ROUTE_METERS, Runtime.getRuntime().availableProcessors());
+    }
+
+    public RebalancingPlanner(int truckCapacity, double maxRouteMeters, int parallelism) {
+        if (truckCapacity <= 0) {
+            throw new IllegalArgumentException("트럭 적재 한도는 1 이상이어야 합니다: " + truckCapacity);
+        }
+        if (!(maxRouteMeters > 0)) {
+            throw new IllegalArgumentException("경로 거리 한도는 0보다 커야 합니다: " + maxRouteMeters);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("스레드 수는 1 이상이어야 합니다: " + parallelism);
+        }
+        this.truckCapacity = truckCapacity;
+        this.maxRouteMeters = maxRouteMeters;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 거치대 수의 일정 비율을 목표 대수로 (반올림)
+     */
+    public static ToIntFunction<StationCatalog.Station> capacityTarget(double ratio) {
+        return station -> (int) Math.round(station.capacity * ratio);
+    }
+
+    /**
+     * 현재 대여소 목록과 지역별 현황으로 계획
+     * (목표: 거치대 수의 DEFAULT_TARGET_RATIO + 수요 예측의 다음 DEFAULT_HORIZON_HOURS시간 예상 순유출)
+     */
+    public Plan plan() {
+        return plan(StationCatalog.current().stations(), StationOccupancy.shared()::get,
+                DemandForecaster.shared().rebalancingTarget(DEFAULT_TARGET_RATIO, DemandForecaster.DEFAULT_HORIZON_HOURS));
+    }
+
+    /**
+     * 대여소 목록 / 현황 / 목표 대수로 계획
+     * @param counts 대여소 이름별 현황
+     * @param targets 대여소별 목표 대여 가능 대수 (0 ~ 거치대 수로 잘라서 사용)
+     */
+    public Plan plan(List<StationCatalog.Station> stations, Function<String, StationOccupancy.Counts> counts,
+                     ToIntFunction<StationCatalog.Station> targets) {
+        long startedAt = System.nanoTime();
+        Map<String, List<StationCatalog.Station>> regions = new LinkedHashMap<>();
+        for (StationCatalog.Station station : stations) {
+            regions.computeIfAbsent(station.region, k -> new ArrayList<>()).add(station);
+        }
+
+        // 큰 지역부터 맡겨 마지막에 큰 지역 하나만 남지 않도록 하고, 결과는 지역 순서대로 모음
+        List<String> bySize = new ArrayList<>(regions.keySet());
+        bySize.sort((a, b) -> Integer.compare(regions.get(b).size(), regions.get(a).size()));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Map<String, ForkJoinTask<RegionPlan>> tasks = new LinkedHashMap<>();
+            for (String region : bySize) {
+                List<StationCatalog.Station> regionStations = regions.get(region);
+                tasks.put(region, pool.submit(() -> planRegion(region, regionStations, counts, targets)));
+            }
+            List<RegionPlan> regionPlans = new ArrayList<>(regions.size());
+            for (String region : regions.keySet()) {
+                regionPlans.add(tasks.get(region).join());
+            }
+            return new Plan(regionPlans, (System.nanoTime() - startedAt) / 1_000_000);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private RegionPlan planRegion(String region, List<StationCatalog.Station> stations,
+                                  Function<String, StationOccupancy.Counts> counts,
+                                  ToIntFunction<StationCatalog.Station> targets) {
+        // 남는 / 모자라는 대여소
+        int n = stations.size();
+        StationCatalog.Station[] sources = new StationCatalog.Station[n];
+        StationCatalog.Station[] sinks = new StationCatalog.Station[n];
+        int[] supply = new int[n];
+        int[] demand = new int[n];
+        int sourceCount = 0, sinkCount = 0, surplus = 0, deficit = 0;
+        for (StationCatalog.Station station : stations) {
+            StationOccupancy.Counts c = counts.apply(station.name);
+            int target = Math.max(0, Math.min(station.capacity, targets.applyAsInt(station)));
+            if (c.available > target) {
+                sources[sourceCount] = station;
+                supply[sourceCount++] = c.available - target;
+                surplus += c.available - target;
+            } else if (c.available < target) {
+                int freeDocks = station.capacity - (c.total - c.inUse);
+                int need = Math.min(target - c.available, freeDocks);
+                if (need > 0) {
+                    sinks[sinkCount] = station;
+                    demand[sinkCount++] = need;
+                    deficit += need;
+                }
+            }
+        }
+        int imbalanced = sourceCount + sinkCount;
+        if (sourceCount == 0 || sinkCount == 0) {
+            return new RegionPlan(Collections.emptyList(), Collections.emptyList(), imbalanced, surplus, deficit);
+        }
+
+        // 이동량 (최소 비용 유량, 비용은 m 단위 정수 거리)
+        long[][] cost = new long[sourceCount][sinkCount];
+        for (int i = 0; i < sourceCount; i++) {
+            for (int j = 0; j < sinkCount; j++) {
+                cost[i][j] = Math.round(distance(sources[i], sinks[j]));
+            }
+        }
+        int[][] flow = new TransferSolver(supply, sourceCount, demand, sinkCount, cost).solve();
+
+        List<Transfer> transfers = new ArrayList<>();
+        int[] pickups = new int[sourceCount];
+        int[] drops = new int[sinkCount];
+        for (int i = 0; i < sourceCount; i++) {
+            for (int j = 0; j < sinkCount; j++) {
+                if (flow[i][j] > 0) {
+                    transfers.add(new Transfer(sources[i], sinks[j], flow[i][j], distance(sources[i], sinks[j])));
+                    pickups[i] += flow[i][j];
+                    drops[j] += flow[i][j];
+                }
+            }
+        }
+        List<Route> routes = buildRoutes(region, sources, pickups, sourceCount, sinks, drops, sinkCount);
+        return new RegionPlan(transfers, routes, imbalanced, surplus, deficit);
+    }
+
+    /**
+     * 최소 비용 유량 (연속 최단 경로, 포텐셜을 둔 조밀 Dijkstra - 반복마다 최대 O(정점 수²))
+     * - 정점: 출발(0), 남는 대여소(1..S), 모자라는 대여소(S+1..S+D), 도착(S+D+1)
+     * - 남는 → 모자라는 대여소 간선은 용량 제한이 없고 비용은 거리, 출발 / 도착 간선 용량은 남는 / 모자라는 대수
+     */
+    private static class TransferSolver {
+        private final int sourceCount;
+        private final int sinkCount;
+        private final long[][] cost;
+        private final int[] remainingSupply;
+        private final int[] remainingDemand;
+        private final int[][] flow;
+        private final int nodes;
+        private final int sinkNode;
+        private final long[] potential;
+        private final long[] dist;
+        private final int[] prev;
+        private final boolean[] done;
+
+        TransferSolver(int[] supply, int sourceCount, int[] demand, int sinkCount, long[][] cost) {
+            this.sourceCount = sourceCount;
+            this.sinkCount = sinkCount;
+            this.cost = cost;
+            this.remainingSupply = Arrays.copyOf(supply, sourceCount);
+            this.remainingDemand = Arrays.copyOf(demand, sinkCount);
+            this.flow = new int[sourceCount][sinkCount];
+            this.nodes = sourceCount + sinkCount + 2;
+            this.sinkNode = nodes - 1;
+            this.potential = new long[nodes]; // 처음에는 음수 비용 간선이 없으므로 0
+            this.dist = new long[nodes];
+            this.prev = new int[nodes];
+            this.done = new boolean[nodes];
+        }
+
+        int[][] solve() {
+            while (shortestPath()) {
+                // 도착점까지만 찾았으므로 거리를 도착점 거리로 잘라 더해야 줄인 비용이 음수가 되지 않음
+                long sinkDist = dist[sinkNode];
+                for (int v = 0; v < nodes; v++) {
+                    potential[v] += Math.min(dist[v], sinkDist);
+                }
+                augment();
+            }
+            return flow;
+        }
+
+        // 출발점에서 남은 용량이 있는 간선으로 도착점까지 (줄인 비용 기준) 최단 경로, 도착점이 정해지면 멈춤
+        private boolean shortestPath() {
+            Arrays.fill(dist, UNREACHABLE);
+            Arrays.fill(done, false);
+            dist[0] = 0;
+            prev[0] = -1;
+            for (int step = 0; step < nodes; step++) {
+                int u = -1;
+                long best = UNREACHABLE;
+                for (int v = 0; v < nodes; v++) {
+                    if (!done[v] && dist[v] < best) {
+                        best = dist[v];
+                        u = v;
+                    }
+                }
+                if (u < 0 || u == sinkNode) {
+                    break;
+                }
+                done[u] = true;
+                if (u == 0) {
+                    for (int i = 0; i < sourceCount; i++) {
+                        if (remainingSupply[i] > 0) {
+                            relax(u, 1 + i, 0);
+                        }
+                    }
+                } else if (u <= sourceCount) {
+                    long[] row = cost[u - 1];
+                    for (int j = 0; j < sinkCount; j++) {
+                        relax(u, sourceCount + 1 + j, row[j]);
+                    }
+                } else if (u < sinkNode) {
+                    int j = u - sourceCount - 1;
+                    if (remainingDemand[j] > 0) {
+                        relax(u, sinkNode, 0);
+                    }
+                    for (int i = 0; i < sourceCount; i++) {
+                        if (flow[i][j] > 0) {
+                            relax(u, 1 + i, -cost[i][j]); // 이미 보낸 양을 되돌리는 간선
+                        }
+                    }
+                }
+            }
+            return dist[sinkNode] < UNREACHABLE;
+        }
+
+        private void relax(int u, int v, long edgeCost) {
+            if (done[v]) {
+                return;
+            }
+            long candidate = dist[u] + edgeCost + potential[u] - potential[v];
+            if (candidate < dist[v]) {
+                dist[v] = candidate;
+                prev[v] = u;
+            }
+        }
+
+        private void augment() {
+            int amount = Integer.MAX_VALUE;
+            for (int v = sinkNode; prev[v] >= 0; v = prev[v]) {
+                int u = prev[v];
+                if (u == 0) {
+                    amount = Math.min(amount, remainingSupply[v - 1]);
+                } else if (v == sinkNode) {
+                    amount = Math.min(amount, remainingDemand[u - sourceCount - 1]);
+                } else if (u > sourceCount) {
+                    amount = Math.min(amount, flow[v - 1][u - sourceCount - 1]);
+                }
+            }
+            for (int v = sinkNode; prev[v] >= 0; v = prev[v]) {
+                int u = prev[v];
+                if (u == 0) {
+                    remainingSupply[v - 1] -= amount;
+                } else if (v == sinkNode) {
+                    remainingDemand[u - sourceCount - 1] -= amount;
+                } else if (u <= sourceCount) {
+                    flow[u - 1][v - sourceCount - 1] += amount;
+                } else {
+                    flow[v - 1][u - sourceCount - 1] -= amount;
+                }
+            }
+        }
+    }
+
+    /**
+     * 정한 이동량으로 트럭 경로 생성
+     * - 싣는 양이 가장 많이 남은 대여소에서 출발해, 지금 실을 수 있거나 내릴 수 있는 가장 가까운 대여소로 이동
+     * - 경로 거리 한도를 넘으면 더 싣지 않고 실은 자전거를 모두 내리면 끝내며, 남은 이동은 다음 트럭이 맡음
+     * - 싣는 양 합계와 내리는 양 합계가 같으므로 실은 자전거는 항상 내릴 곳이 있음
+     */
+    private List<Route> buildRoutes(String region, StationCatalog.Station[] sources, int[] pickups, int sourceCount,
+                                    StationCatalog.Station[] sinks, int[] drops, int sinkCount) {
+        int m = sourceCount + sinkCount;
+        StationCatalog.Station[] stations = new StationCatalog.Station[m];
+        int[] remaining = new int[m];
+        int remainingPickups = 0;
+        for (int i = 0; i < sourceCount; i++) {
+            stations[i] = sources[i];
+            remaining[i] = pickups[i];
+            remainingPickups += pickups[i];
+        }
+        for (int j = 0; j < sinkCount; j++) {
+            stations[sourceCount + j] = sinks[j];
+            remaining[sourceCount + j] = drops[j];
+        }
+
+        List<Route> routes = new ArrayList<>();
+        int[] order = new int[16];
+        int[] changes = new int[16];
+        while (remainingPickups > 0) {
+            int current = -1;
+            for (int i = 0; i < sourceCount; i++) {
+                if (remaining[i] > 0 && (current < 0 || remaining[i] > remaining[current])) {
+                    current = i;
+                }
+            }
+            int stops = 0, load = 0;
+            double distance = 0;
+            while (current >= 0) {
+                boolean pickup = current < sourceCount;
+                int change = pickup ? Math.min(remaining[current], truckCapacity - load)
+                        : -Math.min(remaining[current], load);
+                remaining[current] -= Math.abs(change);
+                load += change;
+                if (pickup) {
+                    remainingPickups -= change;
+                }
+                if (stops == order.length) {
+                    order = Arrays.copyOf(order, stops * 2);
+                    changes = Arrays.copyOf(changes, stops * 2);
+                }
+                order[stops] = current;
+                changes[stops++] = change;
+
+                boolean mayPickUp = load < truckCapacity && distance < maxRouteMeters;
+                int next = -1;
+                double nearest = Double.MAX_VALUE;
+                for (int k = 0; k < m; k++) {
+                    if (remaining[k] == 0 || (k < sourceCount ? !mayPickUp : load == 0)) {
+                        continue;
+                    }
+                    double d = distance(stations[current], stations[k]);
+                    if (d < nearest) {
+                        nearest = d;
+                        next = k;
+                    }
+                }
+                if (next >= 0) {
+                    distance += nearest;
+                }
+                current = next;
+            }
+            twoOpt(stations, order, changes, stops);
+            routes.add(toRoute(region, routes.size() + 1, stations, order, changes, stops));
+        }
+        return routes;
+    }
+
+    /**
+     * 2-opt (출발 대여소는 고정, 돌아오지 않는 경로)
+     * - 구간을 뒤집어 거리가 줄고 뒤집은 구간에서 적재량이 0 ~ 적재 한도를 벗어나지 않으면 적용, 더 줄지 않을 때까지 반복
+     */
+    private void twoOpt(StationCatalog.Station[] stations, int[] order, int[] changes, int stops) {
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 1; i < stops - 1; i++) {
+                for (int j = i + 1; j < stops; j++) {
+                    StationCatalog.Station before = stations[order[i - 1]];
+                    StationCatalog.Station first = stations[order[i]];
+                    StationCatalog.Station last = stations[order[j]];
+                    StationCatalog.Station after = j + 1 < stops ? stations[order[j + 1]] : null;
+                    double current = distance(before, first) + (after != null ? distance(last, after) : 0);
+                    double reversed = distance(before, last) + (after != null ? distance(first, after) : 0);
+                    if (reversed + MIN_IMPROVEMENT_METERS < current && loadFitsReversed(changes, i, j)) {
+                        reverse(order, i, j);
+                        reverse(changes, i, j);
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean loadFitsReversed(int[] changes, int from, int to) {
+        int load = 0;
+        for (int k = 0; k < from; k++) {
+            load += changes[k];
+        }
+        for (int k = to; k >= from; k--) {
+            load += changes[k];
+            if (load < 0 || load > truckCapacity) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void reverse(int[] values, int from, int to) {
+        for (int i = from, j = to; i < j; i++, j--) {
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    private static Route toRoute(String region, int truck, StationCatalog.Station[] stations, int[] order,
+                                 int[] changes, int stops) {
+        List<Stop> result = new ArrayList<>(stops);
+        int load = 0;
+        double distance = 0;
+        for (int k = 0; k < stops; k++) {
+            load += changes[k];
+            result.add(new Stop(stations[order[k]], changes[k], load));
+            if (k > 0) {
+                distance += distance(stations[order[k - 1]], stations[order[k]]);
+            }
+        }
+        return new Route(region, truck, result, distance);
+    }
+
+    private static double distance(StationCatalog.Station a, StationCatalog.Station b) {
+        return a == b ? 0 : BicycleGeoIndex.distanceMeters(a.latitude, a.longitude, b.latitude, b.longitude);
+    }
+
+    public static Path defaultOutputPath(LocalDate date) {
+        return Paths.get(OUTPUT_DIR, "routes-" + date + ".csv");
+    }
+
+    public int getTruckCapacity() { return truckCapacity; }
+    public double getMaxRouteMeters() { return maxRouteMeters; }
+    public int getParallelism() { return parallelism; }
+}
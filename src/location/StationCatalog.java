@@ -0,0 +1,334 @@
+package location;
+
+import database.CSVTokenizer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 대여소 목록 (stations.csv)
+ * - 대여소마다 고정 아이디, 이름, 지역 경로(예: 경기도/용인시/기흥구), 좌표, 거치대 수를 가짐
+ * - 읽은 목록은 변경되지 않는 스냅샷으로 만들어 통째로 교체하며, 아이디 / 이름 / 지역(경로의 모든 단계)별
+ *   조회는 미리 만든 해시 색인으로 O(1)
+ * - 목록 순서는 파일 순서 그대로이므로 메뉴 번호가 실행마다 바뀌지 않음
+ * - 파일이 바뀌면(1초에 한 번까지 확인) 다시 읽고, 잘못된 내용이면 오류를 출력하고 이전 목록을 유지
+ * - 목록이 교체되면 등록된 ReloadListener에 새 스냅샷을 통지 (좌표를 캐시하는 위치 색인 등)
+ * - 자전거 기록은 대여소 이름으로 위치를 저장하므로 이름을 바꿀 때는 기존 기록도 함께 옮겨야 함
+ */
+public final class StationCatalog {
+    public static final String DEFAULT_FILE = "stations.csv";
+    static final String HEADER = "stationId,name,region,latitude,longitude,capacity";
+    static final String REGION_SEPARATOR = "/";
+    private static final long RELOAD_CHECK_INTERVAL_NANOS = 1_000_000_000L;
+
+    // 처음 실행할 때 만드는 기본 목록 (용인시 기흥구, 단국대학교 주변)
+    private static final List<String> DEFAULT_STATIONS = Arrays.asList(
+            HEADER,
+            "ST0001,죽전동,경기도/용인시/기흥구,37.3238,127.1069,20",
+            "ST0002,보정동,경기도/용인시/기흥구,37.3195,127.1154,20",
+            "ST0003,구미동,경기도/용인시/기흥구,37.2896,127.1139,15",
+            "ST0004,성복동,경기도/용인시/기흥구,37.3089,127.1285,15",
+            "ST0005,상현동,경기도/용인시/기흥구,37.2985,127.1234,15"
+    );
+
+    /**
+     * 목록 교체 통지
+     * - 다시 읽는 잠금 안에서 교체 순서대로 호출되므로 짧게 처리하고 목록을 다시 읽지 않아야 함
+     */
+    public interface ReloadListener {
+        void catalogReloaded(Snapshot snapshot);
+    }
+
+    /**
+     * 대여소 하나 (변경 불가)
+     */
+    public static final class Station {
+        public final String stationId;
+        public final String name;
+        public final String region;          // 지역 경로 전체
+        public final List<String> regionPath; // 경로를 단계별로 나눈 것
+        public final double latitude;
+        public final double longitude;
+        public final int capacity;           // 거치대 수
+
+        Station(String stationId, String name, String region, double latitude, double longitude, int capacity) {
+            this.stationId = stationId;
+            this.name = name;
+            this.region = region;
+            this.regionPath = Collections.unmodifiableList(Arrays.asList(region.split(REGION_SEPARATOR)));
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s (%s, %.4f, %.4f, 거치대 %d)", stationId, name, region, latitude, longitude, capacity);
+        }
+    }
+
+    /**
+     * 한 시점의 대여소 목록 (변경 불가, 여러 번 조회해도 같은 내용)
+     */
+    public static final class Snapshot {
+        private final List<Station> stations;
+        private final List<String> names;
+        private final Map<String, Station> byId;
+        private final Map<String, Station> byName;
+        private final Map<String, List<Station>> byRegion; // 경로의 모든 단계 (경기도, 경기도/용인시, ...)
+        private final List<String> topRegions;
+
+        private Snapshot(List<Station> stations) {
+            this.stations = Collections.unmodifiableList(stations);
+            List<String> names = new ArrayList<>(stations.size());
+            Map<String, Station> byId = new HashMap<>();
+            Map<String, Station> byName = new HashMap<>();
+            Map<String, List<Station>> byRegion = new LinkedHashMap<>();
+            for (Station station : stations) {
+                names.add(station.name);
+                byId.put(station.stationId, station);
+                byName.put(station.name, station);
+                StringBuilder prefix = new StringBuilder();
+                for (String part : station.regionPath) {
+                    if (prefix.length() > 0) {
+                        prefix.append(REGION_SEPARATOR);
+                    }
+                    prefix.append(part);
+                    byRegion.computeIfAbsent(prefix.toString(), k -> new ArrayList<>()).add(station);
+                }
+            }
+            List<String> topRegions = new ArrayList<>();
+            for (Map.Entry<String, List<Station>> entry : byRegion.entrySet()) {
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+                if (!entry.getKey().contains(REGION_SEPARATOR)) {
+                    topRegions.add(entry.getKey());
+                }
+            }
+            this.names = Collections.unmodifiableList(names);
+            this.byId = byId;
+            this.byName = byName;
+            this.byRegion = byRegion;
+            this.topRegions = Collections.unmodifiableList(topRegions);
+        }
+
+        // 파일 순서
+        public List<Station> stations() { return stations; }
+        public List<String> names() { return names; }
+        public int size() { return stations.size(); }
+
+        public Station byId(String stationId) { return byId.get(stationId); }
+        public Station byName(String name) { return byName.get(name); }
+
+        /**
+         * 지역 경로의 어느 단계로든 조회 (예: "경기도", "경기도/용인시"), 없으면 빈 목록
+         */
+        public List<Station> byRegion(String region) {
+            List<Station> stations = byRegion.get(region);
+            return stations != null ? stations : Collections.emptyList();
+        }
+
+        /**
+         * 바로 아래 단계 지역들 (parent가 null이면 최상위, 파일 순서)
+         */
+        public List<String> subRegions(String parent) {
+            if (parent == null) {
+                return topRegions;
+            }
+            List<String> result = new ArrayList<>();
+            String prefix = parent + REGION_SEPARATOR;
+            for (String region : byRegion.keySet()) {
+                if (region.startsWith(prefix) && region.indexOf(REGION_SEPARATOR, prefix.length()) < 0) {
+                    result.add(region);
+                }
+            }
+            return result;
+        }
+    }
+
+    // 현재 목록과 파일 상태
+    private static final Object RELOAD_LOCK = new Object();
+    private static volatile Snapshot current;
+    private static volatile long lastCheckNanos;
+    private static Path file = Paths.get(DEFAULT_FILE);
+    private static FileTime loadedModified;
+    private static long loadedSize = -1;
+    private static final List<ReloadListener> listeners = new CopyOnWriteArrayList<>();
+
+    private StationCatalog() {
+    }
+
+    /**
+     * 목록 교체 통지 등록
+     * 등록과 같은 잠금 안에서 현재 목록을 먼저 통지하므로 등록 직후의 교체를 놓치거나 두 번 받지 않는다.
+     */
+    public static void addReloadListener(ReloadListener listener) {
+        synchronized (RELOAD_LOCK) {
+            Snapshot snapshot = current != null ? current : reloadIfChanged();
+            listener.catalogReloaded(snapshot);
+            listeners.add(listener);
+        }
+    }
+
+    public static void removeReloadListener(ReloadListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 현재 대여소 목록 (1초에 한 번까지 파일 변경을 확인해 바뀌었으면 교체)
+     */
+    public static Snapshot current() {
+        Snapshot snapshot = current;
+        long now = System.nanoTime();
+        if (snapshot == null || now - lastCheckNanos >= RELOAD_CHECK_INTERVAL_NANOS) {
+            lastCheckNanos = now;
+            snapshot = reloadIfChanged();
+        }
+        return snapshot;
+    }
+
+    /**
+     * 목록 파일을 바꾸고 바로 읽음 (파일이 없으면 기본 목록으로 만듦)
+     */
+    public static Snapshot useFile(Path stationsFile) {
+        synchronized (RELOAD_LOCK) {
+            file = stationsFile;
+            loadedModified = null;
+            loadedSize = -1;
+            return reloadIfChanged();
+        }
+    }
+
+    /**
+     * 파일이 바뀌었으면 다시 읽어 교체
+     * @return 현재 목록 (읽기에 실패하면 이전 목록, 처음이면 기본 목록)
+     */
+    public static Snapshot reloadIfChanged() {
+        synchronized (RELOAD_LOCK) {
+            try {
+                if (!Files.exists(file)) {
+                    writeDefaultFile(file);
+                }
+                FileTime modified = Files.getLastModifiedTime(file);
+                long size = Files.size(file);
+                if (current != null && modified.equals(loadedModified) && size == loadedSize) {
+                    return current;
+                }
+                Snapshot snapshot = parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+                loadedModified = modified;
+                loadedSize = size;
+                if (current != null) {
+                    System.out.println("대여소 목록을 다시 읽었습니다: " + file + " (" + snapshot.size() + "곳)");
+                }
+                replace(snapshot);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("대여소 목록 읽기 중 오류 발생: " + e.getMessage());
+                if (current == null) {
+                    replace(parse(DEFAULT_STATIONS));
+                }
+            }
+            return current;
+        }
+    }
+
+    // RELOAD_LOCK 안에서 호출
+    private static void replace(Snapshot snapshot) {
+        current = snapshot;
+        for (ReloadListener listener : listeners) {
+            listener.catalogReloaded(snapshot);
+        }
+    }
+
+    private static void writeDefaultFile(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Path temp = Paths.get(target + ".tmp");
+        Files.write(temp, DEFAULT_STATIONS, StandardCharsets.UTF_8);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 목록 줄들을 읽어 스냅샷 생성 (헤더 / 빈 줄 / #으로 시작하는 줄은 무시)
+     * @throws IllegalArgumentException 형식이 맞지 않거나 아이디 / 이름이 겹칠 때 (몇 번째 줄인지 포함)
+     */
+    public static Snapshot parse(List<String> lines) {
+        List<Station> stations = new ArrayList<>(lines.size());
+        Map<String, Integer> lineById = new HashMap<>();
+        Map<String, Integer> lineByName = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#") || line.equals(HEADER)) {
+                continue;
+            }
+            Station station;
+            try {
+                station = parseStation(CSVTokenizer.forLine(line));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("대여소 목록 " + (i + 1) + "번째 줄: " + e.getMessage(), e);
+            }
+            Integer sameId = lineById.put(station.stationId, i + 1);
+            if (sameId != null) {
+                throw new IllegalArgumentException("대여소 목록 " + (i + 1) + "번째 줄: 아이디가 " + sameId
+                        + "번째 줄과 같습니다: " + station.stationId);
+            }
+            Integer sameName = lineByName.put(station.name, i + 1);
+            if (sameName != null) {
+                throw new IllegalArgumentException("대여소 목록 " + (i + 1) + "번째 줄: 이름이 " + sameName
+                        + "번째 줄과 같습니다: " + station.name);
+            }
+            stations.add(station);
+        }
+        if (stations.isEmpty()) {
+            throw new IllegalArgumentException("대여소가 하나도 없습니다.");
+        }
+        return new Snapshot(stations);
+    }
+
+    private static Station parseStation(CSVTokenizer t) {
+        String stationId = required(t, "아이디");
+        String name = required(t, "이름");
+        String region = required(t, "지역");
+        for (String part : region.split(REGION_SEPARATOR, -1)) {
+            if (part.trim().isEmpty() || !part.equals(part.trim())) {
+                throw new IllegalArgumentException("지역 경로가 올바르지 않습니다: " + region);
+            }
+        }
+        double latitude = t.nextDouble();
+        double longitude = t.nextDouble();
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("올바르지 않은 좌표입니다: (" + latitude + ", " + longitude + ")");
+        }
+        int capacity = Integer.parseInt(required(t, "거치대 수"));
+        if (capacity < 0) {
+            throw new IllegalArgumentException("거치대 수는 0 이상이어야 합니다: " + capacity);
+        }
+        return new Station(stationId, name, region, latitude, longitude, capacity);
+    }
+
+    private static String required(CSVTokenizer t, String field) {
+        String value = t.nextString();
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(field + " 값이 없습니다.");
+        }
+        return value.trim();
+    }
+
+    public static Path getFile() {
+        synchronized (RELOAD_LOCK) {
+            return file;
+        }
+    }
+}
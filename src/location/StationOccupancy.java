@@ -0,0 +1,243 @@
+package location;
+
+import database.BicycleChangeListener;
+import database.CSVDatabase;
+import database.CSVDatabase.BicycleData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 지역(대여소)별 자전거 현황 카운터
+ * - 전체 / 대여 가능 / 사용 중 / 일반 / 전기 자전거 수를 지역마다 원자적 카운터로 유지
+ * - 대여 / 반납 / 고장 승인 / 수리 완료 등 저장소 변경 통지마다 이전 상태를 빼고 새 상태를 더함
+ * - 사용 중 = 이 지역에서 대여되어 아직 반납되지 않은 자전거 (반납 지역이 정해지면 그 지역으로 옮겨감)
+ * - 현황 화면은 저장소를 훑지 않고 카운터만 읽음 (지역 수에 비례)
+ * - verify는 저장소에서 다시 센 값과 비교해 어긋난 항목을 알려주고, 원하면 카운터를 고침
+ */
+public class StationOccupancy implements BicycleChangeListener {
+
+    // 지역 하나의 카운터 (저장소 잠금 안에서만 바뀌고, 읽기는 잠금 없이)
+    private static class Counters {
+        final AtomicInteger total = new AtomicInteger();
+        final AtomicInteger available = new AtomicInteger();
+        final AtomicInteger inUse = new AtomicInteger();
+        final AtomicInteger regular = new AtomicInteger();
+        final AtomicInteger electric = new AtomicInteger();
+
+        void add(BicycleData bicycle, int delta) {
+            total.addAndGet(delta);
+            if (bicycle.isAvailable && !bicycle.inUse) available.addAndGet(delta);
+            if (bicycle.inUse) inUse.addAndGet(delta);
+            if (isRegular(bicycle)) regular.addAndGet(delta);
+            else if (isElectric(bicycle)) electric.addAndGet(delta);
+        }
+
+        Counts read(String location) {
+            return new Counts(location, total.get(), available.get(), inUse.get(), regular.get(), electric.get());
+        }
+
+        void set(Counts counts) {
+            total.set(counts.total);
+            available.set(counts.available);
+            inUse.set(counts.inUse);
+            regular.set(counts.regular);
+            electric.set(counts.electric);
+        }
+    }
+
+    /**
+     * 한 지역의 현황 (읽은 시점의 값)
+     */
+    public static class Counts {
+        public final String location;
+        public final int total;
+        public final int available;
+        public final int inUse;
+        public final int regular;
+        public final int electric;
+
+        public Counts(String location, int total, int available, int inUse, int regular, int electric) {
+            this.location = location;
+            this.total = total;
+            this.available = available;
+            this.inUse = inUse;
+            this.regular = regular;
+            this.electric = electric;
+        }
+
+        // 대여도 사용도 할 수 없는 자전거 (고장 / 정비 중)
+        public int unavailable() {
+            return total - available - inUse;
+        }
+
+        boolean sameAs(Counts other) {
+            return total == other.total && available == other.available && inUse == other.inUse
+                    && regular == other.regular && electric == other.electric;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: 전체 %d, 대여 가능 %d, 사용 중 %d, 일반 %d, 전기 %d",
+                    location, total, available, inUse, regular, electric);
+        }
+    }
+
+    /**
+     * 정합성 검사 결과
+     */
+    public static class VerifyResult {
+        public final int checkedBicycles;
+        public final List<String> drifts; // 어긋난 항목 설명 (없으면 비어 있음)
+        public final boolean repaired;
+
+        VerifyResult(int checkedBicycles, List<String> drifts, boolean repaired) {
+            this.checkedBicycles = checkedBicycles;
+            this.drifts = Collections.unmodifiableList(drifts);
+            this.repaired = repaired;
+        }
+
+        public boolean isConsistent() {
+            return drifts.isEmpty();
+        }
+    }
+
+    private final Map<String, Counters> countersByLocation = new ConcurrentHashMap<>();
+
+    private static class Holder {
+        static final StationOccupancy SHARED = create();
+
+        private static StationOccupancy create() {
+            StationOccupancy occupancy = new StationOccupancy();
+            CSVDatabase.addBicycleListener(occupancy);
+            return occupancy;
+        }
+    }
+
+    /**
+     * 자전거 저장소와 연결된 공용 카운터 (처음 사용할 때 저장소의 자전거 전체로 채움)
+     */
+    public static StationOccupancy shared() {
+        return Holder.SHARED;
+    }
+
+    @Override
+    public void bicycleChanged(BicycleData previous, BicycleData current) {
+        if (previous != null) {
+            countersFor(previous.location).add(previous, -1);
+        }
+        countersFor(current.location).add(current, 1);
+    }
+
+    private Counters countersFor(String location) {
+        return countersByLocation.computeIfAbsent(location != null ? location : "", k -> new Counters());
+    }
+
+    private static boolean isRegular(BicycleData bicycle) {
+        return bicycle.bicycleType != null && bicycle.bicycleType.contains("일반");
+    }
+
+    private static boolean isElectric(BicycleData bicycle) {
+        return bicycle.bicycleType != null && bicycle.bicycleType.contains("전기");
+    }
+
+    // ===== 조회 =====
+
+    /**
+     * 한 지역의 현황 (자전거가 없으면 모두 0)
+     */
+    public Counts get(String location) {
+        Counters counters = countersByLocation.get(location);
+        return counters != null ? counters.read(location) : new Counts(location, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * 자전거가 있었던 모든 지역의 현황 (지역 이름순)
+     */
+    public List<Counts> getAll() {
+        List<Counts> result = new ArrayList<>(countersByLocation.size());
+        for (Map.Entry<String, Counters> entry : new TreeMap<>(countersByLocation).entrySet()) {
+            result.add(entry.getValue().read(entry.getKey()));
+        }
+        return result;
+    }
+
+    /**
+     * 전체 합계
+     */
+    public Counts totals() {
+        int total = 0, available = 0, inUse = 0, regular = 0, electric = 0;
+        for (Counters counters : countersByLocation.values()) {
+            total += counters.total.get();
+            available += counters.available.get();
+            inUse += counters.inUse.get();
+            regular += counters.regular.get();
+            electric += counters.electric.get();
+        }
+        return new Counts("전체", total, available, inUse, regular, electric);
+    }
+
+    // ===== 정합성 검사 =====
+
+    /**
+     * 저장소에서 다시 센 값과 카운터 비교 (검사하는 동안 저장소 변경은 대기)
+     * @param repair true면 어긋난 지역의 카운터를 다시 센 값으로 고침
+     */
+    public VerifyResult verify(boolean repair) {
+        return CSVDatabase.inspectBicycles(bicycles -> {
+            Map<String, Counts> expected = recount(bicycles);
+            List<String> drifts = new ArrayList<>();
+            Map<String, Counters> locations = new TreeMap<>(countersByLocation);
+            for (String location : expected.keySet()) {
+                locations.putIfAbsent(location, null);
+            }
+            for (Map.Entry<String, Counters> entry : locations.entrySet()) {
+                String location = entry.getKey();
+                Counts actual = expected.getOrDefault(location, new Counts(location, 0, 0, 0, 0, 0));
+                Counts recorded = entry.getValue() != null ? entry.getValue().read(location) : new Counts(location, 0, 0, 0, 0, 0);
+                if (recorded.sameAs(actual)) {
+                    continue;
+                }
+                drifts.add("카운터 " + recorded + " / 저장소 " + actual);
+                if (repair) {
+                    countersFor(location).set(actual);
+                }
+            }
+            return new VerifyResult(bicycles.size(), drifts, repair && !drifts.isEmpty());
+        });
+    }
+
+    private static Map<String, Counts> recount(Collection<BicycleData> bicycles) {
+        Map<String, Counters> counters = new TreeMap<>();
+        for (BicycleData bicycle : bicycles) {
+            String location = bicycle.location != null ? bicycle.location : "";
+            counters.computeIfAbsent(location, k -> new Counters()).add(bicycle, 1);
+        }
+        Map<String, Counts> counts = new TreeMap<>();
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().read(entry.getKey()));
+        }
+        return counts;
+    }
+
+    public void showVerifyResult(VerifyResult result) {
+        System.out.println("자전거 " + result.checkedBicycles + "대를 다시 세어 비교했습니다.");
+        if (result.isConsistent()) {
+            System.out.println("✅ 지역별 카운터가 저장소와 일치합니다.");
+            return;
+        }
+        System.out.println("⚠️ 어긋난 지역 " + result.drifts.size() + "곳:");
+        for (String drift : result.drifts) {
+            System.out.println("  - " + drift);
+        }
+        if (result.repaired) {
+            System.out.println("카운터를 저장소 기준으로 고쳤습니다.");
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package notification;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 외부 업체 없이 쓰는 대체 게이트웨이 (개발 / 시험용)
+ * - 호출마다 지정한 지연 시간을 흉내 내고, 지정한 확률로 실패
+ * - 발송 내용을 콘솔에 출력하거나, 같은 알림이 두 번 발송됐는지 세기만 할 수 있음
+ */
+public class LocalNotificationGateway implements NotificationGateway {
+    private final long latencyMs;
+    private final double failureRate;
+    private final boolean printMessages;
+    private final Random random;
+
+    // 중복 발송 확인용 (trackDeliveries가 true일 때만 기록)
+    private final Set<String> deliveredIds;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+
+    /**
+     * 콘솔 출력용 (지연 / 실패 없음)
+     */
+    public LocalNotificationGateway() {
+        this(0, 0.0, true, false, 0L);
+    }
+
+    /**
+     * @param latencyMs 호출 한 번에 걸리는 시간
+     * @param failureRate 호출 실패 확률 (0 ~ 1)
+     * @param printMessages 발송 내용 콘솔 출력 여부
+     * @param trackDeliveries 중복 발송 확인을 위해 발송한 알림 키를 기록할지 여부
+     * @param seed 실패 여부를 정하는 난수 시드 (시험 재현용)
+     */
+    public LocalNotificationGateway(long latencyMs, double failureRate, boolean printMessages,
+                                    boolean trackDeliveries, long seed) {
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+        this.printMessages = printMessages;
+        this.random = new Random(seed);
+        this.deliveredIds = trackDeliveries ? ConcurrentHashMap.newKeySet() : null;
+    }
+
+    @Override
+    public void sendBatch(NotificationChannel channel, List<Notification> batch) throws IOException {
+        calls.incrementAndGet();
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("발송 중단");
+            }
+        }
+        boolean fail;
+        synchronized (random) {
+            fail = random.nextDouble() < failureRate;
+        }
+        if (fail) {
+            failures.incrementAndGet();
+            throw new IOException(channel.getDisplayName() + " 게이트웨이 응답 없음 (시험용 실패)");
+        }
+
+        for (Notification notification : batch) {
+            messages.incrementAndGet();
+            if (deliveredIds != null && !deliveredIds.add(notification.id)) {
+                duplicates.incrementAndGet();
+            }
+            if (printMessages) {
+                String icon = channel == NotificationChannel.SMS ? "📱" : "📧";
+                System.out.println(icon + " [" + channel.getDisplayName() + " 발송 - " + notification.recipient + "]");
+                System.out.println("   제목: " + notification.title);
+                System.out.println("   내용: " + notification.content);
+            }
+        }
+    }
+
+    // Getter 메소드들
+    public long getCallCount() { return calls.get(); }
+    public long getFailureCount() { return failures.get(); }
+    public long getMessageCount() { return messages.get(); }
+    public long getDuplicateCount() { return duplicates.get(); }
+}
@@ -0,0 +1,66 @@
+package notification;
+
+import database.CSVTokenizer;
+
+/**
+ * 발송할 알림 한 건 (수신자 / 채널 단위)
+ */
+public class Notification {
+    public final String id;                   // 중복 발송 방지 키 (이벤트 번호:채널:수신자)
+    public final NotificationChannel channel;
+    public final String recipient;            // 전화번호 또는 이메일 주소
+    public final String title;
+    public final String content;
+    public final long createdAt;              // 생성 시각 (epoch 밀리초)
+
+    // 발송 상태 (NotificationOutbox가 관리)
+    int attempts;
+    long nextAttemptAt;
+
+    public Notification(String id, NotificationChannel channel, String recipient, String title, String content) {
+        this(id, channel, recipient, title, content, System.currentTimeMillis());
+    }
+
+    private Notification(String id, NotificationChannel channel, String recipient, String title, String content,
+                         long createdAt) {
+        this.id = id;
+        this.channel = channel;
+        this.recipient = recipient;
+        this.title = title;
+        this.content = content;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * 같은 이벤트를 같은 수신자에게 같은 채널로 두 번 보내지 않도록 쓰는 키
+     */
+    public static String idOf(long eventId, NotificationChannel channel, String recipient) {
+        return eventId + ":" + channel + ":" + recipient;
+    }
+
+    public String toCSV() {
+        return CSVTokenizer.join(id, channel.name(), recipient, title, content, Long.toString(createdAt));
+    }
+
+    /**
+     * @return 형식이 맞지 않으면 null
+     */
+    public static Notification fromCSV(CSVTokenizer t) {
+        try {
+            String id = t.nextString();
+            NotificationChannel channel = NotificationChannel.valueOf(t.nextString());
+            String recipient = t.nextString();
+            String title = t.nextString();
+            String content = t.nextString();
+            String createdAt = t.nextString();
+            if (createdAt == null) {
+                return null;
+            }
+            return new Notification(id, channel, recipient, title, content, Long.parseLong(createdAt));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public int getAttempts() { return attempts; }
+}
@@ -0,0 +1,17 @@
+package notification;
+
+/**
+ * 알림 발송 채널
+ */
+public enum NotificationChannel {
+    SMS("SMS"),
+    EMAIL("이메일");
+
+    private final String displayName;
+
+    NotificationChannel(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() { return displayName; }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package notification;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 외부 발송 게이트웨이 (SMS / 이메일 업체 API)
+ */
+public interface NotificationGateway {
+    /**
+     * 같은 채널의 알림 묶음을 한 번의 호출로 발송
+     * @throws IOException 발송 실패 (묶음 전체를 나중에 다시 보냄)
+     */
+    void sendBatch(NotificationChannel channel, List<Notification> batch) throws IOException;
+}
\ No newline at end of file
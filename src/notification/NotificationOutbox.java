@@ -0,0 +1,438 @@
+package notification;
+
+import database.CSVTokenizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 알림 발송함 (outbox)
+ * - 알림은 먼저 로컬 기록 파일에 추가(fsync)된 뒤 발송 대기열에 들어가므로, 발송 전에 종료되어도 다음 실행 때 이어서 보냄
+ * - 백그라운드 작업 스레드가 채널별로 최대 batchSize건씩 묶어 게이트웨이를 한 번 호출
+ * - 실패한 묶음은 지수 백오프(무작위 지연 포함)로 다시 보내고, maxAttempts번 실패하면 포기 기록
+ * - 같은 키(이벤트 번호:채널:수신자)의 알림은 대기 중이거나 최근에 보낸 경우 다시 넣지 않음
+ *
+ * 기록 파일 형식 (한 줄 = 한 레코드)
+ *   E,<알림 CSV>   발송 대기 추가
+ *   A,<알림 키>    발송 완료
+ *   D,<알림 키>    재시도 한도 초과로 포기
+ */
+public class NotificationOutbox {
+    public static final int DEFAULT_BATCH_SIZE = 50;
+    public static final int DEFAULT_MAX_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 60_000;
+    private static final long LINGER_MS = 20;                 // 묶음을 채우기 위해 잠시 기다리는 시간
+    private static final int COMPACT_MIN_RECORDS = 1_000;
+    private static final int RECENT_ID_CAPACITY = 10_000;     // 중복 확인용으로 기억할 발송 완료 키 수
+
+    private static NotificationOutbox shared;
+
+    private final Path journal;
+    private final NotificationGateway gateway;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    // 발송 대기 (this로 보호, 추가 순서 유지)
+    private final Map<String, Notification> pending = new LinkedHashMap<>();
+    // 최근 발송 완료 / 포기한 키 (오래된 것부터 잊음)
+    private final Map<String, Boolean> recentIds = new LinkedHashMap<String, Boolean>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > RECENT_ID_CAPACITY;
+        }
+    };
+    private FileChannel channel;
+    private int journalRecords;
+
+    private Thread worker;
+    private volatile boolean running;
+
+    // 지표
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong gatewayCalls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    /**
+     * 기록 파일을 읽어 보내지 못한 알림을 대기열에 복원 (작업 스레드는 start()로 시작)
+     */
+    public NotificationOutbox(Path journal, NotificationGateway gateway, int batchSize, int maxAttempts) {
+        if (batchSize <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("묶음 크기와 시도 횟수는 1 이상이어야 합니다: " + batchSize + ", " + maxAttempts);
+        }
+        this.journal = journal;
+        this.gateway = gateway;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        load();
+    }
+
+    /**
+     * 콘솔 시스템에서 공유하는 발송함 (처음 호출 시 생성 및 시작, 콘솔 출력 게이트웨이 사용)
+     */
+    public static synchronized NotificationOutbox shared() {
+        if (shared == null) {
+            shared = new NotificationOutbox(Paths.get("notification_outbox", "outbox.log"),
+                    new LocalNotificationGateway(), DEFAULT_BATCH_SIZE, DEFAULT_MAX_ATTEMPTS);
+            shared.start();
+        }
+        return shared;
+    }
+
+    /**
+     * 공유 발송함 상태 출력 (아직 만들어지지 않았으면 안내만 출력)
+     */
+    public static void showSharedStatus() {
+        NotificationOutbox outbox;
+        synchronized (NotificationOutbox.class) {
+            outbox = shared;
+        }
+        if (outbox == null) {
+            System.out.println("  사용자 알림 발송 기록이 없습니다.");
+        } else {
+            outbox.showStatus();
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(journal)) {
+            return;
+        }
+        try (BufferedReader br = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                journalRecords++;
+                CSVTokenizer t = CSVTokenizer.forLine(line);
+                String tag = t.nextString();
+                if ("E".equals(tag)) {
+                    Notification notification = Notification.fromCSV(t);
+                    if (notification != null && !recentIds.containsKey(notification.id)) {
+                        pending.put(notification.id, notification);
+                    }
+                } else if ("A".equals(tag) || "D".equals(tag)) {
+                    String id = t.nextString();
+                    if (id != null) {
+                        pending.remove(id);
+                        recentIds.put(id, Boolean.TRUE);
+                    }
+                }
+                // 기록 도중 중단된 마지막 줄 등 알 수 없는 줄은 건너뜀
+            }
+        } catch (IOException e) {
+            System.err.println("알림 발송함 복구 중 오류 발생: " + e.getMessage());
+        }
+        if (!pending.isEmpty()) {
+            System.out.println("보내지 못한 알림 " + pending.size() + "건을 다시 발송합니다.");
+        }
+    }
+
+    /**
+     * 알림 추가 (기록 파일에 fsync된 뒤 반환)
+     * @return 새로 추가되면 true, 이미 대기 중이거나 보낸 알림이면 false
+     */
+    public boolean enqueue(Notification notification) {
+        return enqueueAll(List.of(notification)) == 1;
+    }
+
+    /**
+     * 여러 알림을 한 번의 fsync로 추가
+     * @return 새로 추가된 알림 수 (중복은 제외)
+     */
+    public synchronized int enqueueAll(List<Notification> notifications) {
+        List<Notification> accepted = new ArrayList<>(notifications.size());
+        StringBuilder records = new StringBuilder();
+        for (Notification notification : notifications) {
+            if (pending.containsKey(notification.id) || recentIds.containsKey(notification.id)) {
+                duplicates.incrementAndGet();
+                continue;
+            }
+            accepted.add(notification);
+            records.append("E,").append(notification.toCSV()).append('\n');
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+        try {
+            append(records, accepted.size());
+        } catch (IOException e) {
+            // 기록하지 못한 알림은 받지 않음 (호출한 쪽에서 실패로 처리)
+            System.err.println("알림 발송함 기록 중 오류 발생: " + e.getMessage());
+            return 0;
+        }
+        for (Notification notification : accepted) {
+            notification.nextAttemptAt = 0;
+            pending.put(notification.id, notification);
+        }
+        enqueued.addAndGet(accepted.size());
+        notifyAll();
+        return accepted.size();
+    }
+
+    private void append(CharSequence records, int count) throws IOException {
+        if (channel == null) {
+            if (journal.getParent() != null) {
+                Files.createDirectories(journal.getParent());
+            }
+            channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        journalRecords += count;
+    }
+
+    /**
+     * 발송 작업 스레드 시작
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runWorker, "notification-outbox");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 발송 작업 스레드 중지 (대기 중인 알림은 기록 파일에 남아 다음 시작 때 발송)
+     */
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = worker;
+            worker = null;
+            notifyAll();
+        }
+        if (current != null) {
+            try {
+                current.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            closeChannel();
+        }
+    }
+
+    private void runWorker() {
+        while (running) {
+            List<Notification> batch;
+            try {
+                batch = takeBatch();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (batch == null) {
+                continue;
+            }
+            NotificationChannel batchChannel = batch.get(0).channel;
+            try {
+                gatewayCalls.incrementAndGet();
+                gateway.sendBatch(batchChannel, batch);
+                complete(batch);
+            } catch (IOException | RuntimeException e) {
+                failedCalls.incrementAndGet();
+                System.err.println(batchChannel.getDisplayName() + " 알림 발송 중 오류 발생: " + e.getMessage());
+                retryLater(batch);
+            }
+        }
+    }
+
+    /**
+     * 발송할 때가 된 알림을 같은 채널끼리 최대 batchSize건 꺼냄 (없으면 다음 발송 시각까지 대기)
+     * 꺼낸 알림은 결과가 나올 때까지 다시 꺼내지 않도록 발송 시각을 무한대로 둠
+     */
+    private synchronized List<Notification> takeBatch() throws InterruptedException {
+        boolean lingered = false;
+        while (running) {
+            long now = System.currentTimeMillis();
+            NotificationChannel batchChannel = null;
+            long nextDue = Long.MAX_VALUE;
+            int due = 0;
+            for (Notification notification : pending.values()) {
+                if (notification.nextAttemptAt <= now) {
+                    if (batchChannel == null) {
+                        batchChannel = notification.channel;
+                    }
+                    if (notification.channel == batchChannel) {
+                        due++;
+                    }
+                } else {
+                    nextDue = Math.min(nextDue, notification.nextAttemptAt);
+                }
+            }
+
+            if (batchChannel != null) {
+                // 묶음이 덜 찼으면 뒤따라 들어올 알림을 잠시 기다림
+                if (due < batchSize && !lingered) {
+                    lingered = true;
+                    wait(LINGER_MS);
+                    continue;
+                }
+                List<Notification> batch = new ArrayList<>(Math.min(due, batchSize));
+                for (Notification notification : pending.values()) {
+                    if (notification.channel == batchChannel && notification.nextAttemptAt <= now) {
+                        notification.nextAttemptAt = Long.MAX_VALUE;
+                        batch.add(notification);
+                        if (batch.size() == batchSize) {
+                            break;
+                        }
+                    }
+                }
+                return batch;
+            }
+
+            if (nextDue == Long.MAX_VALUE) {
+                wait();
+            } else {
+                wait(Math.max(1, nextDue - now));
+            }
+        }
+        return null;
+    }
+
+    private synchronized void complete(List<Notification> batch) {
+        finish(batch, "A");
+        delivered.addAndGet(batch.size());
+    }
+
+    private synchronized void retryLater(List<Notification> batch) {
+        long now = System.currentTimeMillis();
+        List<Notification> givenUp = new ArrayList<>();
+        for (Notification notification : batch) {
+            notification.attempts++;
+            if (notification.attempts >= maxAttempts) {
+                givenUp.add(notification);
+            } else {
+                notification.nextAttemptAt = now + backoffMs(notification.attempts);
+            }
+        }
+        if (!givenUp.isEmpty()) {
+            System.err.println("알림 " + givenUp.size() + "건이 " + maxAttempts + "번 실패하여 발송을 포기합니다.");
+            finish(givenUp, "D");
+            deadLettered.addAndGet(givenUp.size());
+        }
+        notifyAll();
+    }
+
+    // 재시도 대기 시간: 0.5초부터 두 배씩 늘리되 최대 1분, 절반은 무작위 (동시에 몰리지 않도록)
+    static long backoffMs(int attempts) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempts - 1, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    // 완료 / 포기 기록 후 대기열에서 제거
+    private void finish(List<Notification> batch, String tag) {
+        StringBuilder records = new StringBuilder();
+        for (Notification notification : batch) {
+            records.append(tag).append(',').append(CSVTokenizer.quote(notification.id)).append('\n');
+        }
+        try {
+            append(records, batch.size());
+        } catch (IOException e) {
+            // 완료 기록을 못 남기면 다음 실행 때 다시 보낼 수 있음 (수신 측 중복 확인에 맡김)
+            System.err.println("알림 발송함 기록 중 오류 발생: " + e.getMessage());
+        }
+        for (Notification notification : batch) {
+            pending.remove(notification.id);
+            recentIds.put(notification.id, Boolean.TRUE);
+        }
+        compactIfNeeded();
+    }
+
+    // 완료된 레코드가 쌓이면 대기 중인 알림과 최근 키만 남겨 파일을 새로 씀
+    private void compactIfNeeded() {
+        if (journalRecords < COMPACT_MIN_RECORDS || journalRecords < 2 * (pending.size() + recentIds.size())) {
+            return;
+        }
+        Path temp = Paths.get(journal + ".tmp");
+        StringBuilder records = new StringBuilder();
+        for (String id : recentIds.keySet()) {
+            records.append("A,").append(CSVTokenizer.quote(id)).append('\n');
+        }
+        for (Notification notification : pending.values()) {
+            records.append("E,").append(notification.toCSV()).append('\n');
+        }
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            closeChannel();
+            Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journalRecords = recentIds.size() + pending.size();
+        } catch (IOException e) {
+            // 정리 실패 시 기존 파일을 그대로 사용 (다음 완료 때 다시 시도)
+            System.err.println("알림 발송함 정리 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("알림 발송함 닫기 중 오류 발생: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * 대기 중인 알림이 모두 발송(또는 포기)될 때까지 대기
+     * @return 시간 안에 모두 처리되면 true
+     */
+    public synchronized boolean awaitEmpty(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!pending.isEmpty()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(Math.min(remaining, 10));
+        }
+        return true;
+    }
+
+    public void showStatus() {
+        System.out.printf("  대기 %d | 추가 %d | 중복 제외 %d | 발송 %d | 게이트웨이 호출 %d (실패 %d) | 포기 %d%n",
+                getPendingCount(), enqueued.get(), duplicates.get(), delivered.get(), gatewayCalls.get(),
+                failedCalls.get(), deadLettered.get());
+    }
+
+    // Getter 메소드들
+    public synchronized int getPendingCount() { return pending.size(); }
+    public long getEnqueuedCount() { return enqueued.get(); }
+    public long getDuplicateCount() { return duplicates.get(); }
+    public long getDeliveredCount() { return delivered.get(); }
+    public long getGatewayCallCount() { return gatewayCalls.get(); }
+    public long getFailedCallCount() { return failedCalls.get(); }
+    public long getDeadLetteredCount() { return deadLettered.get(); }
+}
@@ -1,5 +1,6 @@
 package observer;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -9,49 +10,58 @@ import java.util.List;
 public class AdminNotificationObserver implements Observer {
     private String adminId;
     private String department;
-    private List<String> alertHistory;
+    private AlertHistory alertHistory; // 최근 기록만 보관, 문구는 이력 조회 시에 만듦
     
     public AdminNotificationObserver(String adminId, String department) {
+        this(adminId, department, AlertHistory.DEFAULT_CAPACITY, null);
+    }
+    
+    /**
+     * @param historyCapacity 메모리에 보관할 알림 이력 수
+     * @param historySpillFile 밀려난 이력을 이어 쓸 파일 (null이면 버림)
+     */
+    public AdminNotificationObserver(String adminId, String department, int historyCapacity, Path historySpillFile) {
         this.adminId = adminId;
         this.department = department;
-        this.alertHistory = new ArrayList<>();
+        this.alertHistory = new AlertHistory(historyCapacity, historySpillFile);
     }
     
     @Override
-    public void update(String bicycleId, String event, String message) {
-        String timestamp = java.time.LocalDateTime.now().toString();
-        String alertMessage = String.format("[%s] %s - %s: %s", 
-                timestamp, bicycleId, event, message);
+    public synchronized void update(BicycleEvent event) {
+        alertHistory.add(event);
         
-        alertHistory.add(alertMessage);
-        
-        switch (event) {
-            case "BROKEN":
-                sendCriticalAlert("자전거 고장", bicycleId, message);
+        String bicycleId = event.bicycleId;
+        switch (event.type) {
+            case BROKEN:
+                sendCriticalAlert("자전거 고장", bicycleId, event.getMessage());
                 break;
-            case "MAINTENANCE":
-                sendMaintenanceAlert("정비 요청", bicycleId, message);
+            case MAINTENANCE:
+                sendMaintenanceAlert("정비 요청", bicycleId, event.getMessage());
                 break;
-            case "LOW_BATTERY":
-                sendInfoAlert("배터리 경고", bicycleId, message);
+            case LOW_BATTERY:
+                sendInfoAlert("배터리 경고", bicycleId, event.getMessage());
                 break;
-            case "LOCATION_CHANGE":
+            case LOCATION_CHANGE:
                 // 무단 이동 의심 시에만 알림 (실제로는 더 복잡한 로직 필요)
-                if (message.contains("무단")) {
-                    sendCriticalAlert("도난 의심", bicycleId, message);
+                if (event.unauthorized) {
+                    sendCriticalAlert("도난 의심", bicycleId, event.getMessage());
                 }
                 break;
-            case "RENT":
-            case "RETURN":
+            case RENT:
+            case RETURN:
                 // 대여/반납은 일반 로그로만 기록
-                logActivity(bicycleId, event, message);
+                logActivity(bicycleId, event.type, event.getMessage());
                 break;
             default:
-                sendInfoAlert("일반 알림", bicycleId, message);
+                sendInfoAlert("일반 알림", bicycleId, event.getMessage());
                 break;
         }
     }
     
+    private static String formatAlert(BicycleEvent event) {
+        return String.format("[%s] %s - %s: %s", event.getTime(), event.bicycleId, event.type, event.getMessage());
+    }
+    
     private void sendCriticalAlert(String alertType, String bicycleId, String message) {
         System.out.println("🚨 [긴급 - 관리자 알림 - " + adminId + "]");
         System.out.println("   부서: " + department);
@@ -77,19 +87,22 @@ public class AdminNotificationObserver implements Observer {
         System.out.println("   내용: " + message);
     }
     
-    private void logActivity(String bicycleId, String event, String message) {
+    private void logActivity(String bicycleId, EventType event, String message) {
         System.out.println("📋 [활동 로그 - " + adminId + "] " + bicycleId + " - " + event + ": " + message);
     }
     
     public void showAlertHistory() {
         System.out.println("\n=== " + adminId + " 관리자 알림 이력 ===");
-        if (alertHistory.isEmpty()) {
+        List<BicycleEvent> recent = alertHistory.latest(10);
+        if (recent.isEmpty()) {
             System.out.println("알림 이력이 없습니다.");
         } else {
-            for (int i = Math.max(0, alertHistory.size() - 10); i < alertHistory.size(); i++) {
-                System.out.println((i + 1) + ". " + alertHistory.get(i));
+            // 오래된 것부터 출력
+            for (int i = recent.size() - 1; i >= 0; i--) {
+                System.out.println((recent.size() - i) + ". " + formatAlert(recent.get(i)));
             }
         }
+        System.out.println("(보관 " + alertHistory.size() + "/" + alertHistory.getCapacity() + "건, 누적 " + alertHistory.getTotalCount() + "건)");
     }
     
     public void clearAlertHistory() {
@@ -97,8 +110,19 @@ public class AdminNotificationObserver implements Observer {
         System.out.println(adminId + " 관리자의 알림 이력이 초기화되었습니다.");
     }
     
+    /**
+     * 최근 알림 문구 (최신순, 최대 limit건)
+     */
+    public List<String> getRecentAlerts(int limit) {
+        List<String> formatted = new ArrayList<>();
+        for (BicycleEvent event : alertHistory.latest(limit)) {
+            formatted.add(formatAlert(event));
+        }
+        return formatted;
+    }
+    
     // Getter 메소드들
     public String getAdminId() { return adminId; }
     public String getDepartment() { return department; }
-    public List<String> getAlertHistory() { return new ArrayList<>(alertHistory); }
+    public AlertHistory getAlertHistory() { return alertHistory; }
 }
\ No newline at end of file
@@ -0,0 +1,227 @@
+package observer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 고정 크기 알림 이력 (원형 버퍼)
+ * - 최근 capacity건만 메모리에 두고, 밀려난 기록은 지정한 파일에 이어 쓰기 (파일이 없으면 버림)
+ * - 자전거별 / 이벤트 유형별 색인과 기록 시각 순서를 유지하므로 조회 시 전체를 복사하지 않음
+ * - 모든 메소드는 this로 동기화
+ */
+public class AlertHistory {
+    public static final int DEFAULT_CAPACITY = 1_000;
+
+    private final BicycleEvent[] events;
+    private final long[] recordedAt; // 기록 시각 (epoch 밀리초, 단조 증가)
+    private long nextSequence;       // 다음 기록 번호 (0부터, 줄지 않음)
+    private long oldestSequence;     // 메모리에 남아 있는 가장 오래된 기록 번호
+
+    // 색인 (기록 번호, 오래된 순)
+    private final Map<String, ArrayDeque<Long>> byBicycle = new HashMap<>();
+    private final Map<EventType, ArrayDeque<Long>> byType = new EnumMap<>(EventType.class);
+
+    // 밀려난 기록 파일 (null이면 기록하지 않음)
+    private final Path spillFile;
+    private BufferedWriter spillWriter;
+    private long spilledCount;
+
+    public AlertHistory(int capacity) {
+        this(capacity, null);
+    }
+
+    public AlertHistory(int capacity, Path spillFile) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("이력 크기는 1 이상이어야 합니다: " + capacity);
+        }
+        this.events = new BicycleEvent[capacity];
+        this.recordedAt = new long[capacity];
+        this.spillFile = spillFile;
+    }
+
+    /**
+     * 기록 추가 (가득 차 있으면 가장 오래된 기록을 밀어냄)
+     * @return 기록 번호
+     */
+    public synchronized long add(BicycleEvent event) {
+        if (nextSequence - oldestSequence == events.length) {
+            evictOldest();
+        }
+        long sequence = nextSequence++;
+        int slot = slotOf(sequence);
+        long previous = sequence > 0 ? recordedAt[slotOf(sequence - 1)] : Long.MIN_VALUE;
+        events[slot] = event;
+        recordedAt[slot] = Math.max(previous, event.timestamp);
+        byBicycle.computeIfAbsent(event.bicycleId, k -> new ArrayDeque<>()).addLast(sequence);
+        byType.computeIfAbsent(event.type, k -> new ArrayDeque<>()).addLast(sequence);
+        return sequence;
+    }
+
+    private void evictOldest() {
+        long sequence = oldestSequence++;
+        int slot = slotOf(sequence);
+        BicycleEvent evicted = events[slot];
+        events[slot] = null;
+        removeFromIndex(byBicycle, evicted.bicycleId, sequence);
+        removeFromIndex(byType, evicted.type, sequence);
+        spill(evicted);
+    }
+
+    // 밀려나는 기록은 항상 각 색인의 맨 앞에 있음
+    private static <K> void removeFromIndex(Map<K, ArrayDeque<Long>> index, K key, long sequence) {
+        ArrayDeque<Long> sequences = index.get(key);
+        if (sequences != null && !sequences.isEmpty() && sequences.peekFirst() == sequence) {
+            sequences.pollFirst();
+            if (sequences.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private void spill(BicycleEvent event) {
+        if (spillFile == null) {
+            return;
+        }
+        try {
+            if (spillWriter == null) {
+                if (spillFile.getParent() != null) {
+                    Files.createDirectories(spillFile.getParent());
+                }
+                spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            spillWriter.write(event.toCSV());
+            spillWriter.newLine();
+            spillWriter.flush();
+            spilledCount++;
+        } catch (IOException e) {
+            System.err.println("알림 이력 파일 기록 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    private int slotOf(long sequence) {
+        return (int) (sequence % events.length);
+    }
+
+    /**
+     * 최근 기록 (최신순, 최대 limit건)
+     */
+    public synchronized List<BicycleEvent> latest(int limit) {
+        List<BicycleEvent> result = new ArrayList<>(Math.min(limit, size()));
+        for (long sequence = nextSequence - 1; sequence >= oldestSequence && result.size() < limit; sequence--) {
+            result.add(events[slotOf(sequence)]);
+        }
+        return result;
+    }
+
+    /**
+     * 특정 자전거의 기록 (최신순, 최대 limit건)
+     */
+    public synchronized List<BicycleEvent> findByBicycle(String bicycleId, int limit) {
+        return collect(byBicycle.get(bicycleId), limit);
+    }
+
+    /**
+     * 특정 유형의 기록 (최신순, 최대 limit건)
+     */
+    public synchronized List<BicycleEvent> findByType(EventType type, int limit) {
+        return collect(byType.get(type), limit);
+    }
+
+    /**
+     * 기록 시각이 [fromMillis, toMillis) 구간인 기록 (최신순, 최대 limit건)
+     */
+    public synchronized List<BicycleEvent> findBetween(long fromMillis, long toMillis, int limit) {
+        List<BicycleEvent> result = new ArrayList<>();
+        // 기록 시각은 단조 증가이므로 끝 경계를 이분 탐색한 뒤 거꾸로 읽음
+        long sequence = firstSequenceAtOrAfter(toMillis) - 1;
+        for (; sequence >= oldestSequence && result.size() < limit; sequence--) {
+            int slot = slotOf(sequence);
+            if (recordedAt[slot] < fromMillis) {
+                break;
+            }
+            result.add(events[slot]);
+        }
+        return result;
+    }
+
+    private long firstSequenceAtOrAfter(long millis) {
+        long low = oldestSequence;
+        long high = nextSequence;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (recordedAt[slotOf(mid)] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private List<BicycleEvent> collect(ArrayDeque<Long> sequences, int limit) {
+        if (sequences == null) {
+            return Collections.emptyList();
+        }
+        List<BicycleEvent> result = new ArrayList<>(Math.min(limit, sequences.size()));
+        for (Iterator<Long> it = sequences.descendingIterator(); it.hasNext() && result.size() < limit; ) {
+            result.add(events[slotOf(it.next())]);
+        }
+        return result;
+    }
+
+    /**
+     * 자전거별 기록 수 (메모리에 남아 있는 것만)
+     */
+    public synchronized int countByBicycle(String bicycleId) {
+        ArrayDeque<Long> sequences = byBicycle.get(bicycleId);
+        return sequences == null ? 0 : sequences.size();
+    }
+
+    public synchronized int countByType(EventType type) {
+        ArrayDeque<Long> sequences = byType.get(type);
+        return sequences == null ? 0 : sequences.size();
+    }
+
+    /**
+     * 메모리의 기록을 모두 지움 (파일에 기록된 내용은 유지)
+     */
+    public synchronized void clear() {
+        for (long sequence = oldestSequence; sequence < nextSequence; sequence++) {
+            events[slotOf(sequence)] = null;
+        }
+        oldestSequence = nextSequence;
+        byBicycle.clear();
+        byType.clear();
+    }
+
+    public synchronized void close() {
+        if (spillWriter != null) {
+            try {
+                spillWriter.close();
+            } catch (IOException e) {
+                System.err.println("알림 이력 파일 닫기 중 오류 발생: " + e.getMessage());
+            }
+            spillWriter = null;
+        }
+    }
+
+    // Getter 메소드들
+    public int getCapacity() { return events.length; }
+    public synchronized int size() { return (int) (nextSequence - oldestSequence); }
+    public synchronized long getTotalCount() { return nextSequence; }
+    public synchronized long getSpilledCount() { return spilledCount; }
+    public Path getSpillFile() { return spillFile; }
+}
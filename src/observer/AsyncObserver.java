@@ -0,0 +1,337 @@
+package observer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 비동기 옵저버 (데코레이터)
+ * - update()는 알림을 옵저버별 고정 크기 큐에 넣고 바로 반환
+ * - 공용 스레드 풀이 큐를 비우며 실제 옵저버를 호출 (옵저버별로 한 스레드만 처리하므로 순서 유지)
+ * - 큐가 가득 차면 BackpressurePolicy에 따라 처리
+ * - 큐 깊이 / 처리 / 유실 / 파일 기록 수를 조회할 수 있음
+ * - 파일에 기록한 알림은 이름으로 찾으므로, 재시작 후 이어서 전달받으려면 같은 구독자에게 같은 이름을 써야 함
+ */
+public class AsyncObserver implements Observer {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final String SPILL_DIR = "observer_spill";
+    private static final String ORPHANED_DIR = "orphaned";
+
+    // 알림 전달 스레드 풀 (데몬 스레드)
+    private static final ExecutorService DISPATCHER = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()), new ThreadFactory() {
+                private final AtomicLong count = new AtomicLong();
+
+                @Override
+                public Thread newThread(Runnable task) {
+                    Thread thread = new Thread(task, "observer-dispatch-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    // 상태 조회용 목록
+    private static final List<AsyncObserver> REGISTERED = new CopyOnWriteArrayList<>();
+
+    static {
+        // 종료 시 남은 알림을 잠시 기다려 전달 (파일에 기록된 알림은 다음 실행 때 전달)
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> awaitIdle(2_000)));
+    }
+
+    private final String name;
+    private final Observer delegate;
+    private final BackpressurePolicy policy;
+    private final int capacity;
+    private final BlockingQueue<BicycleEvent> queue;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    // 파일 기록 (SPILL_TO_DISK)
+    private final Object spillLock = new Object();
+    private final Path spillFile;
+    private long pendingSpilled; // 파일에 남아 있는 알림 수 (spillLock)
+
+    // 지표
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private volatile boolean closed;
+
+    public AsyncObserver(String name, Observer delegate) {
+        this(name, delegate, DEFAULT_CAPACITY, BackpressurePolicy.BLOCK);
+    }
+
+    /**
+     * @param name 지표 표시 및 파일 기록에 쓰이는 이름 (옵저버마다 달라야 하고, 같은 이름의 파일에 남은 알림을 이어서 전달함)
+     */
+    public AsyncObserver(String name, Observer delegate, int capacity, BackpressurePolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("큐 크기는 1 이상이어야 합니다: " + capacity);
+        }
+        this.name = name;
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.spillFile = spillFileFor(name);
+
+        // 이전 실행에서 파일에 남긴 알림이 있으면 이어서 전달
+        boolean leftover = Files.exists(Paths.get(spillFile + ".draining"));
+        if (Files.exists(spillFile)) {
+            try (Stream<String> lines = Files.lines(spillFile, StandardCharsets.UTF_8)) {
+                pendingSpilled = lines.count();
+            } catch (IOException e) {
+                System.err.println("알림 임시 파일 확인 중 오류 발생: " + e.getMessage());
+            }
+        }
+        REGISTERED.add(this);
+        if (leftover || pendingSpilled > 0) {
+            schedule();
+        }
+    }
+
+    @Override
+    public void update(BicycleEvent item) {
+        enqueued.incrementAndGet();
+
+        switch (policy) {
+            case DROP_OLDEST:
+                while (!queue.offer(item)) {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                break;
+            case SPILL_TO_DISK:
+                synchronized (spillLock) {
+                    // 이미 파일에 쌓인 알림이 있으면 순서를 지키기 위해 계속 파일에 기록
+                    if (pendingSpilled > 0 || !queue.offer(item)) {
+                        spill(item);
+                    }
+                }
+                break;
+            default:
+                if (!queue.offer(item)) {
+                    blocked.incrementAndGet();
+                    try {
+                        queue.put(item);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        dropped.incrementAndGet();
+                    }
+                }
+        }
+
+        maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+        schedule();
+    }
+
+    private static Path spillFileFor(String name) {
+        return Paths.get(SPILL_DIR, name.replaceAll("[^0-9A-Za-z가-힣_-]", "_") + ".log");
+    }
+
+    /**
+     * 이 이름으로 이전 실행에서 남긴 알림 파일을 전달하지 않고 격리 (observer_spill/orphaned/로 이동)
+     * 재시작 후 같은 구독자임을 보장할 수 없는 이름을 쓰기 전에 호출하여, 다른 구독자의 알림을 받지 않게 함
+     */
+    static void quarantineSpilled(String name) {
+        Path file = spillFileFor(name);
+        Path batch = Paths.get(file + ".draining");
+        if (!Files.exists(file) && !Files.exists(batch)) {
+            return;
+        }
+        String suffix = "." + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        try {
+            Path dir = Paths.get(SPILL_DIR, ORPHANED_DIR);
+            Files.createDirectories(dir);
+            for (Path source : new Path[]{file, batch}) {
+                if (Files.exists(source)) {
+                    Files.move(source, dir.resolve(source.getFileName() + suffix), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            System.err.println("주인을 알 수 없는 알림 임시 파일을 격리했습니다: " + file);
+        } catch (IOException e) {
+            System.err.println("알림 임시 파일 격리 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    private void spill(BicycleEvent item) {
+        try {
+            Files.createDirectories(spillFile.getParent());
+            String line = item.toCSV() + System.lineSeparator();
+            Files.write(spillFile, line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            pendingSpilled++;
+            spilled.incrementAndGet();
+        } catch (IOException e) {
+            System.err.println("알림 임시 저장 중 오류 발생: " + e.getMessage());
+            dropped.incrementAndGet();
+        }
+    }
+
+    // 처리 중인 스레드가 없을 때만 전달 작업 등록
+    private void schedule() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                DISPATCHER.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            do {
+                BicycleEvent item;
+                while ((item = queue.poll()) != null) {
+                    deliver(item);
+                }
+            } while (drainSpilled());
+        } finally {
+            draining.set(false);
+        }
+        // 비우는 사이 새로 들어온 알림이 있으면 다시 등록
+        if (!queue.isEmpty() || hasSpilled()) {
+            schedule();
+        }
+    }
+
+    /**
+     * 큐가 빈 뒤 파일에 기록된 알림을 순서대로 전달
+     * @return 전달한 알림이 있으면 true
+     */
+    private boolean drainSpilled() {
+        Path batch = Paths.get(spillFile + ".draining");
+        synchronized (spillLock) {
+            if (pendingSpilled == 0 && !Files.exists(batch)) {
+                return false;
+            }
+            try {
+                // 이전에 전달 도중 중단된 묶음이 있으면 그것부터 전달하고, 없으면 쌓인 파일을 새 묶음으로 넘김
+                if (!Files.exists(batch)) {
+                    Files.move(spillFile, batch, StandardCopyOption.ATOMIC_MOVE);
+                    pendingSpilled = 0;
+                }
+            } catch (IOException e) {
+                System.err.println("알림 임시 파일 처리 중 오류 발생: " + e.getMessage());
+                return false;
+            }
+        }
+
+        try (BufferedReader br = Files.newBufferedReader(batch, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                BicycleEvent item = BicycleEvent.fromCSV(line);
+                if (item != null) {
+                    deliver(item);
+                } else {
+                    failed.incrementAndGet();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("알림 임시 파일 읽기 중 오류 발생: " + e.getMessage());
+            return false;
+        }
+        try {
+            Files.deleteIfExists(batch);
+        } catch (IOException e) {
+            System.err.println("알림 임시 파일 삭제 중 오류 발생: " + e.getMessage());
+        }
+        return true;
+    }
+
+    private boolean hasSpilled() {
+        synchronized (spillLock) {
+            return pendingSpilled > 0;
+        }
+    }
+
+    private void deliver(BicycleEvent item) {
+        try {
+            delegate.update(item);
+            delivered.incrementAndGet();
+        } catch (RuntimeException e) {
+            // 한 옵저버의 오류가 다른 알림 전달을 막지 않도록 기록만 함
+            failed.incrementAndGet();
+            System.err.println("알림 전달 중 오류 발생 (" + name + "): " + e.getMessage());
+        }
+    }
+
+    /**
+     * 상태 조회 목록에서 제거 (큐에 남은 알림은 계속 전달됨)
+     */
+    public void close() {
+        closed = true;
+        REGISTERED.remove(this);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public boolean isIdle() {
+        return queue.isEmpty() && !draining.get() && !hasSpilled();
+    }
+
+    /**
+     * 모든 비동기 옵저버의 큐가 빌 때까지 대기
+     * @return 시간 안에 모두 비었으면 true
+     */
+    public static boolean awaitIdle(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            if (REGISTERED.stream().allMatch(AsyncObserver::isIdle)) {
+                return true;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 등록된 비동기 옵저버들의 큐 상태 출력
+     */
+    public static void showQueueStatus() {
+        if (REGISTERED.isEmpty()) {
+            System.out.println("  등록된 비동기 알림이 없습니다.");
+            return;
+        }
+        for (AsyncObserver observer : REGISTERED) {
+            System.out.printf("  %s [%s] 대기 %d/%d (최대 %d) | 전달 %d | 유실 %d | 파일 기록 %d | 대기 발생 %d | 오류 %d%n",
+                    observer.name, observer.policy, observer.getQueueDepth(), observer.capacity,
+                    observer.getMaxQueueDepth(), observer.getDeliveredCount(), observer.getDroppedCount(),
+                    observer.getSpilledCount(), observer.getBlockedCount(), observer.getFailedCount());
+        }
+    }
+
+    // Getter 메소드들
+    public String getName() { return name; }
+    public Observer getDelegate() { return delegate; }
+    public BackpressurePolicy getPolicy() { return policy; }
+    public int getCapacity() { return capacity; }
+    public int getQueueDepth() { return queue.size(); }
+    public int getMaxQueueDepth() { return maxQueueDepth.get(); }
+    public long getEnqueuedCount() { return enqueued.get(); }
+    public long getDeliveredCount() { return delivered.get(); }
+    public long getDroppedCount() { return dropped.get(); }
+    public long getSpilledCount() { return spilled.get(); }
+    public long getBlockedCount() { return blocked.get(); }
+    public long getFailedCount() { return failed.get(); }
+}
@@ -0,0 +1,10 @@
+package observer;
+
+/**
+ * 비동기 옵저버 큐가 가득 찼을 때의 처리 방식
+ */
+public enum BackpressurePolicy {
+    DROP_OLDEST,   // 가장 오래된 알림을 버리고 새 알림을 넣음
+    BLOCK,         // 자리가 날 때까지 알림 발송 스레드가 대기
+    SPILL_TO_DISK  // 넘치는 알림은 파일에 기록했다가 큐가 비면 이어서 전달
+}
@@ -0,0 +1,170 @@
+package observer;
+
+import database.CSVTokenizer;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 자전거 알림 이벤트
+ * - 좌표 / 배터리 / 사용 시간 등은 기본형 필드로 보관하고, 사람이 읽는 문구는 getMessage() 호출 시에만 만듦
+ *   (문구를 쓰는 옵저버가 없으면 문자열을 만들지 않음)
+ * - 유형별 정적 생성 메소드로 만듦
+ */
+public final class BicycleEvent {
+    // 이벤트 번호 (실행마다 겹치지 않도록 시작 시각 기반으로 시작)
+    private static final AtomicLong SEQUENCE = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    public final long eventId;        // 중복 발송 방지용 고유 번호
+    public final EventType type;
+    public final String bicycleId;
+    public final String location;     // 발생 지역 (모르면 null)
+    public final long timestamp;      // 발생 시각 (epoch 밀리초)
+    public final long createdNanos;   // 발생 시점 System.nanoTime() (처리 지연 측정용, 파일에서 복원하면 0)
+    public final String userId;       // RENT / RETURN
+    public final double usageMinutes; // RETURN
+    public final int batteryLevel;    // LOW_BATTERY (%)
+    public final double latitude;     // LOCATION_CHANGE
+    public final double longitude;    // LOCATION_CHANGE
+    public final boolean unauthorized; // LOCATION_CHANGE - 무단 이동 의심
+    public final String detail;       // BROKEN 고장 내용 / MAINTENANCE 정비 사유
+
+    private String message; // 처음 요청될 때 만듦
+
+    private BicycleEvent(long eventId, EventType type, String bicycleId, String location, long timestamp, long createdNanos, String userId,
+                         double usageMinutes, int batteryLevel, double latitude, double longitude,
+                         boolean unauthorized, String detail) {
+        this.eventId = eventId;
+        this.type = type;
+        this.bicycleId = bicycleId;
+        this.location = location;
+        this.timestamp = timestamp;
+        this.createdNanos = createdNanos;
+        this.userId = userId;
+        this.usageMinutes = usageMinutes;
+        this.batteryLevel = batteryLevel;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.unauthorized = unauthorized;
+        this.detail = detail;
+    }
+
+    // 유형별 생성 메소드들
+    public static BicycleEvent rented(String bicycleId, String location, String userId) {
+        return create(EventType.RENT, bicycleId, location, userId, 0, 0, 0, 0, false, null);
+    }
+
+    public static BicycleEvent returned(String bicycleId, String location, String userId, double usageMinutes) {
+        return create(EventType.RETURN, bicycleId, location, userId, usageMinutes, 0, 0, 0, false, null);
+    }
+
+    public static BicycleEvent broken(String bicycleId, String location, String issue) {
+        return create(EventType.BROKEN, bicycleId, location, null, 0, 0, 0, 0, false, issue);
+    }
+
+    public static BicycleEvent lowBattery(String bicycleId, String location, int batteryLevel) {
+        return create(EventType.LOW_BATTERY, bicycleId, location, null, 0, batteryLevel, 0, 0, false, null);
+    }
+
+    public static BicycleEvent locationChanged(String bicycleId, String location, double latitude, double longitude,
+                                               boolean unauthorized) {
+        return create(EventType.LOCATION_CHANGE, bicycleId, location, null, 0, 0, latitude, longitude, unauthorized, null);
+    }
+
+    public static BicycleEvent maintenanceRequired(String bicycleId, String location, String reason) {
+        return create(EventType.MAINTENANCE, bicycleId, location, null, 0, 0, 0, 0, false, reason);
+    }
+
+    private static BicycleEvent create(EventType type, String bicycleId, String location, String userId,
+                                       double usageMinutes, int batteryLevel, double latitude, double longitude,
+                                       boolean unauthorized, String detail) {
+        return new BicycleEvent(SEQUENCE.incrementAndGet(), type, bicycleId, location, System.currentTimeMillis(),
+                System.nanoTime(), userId, usageMinutes, batteryLevel, latitude, longitude, unauthorized, detail);
+    }
+
+    /**
+     * 사람이 읽는 알림 문구 (처음 호출 시 만들어 보관)
+     */
+    public String getMessage() {
+        String rendered = message;
+        if (rendered == null) {
+            rendered = render();
+            message = rendered;
+        }
+        return rendered;
+    }
+
+    private String render() {
+        switch (type) {
+            case RENT:
+                return userId + "님이 자전거를 대여했습니다.";
+            case RETURN:
+                return userId + "님이 자전거를 반납했습니다. (사용시간: " + usageMinutes + "분)";
+            case BROKEN:
+                return "자전거에 문제가 발생했습니다: " + detail;
+            case LOW_BATTERY:
+                return "배터리가 부족합니다: " + batteryLevel + "%";
+            case LOCATION_CHANGE:
+                String locationMsg = String.format("위치가 변경되었습니다: (%.6f, %.6f)", latitude, longitude);
+                return unauthorized ? locationMsg + " - 무단 이동 의심" : locationMsg;
+            case MAINTENANCE:
+                return "정비가 필요합니다: " + detail;
+            default:
+                return type.getDisplayName();
+        }
+    }
+
+    public LocalDateTime getTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+
+    /**
+     * 파일 기록용 CSV 변환 (문구가 아닌 필드 값을 저장)
+     */
+    public String toCSV() {
+        return CSVTokenizer.join(Long.toString(eventId), type.name(), bicycleId, location == null ? "" : location,
+                Long.toString(timestamp), userId == null ? "" : userId, Double.toString(usageMinutes),
+                Integer.toString(batteryLevel), Double.toString(latitude), Double.toString(longitude),
+                Boolean.toString(unauthorized), detail == null ? "" : detail);
+    }
+
+    /**
+     * CSV 한 줄을 이벤트로 변환
+     * @return 형식이 맞지 않으면 null
+     */
+    public static BicycleEvent fromCSV(String line) {
+        try {
+            CSVTokenizer t = CSVTokenizer.forLine(line);
+            long eventId = Long.parseLong(t.nextString());
+            EventType type = EventType.valueOf(t.nextString());
+            String bicycleId = t.nextString();
+            String location = emptyToNull(t.nextString());
+            long timestamp = Long.parseLong(t.nextString());
+            String userId = emptyToNull(t.nextString());
+            double usageMinutes = t.nextDouble();
+            int batteryLevel = (int) t.nextDouble();
+            double latitude = t.nextDouble();
+            double longitude = t.nextDouble();
+            boolean unauthorized = t.nextBoolean();
+            String detail = t.nextString();
+            if (detail == null) {
+                return null;
+            }
+            return new BicycleEvent(eventId, type, bicycleId, location, timestamp, 0, userId, usageMinutes, batteryLevel,
+                    latitude, longitude, unauthorized, emptyToNull(detail));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    @Override
+    public String toString() {
+        return bicycleId + " - " + type + ": " + getMessage();
+    }
+}
@@ -1,63 +1,101 @@
 package observer;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
- * 자전거 상태 관리 및 알림 서브젝트
+ * 자전거 상태 알림 서브젝트
+ * 구독 정보는 SubscriptionRegistry가 한곳에서 관리하므로 자전거마다 옵저버 목록을 두지 않는다.
+ * 알림을 보낼 때 만들어 쓰고 버려도 되며, 구독은 레지스트리에 남는다.
  */
 public class BicycleStatusSubject implements Subject {
-    private List<Observer> observers;
-    private String bicycleId;
+    private final String bicycleId;
+    private final String location; // 지역 조건 구독 판정용 (모르면 null)
+    private final SubscriptionRegistry registry;
     
     public BicycleStatusSubject(String bicycleId) {
-        this.observers = new ArrayList<>();
+        this(bicycleId, null);
+    }
+    
+    public BicycleStatusSubject(String bicycleId, String location) {
+        this(bicycleId, location, SubscriptionRegistry.shared());
+    }
+    
+    public BicycleStatusSubject(String bicycleId, String location, SubscriptionRegistry registry) {
         this.bicycleId = bicycleId;
+        this.location = location;
+        this.registry = registry;
     }
     
     @Override
     public void addObserver(Observer observer) {
-        observers.add(observer);
+        registry.subscribeBicycle(observer, bicycleId);
         System.out.println("새로운 관찰자가 " + bicycleId + " 자전거를 구독했습니다.");
     }
     
     @Override
     public void removeObserver(Observer observer) {
-        observers.remove(observer);
+        registry.unsubscribeBicycle(observer, bicycleId);
         System.out.println("관찰자가 " + bicycleId + " 자전거 구독을 해제했습니다.");
     }
     
     @Override
-    public void notifyObservers(String event, String message) {
-        System.out.println("\n[알림 발송] " + bicycleId + " - " + event);
-        for (Observer observer : observers) {
-            observer.update(bicycleId, event, message);
+    public void notifyObservers(BicycleEvent event) {
+        System.out.println("\n[알림 발송] " + bicycleId + " - " + event.type);
+        registry.publish(event);
+    }
+    
+    // 받을 구독이 없으면 이벤트 객체도 만들지 않음 (위치 변경처럼 자주 발생하는 이벤트 대비)
+    private boolean hasSubscribers(EventType type) {
+        return registry.hasSubscribers(type, bicycleId, location);
+    }
+    
+    // 병합 단계가 맡지 않은 이벤트만 바로 발송 (병합된 위치는 창이 끝날 때 레지스트리가 발송)
+    private void notifyCoalesced(BicycleEvent event) {
+        EventCoalescer coalescer = registry.getCoalescer();
+        if (coalescer == null || !coalescer.offer(event)) {
+            notifyObservers(event);
         }
     }
     
     // 자전거 상태 변화 메소드들
     public void bicycleRented(String userId) {
-        notifyObservers("RENT", userId + "님이 자전거를 대여했습니다.");
+        if (hasSubscribers(EventType.RENT)) {
+            notifyObservers(BicycleEvent.rented(bicycleId, location, userId));
+        }
     }
     
     public void bicycleReturned(String userId, double usageTime) {
-        notifyObservers("RETURN", userId + "님이 자전거를 반납했습니다. (사용시간: " + usageTime + "분)");
+        if (hasSubscribers(EventType.RETURN)) {
+            notifyObservers(BicycleEvent.returned(bicycleId, location, userId, usageTime));
+        }
     }
     
     public void bicycleBroken(String issue) {
-        notifyObservers("BROKEN", "자전거에 문제가 발생했습니다: " + issue);
+        if (hasSubscribers(EventType.BROKEN)) {
+            notifyObservers(BicycleEvent.broken(bicycleId, location, issue));
+        }
     }
     
     public void lowBattery(int batteryLevel) {
-        notifyObservers("LOW_BATTERY", "배터리가 부족합니다: " + batteryLevel + "%");
+        if (hasSubscribers(EventType.LOW_BATTERY)) {
+            notifyCoalesced(BicycleEvent.lowBattery(bicycleId, location, batteryLevel));
+        }
     }
     
     public void locationChanged(double latitude, double longitude) {
-        String locationMsg = String.format("위치가 변경되었습니다: (%.6f, %.6f)", latitude, longitude);
-        notifyObservers("LOCATION_CHANGE", locationMsg);
+        locationChanged(latitude, longitude, false);
+    }
+    
+    /**
+     * @param unauthorized 대여 중이 아닌데 이동한 경우 등 무단 이동 의심 여부
+     */
+    public void locationChanged(double latitude, double longitude, boolean unauthorized) {
+        if (hasSubscribers(EventType.LOCATION_CHANGE)) {
+            notifyCoalesced(BicycleEvent.locationChanged(bicycleId, location, latitude, longitude, unauthorized));
+        }
     }
     
     public void maintenanceRequired(String reason) {
-        notifyObservers("MAINTENANCE", "정비가 필요합니다: " + reason);
+        if (hasSubscribers(EventType.MAINTENANCE)) {
+            notifyObservers(BicycleEvent.maintenanceRequired(bicycleId, location, reason));
+        }
     }
 }
\ No newline at end of file
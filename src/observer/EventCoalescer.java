@@ -0,0 +1,167 @@
+package observer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 고빈도 이벤트 병합 단계 (자전거별)
+ * - LOCATION_CHANGE: 창(window)의 첫 위치는 바로 보내고, 창 안에서 들어온 나머지는 마지막 위치 하나만 창이 끝날 때 보냄
+ *   (무단 이동 의심 위치는 병합하지 않고 바로 보냄)
+ * - LOW_BATTERY: 배터리 잔량이 임계값 아래로 내려가는 순간에만 보냄 (충전되어 임계값 위로 올라가면 다시 감시)
+ * - 그 밖의 이벤트는 그대로 통과
+ */
+public class EventCoalescer {
+    public static final long DEFAULT_LOCATION_WINDOW_MS = 5_000;
+    public static final int[] DEFAULT_BATTERY_THRESHOLDS = {20, 10, 5};
+
+    // 창 종료 처리 스레드 (데몬 스레드)
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "event-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 자전거별 상태 (위치 / 배터리 이벤트를 보낸 자전거만 가짐)
+    private static class BikeState {
+        boolean windowOpen;
+        BicycleEvent pendingLocation; // 창이 끝날 때 보낼 마지막 위치
+        int batteryLevel = -1;         // 마지막으로 받은 잔량 (-1이면 아직 없음)
+    }
+
+    private final SubscriptionRegistry registry;
+    private final long locationWindowMs;
+    private final int[] batteryThresholds;
+    private final Map<String, BikeState> states = new ConcurrentHashMap<>();
+
+    // 지표
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public EventCoalescer(SubscriptionRegistry registry, long locationWindowMs, int... batteryThresholds) {
+        if (locationWindowMs < 0) {
+            throw new IllegalArgumentException("병합 시간은 0 이상이어야 합니다: " + locationWindowMs);
+        }
+        this.registry = registry;
+        this.locationWindowMs = locationWindowMs;
+        this.batteryThresholds = batteryThresholds.clone();
+        Arrays.sort(this.batteryThresholds);
+    }
+
+    /**
+     * 이벤트를 병합 단계에 넣음
+     * @return 바로 보내야 하면 false, 병합 단계가 맡았으면(나중에 보내거나 버림) true
+     */
+    public boolean offer(BicycleEvent event) {
+        switch (event.type) {
+            case LOCATION_CHANGE:
+                received.incrementAndGet();
+                return !event.unauthorized && offerLocation(event);
+            case LOW_BATTERY:
+                received.incrementAndGet();
+                return offerBattery(event);
+            default:
+                return false;
+        }
+    }
+
+    private boolean offerLocation(BicycleEvent event) {
+        if (locationWindowMs == 0) {
+            return false;
+        }
+        BikeState state = states.computeIfAbsent(event.bicycleId, id -> new BikeState());
+        synchronized (state) {
+            if (state.windowOpen) {
+                if (state.pendingLocation != null) {
+                    coalesced.incrementAndGet();
+                }
+                state.pendingLocation = event;
+                return true;
+            }
+            state.windowOpen = true;
+        }
+        TIMER.schedule(() -> closeWindow(event.bicycleId, state), locationWindowMs, TimeUnit.MILLISECONDS);
+        return false;
+    }
+
+    // 창 종료 - 쌓인 마지막 위치가 있으면 보내고 새 창을 엶
+    private void closeWindow(String bicycleId, BikeState state) {
+        BicycleEvent latest;
+        synchronized (state) {
+            latest = state.pendingLocation;
+            state.pendingLocation = null;
+            if (latest == null) {
+                state.windowOpen = false;
+                if (state.batteryLevel < 0) {
+                    states.remove(bicycleId, state);
+                }
+                return;
+            }
+        }
+        try {
+            registry.publish(latest);
+        } catch (RuntimeException e) {
+            System.err.println("위치 알림 발송 중 오류 발생: " + e.getMessage());
+        }
+        TIMER.schedule(() -> closeWindow(bicycleId, state), locationWindowMs, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean offerBattery(BicycleEvent event) {
+        BikeState state = states.computeIfAbsent(event.bicycleId, id -> new BikeState());
+        int previous;
+        synchronized (state) {
+            previous = state.batteryLevel;
+            state.batteryLevel = event.batteryLevel;
+        }
+        if (crossedThreshold(previous, event.batteryLevel)) {
+            return false;
+        }
+        suppressed.incrementAndGet();
+        return true;
+    }
+
+    // 임계값 하나 이상을 새로 밑돌았는지 확인 (처음 받은 잔량은 임계값 아래이기만 하면 보냄)
+    private boolean crossedThreshold(int previous, int current) {
+        for (int threshold : batteryThresholds) {
+            if (current < threshold && (previous < 0 || previous >= threshold)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 창이 열린 위치 이벤트를 모두 즉시 발송 (종료 시 사용)
+     */
+    public void flush() {
+        for (Map.Entry<String, BikeState> entry : states.entrySet()) {
+            BicycleEvent latest;
+            BikeState state = entry.getValue();
+            synchronized (state) {
+                latest = state.pendingLocation;
+                state.pendingLocation = null;
+            }
+            if (latest != null) {
+                registry.publish(latest);
+            }
+        }
+    }
+
+    public void showStatus() {
+        System.out.printf("  받은 이벤트 %d | 병합된 위치 %d | 걸러진 배터리 알림 %d | 추적 중인 자전거 %d대 (위치 병합 %dms, 배터리 임계값 %s%%)%n",
+                received.get(), coalesced.get(), suppressed.get(), states.size(), locationWindowMs,
+                Arrays.toString(batteryThresholds));
+    }
+
+    // Getter 메소드들
+    public long getLocationWindowMs() { return locationWindowMs; }
+    public int[] getBatteryThresholds() { return batteryThresholds.clone(); }
+    public long getReceivedCount() { return received.get(); }
+    public long getCoalescedCount() { return coalesced.get(); }
+    public long getSuppressedCount() { return suppressed.get(); }
+}
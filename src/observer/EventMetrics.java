@@ -0,0 +1,146 @@
+package observer;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 알림 이벤트 지표 (여러 스레드가 동시에 기록해도 잠금 없이 누적)
+ * - 이벤트 유형별 / 자전거 유형별 건수 (LongAdder)
+ * - 발생부터 처리까지 걸린 시간 분포 (LatencyHistogram, 나노초)
+ * - 최근 1분 / 5분 / 15분 초당 처리 건수 (RateMeter)
+ * - snapshot()은 기록을 막지 않으므로 매초 조회해도 됨
+ */
+public class EventMetrics {
+    private final LongAdder total = new LongAdder();
+    private final LongAdder critical = new LongAdder();
+    private final LongAdder[] byType = new LongAdder[EventType.values().length]; // EventType.ordinal() 순서
+    // 자전거 유형은 몇 가지뿐이므로 목록을 순서대로 비교 (기록할 때 접두사 문자열을 만들지 않음)
+    private final List<BicycleTypeCounter> byBicycleType = new CopyOnWriteArrayList<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final RateMeter rate = new RateMeter();
+
+    public EventMetrics() {
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 이벤트 한 건 기록
+     * @param latencyNanos 발생부터 처리까지 걸린 시간 (모르면 음수)
+     */
+    public void record(BicycleEvent event, boolean isCritical, long latencyNanos) {
+        total.increment();
+        if (isCritical) {
+            critical.increment();
+        }
+        byType[event.type.ordinal()].increment();
+        bicycleTypeCounter(event.bicycleId).count.increment();
+        if (latencyNanos >= 0) {
+            latency.record(latencyNanos);
+        }
+        rate.mark();
+    }
+
+    private static class BicycleTypeCounter {
+        final String type;
+        final LongAdder count = new LongAdder();
+
+        BicycleTypeCounter(String type) {
+            this.type = type;
+        }
+    }
+
+    private BicycleTypeCounter bicycleTypeCounter(String bicycleId) {
+        int length = prefixLength(bicycleId);
+        for (BicycleTypeCounter counter : byBicycleType) {
+            if (counter.type.length() == length && (length == 0 || bicycleId.regionMatches(true, 0, counter.type, 0, length))) {
+                return counter;
+            }
+        }
+        synchronized (byBicycleType) {
+            String type = bicycleTypeOf(bicycleId);
+            for (BicycleTypeCounter counter : byBicycleType) {
+                if (counter.type.equals(type)) {
+                    return counter;
+                }
+            }
+            BicycleTypeCounter counter = new BicycleTypeCounter(type);
+            byBicycleType.add(counter);
+            return counter;
+        }
+    }
+
+    /**
+     * 자전거 유형 (ID 앞의 영문 접두사: REG=일반, ELC=전기, 접두사가 없으면 빈 문자열)
+     */
+    public static String bicycleTypeOf(String bicycleId) {
+        return bicycleId == null ? "" : bicycleId.substring(0, prefixLength(bicycleId)).toUpperCase();
+    }
+
+    private static int prefixLength(String bicycleId) {
+        int end = 0;
+        while (bicycleId != null && end < bicycleId.length() && Character.isLetter(bicycleId.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    public long getTotalCount() {
+        return total.sum();
+    }
+
+    public long getCriticalCount() {
+        return critical.sum();
+    }
+
+    /**
+     * 현재 지표 사본
+     */
+    public Snapshot snapshot() {
+        Map<EventType, Long> types = new EnumMap<>(EventType.class);
+        for (EventType type : EventType.values()) {
+            types.put(type, byType[type.ordinal()].sum());
+        }
+        Map<String, Long> bicycleTypes = new TreeMap<>();
+        for (BicycleTypeCounter counter : byBicycleType) {
+            bicycleTypes.put(counter.type, counter.count.sum());
+        }
+        return new Snapshot(total.sum(), critical.sum(), types, bicycleTypes, latency.snapshot(),
+                rate.getOneMinuteRate(), rate.getFiveMinuteRate(), rate.getFifteenMinuteRate());
+    }
+
+    public static class Snapshot {
+        public final long takenAt = System.currentTimeMillis();
+        public final long totalCount;
+        public final long criticalCount;
+        public final Map<EventType, Long> countByType;
+        public final Map<String, Long> countByBicycleType;
+        public final LatencyHistogram.Snapshot latency;
+        public final double oneMinuteRate;
+        public final double fiveMinuteRate;
+        public final double fifteenMinuteRate;
+
+        private Snapshot(long totalCount, long criticalCount, Map<EventType, Long> countByType,
+                         Map<String, Long> countByBicycleType, LatencyHistogram.Snapshot latency,
+                         double oneMinuteRate, double fiveMinuteRate, double fifteenMinuteRate) {
+            this.totalCount = totalCount;
+            this.criticalCount = criticalCount;
+            this.countByType = Collections.unmodifiableMap(countByType);
+            this.countByBicycleType = Collections.unmodifiableMap(countByBicycleType);
+            this.latency = latency;
+            this.oneMinuteRate = oneMinuteRate;
+            this.fiveMinuteRate = fiveMinuteRate;
+            this.fifteenMinuteRate = fifteenMinuteRate;
+        }
+
+        public double getCriticalRatio() {
+            return totalCount > 0 ? (double) criticalCount / totalCount : 0.0;
+        }
+    }
+}
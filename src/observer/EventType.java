@@ -0,0 +1,29 @@
+package observer;
+
+/**
+ * 자전거 알림 이벤트 유형
+ * - logLevel: 시스템 로그에 남길 수준
+ * - critical: 즉시 조치가 필요한 이벤트 여부
+ */
+public enum EventType {
+    RENT("대여", "INFO", false),
+    RETURN("반납", "INFO", false),
+    BROKEN("고장", "ERROR", true),
+    LOW_BATTERY("배터리 부족", "WARN", false),
+    LOCATION_CHANGE("위치 변경", "INFO", false),
+    MAINTENANCE("정비 필요", "ERROR", true);
+
+    private final String displayName;
+    private final String logLevel;
+    private final boolean critical;
+
+    EventType(String displayName, String logLevel, boolean critical) {
+        this.displayName = displayName;
+        this.logLevel = logLevel;
+        this.critical = critical;
+    }
+
+    public String getDisplayName() { return displayName; }
+    public String getLogLevel() { return logLevel; }
+    public boolean isCritical() { return critical; }
+}
@@ -6,9 +6,7 @@ package observer;
 public interface Observer {
     /**
      * 자전거 상태 변화 알림 받기
-     * @param bicycleId 자전거 ID
-     * @param event 발생한 이벤트
-     * @param message 알림 메시지
+     * @param event 발생한 이벤트 (유형, 자전거 ID, 유형별 값)
      */
-    void update(String bicycleId, String event, String message);
+    void update(BicycleEvent event);
 }
\ No newline at end of file
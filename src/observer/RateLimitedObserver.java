@@ -0,0 +1,79 @@
+package observer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 구독자별 토큰 버킷 제한 옵저버 (데코레이터)
+ * - 초당 ratePerSecond개씩 토큰이 차고, 최대 burst개까지 모아 둘 수 있음
+ * - 토큰이 없으면 알림을 버림 (긴급 이벤트와 무단 이동 의심은 제한하지 않음)
+ * - 사용자 옵저버를 감쌀 때는 그 사용자 본인의 대여 / 반납 확인도 제한하지 않음 (다른 사용자의 대여 / 반납은 제한)
+ */
+public class RateLimitedObserver implements Observer {
+    private final Observer delegate;
+    private final double ratePerSecond;
+    private final int burst;
+    private final String addressedUserId; // 이 사용자의 RENT / RETURN은 제한하지 않음 (없으면 null)
+
+    // 토큰 버킷 상태 (this로 보호)
+    private double tokens;
+    private long lastRefillNanos;
+
+    // 지표
+    private final AtomicLong passed = new AtomicLong();
+    private final AtomicLong limited = new AtomicLong();
+
+    public RateLimitedObserver(Observer delegate, double ratePerSecond, int burst) {
+        this(delegate, ratePerSecond, burst, null);
+    }
+
+    /**
+     * @param addressedUserId 대여 / 반납 확인을 항상 받아야 하는 사용자 ID (null이면 없음)
+     */
+    public RateLimitedObserver(Observer delegate, double ratePerSecond, int burst, String addressedUserId) {
+        if (ratePerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("허용량은 0보다 커야 합니다: " + ratePerSecond + "/초, " + burst);
+        }
+        this.delegate = delegate;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.addressedUserId = addressedUserId;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    @Override
+    public void update(BicycleEvent event) {
+        if (isExempt(event) || tryAcquire()) {
+            passed.incrementAndGet();
+            delegate.update(event);
+        } else {
+            limited.incrementAndGet();
+        }
+    }
+
+    private boolean isExempt(BicycleEvent event) {
+        if (event.type.isCritical() || event.unauthorized) {
+            return true;
+        }
+        return addressedUserId != null && (event.type == EventType.RENT || event.type == EventType.RETURN)
+                && addressedUserId.equals(event.userId);
+    }
+
+    private synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * ratePerSecond);
+        lastRefillNanos = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    // Getter 메소드들
+    public Observer getDelegate() { return delegate; }
+    public double getRatePerSecond() { return ratePerSecond; }
+    public int getBurst() { return burst; }
+    public long getPassedCount() { return passed.get(); }
+    public long getLimitedCount() { return limited.get(); }
+}
@@ -0,0 +1,68 @@
+package observer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 초 단위 슬라이딩 윈도 처리율 측정 (잠금 없음)
+ * - 최근 15분을 1초 칸의 원형 배열로 보관 (진행 중인 현재 초 칸 하나를 더 둠)
+ * - 칸마다 (초 번호 << 24 | 건수)를 한 long에 담아 CAS로 갱신하므로, 칸이 새 초로 바뀌는 순간에도 건수를 잃지 않음
+ */
+public class RateMeter {
+    public static final int WINDOW_SECONDS = 15 * 60;
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long ORIGIN = System.nanoTime();
+
+    private final AtomicLongArray slots = new AtomicLongArray(WINDOW_SECONDS + 1);
+
+    public void mark() {
+        long second = currentSecond();
+        int index = (int) (second % slots.length());
+        while (true) {
+            long slot = slots.get(index);
+            long next;
+            if ((slot >>> COUNT_BITS) == second) {
+                if ((slot & COUNT_MASK) == COUNT_MASK) {
+                    return; // 한 칸의 최대 건수(약 1,677만/초)에 도달하면 더 세지 않음
+                }
+                next = slot + 1;
+            } else {
+                next = (second << COUNT_BITS) | 1;
+            }
+            if (slots.compareAndSet(index, slot, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 최근 seconds초 동안의 초당 건수 (진행 중인 현재 초는 제외)
+     */
+    public double getRate(int seconds) {
+        if (seconds <= 0 || seconds > WINDOW_SECONDS) {
+            throw new IllegalArgumentException("측정 구간은 1 ~ " + WINDOW_SECONDS + "초입니다: " + seconds);
+        }
+        long now = currentSecond();
+        long total = 0;
+        for (long second = now - seconds; second < now; second++) {
+            if (second < 0) {
+                continue;
+            }
+            long slot = slots.get((int) (second % slots.length()));
+            if ((slot >>> COUNT_BITS) == second) {
+                total += slot & COUNT_MASK;
+            }
+        }
+        // 시작 직후에는 지난 시간만큼만 나눔
+        long elapsed = Math.min(seconds, Math.max(1, now));
+        return (double) total / elapsed;
+    }
+
+    public double getOneMinuteRate() { return getRate(60); }
+    public double getFiveMinuteRate() { return getRate(5 * 60); }
+    public double getFifteenMinuteRate() { return getRate(WINDOW_SECONDS); }
+
+    private static long currentSecond() {
+        return (System.nanoTime() - ORIGIN) / 1_000_000_000L;
+    }
+}
@@ -6,5 +6,5 @@ package observer;
 public interface Subject {
     void addObserver(Observer observer);
     void removeObserver(Observer observer);
-    void notifyObservers(String event, String message);
+    void notifyObservers(BicycleEvent event);
 }
\ No newline at end of file
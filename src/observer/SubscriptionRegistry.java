@@ -0,0 +1,465 @@
+package observer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 전체 자전거 공용 구독 레지스트리
+ * - 옵저버는 이벤트 유형 / 지역 / 자전거 ID / 자전거 ID 접두사 조건으로 구독 (조건이 없으면 전체)
+ * - 구독이 바뀔 때마다 분배 표를 새로 만들어 두고, 발송 시에는 표에서 조건이 맞는 구독만 찾아 호출
+ *   → 발송 비용은 조건이 맞는 구독 수에 비례, 구독이 없는 자전거는 메모리를 쓰지 않음
+ */
+public class SubscriptionRegistry {
+    private static final SubscriptionRegistry SHARED = new SubscriptionRegistry();
+
+    // 구독 한 건 (조건 필드가 null이면 해당 조건은 보지 않음)
+    public static class Subscription {
+        public final Observer subscriber; // 구독을 요청한 옵저버
+        final Observer target;            // 실제로 호출되는 옵저버 (설정에 따라 RateLimitedObserver / AsyncObserver로 감쌈)
+        public final EventType eventType;
+        public final String location;
+        public final String bicycleId;
+        public final String bicycleIdPrefix;
+
+        private Subscription(Observer subscriber, Observer target, EventType eventType, String location,
+                             String bicycleId, String bicycleIdPrefix) {
+            this.subscriber = subscriber;
+            this.target = target;
+            this.eventType = eventType;
+            this.location = location;
+            this.bicycleId = bicycleId;
+            this.bicycleIdPrefix = bicycleIdPrefix;
+        }
+
+        // 자전거 ID / 접두사 표에서 찾은 구독의 지역 조건 확인
+        boolean matchesLocation(String location) {
+            return this.location == null || this.location.equals(location);
+        }
+
+        public String describe() {
+            StringBuilder sb = new StringBuilder();
+            if (bicycleId != null) sb.append("자전거=").append(bicycleId).append(' ');
+            if (bicycleIdPrefix != null) sb.append("접두사=").append(bicycleIdPrefix).append("* ");
+            if (location != null) sb.append("지역=").append(location).append(' ');
+            if (eventType != null) sb.append("이벤트=").append(eventType).append(' ');
+            return sb.length() == 0 ? "전체" : sb.toString().trim();
+        }
+    }
+
+    // 분배 표의 한 칸 (같은 이벤트 조건을 가진 구독을 자전거 ID / 접두사 / 지역 / 전체로 나눠 둠)
+    private static class Bucket {
+        final List<Subscription> all = new ArrayList<>();
+        final Map<String, List<Subscription>> byBicycleId = new HashMap<>();
+        final Map<String, List<Subscription>> byLocation = new HashMap<>();
+        // 접두사는 종류가 적으므로 순서대로 startsWith 비교 (발송 시 부분 문자열을 만들지 않음)
+        final List<String> prefixes = new ArrayList<>();
+        final List<List<Subscription>> byPrefix = new ArrayList<>();
+
+        void add(Subscription subscription) {
+            if (subscription.bicycleId != null) {
+                byBicycleId.computeIfAbsent(subscription.bicycleId, k -> new ArrayList<>()).add(subscription);
+            } else if (subscription.bicycleIdPrefix != null) {
+                int index = prefixes.indexOf(subscription.bicycleIdPrefix);
+                if (index < 0) {
+                    prefixes.add(subscription.bicycleIdPrefix);
+                    byPrefix.add(new ArrayList<>());
+                    index = prefixes.size() - 1;
+                }
+                byPrefix.get(index).add(subscription);
+            } else if (subscription.location != null) {
+                byLocation.computeIfAbsent(subscription.location, k -> new ArrayList<>()).add(subscription);
+            } else {
+                all.add(subscription);
+            }
+        }
+    }
+
+    // 발송 시 읽기 전용으로 쓰는 분배 표 (구독 변경 시 통째로 교체)
+    private static class DispatchTable {
+        static final DispatchTable EMPTY = new DispatchTable();
+
+        final Bucket anyEvent = new Bucket();
+        final Bucket[] byEvent = new Bucket[EventType.values().length]; // EventType.ordinal() 순서
+
+        void add(Subscription subscription) {
+            if (subscription.eventType == null) {
+                anyEvent.add(subscription);
+            } else {
+                int index = subscription.eventType.ordinal();
+                if (byEvent[index] == null) {
+                    byEvent[index] = new Bucket();
+                }
+                byEvent[index].add(subscription);
+            }
+        }
+    }
+
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private volatile DispatchTable table = DispatchTable.EMPTY;
+
+    // 비동기 모드 설정 (null이면 동기 호출) - 같은 옵저버의 구독들은 하나의 큐를 공유
+    private BackpressurePolicy asyncPolicy;
+    private int asyncCapacity;
+    private int wrapperSequence;
+    // 파일 기록 이름별 비동기 래퍼 (같은 이름의 알림 파일을 두 래퍼가 함께 쓰지 않도록)
+    private final Map<String, AsyncObserver> asyncByName = new HashMap<>();
+    
+    // 구독자별 토큰 버킷 설정 (0이면 제한 없음)
+    private double rateLimitPerSecond;
+    private int rateLimitBurst;
+    
+    // 옵저버별 실제 호출 대상 (제한 / 비동기 래퍼)
+    private final Map<Observer, Observer> targets = new IdentityHashMap<>();
+    
+    // 위치 / 배터리 이벤트 병합 단계 (null이면 병합하지 않음)
+    private volatile EventCoalescer coalescer;
+
+    /**
+     * 콘솔 시스템 전체에서 공유하는 레지스트리
+     */
+    public static SubscriptionRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * 비동기 모드 설정 - 이후 구독하는 옵저버는 옵저버별 큐를 거쳐 별도 스레드에서 호출됨
+     */
+    public synchronized void enableAsyncDispatch(int capacity, BackpressurePolicy policy) {
+        this.asyncCapacity = capacity;
+        this.asyncPolicy = policy;
+    }
+
+    /**
+     * 구독자별 알림 제한 설정 - 이후 구독하는 옵저버는 초당 ratePerSecond건(최대 burst건 몰아서)까지만 받음
+     */
+    public synchronized void enableRateLimit(double ratePerSecond, int burst) {
+        this.rateLimitPerSecond = ratePerSecond;
+        this.rateLimitBurst = burst;
+    }
+
+    /**
+     * 위치 / 배터리 이벤트 병합 설정
+     * @param locationWindowMs 이 시간 안의 위치 변경은 마지막 것만 보냄
+     * @param batteryThresholds 잔량이 이 값들 아래로 내려갈 때만 배터리 알림을 보냄 (%)
+     */
+    public void enableCoalescing(long locationWindowMs, int... batteryThresholds) {
+        this.coalescer = new EventCoalescer(this, locationWindowMs, batteryThresholds);
+    }
+
+    public EventCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    // 구독 편의 메소드들
+    public Subscription subscribeAll(Observer observer) {
+        return subscribe(observer, null, null, null, null);
+    }
+
+    public Subscription subscribeEvent(Observer observer, EventType eventType) {
+        return subscribe(observer, eventType, null, null, null);
+    }
+
+    public Subscription subscribeLocation(Observer observer, String location) {
+        return subscribe(observer, null, location, null, null);
+    }
+
+    public Subscription subscribeBicycle(Observer observer, String bicycleId) {
+        return subscribe(observer, null, null, bicycleId, null);
+    }
+
+    public Subscription subscribePrefix(Observer observer, String bicycleIdPrefix) {
+        return subscribe(observer, null, null, null, bicycleIdPrefix);
+    }
+
+    /**
+     * 구독 추가
+     * - 조건 값이 null 또는 빈 문자열이면 해당 조건은 보지 않음 (eventType이 null이면 모든 이벤트)
+     * - bicycleId와 bicycleIdPrefix를 함께 주면 bicycleId만 사용
+     */
+    public synchronized Subscription subscribe(Observer observer, EventType eventType, String location,
+                                               String bicycleId, String bicycleIdPrefix) {
+        Objects.requireNonNull(observer, "observer");
+        bicycleId = normalize(bicycleId);
+        Subscription subscription = new Subscription(observer, targetFor(observer), eventType,
+                normalize(location), bicycleId, bicycleId != null ? null : normalize(bicycleIdPrefix));
+        subscriptions.add(subscription);
+        rebuild();
+        return subscription;
+    }
+
+    /**
+     * 구독 해제
+     */
+    public synchronized boolean unsubscribe(Subscription subscription) {
+        if (!subscriptions.remove(subscription)) {
+            return false;
+        }
+        releaseTarget(subscription.subscriber);
+        rebuild();
+        return true;
+    }
+
+    /**
+     * 특정 자전거에 대한 해당 옵저버의 구독 해제
+     * @return 해제된 구독 수
+     */
+    public synchronized int unsubscribeBicycle(Observer observer, String bicycleId) {
+        return removeIf(observer, bicycleId);
+    }
+
+    /**
+     * 해당 옵저버의 모든 구독 해제
+     * @return 해제된 구독 수
+     */
+    public synchronized int unsubscribeAll(Observer observer) {
+        return removeIf(observer, null);
+    }
+
+    /**
+     * 이벤트 발송 - 조건이 맞는 구독마다 한 번씩 호출
+     * 이벤트의 location이 null이면 지역 조건 구독은 받지 않음
+     * @return 호출한 구독 수
+     */
+    public int publish(BicycleEvent event) {
+        DispatchTable current = table;
+        int delivered = deliver(current.anyEvent, event);
+        Bucket bucket = current.byEvent[event.type.ordinal()];
+        if (bucket != null) {
+            delivered += deliver(bucket, event);
+        }
+        return delivered;
+    }
+
+    /**
+     * 해당 이벤트를 받을 구독이 있는지 확인 (객체를 만들지 않음)
+     */
+    public boolean hasSubscribers(EventType type, String bicycleId, String location) {
+        DispatchTable current = table;
+        if (matches(current.anyEvent, bicycleId, location)) {
+            return true;
+        }
+        Bucket bucket = current.byEvent[type.ordinal()];
+        return bucket != null && matches(bucket, bicycleId, location);
+    }
+
+    public synchronized List<Subscription> getSubscriptions() {
+        return Collections.unmodifiableList(new ArrayList<>(subscriptions));
+    }
+
+    public synchronized int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * 구독 현황 출력
+     */
+    public synchronized void showSubscriptions() {
+        if (subscriptions.isEmpty()) {
+            System.out.println("등록된 구독이 없습니다.");
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            String limited = subscription.target instanceof RateLimitedObserver
+                    ? " (제한으로 걸러진 알림 " + ((RateLimitedObserver) subscription.target).getLimitedCount() + "건)" : "";
+            System.out.println("- " + subscription.subscriber.getClass().getSimpleName() + " [" + subscription.describe() + "]" + limited);
+        }
+    }
+
+    private int deliver(Bucket bucket, BicycleEvent event) {
+        int delivered = call(bucket.all, false, event);
+        if (event.bicycleId != null) {
+            delivered += call(bucket.byBicycleId.get(event.bicycleId), true, event);
+            for (int i = 0; i < bucket.prefixes.size(); i++) {
+                if (event.bicycleId.startsWith(bucket.prefixes.get(i))) {
+                    delivered += call(bucket.byPrefix.get(i), true, event);
+                }
+            }
+        }
+        if (event.location != null) {
+            delivered += call(bucket.byLocation.get(event.location), false, event);
+        }
+        return delivered;
+    }
+
+    // checkLocation: 자전거 ID / 접두사 표에서 찾은 구독은 지역 조건을 한 번 더 확인
+    private int call(List<Subscription> matched, boolean checkLocation, BicycleEvent event) {
+        if (matched == null) {
+            return 0;
+        }
+        int delivered = 0;
+        for (int i = 0; i < matched.size(); i++) {
+            Subscription subscription = matched.get(i);
+            if (checkLocation && !subscription.matchesLocation(event.location)) {
+                continue;
+            }
+            try {
+                subscription.target.update(event);
+                delivered++;
+            } catch (RuntimeException e) {
+                System.err.println("알림 전달 중 오류 발생: " + e.getMessage());
+            }
+        }
+        return delivered;
+    }
+
+    private static boolean matches(Bucket bucket, String bicycleId, String location) {
+        if (!bucket.all.isEmpty()) {
+            return true;
+        }
+        if (location != null && bucket.byLocation.containsKey(location)) {
+            return true;
+        }
+        if (bicycleId == null) {
+            return false;
+        }
+        if (anyLocationMatches(bucket.byBicycleId.get(bicycleId), location)) {
+            return true;
+        }
+        for (int i = 0; i < bucket.prefixes.size(); i++) {
+            if (bicycleId.startsWith(bucket.prefixes.get(i)) && anyLocationMatches(bucket.byPrefix.get(i), location)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean anyLocationMatches(List<Subscription> candidates, String location) {
+        if (candidates == null) {
+            return false;
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            if (candidates.get(i).matchesLocation(location)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int removeIf(Observer observer, String bicycleId) {
+        int removed = 0;
+        for (Iterator<Subscription> it = subscriptions.iterator(); it.hasNext(); ) {
+            Subscription subscription = it.next();
+            if (subscription.subscriber == observer
+                    && (bicycleId == null || bicycleId.equals(subscription.bicycleId))) {
+                it.remove();
+                releaseTarget(observer);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            rebuild();
+        }
+        return removed;
+    }
+
+    // 같은 옵저버의 구독들은 같은 래퍼를 공유 (제한 → 비동기 큐 → 옵저버 순서로 감쌈)
+    private Observer targetFor(Observer observer) {
+        Observer target = targets.get(observer);
+        if (target != null) {
+            return target;
+        }
+        target = observer;
+        if (asyncPolicy != null && !(observer instanceof AsyncObserver)) {
+            String name = asyncNameFor(observer);
+            AsyncObserver async = new AsyncObserver(name, target, asyncCapacity, asyncPolicy);
+            asyncByName.put(name, async);
+            target = async;
+        }
+        if (rateLimitPerSecond > 0 && !(observer instanceof RateLimitedObserver)) {
+            // 사용자 본인의 대여 / 반납 확인은 제한하지 않음
+            String addressedUserId = observer instanceof UserNotificationObserver
+                    ? ((UserNotificationObserver) observer).getUserId() : null;
+            target = new RateLimitedObserver(target, rateLimitPerSecond, rateLimitBurst, addressedUserId);
+        }
+        if (target != observer) {
+            targets.put(observer, target);
+        }
+        return target;
+    }
+
+    /**
+     * 비동기 래퍼 이름 (알림 파일 이름)
+     * - 재시작 후에도 같은 구독자를 가리키는 ID(사용자 / 관리자 ID, 모니터링 시스템 이름)가 있으면 그것으로 정해
+     *   이전 실행에서 파일에 남은 그 구독자의 알림만 이어서 전달
+     * - ID가 없거나 같은 ID의 이전 래퍼가 아직 알림을 전달 중이면 실행 내 순번을 쓰고,
+     *   같은 이름으로 남아 있던 파일은 다른 구독자의 것일 수 있으므로 전달하지 않고 격리
+     */
+    private String asyncNameFor(Observer observer) {
+        String key = subscriberKey(observer);
+        if (key != null) {
+            String name = "registry-" + key;
+            AsyncObserver previous = asyncByName.get(name);
+            if (previous == null || (previous.isClosed() && previous.isIdle())) {
+                return name;
+            }
+        }
+        String name = "registry-" + observer.getClass().getSimpleName() + "-" + wrapperSequence++;
+        AsyncObserver.quarantineSpilled(name);
+        return name;
+    }
+
+    // 재시작 후에도 같은 구독자를 가리키는 ID (없으면 null)
+    private static String subscriberKey(Observer observer) {
+        if (observer instanceof UserNotificationObserver) {
+            return stableKey("user", ((UserNotificationObserver) observer).getUserId());
+        }
+        if (observer instanceof AdminNotificationObserver) {
+            return stableKey("admin", ((AdminNotificationObserver) observer).getAdminId());
+        }
+        if (observer instanceof SystemMonitoringObserver) {
+            return stableKey("monitor", ((SystemMonitoringObserver) observer).getSystemName());
+        }
+        return null;
+    }
+
+    // 파일 이름에 쓸 수 없는 문자는 _와 16진수 코드로 바꿈 ('_'도 바꾸므로 서로 다른 ID가 같은 이름이 되지 않음)
+    private static String stableKey(String kind, String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(kind).append('-');
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if ((c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+                sb.append(c);
+            } else {
+                sb.append(String.format("_%04x", (int) c));
+            }
+        }
+        return sb.toString();
+    }
+
+    // 옵저버의 마지막 구독이 해제되면 비동기 큐도 닫음
+    private void releaseTarget(Observer observer) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.subscriber == observer) {
+                return;
+            }
+        }
+        Observer target = targets.remove(observer);
+        if (target instanceof RateLimitedObserver) {
+            target = ((RateLimitedObserver) target).getDelegate();
+        }
+        if (target instanceof AsyncObserver) {
+            ((AsyncObserver) target).close();
+        }
+    }
+
+    private void rebuild() {
+        DispatchTable next = new DispatchTable();
+        for (Subscription subscription : subscriptions) {
+            next.add(subscription);
+        }
+        table = next;
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
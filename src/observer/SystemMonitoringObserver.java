@@ -1,92 +1,92 @@
 package observer;
 
+import java.time.format.DateTimeFormatter;
+
 /**
  * 시스템 모니터링 옵저버
+ * 지표는 EventMetrics에 잠금 없이 누적하므로 여러 알림 스레드가 동시에 호출해도 건수를 잃지 않는다.
  */
 public class SystemMonitoringObserver implements Observer {
+    private static final DateTimeFormatter LOG_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    
     private String systemName;
-    private int eventCount;
-    private int criticalEventCount;
+    private volatile EventMetrics metrics; // resetStats() 시 새 객체로 교체
     
     public SystemMonitoringObserver(String systemName) {
         this.systemName = systemName;
-        this.eventCount = 0;
-        this.criticalEventCount = 0;
+        this.metrics = new EventMetrics();
     }
     
     @Override
-    public void update(String bicycleId, String event, String message) {
-        eventCount++;
-        
-        String logLevel = getLogLevel(event);
-        String timestamp = java.time.LocalDateTime.now().toString();
-        
-        if (isCriticalEvent(event)) {
-            criticalEventCount++;
-        }
+    public void update(BicycleEvent event) {
+        // 발생부터 처리 시작까지 걸린 시간 (비동기 큐 대기 포함)
+        long latencyNanos = event.createdNanos != 0 ? System.nanoTime() - event.createdNanos : -1;
+        EventMetrics current = metrics;
+        current.record(event, isCriticalEvent(current, event.type), latencyNanos);
         
-        logSystemEvent(timestamp, logLevel, bicycleId, event, message);
+        logSystemEvent(event);
         
         // 시스템 통계 업데이트
-        if (eventCount % 10 == 0) {  // 10개 이벤트마다 통계 출력
+        if (current.getTotalCount() % 10 == 0) {  // 약 10개 이벤트마다 통계 출력
             showSystemStats();
         }
     }
     
-    private String getLogLevel(String event) {
-        switch (event) {
-            case "BROKEN":
-            case "MAINTENANCE":
-                return "ERROR";
-            case "LOW_BATTERY":
-                return "WARN";
-            case "RENT":
-            case "RETURN":
-            case "LOCATION_CHANGE":
-                return "INFO";
-            default:
-                return "DEBUG";
-        }
-    }
-    
-    private boolean isCriticalEvent(String event) {
-        return event.equals("BROKEN") || event.equals("MAINTENANCE") || 
-               (event.equals("LOCATION_CHANGE") && criticalEventCount > 0);
+    private boolean isCriticalEvent(EventMetrics current, EventType event) {
+        return event.isCritical() || (event == EventType.LOCATION_CHANGE && current.getCriticalCount() > 0);
     }
     
-    private void logSystemEvent(String timestamp, String level, String bicycleId, String event, String message) {
+    private void logSystemEvent(BicycleEvent event) {
         System.out.println("🖥️  [" + systemName + " 시스템 로그]");
         System.out.printf("   %s [%s] Bicycle=%s Event=%s Message=%s%n", 
-                timestamp.substring(0, 19), level, bicycleId, event, message);
+                event.getTime().format(LOG_TIME), event.type.getLogLevel(), event.bicycleId, event.type, event.getMessage());
     }
     
     private void showSystemStats() {
+        EventMetrics.Snapshot snapshot = metrics.snapshot();
         System.out.println("\n📊 [시스템 통계 - " + systemName + "]");
-        System.out.println("   총 이벤트 수: " + eventCount);
-        System.out.println("   중요 이벤트 수: " + criticalEventCount);
-        System.out.printf("   중요 이벤트 비율: %.1f%%%n", 
-                (eventCount > 0 ? (double) criticalEventCount / eventCount * 100 : 0.0));
+        System.out.println("   총 이벤트 수: " + snapshot.totalCount);
+        System.out.println("   중요 이벤트 수: " + snapshot.criticalCount);
+        System.out.printf("   중요 이벤트 비율: %.1f%%%n", snapshot.getCriticalRatio() * 100);
+        System.out.printf("   초당 처리: 1분 %.2f | 5분 %.2f | 15분 %.2f%n",
+                snapshot.oneMinuteRate, snapshot.fiveMinuteRate, snapshot.fifteenMinuteRate);
+        LatencyHistogram.Snapshot latency = snapshot.latency;
+        System.out.printf("   처리 지연(ms): p50 %.3f | p90 %.3f | p99 %.3f | p99.9 %.3f | 최대 %.3f%n",
+                latency.getPercentile(50) / 1e6, latency.getPercentile(90) / 1e6, latency.getPercentile(99) / 1e6,
+                latency.getPercentile(99.9) / 1e6, latency.max / 1e6);
     }
     
     public void resetStats() {
-        eventCount = 0;
-        criticalEventCount = 0;
+        metrics = new EventMetrics();
         System.out.println(systemName + " 시스템 통계가 초기화되었습니다.");
     }
     
     public void generateSystemReport() {
+        EventMetrics.Snapshot snapshot = metrics.snapshot();
+        boolean warning = snapshot.getCriticalRatio() > 0.3;
         System.out.println("\n📋 [시스템 보고서 - " + systemName + "]");
-        System.out.println("   시스템 상태: " + (criticalEventCount > eventCount * 0.3 ? "주의" : "정상"));
-        System.out.println("   총 처리된 이벤트: " + eventCount);
-        System.out.println("   중요 이벤트: " + criticalEventCount);
+        System.out.println("   시스템 상태: " + (warning ? "주의" : "정상"));
+        System.out.println("   총 처리된 이벤트: " + snapshot.totalCount);
+        System.out.println("   중요 이벤트: " + snapshot.criticalCount);
+        System.out.println("   이벤트 유형별: " + snapshot.countByType);
+        System.out.println("   자전거 유형별: " + snapshot.countByBicycleType);
+        System.out.printf("   평균 처리 지연: %.3fms (p99 %.3fms)%n",
+                snapshot.latency.getMean() / 1e6, snapshot.latency.getPercentile(99) / 1e6);
         
-        if (criticalEventCount > eventCount * 0.3) {
+        if (warning) {
             System.out.println("   ⚠️  중요 이벤트 비율이 높습니다. 시스템 점검이 필요할 수 있습니다.");
         }
     }
     
+    /**
+     * 현재 지표 사본 (기록을 막지 않으므로 주기적으로 조회해도 됨)
+     */
+    public EventMetrics.Snapshot getSnapshot() {
+        return metrics.snapshot();
+    }
+    
     // Getter 메소드들
     public String getSystemName() { return systemName; }
-    public int getEventCount() { return eventCount; }
-    public int getCriticalEventCount() { return criticalEventCount; }
+    public long getEventCount() { return metrics.getTotalCount(); }
+    public long getCriticalEventCount() { return metrics.getCriticalCount(); }
 }
\ No newline at end of file
@@ -1,33 +1,48 @@
 package observer;
 
+import notification.Notification;
+import notification.NotificationChannel;
+import notification.NotificationOutbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 사용자 알림 옵저버
+ * SMS / 이메일은 직접 보내지 않고 발송함(NotificationOutbox)에 넣으며, 발송은 발송함의 작업 스레드가 묶어서 처리한다.
  */
 public class UserNotificationObserver implements Observer {
     private String userId;
     private String phoneNumber;
     private String email;
+    private NotificationOutbox outbox;
     
     public UserNotificationObserver(String userId, String phoneNumber, String email) {
+        this(userId, phoneNumber, email, NotificationOutbox.shared());
+    }
+    
+    public UserNotificationObserver(String userId, String phoneNumber, String email, NotificationOutbox outbox) {
         this.userId = userId;
         this.phoneNumber = phoneNumber;
         this.email = email;
+        this.outbox = outbox;
     }
     
     @Override
-    public void update(String bicycleId, String event, String message) {
-        switch (event) {
-            case "RENT":
-                sendUserNotification("대여 확인", "자전거 " + bicycleId + " 대여가 완료되었습니다.");
+    public void update(BicycleEvent event) {
+        String bicycleId = event.bicycleId;
+        switch (event.type) {
+            case RENT:
+                sendUserNotification(event, "대여 확인", "자전거 " + bicycleId + " 대여가 완료되었습니다.");
                 break;
-            case "RETURN":
-                sendUserNotification("반납 확인", "자전거 " + bicycleId + " 반납이 완료되었습니다. 이용해주셔서 감사합니다!");
+            case RETURN:
+                sendUserNotification(event, "반납 확인", "자전거 " + bicycleId + " 반납이 완료되었습니다. 이용해주셔서 감사합니다!");
                 break;
-            case "LOW_BATTERY":
-                sendUserNotification("배터리 알림", "사용 중인 전기자전거의 " + message);
+            case LOW_BATTERY:
+                sendUserNotification(event, "배터리 알림", "사용 중인 전기자전거의 " + event.getMessage());
                 break;
-            case "MAINTENANCE":
-                sendUserNotification("정비 안내", "자전거 " + bicycleId + "에 " + message + " 다른 자전거를 이용해주세요.");
+            case MAINTENANCE:
+                sendUserNotification(event, "정비 안내", "자전거 " + bicycleId + "에 " + event.getMessage() + " 다른 자전거를 이용해주세요.");
                 break;
             default:
                 // 사용자에게는 필요한 정보만 전달
@@ -35,12 +50,18 @@ public class UserNotificationObserver implements Observer {
         }
     }
     
-    private void sendUserNotification(String title, String content) {
-        System.out.println("📱 [사용자 알림 - " + userId + "]");
-        System.out.println("   제목: " + title);
-        System.out.println("   내용: " + content);
-        System.out.println("   SMS: " + phoneNumber);
-        System.out.println("   이메일: " + email);
+    private void sendUserNotification(BicycleEvent event, String title, String content) {
+        List<Notification> notifications = new ArrayList<>(2);
+        if (phoneNumber != null && !phoneNumber.isEmpty()) {
+            notifications.add(new Notification(Notification.idOf(event.eventId, NotificationChannel.SMS, phoneNumber),
+                    NotificationChannel.SMS, phoneNumber, title, content));
+        }
+        if (email != null && !email.isEmpty()) {
+            notifications.add(new Notification(Notification.idOf(event.eventId, NotificationChannel.EMAIL, email),
+                    NotificationChannel.EMAIL, email, title, content));
+        }
+        int queued = outbox.enqueueAll(notifications);
+        System.out.println("📱 [사용자 알림 - " + userId + "] " + title + " (발송 대기 " + queued + "건)");
     }
     
     // Getter 메소드들
@@ -0,0 +1,82 @@
+package rental;
+
+import database.CSVTokenizer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 사용자 한 명의 월 정산서
+ * - 사용 요금: 월정액 요금제는 하루 사용 시간 합계에 무료 시간을 적용, 그 밖의 요금제는 대여 1건씩 계산한 합
+ * - 청구 합계 = 월 정액 + 사용 요금
+ * - 조정 금액 = 사용 요금 - 반납 시 이미 청구한 금액 (양수면 추가 청구, 음수면 환불)
+ */
+public class Invoice {
+    public static final String CSV_HEADER = "userId,userType,month,rentals,usageMinutes,distanceKm,"
+            + "monthlyFee,usageCharge,totalAmount,chargedAmount,adjustment";
+
+    // 하루 사용 내역
+    public static class DailyUsage {
+        public final LocalDate date;
+        public final int rentals;
+        public final double usageMinutes;
+        public final double distanceKm;
+        public final BigDecimal charge;
+
+        DailyUsage(LocalDate date, int rentals, double usageMinutes, double distanceKm, BigDecimal charge) {
+            this.date = date;
+            this.rentals = rentals;
+            this.usageMinutes = usageMinutes;
+            this.distanceKm = distanceKm;
+            this.charge = charge;
+        }
+    }
+
+    public final String userId;
+    public final String userType;
+    public final String planName;
+    public final YearMonth month;
+    public final int rentals;
+    public final double usageMinutes;
+    public final double distanceKm;
+    public final BigDecimal monthlyFee;
+    public final BigDecimal usageCharge;
+    public final BigDecimal totalAmount;
+    public final BigDecimal chargedAmount; // 반납 시 대여 기록에 남은 요금 합계
+    public final BigDecimal adjustment;
+    public final List<DailyUsage> days;    // 대여가 있었던 날만, 날짜순
+
+    Invoice(String userId, String userType, String planName, YearMonth month, int rentals, double usageMinutes,
+            double distanceKm, BigDecimal monthlyFee, BigDecimal usageCharge, BigDecimal chargedAmount,
+            List<DailyUsage> days) {
+        this.userId = userId;
+        this.userType = userType;
+        this.planName = planName;
+        this.month = month;
+        this.rentals = rentals;
+        this.usageMinutes = usageMinutes;
+        this.distanceKm = distanceKm;
+        this.monthlyFee = monthlyFee;
+        this.usageCharge = usageCharge;
+        this.totalAmount = monthlyFee.add(usageCharge);
+        this.chargedAmount = chargedAmount;
+        this.adjustment = usageCharge.subtract(chargedAmount);
+        this.days = Collections.unmodifiableList(days);
+    }
+
+    public String toCSV() {
+        return CSVTokenizer.join(userId, userType, month.toString(), String.valueOf(rentals),
+                String.valueOf(usageMinutes), String.valueOf(distanceKm), monthlyFee.toPlainString(),
+                usageCharge.toPlainString(), totalAmount.toPlainString(), chargedAmount.toPlainString(),
+                adjustment.toPlainString());
+    }
+
+    @Override
+    public String toString() {
+        return userId + " (" + planName + ") " + month + ": 대여 " + rentals + "건, 청구 " + totalAmount.toPlainString()
+                + "원 (조정 " + adjustment.toPlainString() + "원)";
+    }
+}
@@ -0,0 +1,188 @@
+package rental;
+
+import database.CSVDatabase;
+import database.CSVDatabase.BicycleData;
+import database.RepairDatabase;
+import database.RepairDatabase.RentalHistory;
+import location.DemandForecaster;
+import location.LocationService;
+import strategy.*;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+/**
+ * 대여 / 반납 처리 서비스 (콘솔과 무관하게 여러 스레드에서 동시에 호출 가능)
+ * - 자전거 상태 변경은 저장소의 원자적 상태 전이(compareAndUpdateBicycle)로 처리하여
+ *   같은 자전거를 두 사용자가 동시에 대여하거나 두 번 반납할 수 없음
+ * - 대여 기록 저장에 실패하면 자전거 상태를 되돌리고, 자전거 상태 저장(fsync)에 실패하면 대여 / 반납을 완료로 알리지 않음
+ * - 같은 자전거의 대여(상태 전이 + 기록 저장)와 반납(진행 중 대여 조회 + 상태 전이)은 자전거별 잠금으로 묶어
+ *   기록이 저장되기 전의 대여를 반납하여 닫히지 않는 대여 기록이 남지 않게 함
+ * - 반납이 끝난 대여는 수요 예측(DemandForecaster)에 바로 더함
+ */
+public class RentalService {
+    // 자전거별 잠금 (자전거 ID 해시로 나눈 고정 개수, 서로 다른 자전거는 대부분 기다리지 않음)
+    private static final Object[] BICYCLE_LOCKS = new Object[64];
+
+    static {
+        for (int i = 0; i < BICYCLE_LOCKS.length; i++) {
+            BICYCLE_LOCKS[i] = new Object();
+        }
+    }
+
+    private static Object lockFor(String bicycleId) {
+        return BICYCLE_LOCKS[Math.floorMod(bicycleId.hashCode(), BICYCLE_LOCKS.length)];
+    }
+
+    // 처리 결과
+    public static class RentalResult {
+        public final boolean success;
+        public final String message;
+        public final BicycleData bicycle;
+        public final RentalHistory history;
+        public final BigDecimal price; // 반납 시 요금 (대여 시 null)
+        public final String pricingStrategyName;
+
+        private RentalResult(boolean success, String message, BicycleData bicycle, RentalHistory history,
+                             BigDecimal price, String pricingStrategyName) {
+            this.success = success;
+            this.message = message;
+            this.bicycle = bicycle;
+            this.history = history;
+            this.price = price;
+            this.pricingStrategyName = pricingStrategyName;
+        }
+
+        static RentalResult failure(String message) {
+            return new RentalResult(false, message, null, null, null, null);
+        }
+    }
+
+    /**
+     * 자전거 대여 (위치 무관)
+     */
+    public static RentalResult rent(String userId, String bicycleId) {
+        return rent(userId, bicycleId, null);
+    }
+
+    /**
+     * 자전거 대여
+     * @param location 자전거가 있어야 하는 지역 (null이면 확인하지 않음)
+     */
+    public static RentalResult rent(String userId, String bicycleId, String location) {
+        if (!CSVDatabase.userExists(userId)) {
+            return RentalResult.failure("존재하지 않는 사용자 ID입니다.");
+        }
+
+        synchronized (lockFor(bicycleId)) {
+            // 대여 가능 상태일 때만 사용 중으로 전이
+            BicycleData rented;
+            try {
+                rented = CSVDatabase.compareAndUpdateBicycle(bicycleId,
+                        bicycle -> bicycle.isAvailable && !bicycle.inUse
+                                && (location == null || bicycle.location.equals(location)),
+                        bicycle -> {
+                            bicycle.isAvailable = false;
+                            bicycle.inUse = true;
+                            bicycle.currentUser = userId;
+                        });
+            } catch (UncheckedIOException e) {
+                return RentalResult.failure("자전거 상태 저장에 실패하여 대여하지 못했습니다.");
+            }
+            if (rented == null) {
+                return RentalResult.failure("선택한 자전거를 찾을 수 없거나 대여할 수 없습니다.");
+            }
+
+            RentalHistory history = new RentalHistory(RepairDatabase.generateRentalId(), userId, bicycleId, rented.location);
+            if (!RepairDatabase.saveRentalHistory(history)) {
+                // 기록이 없으면 반납할 수 없으므로 대여 전 상태로 되돌림
+                try {
+                    CSVDatabase.compareAndUpdateBicycle(bicycleId,
+                            bicycle -> bicycle.inUse && userId.equals(bicycle.currentUser),
+                            bicycle -> {
+                                bicycle.isAvailable = true;
+                                bicycle.inUse = false;
+                                bicycle.currentUser = "";
+                            });
+                } catch (UncheckedIOException e) {
+                    System.err.println("대여 취소 중 오류 발생: " + e.getMessage());
+                }
+                return RentalResult.failure("대여 기록 저장에 실패하여 대여를 취소했습니다.");
+            }
+            return new RentalResult(true, "자전거 대여가 완료되었습니다!", rented, history, null, null);
+        }
+    }
+
+    /**
+     * 자전거 반납
+     * @param location 반납 지역
+     * @param minutes 사용 시간 (분)
+     * @param km 이동 거리 (km)
+     */
+    public static RentalResult returnBike(String userId, String bicycleId, String location, double minutes, double km) {
+        if (!LocationService.isValidLocation(location)) {
+            return RentalResult.failure("올바르지 않은 지역 선택입니다.");
+        }
+        CSVDatabase.User user = CSVDatabase.getUser(userId);
+        if (user == null) {
+            return RentalResult.failure("존재하지 않는 사용자 ID입니다.");
+        }
+
+        // 상태 전이 전에 진행 중인 대여를 잡아 두어, 반납 직후 같은 자전거를 다시 빌려도 새 대여와 섞이지 않게 함
+        // (대여 쪽과 같은 잠금 안이므로 기록 저장이 끝나지 않은 대여를 보지 않음)
+        RentalHistory history;
+        BicycleData returned;
+        synchronized (lockFor(bicycleId)) {
+            history = RepairDatabase.findOpenRental(userId, bicycleId);
+
+            // 해당 사용자가 사용 중일 때만 반납 상태로 전이 (중복 반납 방지)
+            try {
+                returned = CSVDatabase.compareAndUpdateBicycle(bicycleId,
+                        bicycle -> bicycle.inUse && userId.equals(bicycle.currentUser),
+                        bicycle -> {
+                            bicycle.isAvailable = true;
+                            bicycle.inUse = false;
+                            bicycle.currentUser = "";
+                            bicycle.location = location; // 반납 지역으로 위치 변경
+                        });
+            } catch (UncheckedIOException e) {
+                return RentalResult.failure("자전거 상태 저장에 실패하여 반납하지 못했습니다.");
+            }
+        }
+        if (returned == null) {
+            return RentalResult.failure("올바르지 않은 자전거 ID입니다.");
+        }
+
+        // 시간대 배율 / 자전거 종류별 추가 요금은 대여 시작 시각과 반납한 자전거 기준
+        PricingEngine engine = PricingEngine.forUserType(user.userType);
+        BigDecimal price = engine.calculatePrice(minutes, km, startHourOf(history), returned.bicycleType);
+
+        if (history != null) {
+            history.completeRental(location, minutes, km, price.toString());
+            RepairDatabase.updateRentalHistory(history);
+            DemandForecaster.shared().recordCompletedRental(history);
+        }
+
+        return new RentalResult(true, "자전거 반납이 완료되었습니다!", returned, history, price, engine.getStrategyName());
+    }
+
+    // 대여 시작 시 (yyyy-MM-ddTHH:..., 기록이 없거나 형식이 다르면 -1)
+    private static int startHourOf(RentalHistory history) {
+        if (history == null || history.startTime == null || history.startTime.length() < 13) {
+            return -1;
+        }
+        char tens = history.startTime.charAt(11);
+        char ones = history.startTime.charAt(12);
+        if (tens < '0' || tens > '2' || ones < '0' || ones > '9') {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    /**
+     * 사용자 유형별 요금 전략 (현재 요금 규칙의 요금 엔진)
+     */
+    public static PricingStrategy pricingStrategyFor(String userType) {
+        return PricingEngine.forUserType(userType);
+    }
+}
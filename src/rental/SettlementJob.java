@@ -0,0 +1,517 @@
+package rental;
+
+import database.CSVDatabase;
+import database.CSVTokenizer;
+import database.RentalColumnarFile;
+import database.RepairDatabase;
+import strategy.PricingEngine;
+import strategy.PricingRules;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * 월말 일괄 정산
+ * - 대여 기록을 한 번만 읽어 사용자 / 날짜별 사용량을 모으고 사용자마다 정산서(Invoice)를 만듦
+ * - 읽는 스레드는 원본 줄을 사용자 아이디 해시로 파티션에 나눠 BATCH_SIZE줄씩 넘기고,
+ *   파싱 / 집계 / 정산서 작성은 ForkJoinPool에서 파티션별로 병렬 처리
+ * - 한 파티션의 묶음은 한 번에 하나씩 읽은 순서대로 처리하므로 잠금이 없고,
+ *   같은 사용자의 합계는 스레드 수와 관계없이 항상 같은 순서로 더해짐
+ * - 요금제는 정산 시점의 사용자 유형 기준 (요금제 변경 이력은 기록되지 않음)
+ * - 요금 규칙은 작업을 만들 때의 규칙 하나로 고정 (정산 중에 규칙 파일이 바뀌어도 섞이지 않음)
+ * - 대여 1건 기준 요금제는 시작 시각 / 자전거 종류를 반영하고, 하루 합계 기준(월정액)은 하루 합계에 요금을 매김
+ *   (월정액에 시간대 배율 / 자전거 추가 요금이 있으면 하루 무료 시간을 대여 시작 순서대로 쓰고,
+ *    무료 시간을 넘긴 대여마다 초과 시간에 배율을, 대여 1건에 추가 요금을 더함 - 반납 시 요금과 같은 기준)
+ */
+public class SettlementJob {
+    static final int BATCH_SIZE = 2_048;
+    // 스레드 하나당 파티션 수 (사용자 수가 고르지 않아도 일이 한쪽에 몰리지 않도록)
+    private static final int PARTITIONS_PER_THREAD = 4;
+    // 스레드 하나당 처리 대기 중인 묶음 수 상한 (읽기가 빨라도 메모리가 늘지 않도록)
+    private static final int BATCHES_IN_FLIGHT_PER_THREAD = 4;
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final long SECONDS_PER_HOUR = 3_600L;
+    private static final String OUTPUT_DIR = "settlement";
+
+    private final YearMonth month;
+    private final int parallelism;
+    private final long monthStart; // 대여 기록 시각과 같은 기준 (UTC로 읽은 epoch 초)
+    private final long monthEnd;
+    private final PricingRules rules;
+
+    // 사용자별 요금제 / 자전거 종류 (한 번만 조회)
+    private final Map<String, UserPlan> plans = new ConcurrentHashMap<>();
+    private final Map<String, String> bicycleTypes = new ConcurrentHashMap<>();
+
+    // 사용자 요금제
+    private static class UserPlan {
+        final String userType;
+        final PricingEngine engine;
+
+        UserPlan(String userType, PricingEngine engine) {
+            this.userType = userType;
+            this.engine = engine;
+        }
+    }
+
+    // 하루 합계 기준 요금제의 대여 한 건 (배율 / 추가 요금을 나눠 적용할 때만 보관)
+    private static class Ride {
+        final long start;
+        final double minutes;
+        final int startHour;
+        final String bicycleType;
+
+        Ride(long start, double minutes, int startHour, String bicycleType) {
+            this.start = start;
+            this.minutes = minutes;
+            this.startHour = startHour;
+            this.bicycleType = bicycleType;
+        }
+    }
+
+    // 하루 사용량
+    private static class DayUsage {
+        int rentals;
+        double usageMinutes;
+        double distanceKm;
+        BigDecimal rideCharge = BigDecimal.ZERO; // 대여 1건 기준 요금제의 요금 합
+        List<Ride> rides;                        // 하루 합계 기준 요금제에 배율 / 추가 요금이 있을 때만
+
+        void add(double minutes, double km, BigDecimal charge) {
+            rentals++;
+            usageMinutes += minutes;
+            distanceKm += km;
+            if (charge != null) {
+                rideCharge = rideCharge.add(charge);
+            }
+        }
+    }
+
+    // 사용자 한 명의 월 사용량 (대여가 있었던 날만 만듦)
+    private static class UserUsage {
+        final String userId;
+        final UserPlan plan;
+        final DayUsage[] days;
+        BigDecimal chargedAmount = BigDecimal.ZERO;
+
+        UserUsage(String userId, UserPlan plan, int daysInMonth) {
+            this.userId = userId;
+            this.plan = plan;
+            this.days = new DayUsage[daysInMonth];
+        }
+    }
+
+    // 사용자 아이디 해시로 나눈 파티션 (묶음을 한 번에 하나씩 순서대로 처리)
+    private class Partition implements Runnable {
+        private final ForkJoinPool pool;
+        private final Semaphore inFlight;
+        private final LongAdder settledRentals; // 이번 run의 집계 (작업 객체에 쌓이지 않도록 run마다 새로 만듦)
+        private final LongAdder skippedLines;
+        private final ArrayDeque<String[]> pending = new ArrayDeque<>();
+        private boolean scheduled;
+
+        // 처리 스레드만 접근 (scheduled로 한 번에 하나만 실행됨)
+        private final Map<String, UserUsage> usages = new HashMap<>();
+        private final CSVTokenizer tokenizer = new CSVTokenizer();
+
+        Partition(ForkJoinPool pool, Semaphore inFlight, LongAdder settledRentals, LongAdder skippedLines) {
+            this.pool = pool;
+            this.inFlight = inFlight;
+            this.settledRentals = settledRentals;
+            this.skippedLines = skippedLines;
+        }
+
+        void submit(String[] batch) {
+            synchronized (this) {
+                pending.addLast(batch);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            pool.execute(this);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                String[] batch;
+                synchronized (this) {
+                    batch = pending.pollFirst();
+                    if (batch == null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                try {
+                    for (String line : batch) {
+                        if (line == null) {
+                            break;
+                        }
+                        accumulate(line);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            }
+        }
+
+        private void accumulate(String line) {
+            try {
+                CSVTokenizer t = tokenizer.reset(line);
+                t.skip(); // rentalId
+                String userId = t.nextString();
+                String bicycleId = t.nextString();
+                long start = t.nextEpochSecond(RentalColumnarFile.NO_TIME);
+                long end = t.nextEpochSecond(RentalColumnarFile.NO_TIME);
+                t.skip(); // startLocation
+                t.skip(); // endLocation
+                double minutes = t.nextDouble();
+                double km = t.nextDouble();
+                String price = t.nextString();
+                if (price == null) {
+                    skippedLines.increment();
+                    return;
+                }
+                // 이번 달에 시작해서 반납까지 끝난 대여만 정산
+                if (start < monthStart || start >= monthEnd || end == RentalColumnarFile.NO_TIME) {
+                    return;
+                }
+
+                UserUsage usage = usages.get(userId);
+                if (usage == null) {
+                    usage = new UserUsage(userId, planOf(userId), month.lengthOfMonth());
+                    usages.put(userId, usage);
+                }
+                int day = (int) ((start - monthStart) / SECONDS_PER_DAY);
+                DayUsage dayUsage = usage.days[day];
+                if (dayUsage == null) {
+                    dayUsage = new DayUsage();
+                    usage.days[day] = dayUsage;
+                }
+                PricingEngine engine = usage.plan.engine;
+                int startHour = (int) (Math.floorMod(start, SECONDS_PER_DAY) / SECONDS_PER_HOUR);
+                BigDecimal charge = null;
+                if (!engine.hasDailyAllowance()) {
+                    charge = engine.calculatePrice(minutes, km, startHour, bicycleTypeOf(bicycleId));
+                } else if (engine.hasRideAdjustments()) {
+                    if (dayUsage.rides == null) {
+                        dayUsage.rides = new ArrayList<>();
+                    }
+                    dayUsage.rides.add(new Ride(start, minutes, startHour, bicycleTypeOf(bicycleId)));
+                }
+                dayUsage.add(minutes, km, charge);
+                usage.chargedAmount = usage.chargedAmount.add(parsePrice(price));
+                settledRentals.increment();
+            } catch (RuntimeException e) {
+                skippedLines.increment();
+            }
+        }
+
+        List<Invoice> invoices() {
+            List<Invoice> invoices = new ArrayList<>(usages.size());
+            for (UserUsage usage : usages.values()) {
+                invoices.add(toInvoice(usage));
+            }
+            return invoices;
+        }
+    }
+
+    public SettlementJob(YearMonth month) {
+        this(month, Runtime.getRuntime().availableProcessors());
+    }
+
+    public SettlementJob(YearMonth month, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("스레드 수는 1 이상이어야 합니다: " + parallelism);
+        }
+        this.month = month;
+        this.parallelism = parallelism;
+        this.monthStart = month.atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        this.monthEnd = month.plusMonths(1).atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        this.rules = PricingRules.current();
+    }
+
+    /**
+     * 저장된 대여 기록으로 정산 (해당 월과 겹치는 세그먼트만 읽음)
+     */
+    public Result run() {
+        try (Stream<String> lines = RepairDatabase.streamLatestRentalLines(month.atDay(1), month.atEndOfMonth())) {
+            return run(lines);
+        }
+    }
+
+    /**
+     * 대여 기록 원본 줄(헤더 제외, 대여 번호별 최신 레코드)로 정산
+     * 같은 작업으로 여러 번 실행해도 결과의 건수는 그 실행에서 읽은 줄만 셈
+     */
+    public Result run(Stream<String> rentalLines) {
+        long startedAt = System.nanoTime();
+        LongAdder settledRentals = new LongAdder();
+        LongAdder skippedLines = new LongAdder();
+        int partitionCount = parallelism * PARTITIONS_PER_THREAD;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        int maxInFlight = parallelism * BATCHES_IN_FLIGHT_PER_THREAD;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        try {
+            Partition[] partitions = new Partition[partitionCount];
+            String[][] batches = new String[partitionCount][];
+            int[] filled = new int[partitionCount];
+            for (int i = 0; i < partitionCount; i++) {
+                partitions[i] = new Partition(pool, inFlight, settledRentals, skippedLines);
+            }
+
+            // 읽기: 사용자 아이디 해시로 파티션을 정하고 묶음이 차면 넘김
+            rentalLines.forEach(line -> {
+                int p = Math.floorMod(userIdHash(line), partitionCount);
+                if (batches[p] == null) {
+                    batches[p] = new String[BATCH_SIZE];
+                }
+                batches[p][filled[p]++] = line;
+                if (filled[p] == BATCH_SIZE) {
+                    submit(partitions[p], batches[p], inFlight);
+                    batches[p] = null;
+                    filled[p] = 0;
+                }
+            });
+            for (int p = 0; p < partitionCount; p++) {
+                if (batches[p] != null) {
+                    submit(partitions[p], batches[p], inFlight); // 남은 칸은 null
+                }
+            }
+            // 모든 묶음 처리가 끝날 때까지 대기
+            inFlight.acquireUninterruptibly(maxInFlight);
+            inFlight.release(maxInFlight);
+
+            // 파티션별 정산서 작성 (fork-join)
+            List<ForkJoinTask<List<Invoice>>> tasks = new ArrayList<>(partitionCount);
+            for (Partition partition : partitions) {
+                tasks.add(pool.submit(partition::invoices));
+            }
+            List<Invoice> invoices = new ArrayList<>();
+            Set<String> settledUsers = new HashSet<>();
+            for (ForkJoinTask<List<Invoice>> task : tasks) {
+                for (Invoice invoice : task.join()) {
+                    invoices.add(invoice);
+                    settledUsers.add(invoice.userId);
+                }
+            }
+            addIdleSubscribers(invoices, settledUsers);
+            invoices.sort(Comparator.comparing(invoice -> invoice.userId));
+
+            long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+            return new Result(month, invoices, settledRentals.sum(), skippedLines.sum(), elapsedMillis);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void submit(Partition partition, String[] batch, Semaphore inFlight) {
+        inFlight.acquireUninterruptibly();
+        partition.submit(batch);
+    }
+
+    // 대여가 없어도 월 정액은 청구
+    private void addIdleSubscribers(List<Invoice> invoices, Set<String> settledUsers) {
+        try (Stream<CSVDatabase.User> users = CSVDatabase.streamUsers(user -> !settledUsers.contains(user.userId)
+                && rules.engineFor(user.userType).getMonthlyFee().signum() > 0)) {
+            users.forEach(user -> invoices.add(toInvoice(new UserUsage(user.userId,
+                    new UserPlan(user.userType, rules.engineFor(user.userType)), month.lengthOfMonth()))));
+        }
+    }
+
+    private UserPlan planOf(String userId) {
+        return plans.computeIfAbsent(userId, id -> {
+            CSVDatabase.User user = CSVDatabase.getUser(id);
+            PricingEngine engine = rules.engineFor(user != null ? user.userType : null);
+            return new UserPlan(user != null ? user.userType : engine.getUserType(), engine);
+        });
+    }
+
+    // 지금은 없는 자전거면 null (종류별 추가 요금 없이 계산)
+    private String bicycleTypeOf(String bicycleId) {
+        String type = bicycleTypes.computeIfAbsent(bicycleId, id -> {
+            CSVDatabase.BicycleData bicycle = CSVDatabase.getBicycle(id);
+            return bicycle != null && bicycle.bicycleType != null ? bicycle.bicycleType : "";
+        });
+        return type.isEmpty() ? null : type;
+    }
+
+    private Invoice toInvoice(UserUsage usage) {
+        PricingEngine engine = usage.plan.engine;
+        List<Invoice.DailyUsage> days = new ArrayList<>();
+        int rentals = 0;
+        double minutes = 0;
+        double km = 0;
+        BigDecimal usageCharge = BigDecimal.ZERO;
+        for (int day = 0; day < usage.days.length; day++) {
+            DayUsage dayUsage = usage.days[day];
+            if (dayUsage == null) {
+                continue;
+            }
+            // 월정액은 하루 합계에 무료 시간을 한 번만 적용
+            BigDecimal charge = dayUsage.rideCharge;
+            if (engine.hasDailyAllowance()) {
+                charge = engine.calculatePrice(dayUsage.usageMinutes, dayUsage.distanceKm);
+                if (dayUsage.rides != null) {
+                    charge = charge.add(rideAdjustments(engine, dayUsage.rides));
+                }
+            }
+            days.add(new Invoice.DailyUsage(month.atDay(day + 1), dayUsage.rentals, dayUsage.usageMinutes,
+                    dayUsage.distanceKm, charge));
+            rentals += dayUsage.rentals;
+            minutes += dayUsage.usageMinutes;
+            km += dayUsage.distanceKm;
+            usageCharge = usageCharge.add(charge);
+        }
+        return new Invoice(usage.userId, usage.plan.userType, engine.getStrategyName(), month, rentals, minutes, km,
+                engine.getMonthlyFee(), usageCharge, usage.chargedAmount, days);
+    }
+
+    /**
+     * 하루 합계 기준 요금제의 대여별 배율 / 추가 요금
+     * - 하루 무료 시간을 대여 시작 순서대로 쓰고, 남은 초과 시간에는 (배율 - 1) x 분당 요금을 더함
+     *   (초과 시간 합 = 하루 합계 - 무료 시간이므로, 하루 합계 요금과 더하면 대여마다 배율을 곱한 것과 같음)
+     * - 추가 요금은 무료 시간을 넘긴 대여에만 1건씩 (반납 시 무료 대여에는 추가 요금이 붙지 않는 것과 같음)
+     */
+    private static BigDecimal rideAdjustments(PricingEngine engine, List<Ride> rides) {
+        rides.sort(Comparator.comparingLong(ride -> ride.start));
+        BigDecimal rate = BigDecimal.valueOf(engine.getWonPerMinute());
+        double allowance = engine.getFreeMinutes();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Ride ride : rides) {
+            double free = Math.max(0, Math.min(allowance, ride.minutes));
+            allowance -= free;
+            double overage = ride.minutes - free;
+            if (!(overage > 0)) {
+                continue;
+            }
+            BigDecimal multiplier = engine.multiplierFor(ride.startHour, ride.bicycleType);
+            if (multiplier.compareTo(BigDecimal.ONE) != 0) {
+                total = total.add(BigDecimal.valueOf(overage).multiply(rate).multiply(multiplier.subtract(BigDecimal.ONE)));
+            }
+            long surcharge = engine.surchargeFor(ride.startHour, ride.bicycleType);
+            if (surcharge != 0) {
+                total = total.add(BigDecimal.valueOf(surcharge));
+            }
+        }
+        return total;
+    }
+
+    private static BigDecimal parsePrice(String price) {
+        try {
+            return new BigDecimal(price);
+        } catch (NumberFormatException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * 두 번째 필드(userId)의 String.hashCode (따옴표가 없으면 문자열을 만들지 않음)
+     */
+    static int userIdHash(String line) {
+        int start = line.indexOf(',') + 1;
+        if (start == 0 || line.charAt(0) == '"' || (start < line.length() && line.charAt(start) == '"')) {
+            CSVTokenizer t = CSVTokenizer.forLine(line);
+            t.skip();
+            String userId = t.nextString();
+            return userId != null ? userId.hashCode() : 0;
+        }
+        int hash = 0;
+        for (int i = start; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == ',') {
+                break;
+            }
+            hash = 31 * hash + c;
+        }
+        return hash;
+    }
+
+    public static Path defaultOutputPath(YearMonth month) {
+        return Paths.get(OUTPUT_DIR, "invoices-" + month + ".csv");
+    }
+
+    /**
+     * 정산 결과
+     */
+    public static class Result {
+        public final YearMonth month;
+        public final List<Invoice> invoices; // 사용자 아이디 순
+        public final long settledRentals;
+        public final long skippedLines;      // 형식이 맞지 않아 건너뛴 줄
+        public final long elapsedMillis;
+        public final BigDecimal totalAmount;
+        public final BigDecimal totalAdjustment;
+
+        Result(YearMonth month, List<Invoice> invoices, long settledRentals, long skippedLines, long elapsedMillis) {
+            this.month = month;
+            this.invoices = Collections.unmodifiableList(invoices);
+            this.settledRentals = settledRentals;
+            this.skippedLines = skippedLines;
+            this.elapsedMillis = elapsedMillis;
+            BigDecimal total = BigDecimal.ZERO;
+            BigDecimal adjustment = BigDecimal.ZERO;
+            for (Invoice invoice : invoices) {
+                total = total.add(invoice.totalAmount);
+                adjustment = adjustment.add(invoice.adjustment);
+            }
+            this.totalAmount = total;
+            this.totalAdjustment = adjustment;
+        }
+
+        /**
+         * 정산서 CSV 저장 (임시 파일에 쓴 뒤 교체)
+         */
+        public void writeCSV(Path file) throws IOException {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path temp = Paths.get(file + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(Invoice.CSV_HEADER);
+                writer.newLine();
+                for (Invoice invoice : invoices) {
+                    writer.write(invoice.toCSV());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        public void showSummary() {
+            System.out.println("\n=== " + month + " 정산 결과 ===");
+            System.out.println("정산 대여: " + settledRentals + "건 (건너뛴 줄: " + skippedLines + ")");
+            System.out.println("정산서: " + invoices.size() + "건");
+            System.out.println("청구 합계: " + totalAmount.toPlainString() + "원");
+            System.out.println("조정 합계: " + totalAdjustment.toPlainString() + "원 (양수: 추가 청구, 음수: 환불)");
+            System.out.println("소요 시간: " + elapsedMillis + "ms");
+        }
+    }
+
+    public YearMonth getMonth() { return month; }
+    public int getParallelism() { return parallelism; }
+}
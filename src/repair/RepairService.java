@@ -2,11 +2,15 @@ package repair;
 
 import database.RepairDatabase;
 import database.CSVDatabase;
+import database.CSVScan;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.stream.Stream;
 
 /**
  * 고장 신고 및 수리 관리 서비스
@@ -44,11 +48,12 @@ public class RepairService {
         
         RepairDatabase.updateRepairReport(report);
         
-        // 자전거를 고장 상태로 변경
-        CSVDatabase.BicycleData bicycle = CSVDatabase.getBicycle(report.bicycleId);
-        if (bicycle != null) {
-            bicycle.isAvailable = false;
-            CSVDatabase.saveBicycle(bicycle);
+        // 자전거를 고장 상태로 변경 (조회 후 저장 사이의 대여 / 반납을 덮어쓰지 않도록 원자적으로 전이)
+        try {
+            CSVDatabase.compareAndUpdateBicycle(report.bicycleId, bicycle -> true, bicycle -> bicycle.isAvailable = false);
+        } catch (UncheckedIOException e) {
+            System.out.println("자전거 상태 저장에 실패했습니다. 자전거를 잠금 처리하지 못했습니다.");
+            return;
         }
         
         System.out.println("고장 신고가 승인되었습니다. 자전거가 잠금 처리되었습니다.");
@@ -98,10 +103,11 @@ public class RepairService {
         RepairDatabase.updateRepairReport(report);
         
         // 자전거를 다시 사용 가능 상태로 변경
-        CSVDatabase.BicycleData bicycle = CSVDatabase.getBicycle(report.bicycleId);
-        if (bicycle != null) {
-            bicycle.isAvailable = true;
-            CSVDatabase.saveBicycle(bicycle);
+        try {
+            CSVDatabase.compareAndUpdateBicycle(report.bicycleId, bicycle -> true, bicycle -> bicycle.isAvailable = true);
+        } catch (UncheckedIOException e) {
+            System.out.println("자전거 상태 저장에 실패했습니다. 자전거 " + report.bicycleId + "를 사용 가능 상태로 바꾸지 못했습니다.");
+            return;
         }
         
         System.out.println("자전거 " + report.bicycleId + " 수리가 완료되었습니다. 다시 사용 가능합니다.");
@@ -173,13 +179,15 @@ public class RepairService {
     
     // 특정 자전거의 고장 신고 이력 조회
     public static void showBicycleRepairHistory(String bicycleId) {
-        List<RepairDatabase.RepairReport> allReports = RepairDatabase.getAllRepairReports();
-        
         System.out.println("\n=== " + bicycleId + " 자전거 고장 신고 이력 ===");
         
         boolean hasReports = false;
-        for (RepairDatabase.RepairReport report : allReports) {
-            if (report.bicycleId.equals(bicycleId)) {
+        // 자전거 ID 필드가 일치하는 줄만 객체로 만듦
+        try (Stream<RepairDatabase.RepairReport> reports =
+                     RepairDatabase.streamRepairReports(CSVScan.fieldEquals(1, bicycleId))) {
+            Iterator<RepairDatabase.RepairReport> iterator = reports.iterator();
+            while (iterator.hasNext()) {
+                RepairDatabase.RepairReport report = iterator.next();
                 hasReports = true;
                 System.out.println("신고번호: " + report.reportId);
                 System.out.println("신고자: " + report.userId);
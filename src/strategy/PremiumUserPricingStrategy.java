@@ -25,4 +25,16 @@ public class PremiumUserPricingStrategy implements PricingStrategy {
     public String getStrategyName() {
         return "프리미엄 사용자 요금제";
     }
+    
+    public BigDecimal getMonthlyFee() {
+        return monthlyFee;
+    }
+    
+    public double getFreeTime() {
+        return freeTime;
+    }
+    
+    public BigDecimal getTimeRate() {
+        return timeRate;
+    }
 }
\ No newline at end of file
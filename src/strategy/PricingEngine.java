@@ -0,0 +1,257 @@
+package strategy;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 요금 계산 엔진 (요금 규칙의 요금제 하나)
+ * - 요금제 값과 (시작 시각, 자전거 종류)별 배율 / 추가 요금은 PricingRules가 정수로 컴파일해 둔 표에서 읽음
+ * - 사용 시간이 0.1분 단위로 떨어지면 long 연산만으로 계산하고, 결과를 돌려줄 때만 BigDecimal로 변환
+ * - 무료 시간이 있는 요금제는 (사용 시간 - 무료 시간)의 double 오차까지 결과에 남으므로
+ *   TABLE_MINUTES분까지의 결과를 0.1분 단위 표로 미리 만들어 두고 그대로 돌려줌 (배율 / 추가 요금이 없을 때)
+ * - 그 밖의 값(소수 둘째 자리 이하, 아주 큰 값 등)은 BigDecimal 계산을 사용하며, 결과는 값 / 자릿수(scale)까지 같음
+ * - 기본 규칙에서는 기존 요금 전략(RegularUserPricingStrategy 등)과 결과가 같음
+ */
+public final class PricingEngine implements PricingStrategy {
+    // 0.1분 단위 정수 계산을 쓰는 최대 사용 시간 (Double.toString이 지수 표기를 쓰지 않는 범위)
+    private static final long MAX_FAST_TENTHS = 10_000_000L;
+    private static final long NOT_EXACT = Long.MIN_VALUE;
+
+    // 정수 계산에서 long 범위를 넘지 않도록 하는 금액 상한 (원)
+    private static final long MAX_FAST_RATE_WON = 100_000L;
+    private static final long MAX_FAST_FIXED_WON = 1_000_000_000L;
+
+    // 결과 표를 미리 만들어 두는 사용 시간 범위 (분)
+    static final int TABLE_MINUTES = 240;
+
+    // 정수 계산 결과의 기본 자릿수 (BigDecimal.valueOf(0.1분 단위 시간)의 scale과 같음), 배율 자릿수만큼 늘어남
+    private static final int RESULT_SCALE = 1;
+    private static final long[] POW10 = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L};
+
+    private final PricingRules rules;
+    private final int plan;
+    private final BigDecimal monthlyFee; // 월 정액 (없으면 0)
+    private final BigDecimal basePrice;
+    private final BigDecimal minuteRate;
+    private final BigDecimal cap;        // 1회 상한 (없으면 null)
+    private final long[] capUnscaled;    // 결과 자릿수별 상한 (RESULT_SCALE + 배율 자릿수)
+    private final boolean fastPath;      // long 계산이 넘치지 않는 요금제인지
+    private final boolean rideAdjustments; // 시간대 배율 / 자전거 추가 요금이 있는 칸이 있는지
+    private final BigDecimal[] table;    // 0.1분 단위 사용 시간별 요금 (무료 시간이 없으면 null)
+
+    PricingEngine(PricingRules rules, int plan) {
+        this.rules = rules;
+        this.plan = plan;
+        this.monthlyFee = BigDecimal.valueOf(rules.monthlyFee[plan]);
+        this.basePrice = BigDecimal.valueOf(rules.baseWon[plan]);
+        this.minuteRate = BigDecimal.valueOf(rules.wonPerMinute[plan]);
+        this.cap = rules.cap[plan];
+
+        this.capUnscaled = new long[POW10.length + RESULT_SCALE];
+        for (int scale = 0; scale < capUnscaled.length; scale++) {
+            capUnscaled[scale] = cap == null ? Long.MAX_VALUE : capAt(cap.longValueExact(), scale);
+        }
+
+        long maxSurcharge = 0;
+        boolean adjusted = false;
+        int from = rules.cell(plan, 0, 0);
+        int to = rules.cell(plan + 1, 0, 0);
+        for (int cell = from; cell < to; cell++) {
+            maxSurcharge = Math.max(maxSurcharge, rules.surchargeWon[cell]);
+            adjusted |= rules.surchargeWon[cell] != 0 || rules.multiplierUnscaled[cell] != 1L || rules.multiplierScale[cell] != 0;
+        }
+        this.rideAdjustments = adjusted;
+        this.fastPath = rules.wonPerMinute[plan] <= MAX_FAST_RATE_WON
+                && rules.baseWon[plan] <= MAX_FAST_FIXED_WON && maxSurcharge <= MAX_FAST_FIXED_WON;
+        this.table = rules.freeMinutes[plan] > 0 ? buildTable() : null;
+    }
+
+    private static long capAt(long capWon, int scale) {
+        long unscaled = capWon;
+        for (int i = 0; i < scale; i++) {
+            if (unscaled > Long.MAX_VALUE / 10) {
+                return Long.MAX_VALUE;
+            }
+            unscaled *= 10;
+        }
+        return unscaled;
+    }
+
+    private BigDecimal[] buildTable() {
+        BigDecimal[] table = new BigDecimal[TABLE_MINUTES * 10 + 1];
+        for (int tenths = 0; tenths < table.length; tenths++) {
+            double usageTime = tenths / 10.0;
+            table[tenths] = isFree(usageTime) ? BigDecimal.ZERO : priceExactly(usageTime, 1L, 0, 0L);
+        }
+        return table;
+    }
+
+    /**
+     * 현재 요금 규칙에서 사용자 유형별 요금 엔진 (등록되지 않은 유형은 기본 요금제)
+     */
+    public static PricingEngine forUserType(String userType) {
+        return PricingRules.current().engineFor(userType);
+    }
+
+    /**
+     * 현재 요금 규칙의 모든 요금제 (규칙 파일에 나온 순서)
+     */
+    public static List<PricingEngine> all() {
+        return PricingRules.current().engines();
+    }
+
+    /**
+     * 시작 시각 / 자전거 종류를 모를 때의 요금 (시간대 배율 / 자전거 추가 요금은 "전체 시간" 칸 기준)
+     */
+    @Override
+    public BigDecimal calculatePrice(double usageTime, double distance) {
+        return price(usageTime, rules.cell(plan, PricingRules.UNKNOWN_HOUR, 0));
+    }
+
+    /**
+     * 대여 시작 시각과 자전거 종류를 반영한 요금
+     * @param startHour 대여 시작 시 (0~23, 모르면 음수)
+     * @param bicycleType 자전거 종류 (모르면 null)
+     */
+    public BigDecimal calculatePrice(double usageTime, double distance, int startHour, String bicycleType) {
+        return price(usageTime, cellFor(startHour, bicycleType));
+    }
+
+    /**
+     * 시작 시각 / 자전거 종류별 사용 요금 배율 (규칙이 없으면 1)
+     * - 하루 합계에 요금을 매기는 요금제(월정액)의 정산에서 대여별로 나눠 적용할 때 사용
+     */
+    public BigDecimal multiplierFor(int startHour, String bicycleType) {
+        int cell = cellFor(startHour, bicycleType);
+        return BigDecimal.valueOf(rules.multiplierUnscaled[cell], rules.multiplierScale[cell]);
+    }
+
+    /**
+     * 시작 시각 / 자전거 종류별 1회 추가 요금 (원, 규칙이 없으면 0)
+     */
+    public long surchargeFor(int startHour, String bicycleType) {
+        return rules.surchargeWon[cellFor(startHour, bicycleType)];
+    }
+
+    /**
+     * 시간대 배율이나 자전거 추가 요금이 하나라도 있는 요금제인지
+     */
+    public boolean hasRideAdjustments() {
+        return rideAdjustments;
+    }
+
+    private int cellFor(int startHour, String bicycleType) {
+        int hourSlot = startHour >= 0 && startHour < 24 ? startHour : PricingRules.UNKNOWN_HOUR;
+        return rules.cell(plan, hourSlot, rules.bicycleTypeOf(bicycleType));
+    }
+
+    /**
+     * 여러 건을 한 번에 계산 (정산용, 시작 시각 / 자전거 종류 구분 없음)
+     * - minutes[i], distances[i]가 한 건이며 결과도 같은 순서
+     */
+    public BigDecimal[] priceAll(double[] minutes, double[] distances) {
+        if (minutes.length != distances.length) {
+            throw new IllegalArgumentException("사용 시간과 거리 배열의 길이가 다릅니다: "
+                    + minutes.length + " / " + distances.length);
+        }
+        int cell = rules.cell(plan, PricingRules.UNKNOWN_HOUR, 0);
+        BigDecimal[] prices = new BigDecimal[minutes.length];
+        for (int i = 0; i < minutes.length; i++) {
+            prices[i] = price(minutes[i], cell);
+        }
+        return prices;
+    }
+
+    private BigDecimal price(double usageTime, int cell) {
+        if (isFree(usageTime)) {
+            return BigDecimal.ZERO;
+        }
+        long multiplier = rules.multiplierUnscaled[cell];
+        int multiplierScale = rules.multiplierScale[cell];
+        long surcharge = rules.surchargeWon[cell];
+        if (table != null && multiplier == 1L && multiplierScale == 0 && surcharge == 0L) {
+            long usageTenths = exactTenths(usageTime);
+            if (usageTenths >= 0 && usageTenths < table.length) { // NOT_EXACT(음수) 제외
+                return table[(int) usageTenths];
+            }
+        }
+        if (fastPath) {
+            long unscaled = priceUnscaled(usageTime, multiplier, multiplierScale, surcharge);
+            if (unscaled != NOT_EXACT) {
+                int scale = RESULT_SCALE + multiplierScale;
+                return unscaled > capUnscaled[scale] ? cap : BigDecimal.valueOf(unscaled, scale);
+            }
+        }
+        return priceExactly(usageTime, multiplier, multiplierScale, surcharge);
+    }
+
+    private boolean isFree(double usageTime) {
+        double freeMinutes = rules.freeMinutes[plan];
+        return freeMinutes > 0 && usageTime <= freeMinutes;
+    }
+
+    /**
+     * 요금을 (RESULT_SCALE + 배율 자릿수) 자리 정수로 계산
+     * @return 정수로 정확히 계산할 수 없으면 NOT_EXACT
+     */
+    private long priceUnscaled(double usageTime, long multiplier, int multiplierScale, long surcharge) {
+        // BigDecimal 계산과 같은 double 뺄셈을 거친 값을 기준으로 판단해야 결과가 같음
+        double freeMinutes = rules.freeMinutes[plan];
+        double billable = freeMinutes > 0 ? usageTime - freeMinutes : usageTime;
+        long billableTenths = exactTenths(billable);
+        if (billableTenths == NOT_EXACT) {
+            return NOT_EXACT;
+        }
+        long fixed = (rules.baseWon[plan] + surcharge) * POW10[RESULT_SCALE + multiplierScale];
+        return fixed + billableTenths * rules.wonPerMinute[plan] * multiplier;
+    }
+
+    /**
+     * BigDecimal 기준 계산 (기존 요금 전략과 같은 순서로 더하고 곱함)
+     */
+    private BigDecimal priceExactly(double usageTime, long multiplier, int multiplierScale, long surcharge) {
+        double freeMinutes = rules.freeMinutes[plan];
+        double billable = freeMinutes > 0 ? usageTime - freeMinutes : usageTime;
+        BigDecimal timeCost = BigDecimal.valueOf(billable).multiply(minuteRate);
+        if (multiplier != 1L || multiplierScale != 0) {
+            timeCost = timeCost.multiply(BigDecimal.valueOf(multiplier, multiplierScale));
+        }
+        BigDecimal price = basePrice.signum() == 0 ? timeCost : basePrice.add(timeCost);
+        if (surcharge != 0L) {
+            price = price.add(BigDecimal.valueOf(surcharge));
+        }
+        if (cap != null && price.compareTo(cap) > 0) {
+            return cap;
+        }
+        return price;
+    }
+
+    /**
+     * 값이 정확히 0.1 단위(= Double.toString 결과가 소수 한 자리)이면 10배한 정수, 아니면 NOT_EXACT
+     */
+    static long exactTenths(double value) {
+        double scaled = value * 10;
+        if (!(Math.abs(scaled) < MAX_FAST_TENTHS)) {
+            return NOT_EXACT; // NaN / 무한대 포함
+        }
+        long tenths = (long) Math.rint(scaled);
+        if (tenths / 10.0 != value) {
+            return NOT_EXACT;
+        }
+        return tenths;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return rules.names[plan];
+    }
+
+    // Getter 메소드들
+    public String getUserType() { return rules.userTypes[plan]; }
+    public BigDecimal getMonthlyFee() { return monthlyFee; }
+    public boolean hasDailyAllowance() { return rules.dailyAllowance[plan]; }
+    public long getBaseWon() { return rules.baseWon[plan]; }
+    public long getWonPerMinute() { return rules.wonPerMinute[plan]; }
+    public double getFreeMinutes() { return rules.freeMinutes[plan]; }
+    public BigDecimal getCap() { return cap; }
+}
@@ -0,0 +1,464 @@
+package strategy;
+
+import database.CSVTokenizer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 요금 규칙 (pricing_rules.csv)
+ * - plan 줄: 요금제별 기본 요금 / 분당 요금 / 무료 시간(대여 1건 또는 하루 기준) / 월 정액 / 1회 상한
+ * - time 줄: 대여 시작 시각 구간별 사용 요금 배율, bike 줄: 자전거 종류별 1회 추가 요금
+ * - 읽을 때 (요금제, 시작 시각, 자전거 종류) 조합마다 배율과 추가 요금을 펼친 평면 표로 컴파일하므로
+ *   계산할 때는 배열만 조회함 (PricingEngine)
+ * - 컴파일된 규칙은 변경되지 않음. 파일이 바뀌면 새로 컴파일해 통째로 교체하고, 잘못된 파일이면 이전 규칙을 유지
+ */
+public final class PricingRules {
+    public static final String DEFAULT_FILE = "pricing_rules.csv";
+
+    // 시작 시각 칸: 0~23시 + 시작 시각을 모를 때
+    static final int HOUR_SLOTS = 25;
+    static final int UNKNOWN_HOUR = 24;
+    // 배율 소수 자릿수 상한 (정수 계산 범위 확보)
+    static final int MAX_MULTIPLIER_SCALE = 4;
+    // 파일 변경 확인 간격
+    private static final long RELOAD_CHECK_INTERVAL_NANOS = 1_000_000_000L;
+
+    // 기존 다섯 요금 전략과 같은 결과를 내는 기본 규칙 (파일이 없으면 이 내용으로 만듦)
+    private static final List<String> DEFAULT_RULES = Arrays.asList(
+            "# 요금 규칙 - 저장하면 실행 중에도 자동으로 다시 읽음 (잘못된 내용이면 이전 규칙 유지)",
+            "# plan,사용자 유형,표시 이름,기본 요금,분당 요금,무료 시간(분),무료 시간 기준(ride|day),월 정액,1회 상한(없으면 빈칸)",
+            "plan,regular,일반 사용자 요금제,2000,100,0,ride,0,",
+            "plan,student,학생 할인 요금제,1000,50,0,ride,0,",
+            "plan,premium,프리미엄 사용자 요금제,0,150,60,ride,20000,",
+            "plan,regular_monthly,\"일반 자전거 월정액 (15,000원/월)\",0,100,60,day,15000,",
+            "plan,electric_monthly,\"전기 자전거 월정액 (25,000원/월)\",0,150,45,day,25000,",
+            "# 등록되지 않은 사용자 유형에 적용할 요금제",
+            "default,regular",
+            "# time,사용자 유형(*는 전체),시작 시(포함),끝 시(미포함, 시작보다 작으면 자정을 넘김, 같으면 하루 전체),사용 요금 배율",
+            "#   예) time,*,7,9,1.2",
+            "# bike,사용자 유형(*는 전체),자전거 종류,1회 추가 요금",
+            "#   예) bike,regular,전기 자전거,500"
+    );
+
+    // 현재 규칙과 파일 상태
+    private static final Object RELOAD_LOCK = new Object();
+    private static volatile PricingRules current;
+    private static volatile long lastCheckNanos;
+    private static Path file = Paths.get(DEFAULT_FILE);
+    private static FileTime loadedModified;
+    private static long loadedSize = -1;
+
+    // 요금제 (번호 = 파일에 나온 순서)
+    final String[] userTypes;
+    final String[] names;
+    final long[] baseWon;
+    final long[] wonPerMinute;
+    final double[] freeMinutes;
+    final boolean[] dailyAllowance;
+    final long[] monthlyFee;
+    final BigDecimal[] cap;           // 1회 상한 (없으면 null)
+    private final Map<String, Integer> planIndex;
+    private final int defaultPlan;
+
+    // 자전거 종류 (0번은 규칙에 없는 종류)
+    private final Map<String, Integer> bicycleTypeIndex;
+    final int bicycleTypeCount;
+
+    // 평면 표: (요금제 * HOUR_SLOTS + 시작 시각 칸) * bicycleTypeCount + 자전거 종류
+    final long[] multiplierUnscaled;
+    final int[] multiplierScale;
+    final long[] surchargeWon;
+
+    private final PricingEngine[] engines;
+    private final List<PricingEngine> engineList;
+
+    private PricingRules(Compiler c) {
+        int plans = c.plans.size();
+        this.userTypes = new String[plans];
+        this.names = new String[plans];
+        this.baseWon = new long[plans];
+        this.wonPerMinute = new long[plans];
+        this.freeMinutes = new double[plans];
+        this.dailyAllowance = new boolean[plans];
+        this.monthlyFee = new long[plans];
+        this.cap = new BigDecimal[plans];
+        this.planIndex = new HashMap<>();
+        int p = 0;
+        for (PlanRow row : c.plans.values()) {
+            userTypes[p] = row.userType;
+            names[p] = row.name;
+            baseWon[p] = row.baseWon;
+            wonPerMinute[p] = row.wonPerMinute;
+            freeMinutes[p] = row.freeMinutes;
+            dailyAllowance[p] = row.dailyAllowance;
+            monthlyFee[p] = row.monthlyFee;
+            cap[p] = row.cap;
+            planIndex.put(row.userType, p);
+            p++;
+        }
+        this.defaultPlan = planIndex.get(c.defaultUserType);
+
+        this.bicycleTypeIndex = new HashMap<>();
+        for (String type : c.bicycleTypes) {
+            bicycleTypeIndex.put(type, bicycleTypeIndex.size() + 1);
+        }
+        this.bicycleTypeCount = bicycleTypeIndex.size() + 1;
+
+        // 전체(*) 규칙을 먼저, 요금제별 규칙을 나중에 적용 (같은 범위면 뒤에 나온 줄이 우선)
+        int cells = plans * HOUR_SLOTS * bicycleTypeCount;
+        this.multiplierUnscaled = new long[cells];
+        this.multiplierScale = new int[cells];
+        this.surchargeWon = new long[cells];
+        Arrays.fill(multiplierUnscaled, 1L);
+        for (int plan = 0; plan < plans; plan++) {
+            for (boolean specific : new boolean[] {false, true}) {
+                for (TimeRow row : c.timeRows) {
+                    if ((row.userType != null) == specific && (row.userType == null || row.userType.equals(userTypes[plan]))) {
+                        for (int hour = 0; hour < HOUR_SLOTS; hour++) {
+                            if (row.covers(hour)) {
+                                for (int bike = 0; bike < bicycleTypeCount; bike++) {
+                                    int cell = cell(plan, hour, bike);
+                                    multiplierUnscaled[cell] = row.multiplier.unscaledValue().longValueExact();
+                                    multiplierScale[cell] = row.multiplier.scale();
+                                }
+                            }
+                        }
+                    }
+                }
+                for (BikeRow row : c.bikeRows) {
+                    if ((row.userType != null) == specific && (row.userType == null || row.userType.equals(userTypes[plan]))) {
+                        int bike = bicycleTypeIndex.get(row.bicycleType);
+                        for (int hour = 0; hour < HOUR_SLOTS; hour++) {
+                            surchargeWon[cell(plan, hour, bike)] = row.surchargeWon;
+                        }
+                    }
+                }
+            }
+        }
+
+        this.engines = new PricingEngine[plans];
+        for (int plan = 0; plan < plans; plan++) {
+            engines[plan] = new PricingEngine(this, plan);
+        }
+        this.engineList = Collections.unmodifiableList(Arrays.asList(engines));
+    }
+
+    int cell(int plan, int hourSlot, int bicycleType) {
+        return (plan * HOUR_SLOTS + hourSlot) * bicycleTypeCount + bicycleType;
+    }
+
+    /**
+     * 자전거 종류 번호 (규칙에 없는 종류 / null은 0)
+     */
+    int bicycleTypeOf(String bicycleType) {
+        if (bicycleType == null) {
+            return 0;
+        }
+        Integer index = bicycleTypeIndex.get(bicycleType);
+        return index != null ? index : 0;
+    }
+
+    /**
+     * 사용자 유형별 요금 엔진 (등록되지 않은 유형은 default 요금제)
+     */
+    public PricingEngine engineFor(String userType) {
+        Integer plan = userType != null ? planIndex.get(userType) : null;
+        return engines[plan != null ? plan : defaultPlan];
+    }
+
+    public boolean hasPlan(String userType) {
+        return planIndex.containsKey(userType);
+    }
+
+    /**
+     * 모든 요금제 (파일에 나온 순서)
+     */
+    public List<PricingEngine> engines() {
+        return engineList;
+    }
+
+    // ===== 현재 규칙 / 다시 읽기 =====
+
+    /**
+     * 현재 규칙 (1초에 한 번까지 파일 변경을 확인해 바뀌었으면 교체)
+     */
+    public static PricingRules current() {
+        PricingRules rules = current;
+        long now = System.nanoTime();
+        if (rules == null || now - lastCheckNanos >= RELOAD_CHECK_INTERVAL_NANOS) {
+            lastCheckNanos = now;
+            rules = reloadIfChanged();
+        }
+        return rules;
+    }
+
+    /**
+     * 규칙 파일을 바꾸고 바로 읽음 (파일이 없으면 기본 규칙으로 만듦)
+     */
+    public static PricingRules useFile(Path rulesFile) {
+        synchronized (RELOAD_LOCK) {
+            file = rulesFile;
+            loadedModified = null;
+            loadedSize = -1;
+            return reloadIfChanged();
+        }
+    }
+
+    /**
+     * 파일이 바뀌었으면 다시 컴파일해 교체
+     * @return 현재 규칙 (읽기에 실패하면 이전 규칙, 처음이면 기본 규칙)
+     */
+    public static PricingRules reloadIfChanged() {
+        synchronized (RELOAD_LOCK) {
+            try {
+                if (!Files.exists(file)) {
+                    writeDefaultFile(file);
+                }
+                FileTime modified = Files.getLastModifiedTime(file);
+                long size = Files.size(file);
+                if (current != null && modified.equals(loadedModified) && size == loadedSize) {
+                    return current;
+                }
+                PricingRules rules = parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+                loadedModified = modified;
+                loadedSize = size;
+                if (current != null) {
+                    System.out.println("요금 규칙을 다시 읽었습니다: " + file + " (요금제 " + rules.engines.length + "개)");
+                }
+                current = rules;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("요금 규칙 읽기 중 오류 발생: " + e.getMessage());
+                if (current == null) {
+                    current = parse(DEFAULT_RULES);
+                }
+            }
+            return current;
+        }
+    }
+
+    private static void writeDefaultFile(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Path temp = Paths.get(target + ".tmp");
+        Files.write(temp, DEFAULT_RULES, StandardCharsets.UTF_8);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 기본 규칙 (파일과 관계없이, 기존 요금 전략과 비교할 때 사용)
+     */
+    public static PricingRules defaults() {
+        return parse(DEFAULT_RULES);
+    }
+
+    // ===== 파싱 / 컴파일 =====
+
+    private static class PlanRow {
+        String userType;
+        String name;
+        long baseWon;
+        long wonPerMinute;
+        double freeMinutes;
+        boolean dailyAllowance;
+        long monthlyFee;
+        BigDecimal cap;
+    }
+
+    private static class TimeRow {
+        String userType; // null이면 전체
+        int fromHour;
+        int toHour;
+        BigDecimal multiplier;
+
+        // 시작 시각 칸 포함 여부 (하루 전체를 덮는 규칙은 시작 시각을 모를 때도 적용)
+        boolean covers(int hourSlot) {
+            if (fromHour == toHour) {
+                return true;
+            }
+            if (hourSlot == UNKNOWN_HOUR) {
+                return false;
+            }
+            return fromHour < toHour ? hourSlot >= fromHour && hourSlot < toHour : hourSlot >= fromHour || hourSlot < toHour;
+        }
+    }
+
+    private static class BikeRow {
+        String userType; // null이면 전체
+        String bicycleType;
+        long surchargeWon;
+    }
+
+    private static class Compiler {
+        final Map<String, PlanRow> plans = new LinkedHashMap<>();
+        final List<TimeRow> timeRows = new ArrayList<>();
+        final List<BikeRow> bikeRows = new ArrayList<>();
+        final List<String> bicycleTypes = new ArrayList<>();
+        String defaultUserType;
+    }
+
+    /**
+     * 규칙 줄들을 컴파일 (빈 줄 / #으로 시작하는 줄은 무시)
+     * @throws IllegalArgumentException 형식이 맞지 않을 때 (몇 번째 줄인지 포함)
+     */
+    public static PricingRules parse(List<String> lines) {
+        Compiler c = new Compiler();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                parseLine(c, CSVTokenizer.forLine(line));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("요금 규칙 " + (i + 1) + "번째 줄: " + e.getMessage(), e);
+            }
+        }
+
+        if (c.plans.isEmpty()) {
+            throw new IllegalArgumentException("요금제(plan)가 하나도 없습니다.");
+        }
+        if (c.defaultUserType == null) {
+            c.defaultUserType = c.plans.keySet().iterator().next();
+        } else if (!c.plans.containsKey(c.defaultUserType)) {
+            throw new IllegalArgumentException("기본 요금제가 없습니다: " + c.defaultUserType);
+        }
+        for (TimeRow row : c.timeRows) {
+            requirePlan(c, row.userType);
+        }
+        for (BikeRow row : c.bikeRows) {
+            requirePlan(c, row.userType);
+        }
+        return new PricingRules(c);
+    }
+
+    private static void parseLine(Compiler c, CSVTokenizer t) {
+        String kind = t.nextString();
+        switch (kind) {
+            case "plan": {
+                PlanRow row = new PlanRow();
+                row.userType = required(t, "사용자 유형");
+                row.name = required(t, "표시 이름");
+                row.baseWon = won(t, "기본 요금");
+                row.wonPerMinute = won(t, "분당 요금");
+                row.freeMinutes = t.nextDouble();
+                if (!(row.freeMinutes >= 0)) {
+                    throw new IllegalArgumentException("무료 시간은 0 이상이어야 합니다.");
+                }
+                String scope = required(t, "무료 시간 기준");
+                if (!scope.equals("ride") && !scope.equals("day")) {
+                    throw new IllegalArgumentException("무료 시간 기준은 ride 또는 day입니다: " + scope);
+                }
+                row.dailyAllowance = scope.equals("day");
+                row.monthlyFee = won(t, "월 정액");
+                String cap = t.hasNext() ? t.nextString() : "";
+                row.cap = cap == null || cap.isEmpty() ? null : BigDecimal.valueOf(wonValue(cap, "1회 상한"));
+                if (c.plans.put(row.userType, row) != null) {
+                    throw new IllegalArgumentException("같은 요금제가 두 번 정의되었습니다: " + row.userType);
+                }
+                break;
+            }
+            case "time": {
+                TimeRow row = new TimeRow();
+                row.userType = userTypeOrAll(required(t, "사용자 유형"));
+                row.fromHour = hour(required(t, "시작 시"), 23);
+                row.toHour = hour(required(t, "끝 시"), 24) % 24;
+                row.multiplier = multiplier(required(t, "배율"));
+                c.timeRows.add(row);
+                break;
+            }
+            case "bike": {
+                BikeRow row = new BikeRow();
+                row.userType = userTypeOrAll(required(t, "사용자 유형"));
+                row.bicycleType = required(t, "자전거 종류");
+                row.surchargeWon = won(t, "추가 요금");
+                if (!c.bicycleTypes.contains(row.bicycleType)) {
+                    c.bicycleTypes.add(row.bicycleType);
+                }
+                c.bikeRows.add(row);
+                break;
+            }
+            case "default":
+                c.defaultUserType = required(t, "기본 요금제");
+                break;
+            default:
+                throw new IllegalArgumentException("알 수 없는 규칙 종류입니다: " + kind);
+        }
+    }
+
+    private static void requirePlan(Compiler c, String userType) {
+        if (userType != null && !c.plans.containsKey(userType)) {
+            throw new IllegalArgumentException("정의되지 않은 요금제입니다: " + userType);
+        }
+    }
+
+    private static String required(CSVTokenizer t, String field) {
+        String value = t.nextString();
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(field + " 값이 없습니다.");
+        }
+        return value.trim();
+    }
+
+    private static String userTypeOrAll(String userType) {
+        return userType.equals("*") ? null : userType;
+    }
+
+    private static long won(CSVTokenizer t, String field) {
+        return wonValue(required(t, field), field);
+    }
+
+    // 금액은 0 이상의 원 단위 정수 ("100.0"처럼 써도 100으로 읽음)
+    private static long wonValue(String value, String field) {
+        try {
+            long won = new BigDecimal(value.trim()).longValueExact();
+            if (won < 0) {
+                throw new IllegalArgumentException(field + "은(는) 0 이상이어야 합니다: " + value);
+            }
+            return won;
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException(field + "은(는) 원 단위 정수여야 합니다: " + value);
+        }
+    }
+
+    private static int hour(String value, int max) {
+        int hour = Integer.parseInt(value);
+        if (hour < 0 || hour > max) {
+            throw new IllegalArgumentException("시각은 0~" + max + " 사이여야 합니다: " + value);
+        }
+        return hour;
+    }
+
+    private static BigDecimal multiplier(String value) {
+        BigDecimal multiplier = new BigDecimal(value).stripTrailingZeros();
+        if (multiplier.scale() < 0) {
+            multiplier = multiplier.setScale(0);
+        }
+        if (multiplier.signum() <= 0 || multiplier.scale() > MAX_MULTIPLIER_SCALE
+                || multiplier.compareTo(BigDecimal.valueOf(100)) > 0) {
+            throw new IllegalArgumentException("배율은 0보다 크고 100 이하, 소수 " + MAX_MULTIPLIER_SCALE
+                    + "자리까지입니다: " + value);
+        }
+        return multiplier;
+    }
+
+    public static Path getFile() {
+        synchronized (RELOAD_LOCK) {
+            return file;
+        }
+    }
+}
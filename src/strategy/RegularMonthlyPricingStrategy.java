@@ -32,4 +32,12 @@ public class RegularMonthlyPricingStrategy implements PricingStrategy {
     public BigDecimal getMonthlyFee() {
         return monthlyFee;
     }
+    
+    public BigDecimal getOverageFee() {
+        return overageFee;
+    }
+    
+    public double getFreeTimePerDay() {
+        return freeTimePerDay;
+    }
 }
\ No newline at end of file
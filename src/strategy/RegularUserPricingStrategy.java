@@ -19,4 +19,12 @@ public class RegularUserPricingStrategy implements PricingStrategy {
     public String getStrategyName() {
         return "일반 사용자 요금제";
     }
+    
+    public BigDecimal getBasePrice() {
+        return basePrice;
+    }
+    
+    public BigDecimal getTimeRate() {
+        return timeRate;
+    }
 }
\ No newline at end of file
@@ -19,4 +19,12 @@ public class StudentPricingStrategy implements PricingStrategy {
     public String getStrategyName() {
         return "학생 할인 요금제";
     }
+    
+    public BigDecimal getBasePrice() {
+        return basePrice;
+    }
+    
+    public BigDecimal getTimeRate() {
+        return timeRate;
+    }
 }
\ No newline at end of file